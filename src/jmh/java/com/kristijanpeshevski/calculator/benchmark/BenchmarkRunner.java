@@ -0,0 +1,32 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the suites and writes JSON results (default target/jmh-result.json) so runs from different releases can
+ * be compared with any JMH result viewer. Regular JMH command line options, e.g. a benchmark regex, are passed
+ * through.
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_FILE_PROPERTY = "jmh.result";
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty(RESULT_FILE_PROPERTY, DEFAULT_RESULT_FILE))
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.engine.BigIntegerFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Big-integer functions with the cache cleared before every call, against a factorial multiplied one factor at
+ * a time. The running product grows by one small factor per step, so the naive loop never reaches the fast
+ * multiplication algorithms that binary splitting feeds with operands of equal size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BigIntegerBenchmark {
+
+    @Param({"10000", "100000"})
+    private int n;
+
+    private ForkJoinPool single;
+    private BigIntegerFunctions oneThread;
+    private BigIntegerFunctions allCores;
+
+    @Setup
+    public void setUp() {
+        single = new ForkJoinPool(1);
+        oneThread = new BigIntegerFunctions(single);
+        allCores = new BigIntegerFunctions(ForkJoinPool.commonPool());
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+    }
+
+    @Benchmark
+    public BigInteger naiveFactorial() {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BigInteger factorialOneThread() {
+        oneThread.clear();
+        return oneThread.factorial(n);
+    }
+
+    @Benchmark
+    public BigInteger factorialAllCores() {
+        allCores.clear();
+        return allCores.factorial(n);
+    }
+
+    @Benchmark
+    public BigInteger binomialAllCores() {
+        allCores.clear();
+        return allCores.binomial(2 * n, n);
+    }
+
+    @Benchmark
+    public BigInteger fibonacci() {
+        allCores.clear();
+        return allCores.fibonacci(10 * n);
+    }
+}
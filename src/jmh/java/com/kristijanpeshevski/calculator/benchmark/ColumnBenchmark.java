@@ -0,0 +1,120 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.column.ColumnEvaluator;
+import com.kristijanpeshevski.calculator.column.ColumnKernel;
+import com.kristijanpeshevski.calculator.column.ColumnKernels;
+import com.kristijanpeshevski.calculator.column.ColumnReport;
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Scores are bytes per second (two operands read, one result written per element), so divide by 1e9 for GB/s.
+ * The vector kernel needs -jvmArgsAppend --add-modules=jdk.incubator.vector and the src/vector classes on the
+ * class path; without them its runs fail in setup rather than silently measuring the scalar kernel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnBenchmark {
+
+    private static final int LENGTH = 1 << 20;
+    private static final int BYTES = 3 * Double.BYTES * LENGTH;
+
+    @Param({"+", "*", "/", "^"})
+    private String operator;
+
+    @Param({"scalar", "vector"})
+    private String kernelName;
+
+    private char operatorCode;
+    private ColumnKernel kernel;
+    private final double[] firstNumbers = new double[LENGTH];
+    private final double[] secondNumbers = new double[LENGTH];
+    private final double[] results = new double[LENGTH];
+    private Path directory;
+    private Path firstFile;
+    private Path secondFile;
+    private Path outputFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        operatorCode = operator.charAt(0);
+        kernel = "vector".equals(kernelName) ? ColumnKernels.vector() : ColumnKernels.scalar();
+        if (kernel == null)
+            throw new IllegalStateException("The Vector API is not available, start with --add-modules=jdk.incubator.vector");
+
+        Random random = new Random(42);
+        for (int i = 0; i < LENGTH; i++) {
+            firstNumbers[i] = random.nextDouble() * 1000;
+            secondNumbers[i] = 1 + random.nextDouble() * 10;
+        }
+
+        directory = Files.createTempDirectory("column-benchmark");
+        firstFile = write(directory.resolve("first.bin"), firstNumbers);
+        secondFile = write(directory.resolve("second.bin"), secondNumbers);
+        outputFile = directory.resolve("result.bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(firstFile);
+        Files.deleteIfExists(secondFile);
+        Files.deleteIfExists(outputFile);
+        Files.deleteIfExists(directory);
+    }
+
+    // The baseline: one calculate call, and one operator switch, per element.
+    @Benchmark
+    @OperationsPerInvocation(BYTES)
+    public double[] naiveLoop() {
+        for (int i = 0; i < LENGTH; i++) {
+            results[i] = CalculatorEngine.calculate(firstNumbers[i], secondNumbers[i], operatorCode);
+        }
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BYTES)
+    public double[] kernel() {
+        kernel.calculate(firstNumbers, secondNumbers, operatorCode, results, LENGTH);
+        return results;
+    }
+
+    // Memory-mapped raw files in, raw file out.
+    @Benchmark
+    @OperationsPerInvocation(BYTES)
+    public ColumnReport mappedFiles() throws IOException {
+        return new ColumnEvaluator(kernel, 1, ColumnEvaluator.DEFAULT_BLOCK_SIZE)
+                .evaluate(firstFile, operatorCode, secondFile, outputFile);
+    }
+
+    private static Path write(Path path, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        return Files.write(path, buffer.array());
+    }
+}
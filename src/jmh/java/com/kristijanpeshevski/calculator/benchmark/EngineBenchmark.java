@@ -0,0 +1,63 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    @Param({"+", "-", "*", "/", "%", "^"})
+    private String operator;
+
+    private char operatorCode;
+    private double firstNumber;
+    private double secondNumber;
+    private final double[] firstNumbers = new double[BATCH_SIZE];
+    private final double[] secondNumbers = new double[BATCH_SIZE];
+    private final double[] results = new double[BATCH_SIZE];
+
+    @Setup
+    public void setUp() {
+        operatorCode = operator.charAt(0);
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            firstNumbers[i] = random.nextDouble() * 1000;
+            secondNumbers[i] = 1 + random.nextDouble() * 10;
+        }
+        firstNumber = firstNumbers[0];
+        secondNumber = secondNumbers[0];
+    }
+
+    @Benchmark
+    public double calculate() {
+        return CalculatorEngine.calculate(firstNumber, secondNumber, operatorCode);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] calculateBatch() {
+        CalculatorEngine.calculate(firstNumbers, secondNumbers, operatorCode, results);
+        return results;
+    }
+}
@@ -0,0 +1,50 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark {
+
+    @Param({"445", "0.30000000000000004", "9999800001", "1.5E20"})
+    private double value;
+
+    private final DoubleFormatter formatter = new DoubleFormatter();
+    private char[] buffer;
+
+    @Setup
+    public void setUp() {
+        buffer = new char[formatter.maxLength()];
+    }
+
+    // The display path used before DoubleFormatter: String.valueOf, a regex and an int cast.
+    @Benchmark
+    public String valueOfAndRegex() {
+        if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(value)))
+            return String.valueOf((int) value);
+        return String.valueOf(value);
+    }
+
+    @Benchmark
+    public int doubleFormatter() {
+        return formatter.format(value, buffer, 0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.replay.KeystrokeLogWriter;
+import com.kristijanpeshevski.calculator.replay.KeystrokeReplayer;
+import com.kristijanpeshevski.calculator.replay.ReplayResult;
+import com.kristijanpeshevski.calculator.ui.InputScreenUpdater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JTextField;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Drives the same path as CalculatorUI's button listeners (CalculatorState.press followed by an input screen
+ * refresh) without a window. A JTextField needs no native peer, so this runs with -Djava.awt.headless=true.
+ * replayLog decodes and replays a recorded session of LOG_KEYSTROKES keys, as --replay does for each log.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class KeystrokeBenchmark {
+
+    private static final Key[] DIGIT_ENTRY = {
+            Key.DIGIT_1, Key.DIGIT_2, Key.DIGIT_3, Key.DIGIT_4, Key.POINT, Key.DIGIT_5, Key.DIGIT_6, Key.CLEAR};
+    private static final Key[] OPERATOR_SEQUENCE = {
+            Key.DIGIT_4, Key.DIGIT_2, Key.ADD, Key.DIGIT_7, Key.MULTIPLY, Key.DIGIT_3, Key.DIVIDE, Key.DIGIT_9, Key.EQUAL};
+
+    private static final int LOG_KEYSTROKES = 10_000;
+    private static final Key[] OPERATORS = {Key.ADD, Key.SUBTRACT, Key.MULTIPLY, Key.DIVIDE, Key.EQUAL};
+
+    private CalculatorState modelOnly;
+    private CalculatorState state;
+    private InputScreenUpdater updater;
+    private byte[] log;
+
+    @Setup
+    public void setUp() {
+        modelOnly = new CalculatorState();
+        state = new CalculatorState();
+        updater = new InputScreenUpdater(new JTextField(), state.getDisplay());
+
+        // Numbers of one to six digits, some with a fraction, between operators; a checkpoint after each '='.
+        Random random = new Random(42);
+        KeystrokeLogWriter writer = new KeystrokeLogWriter();
+        CalculatorState recorded = new CalculatorState();
+        for (int keystrokes = 0; keystrokes < LOG_KEYSTROKES; ) {
+            int digits = 1 + random.nextInt(6);
+            for (int i = 0; i < digits; i++, keystrokes++) {
+                Key key = i > 0 && random.nextInt(8) == 0 ? Key.POINT : Key.digit(random.nextInt(10));
+                recorded.press(key);
+                writer.key(key);
+            }
+            Key operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            recorded.press(operator);
+            writer.key(operator);
+            keystrokes++;
+            if (operator == Key.EQUAL)
+                writer.checkpoint(recorded.getDisplay());
+        }
+        log = writer.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public CalculatorState digitEntryModel() {
+        for (Key key : DIGIT_ENTRY)
+            modelOnly.press(key);
+        return modelOnly;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(9)
+    public CalculatorState operatorSequenceModel() {
+        for (Key key : OPERATOR_SEQUENCE)
+            modelOnly.press(key);
+        return modelOnly;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public CalculatorState digitEntryWithInputScreen() {
+        for (Key key : DIGIT_ENTRY) {
+            state.press(key);
+            updater.refresh();
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(9)
+    public CalculatorState operatorSequenceWithInputScreen() {
+        for (Key key : OPERATOR_SEQUENCE) {
+            state.press(key);
+            updater.refresh();
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOG_KEYSTROKES)
+    public ReplayResult replayLog() {
+        ReplayResult result = KeystrokeReplayer.replay("benchmark", log);
+        if (!result.isMatch())
+            throw new IllegalStateException(result.getProblem());
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.matrix.LuDecomposition;
+import com.kristijanpeshevski.calculator.matrix.Matrix;
+import com.kristijanpeshevski.calculator.matrix.MatrixOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Blocked fork-join products and LU against the textbook triple loop, on one thread and on every core. The
+ * single-threaded runs show what blocking alone buys; the naive loop reads the right operand down a column,
+ * one cache miss per multiply-add once a column no longer fits in cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatrixBenchmark {
+
+    @Param({"256", "1000"})
+    private int size;
+
+    private ForkJoinPool single;
+    private ForkJoinPool all;
+    private Matrix a;
+    private Matrix b;
+    private double[] left;
+    private double[] right;
+
+    @Setup
+    public void setUp() {
+        single = new ForkJoinPool(1);
+        all = new ForkJoinPool();
+        Random random = new Random(5);
+        a = new Matrix(size, size);
+        b = new Matrix(size, size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                a.set(i, j, random.nextDouble());
+                b.set(i, j, random.nextDouble());
+            }
+        }
+        left = a.toArray();
+        right = b.toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+        all.shutdown();
+    }
+
+    @Benchmark
+    public double[] naiveMultiply() {
+        int n = size;
+        double[] product = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += left[i * n + k] * right[k * n + j];
+                }
+                product[i * n + j] = sum;
+            }
+        }
+        return product;
+    }
+
+    @Benchmark
+    public Matrix blockedMultiplyOneThread() {
+        return new MatrixOperations(single).multiply(a, b);
+    }
+
+    @Benchmark
+    public Matrix blockedMultiplyAllCores() {
+        return new MatrixOperations(all).multiply(a, b);
+    }
+
+    @Benchmark
+    public double[] naiveDecompose() {
+        // Doolittle elimination with partial pivoting, one row at a time.
+        int n = size;
+        double[] lu = left.clone();
+        for (int j = 0; j < n; j++) {
+            int pivot = j;
+            for (int i = j + 1; i < n; i++) {
+                if (Math.abs(lu[i * n + j]) > Math.abs(lu[pivot * n + j]))
+                    pivot = i;
+            }
+            for (int c = 0; c < n; c++) {
+                double value = lu[j * n + c];
+                lu[j * n + c] = lu[pivot * n + c];
+                lu[pivot * n + c] = value;
+            }
+            for (int i = j + 1; i < n; i++) {
+                double factor = lu[i * n + j] /= lu[j * n + j];
+                for (int c = j + 1; c < n; c++) {
+                    lu[i * n + c] -= factor * lu[j * n + c];
+                }
+            }
+        }
+        return lu;
+    }
+
+    @Benchmark
+    public LuDecomposition blockedDecomposeOneThread() {
+        return new MatrixOperations(single).decompose(a);
+    }
+
+    @Benchmark
+    public LuDecomposition blockedDecomposeAllCores() {
+        return new MatrixOperations(all).decompose(a);
+    }
+
+    @Benchmark
+    public Matrix inverseAllCores() {
+        return new MatrixOperations(all).inverse(a);
+    }
+}
@@ -0,0 +1,74 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.plot.AdaptiveSampler;
+import com.kristijanpeshevski.calculator.plot.PlotFunction;
+import com.kristijanpeshevski.calculator.plot.PlotTiles;
+import com.kristijanpeshevski.calculator.plot.Samples;
+import com.kristijanpeshevski.calculator.plot.TileKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Sampling one 520 pixel wide view, and rendering the 3x3 tiles of a view from scratch as after a jump or a
+ * new function. A pan or zoom within a level costs neither, it reuses the cached tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlotBenchmark {
+
+    private static final double SCALE = 32;
+
+    @Param({"x^3 / 10 - x", "1 / x + x % 1"})
+    private String source;
+
+    private final ForkJoinPool pool = new ForkJoinPool();
+    private AdaptiveSampler sampler;
+    private PlotFunction function;
+
+    @Setup
+    public void setUp() {
+        sampler = new AdaptiveSampler(pool);
+        function = PlotFunction.parse(source);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Samples sampleView() {
+        return sampler.sample(function, -260 / SCALE, 260 / SCALE, SCALE);
+    }
+
+    @Benchmark
+    public int renderView() {
+        PlotTiles tiles = new PlotTiles(function, Color.BLUE, pool, Runnable::run, () -> { });
+        tiles.beginFrame();
+        for (int column = -2; column <= 0; column++) {
+            for (int row = -2; row <= 0; row++) {
+                tiles.tile(new TileKey(5, column, row));
+            }
+        }
+        pool.awaitQuiescence(1, TimeUnit.MINUTES);
+        return tiles.size();
+    }
+}
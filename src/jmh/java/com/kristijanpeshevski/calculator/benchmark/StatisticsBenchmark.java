@@ -0,0 +1,72 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.stats.QuantileSketch;
+import com.kristijanpeshevski.calculator.stats.RunningStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost per value of the full one-pass statistics and of the quantile sketch alone, and of merging two
+ * partial results as the file reader does once per worker.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    private static final int VALUES = 1 << 16;
+
+    private final double[] values = new double[VALUES];
+    private RunningStatistics partial;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = random.nextGaussian() * 15 + 100;
+        }
+        partial = new RunningStatistics();
+        partial.addAll(values, 0, VALUES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public RunningStatistics addValues() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.addAll(values, 0, VALUES);
+        return statistics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public QuantileSketch sketchValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    @Benchmark
+    public RunningStatistics merge() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.merge(partial);
+        statistics.merge(partial);
+        return statistics;
+    }
+}
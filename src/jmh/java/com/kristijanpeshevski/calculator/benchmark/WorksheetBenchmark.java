@@ -0,0 +1,70 @@
+package com.kristijanpeshevski.calculator.benchmark;
+
+import com.kristijanpeshevski.calculator.worksheet.Cell;
+import com.kristijanpeshevski.calculator.worksheet.Worksheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A sheet of independent chains hanging off "input" plus one long chain. Editing a chain head recomputes only
+ * that chain; editing "input" recomputes every cell level by level, which is what recomputeAll costs too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorksheetBenchmark {
+
+    private static final int CHAIN_LENGTH = 10;
+
+    @Param({"10000"})
+    private int cells;
+
+    private Worksheet worksheet;
+    private int edit;
+
+    @Setup
+    public void setUp() {
+        worksheet = new Worksheet();
+        Map<String, String> formulas = new LinkedHashMap<>();
+        formulas.put("input", "1");
+        for (int chain = 0; chain < cells / CHAIN_LENGTH; chain++) {
+            formulas.put("c" + chain + "_0", "input + " + chain);
+            for (int i = 1; i < CHAIN_LENGTH; i++) {
+                formulas.put("c" + chain + "_" + i, "c" + chain + "_" + (i - 1) + " * 1.01 + 1");
+            }
+        }
+        worksheet.setAll(formulas);
+    }
+
+    @Benchmark
+    public List<Cell> editChainHead() {
+        return worksheet.set("c0_0", "input + " + (edit++ & 1023));
+    }
+
+    @Benchmark
+    public List<Cell> editInput() {
+        return worksheet.set("input", Integer.toString(edit++ & 1023));
+    }
+
+    @Benchmark
+    public List<Cell> recomputeAll() {
+        return worksheet.recomputeAll();
+    }
+}
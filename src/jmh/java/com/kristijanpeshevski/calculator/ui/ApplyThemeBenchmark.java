@@ -0,0 +1,65 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.theme.Palette;
+import com.kristijanpeshevski.calculator.theme.ThemeLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JComboBox;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+/*
+ * What CalculatorUI.applyTheme does on a theme switch: the registered components of the main window, then the
+ * keypad. The components are never shown, so this runs headless; lives in the ui package for the keypad.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplyThemeBenchmark {
+
+    private final ColorRoleRegistry colorRoles = new ColorRoleRegistry();
+    private Keypad keypad;
+    private Palette light;
+    private Palette dark;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        Map<String, Palette> palettes = ThemeLoader.loadPalettes();
+        light = palettes.get("Light");
+        dark = palettes.get("Dark");
+
+        colorRoles.register(new JPanel(null), null, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(new JTextField(), ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(new JComboBox<>(new String[]{"Standard", "Scientific", "Matrix"}), ColorRole.TEXT,
+                ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(new JComboBox<>(palettes.keySet().toArray(new String[0])), ColorRole.TEXT,
+                ColorRole.APPLICATION_BACKGROUND);
+        keypad = new Keypad();
+        keypad.setScientific(true);
+    }
+
+    @Benchmark
+    public Keypad applyTheme() {
+        toggle = !toggle;
+        Palette palette = toggle ? light : dark;
+        colorRoles.apply(palette);
+        keypad.setPalette(palette);
+        return keypad;
+    }
+}
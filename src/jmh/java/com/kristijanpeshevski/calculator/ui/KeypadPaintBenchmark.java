@@ -0,0 +1,86 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.theme.Palette;
+import com.kristijanpeshevski.calculator.theme.ThemeLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Cursor;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+
+/*
+ * One full repaint of the scientific keypad against the 22 JButtons it replaced, laid out the same way. Both
+ * paint into an offscreen image, so this runs headless; on screen the keypad also skips re-rendering the key
+ * faces by blitting its VolatileImage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeypadPaintBenchmark {
+
+    private Keypad keypad;
+    private JPanel buttons;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        Palette palette = ThemeLoader.loadPalettes().values().iterator().next();
+        keypad = new Keypad();
+        keypad.setScientific(true);
+        keypad.setPalette(palette);
+
+        buttons = new JPanel(null);
+        buttons.setSize(keypad.getSize());
+        for (Key key : Key.values()) {
+            JButton button = new JButton(key.getLabel());
+            button.setBounds(Keypad.boundsOf(key));
+            button.setFont(new Font(CalculatorUI.FONT_NAME, Font.PLAIN, 28));
+            button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            button.setForeground(palette.get(Keypad.foregroundRole(key)));
+            button.setBackground(palette.get(Keypad.backgroundRole(key)));
+            buttons.add(button);
+        }
+        buttons.doLayout();
+
+        Rectangle size = keypad.getBounds();
+        image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage keypad() {
+        keypad.paint(graphics);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage buttons() {
+        buttons.paint(graphics);
+        return image;
+    }
+}
@@ -1,10 +1,38 @@
 package com.kristijanpeshevski.calculator;
 
-import com.kristijanpeshevski.calculator.ui.CalculatorUI;
+import com.kristijanpeshevski.calculator.batch.BatchCommand;
+import com.kristijanpeshevski.calculator.column.ColumnCommand;
+import com.kristijanpeshevski.calculator.replay.ReplayCommand;
+import com.kristijanpeshevski.calculator.server.ServerCommand;
+import com.kristijanpeshevski.calculator.startup.StartupReport;
+import com.kristijanpeshevski.calculator.stats.StatisticsCommand;
+import com.kristijanpeshevski.calculator.ui.AppContext;
+
+import javax.swing.SwingUtilities;
 
 public class App {
 
     public static void main(String[] args) {
-        new CalculatorUI();
+        if (BatchCommand.isBatch(args)) {
+            System.exit(BatchCommand.run(args));
+        }
+        if (ColumnCommand.isColumn(args)) {
+            System.exit(ColumnCommand.run(args));
+        }
+        if (StatisticsCommand.isStats(args)) {
+            System.exit(StatisticsCommand.run(args));
+        }
+        if (ServerCommand.isServer(args)) {
+            System.exit(ServerCommand.run(args));
+        }
+        if (ReplayCommand.isReplay(args)) {
+            System.exit(ReplayCommand.run(args));
+        }
+
+        StartupReport startup = StartupReport.get();
+        SwingUtilities.invokeLater(() -> {
+            startup.phase("event dispatch thread");
+            new AppContext().openSession();
+        });
     }
 }
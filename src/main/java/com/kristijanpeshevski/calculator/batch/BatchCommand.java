@@ -0,0 +1,81 @@
+package com.kristijanpeshevski.calculator.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+ * Command line front end of BatchEvaluator:
+ *
+ *   --batch [input]  evaluate the expressions in input, or stdin when it is "-" or omitted
+ *   --out output     write the results to output instead of stdout
+ *   --threads n      number of worker threads, all cores by default
+ *   --chunk bytes    size of the chunks handed to the workers
+ *
+ * The report goes to stderr so it never mixes with results written to stdout.
+ */
+public class BatchCommand {
+
+    public static final String BATCH_OPTION = "--batch";
+
+    private BatchCommand() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static boolean isBatch(String[] args) {
+        for (String arg : args) {
+            if (BATCH_OPTION.equals(arg))
+                return true;
+        }
+        return false;
+    }
+
+    // Returns the process exit code: 0 on success, 1 if any line failed, 2 for usage or I/O errors.
+    public static int run(String[] args) {
+        Path input = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = ChunkReader.DEFAULT_CHUNK_SIZE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case BATCH_OPTION:
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                            i++;
+                            input = "-".equals(args[i]) ? null : Paths.get(args[i]);
+                        }
+                        break;
+                    case "--out":
+                        output = "-".equals(value(args, ++i)) ? null : Paths.get(value(args, i));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--chunk":
+                        chunkSize = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            BatchReport report = new BatchEvaluator(threads, chunkSize).evaluate(input, output);
+            System.err.println(report.summary());
+            return report.getErrors() == 0 ? 0 : 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --batch [input|-] [--out output|-] [--threads n] [--chunk bytes]");
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Batch evaluation failed: " + e);
+            return 2;
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+}
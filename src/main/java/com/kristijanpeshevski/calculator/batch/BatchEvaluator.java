@@ -0,0 +1,219 @@
+package com.kristijanpeshevski.calculator.batch;
+
+import com.kristijanpeshevski.calculator.engine.expression.ExactEvaluator;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionCache;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionException;
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Evaluates one expression per line with the keypad's exact arithmetic and writes one result per line, with the
+ * digits the display holds (see ExactEvaluator). The reading thread cuts the input into newline aligned
+ * chunks and hands them to a pool of workers; results are written back in input order, with at most a few
+ * chunks per worker in flight so memory stays bounded whatever the input size. Lines that fail to parse
+ * produce an "Error: ..." line, so output line n always belongs to input line n.
+ */
+public class BatchEvaluator {
+
+    public static final String ERROR_PREFIX = "Error: ";
+
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 4;
+
+    private final int threads;
+    private final int chunkSize;
+
+    public BatchEvaluator() {
+        this(Runtime.getRuntime().availableProcessors(), ChunkReader.DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchEvaluator(int threads, int chunkSize) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads must be positive");
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be positive");
+
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    // A null input reads stdin and a null output writes stdout, which is left open for the rest of the process.
+    public BatchReport evaluate(Path input, Path output) throws IOException {
+        try (FileChannel in = input == null ? new FileInputStream(FileDescriptor.in).getChannel()
+                : FileChannel.open(input, StandardOpenOption.READ)) {
+            ChunkReader reader = input == null ? ChunkReader.streamed(in, chunkSize) : ChunkReader.mapped(in, chunkSize);
+            if (output == null)
+                return evaluate(reader, new FileOutputStream(FileDescriptor.out).getChannel());
+
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                return evaluate(reader, out);
+            }
+        }
+    }
+
+    public BatchReport evaluate(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        return evaluate(ChunkReader.streamed(input, chunkSize), output);
+    }
+
+    private BatchReport evaluate(ChunkReader reader, WritableByteChannel output) throws IOException {
+        long started = System.nanoTime();
+        List<Worker> workers = new ArrayList<>();
+        ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+            Worker created = new Worker();
+            synchronized (workers) {
+                workers.add(created);
+            }
+            return created;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, VirtualThreads.daemonThreads("batch-worker"));
+        ArrayDeque<Future<ByteBuffer>> inFlight = new ArrayDeque<>();
+        long bytesRead = 0;
+        try {
+            ByteBuffer chunk;
+            while ((chunk = reader.next()) != null) {
+                bytesRead += chunk.remaining();
+                if (inFlight.size() >= threads * CHUNKS_IN_FLIGHT_PER_THREAD)
+                    write(output, await(inFlight.poll()));
+
+                ByteBuffer input = chunk;
+                inFlight.add(pool.submit(() -> worker.get().evaluate(input)));
+            }
+            while (!inFlight.isEmpty()) {
+                write(output, await(inFlight.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every task has completed, so the workers' counters are visible and no longer change.
+        long lines = 0;
+        long errors = 0;
+        LatencyHistogram latency = new LatencyHistogram();
+        for (Worker each : workers) {
+            lines += each.lines;
+            errors += each.errors;
+            latency.add(each.latency);
+        }
+        return new BatchReport(lines, errors, bytesRead, System.nanoTime() - started, threads, latency);
+    }
+
+    private static ByteBuffer await(Future<ByteBuffer> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch evaluation interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static void write(WritableByteChannel output, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+    }
+
+    private static final class Worker {
+
+        private final ExactEvaluator evaluator = new ExactEvaluator(new ExpressionCache());
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private byte[] line = new byte[256];
+        private byte[] output;
+        private int outputLength;
+        private long lines;
+        private long errors;
+
+        ByteBuffer evaluate(ByteBuffer chunk) {
+            output = new byte[chunk.remaining() + 64];
+            outputLength = 0;
+
+            int position = chunk.position();
+            int limit = chunk.limit();
+            while (position < limit) {
+                int length = 0;
+                byte b;
+                while (position < limit && (b = chunk.get(position++)) != '\n') {
+                    if (length == line.length)
+                        line = Arrays.copyOf(line, length * 2);
+                    line[length++] = b;
+                }
+                if (length > 0 && line[length - 1] == '\r')
+                    length--;
+
+                evaluateLine(length);
+                append((byte) '\n');
+            }
+            return ByteBuffer.wrap(output, 0, outputLength);
+        }
+
+        private void evaluateLine(int length) {
+            lines++;
+            if (isBlank(length))
+                return;
+
+            long started = System.nanoTime();
+            String source = new String(line, 0, length, StandardCharsets.UTF_8);
+            try {
+                int formattedLength = evaluator.evaluate(source);
+                char[] formatted = evaluator.getFormatted();
+                ensureCapacity(formattedLength);
+                for (int i = 0; i < formattedLength; i++) {
+                    output[outputLength++] = (byte) formatted[i];
+                }
+            } catch (ExpressionException | IllegalStateException e) {
+                errors++;
+                byte[] message = (ERROR_PREFIX + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(message.length);
+                System.arraycopy(message, 0, output, outputLength, message.length);
+                outputLength += message.length;
+            }
+            latency.record(System.nanoTime() - started);
+        }
+
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++) {
+                if (line[i] != ' ' && line[i] != '\t')
+                    return false;
+            }
+            return true;
+        }
+
+        private void append(byte b) {
+            ensureCapacity(1);
+            output[outputLength++] = b;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (outputLength + additional > output.length)
+                output = Arrays.copyOf(output, Math.max(outputLength + additional, output.length * 2));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.kristijanpeshevski.calculator.batch;
+
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+
+public final class BatchReport {
+
+    private final long lines;
+    private final long errors;
+    private final long bytesRead;
+    private final long elapsedNanos;
+    private final int threads;
+    private final LatencyHistogram latency;
+
+    BatchReport(long lines, long errors, long bytesRead, long elapsedNanos, int threads, LatencyHistogram latency) {
+        this.lines = lines;
+        this.errors = errors;
+        this.bytesRead = bytesRead;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+        this.latency = latency;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Per line time spent compiling, evaluating and formatting, excluding I/O.
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public double getLinesPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    public String summary() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("Evaluated %s (%s, %.1f MB) in %.2f s on %s: %.0f lines/s, %.1f MB/s%n"
+                        + "Latency per line: mean %d ns, p50 %d ns, p90 %d ns, p99 %d ns, p99.9 %d ns, max %d ns",
+                count(lines, "line"), count(errors, "error"), bytesRead / 1e6, seconds, count(threads, "thread"),
+                getLinesPerSecond(), seconds == 0 ? 0 : bytesRead / 1e6 / seconds, Math.round(latency.getMean()),
+                latency.percentile(50), latency.percentile(90), latency.percentile(99), latency.percentile(99.9),
+                latency.getMax());
+    }
+
+    // "1 thread", "4 threads".
+    private static String count(long count, String noun) {
+        return count + " " + (count == 1 ? noun : noun + "s");
+    }
+}
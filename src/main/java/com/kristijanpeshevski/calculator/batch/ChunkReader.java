@@ -0,0 +1,155 @@
+package com.kristijanpeshevski.calculator.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/*
+ * Splits an input into chunks of roughly chunkSize bytes that always end right after a '\n' (or at the end of
+ * the input), so chunks can be evaluated independently. Files are memory mapped a window at a time and the
+ * chunks are slices of the mapping; other channels are read into fresh heap buffers.
+ */
+public abstract class ChunkReader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    final int chunkSize;
+
+    private ChunkReader(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public static ChunkReader mapped(FileChannel channel, int chunkSize) throws IOException {
+        return new Mapped(channel, chunkSize);
+    }
+
+    public static ChunkReader streamed(ReadableByteChannel channel, int chunkSize) {
+        return new Streamed(channel, chunkSize);
+    }
+
+    // Returns null once the input is exhausted.
+    public abstract ByteBuffer next() throws IOException;
+
+    // Index just after the last '\n' in [from, to), or -1 if there is none.
+    static int lastLineEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer.get(i) == '\n')
+                return i + 1;
+        }
+        return -1;
+    }
+
+    // Index just after the first '\n' in [from, to), or -1 if there is none.
+    static int firstLineEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n')
+                return i + 1;
+        }
+        return -1;
+    }
+
+    private static final class Mapped extends ChunkReader {
+
+        private static final int WINDOW_SIZE = 64 << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private final int windowSize;
+        private long windowPosition;
+        private MappedByteBuffer window;
+        private int offset;
+
+        private Mapped(FileChannel channel, int chunkSize) throws IOException {
+            super(chunkSize);
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = Math.max(WINDOW_SIZE, 4 * chunkSize);
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            while (true) {
+                if (window == null || offset == window.limit()) {
+                    if (!mapWindow())
+                        return null;
+                }
+
+                boolean lastWindow = windowPosition + window.limit() == size;
+                int limit = window.limit();
+                int end = Math.min(offset + chunkSize, limit);
+                if (end < limit || !lastWindow) {
+                    int lineEnd = lastLineEnd(window, offset, end);
+                    if (lineEnd < 0)
+                        lineEnd = firstLineEnd(window, end, limit);
+                    if (lineEnd < 0 && !lastWindow) {
+                        // The line continues past this window: remap starting at it.
+                        if (offset == 0)
+                            throw new IOException("Line at byte " + windowPosition + " is longer than " + windowSize + " bytes");
+                        windowPosition += offset;
+                        window = null;
+                        continue;
+                    }
+                    end = lineEnd < 0 ? limit : lineEnd;
+                }
+
+                ByteBuffer chunk = window.duplicate().position(offset).limit(end).slice();
+                offset = end;
+                return chunk;
+            }
+        }
+
+        private boolean mapWindow() throws IOException {
+            if (window != null)
+                windowPosition += window.limit();
+            if (windowPosition >= size)
+                return false;
+
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowPosition, Math.min(windowSize, size - windowPosition));
+            offset = 0;
+            return true;
+        }
+    }
+
+    private static final class Streamed extends ChunkReader {
+
+        private final ReadableByteChannel channel;
+        private ByteBuffer pending;
+        private boolean eof;
+
+        private Streamed(ReadableByteChannel channel, int chunkSize) {
+            super(chunkSize);
+            this.channel = channel;
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(chunkSize, pending == null ? 0 : pending.remaining() * 2));
+            if (pending != null) {
+                buffer.put(pending);
+                pending = null;
+            }
+
+            while (true) {
+                while (!eof && buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0)
+                        eof = true;
+                }
+                if (eof) {
+                    buffer.flip();
+                    return buffer.hasRemaining() ? buffer : null;
+                }
+
+                int lineEnd = lastLineEnd(buffer, 0, buffer.position());
+                if (lineEnd >= 0) {
+                    pending = buffer.duplicate().limit(buffer.position()).position(lineEnd).slice();
+                    return buffer.flip().limit(lineEnd);
+                }
+
+                // A single line fills the whole buffer: grow it and keep reading.
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.kristijanpeshevski.calculator.column;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+ * Command line front end of ColumnEvaluator:
+ *
+ *   --column first op second  apply op (+ - * / % ^) to each value of first and the matching value of second,
+ *                             or to second itself when it is a number rather than a file
+ *   --out output              write the results to output instead of stdout
+ *   --csv-column n            1-based column read from CSV inputs, 1 by default
+ *   --scalar                  use plain loops even when the Vector API is available
+ *
+ * Files ending in .csv or .txt are text with one row per line; anything else holds raw little-endian doubles.
+ * The report goes to stderr so it never mixes with results written to stdout.
+ */
+public class ColumnCommand {
+
+    public static final String COLUMN_OPTION = "--column";
+
+    private ColumnCommand() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static boolean isColumn(String[] args) {
+        for (String arg : args) {
+            if (COLUMN_OPTION.equals(arg))
+                return true;
+        }
+        return false;
+    }
+
+    // Returns the process exit code: 0 on success, 2 for usage or I/O errors.
+    public static int run(String[] args) {
+        Path first = null;
+        String operator = null;
+        String second = null;
+        Path output = null;
+        int csvColumn = 1;
+        ColumnKernel kernel = ColumnKernels.best();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case COLUMN_OPTION:
+                        first = Paths.get(value(args, ++i));
+                        operator = value(args, ++i);
+                        second = value(args, ++i);
+                        break;
+                    case "--out":
+                        output = "-".equals(value(args, ++i)) ? null : Paths.get(value(args, i));
+                        break;
+                    case "--csv-column":
+                        csvColumn = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--scalar":
+                        kernel = ColumnKernels.scalar();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (operator.length() != 1)
+                throw new IllegalArgumentException("'" + operator + "' is not a binary operator");
+
+            ColumnEvaluator evaluator = new ColumnEvaluator(kernel, csvColumn, ColumnEvaluator.DEFAULT_BLOCK_SIZE);
+            Path secondPath = Paths.get(second);
+            ColumnReport report = Files.exists(secondPath)
+                    ? evaluator.evaluate(first, operator.charAt(0), secondPath, output)
+                    : evaluator.evaluate(first, operator.charAt(0), number(second), output);
+            System.err.println(report.summary());
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --column first op second|number [--out output|-] [--csv-column n] [--scalar]");
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Column calculation failed: " + e);
+            return 2;
+        }
+    }
+
+    private static double number(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(text + " is neither a file nor a number");
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+}
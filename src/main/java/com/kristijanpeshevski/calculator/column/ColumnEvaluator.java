@@ -0,0 +1,101 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+ * Applies a binary operator element-wise to two columns, or to a column and a number, streaming both through
+ * fixed primitive blocks small enough to stay in cache: read a block of each operand, run the kernel, write the
+ * block. No value is boxed and memory use does not grow with the input.
+ */
+public class ColumnEvaluator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 16 * 1024;
+
+    private final ColumnKernel kernel;
+    private final int csvColumn;
+    private final int blockSize;
+
+    public ColumnEvaluator() {
+        this(ColumnKernels.best(), 1, DEFAULT_BLOCK_SIZE);
+    }
+
+    // csvColumn is the 1-based column read from CSV inputs.
+    public ColumnEvaluator(ColumnKernel kernel, int csvColumn, int blockSize) {
+        if (csvColumn < 1)
+            throw new IllegalArgumentException("CSV column must be positive");
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+
+        this.kernel = kernel;
+        this.csvColumn = csvColumn;
+        this.blockSize = blockSize;
+    }
+
+    // A null output writes text to stdout.
+    public ColumnReport evaluate(Path first, char operator, Path second, Path output) throws IOException {
+        checkOperator(operator);
+        long started = System.nanoTime();
+        try (ColumnReader firstReader = ColumnReader.open(first, csvColumn);
+             ColumnReader secondReader = ColumnReader.open(second, csvColumn);
+             ColumnWriter writer = ColumnWriter.open(output)) {
+            double[] firstBlock = new double[blockSize];
+            double[] secondBlock = new double[blockSize];
+            double[] results = new double[blockSize];
+            long values = 0;
+            int length;
+            while ((length = fill(firstReader, firstBlock, blockSize)) > 0) {
+                if (fill(secondReader, secondBlock, length) != length)
+                    throw new IOException(second + " has fewer values than " + first);
+
+                kernel.calculate(firstBlock, secondBlock, operator, results, length);
+                writer.write(results, length);
+                values += length;
+            }
+            if (secondReader.read(secondBlock, 0, 1) > 0)
+                throw new IOException(second + " has more values than " + first);
+
+            writer.flush();
+            return new ColumnReport(values, firstReader.bytesRead() + secondReader.bytesRead(), writer.bytesWritten(),
+                    System.nanoTime() - started, kernel.getName());
+        }
+    }
+
+    public ColumnReport evaluate(Path first, char operator, double second, Path output) throws IOException {
+        checkOperator(operator);
+        long started = System.nanoTime();
+        try (ColumnReader reader = ColumnReader.open(first, csvColumn);
+             ColumnWriter writer = ColumnWriter.open(output)) {
+            double[] block = new double[blockSize];
+            double[] results = new double[blockSize];
+            long values = 0;
+            int length;
+            while ((length = fill(reader, block, blockSize)) > 0) {
+                kernel.calculate(block, second, operator, results, length);
+                writer.write(results, length);
+                values += length;
+            }
+
+            writer.flush();
+            return new ColumnReport(values, reader.bytesRead(), writer.bytesWritten(), System.nanoTime() - started,
+                    kernel.getName());
+        }
+    }
+
+    // Readers may return short reads, e.g. at window boundaries, so blocks are topped up to keep the operands aligned.
+    private static int fill(ColumnReader reader, double[] block, int length) throws IOException {
+        int filled = 0;
+        int count;
+        while (filled < length && (count = reader.read(block, filled, length - filled)) > 0) {
+            filled += count;
+        }
+        return filled;
+    }
+
+    private static void checkOperator(char operator) {
+        if (!CalculatorEngine.isBinaryOperator(operator))
+            throw new IllegalArgumentException("'" + operator + "' is not a binary operator");
+    }
+}
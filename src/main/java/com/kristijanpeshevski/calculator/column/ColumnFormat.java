@@ -0,0 +1,15 @@
+package com.kristijanpeshevski.calculator.column;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ColumnFormat {
+
+    RAW, CSV;
+
+    // Files ending in .csv or .txt are text, anything else raw little-endian doubles.
+    public static ColumnFormat of(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".txt") ? CSV : RAW;
+    }
+}
@@ -0,0 +1,14 @@
+package com.kristijanpeshevski.calculator.column;
+
+/*
+ * Applies one of the calculator's binary operators element-wise to the first length elements of the operand
+ * arrays. Every kernel gives bit-for-bit the results of CalculatorEngine.calculate.
+ */
+public interface ColumnKernel {
+
+    String getName();
+
+    void calculate(double[] firstNumbers, double[] secondNumbers, char operator, double[] results, int length);
+
+    void calculate(double[] firstNumbers, double secondNumber, char operator, double[] results, int length);
+}
@@ -0,0 +1,43 @@
+package com.kristijanpeshevski.calculator.column;
+
+/*
+ * The SIMD kernel uses the jdk.incubator.vector module, which the Java 11 build cannot reference, so it lives
+ * in the separate src/vector source set and is loaded by name. It is used when the class is on the class path
+ * and the JVM was started with --add-modules jdk.incubator.vector; otherwise columns use the scalar kernel.
+ */
+public class ColumnKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.kristijanpeshevski.calculator.column.VectorColumnKernel";
+
+    private static final ColumnKernel SCALAR = new ScalarColumnKernel();
+    private static final ColumnKernel VECTOR = loadVectorKernel();
+
+    private ColumnKernels() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static ColumnKernel scalar() {
+        return SCALAR;
+    }
+
+    // Null when the Vector API is not available.
+    public static ColumnKernel vector() {
+        return VECTOR;
+    }
+
+    public static ColumnKernel best() {
+        return VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    private static ColumnKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty())
+            return null;
+
+        try {
+            return (ColumnKernel) Class.forName(VECTOR_KERNEL).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.batch.ChunkReader;
+import com.kristijanpeshevski.calculator.util.AsciiDoubles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Reads a column of doubles into caller-supplied blocks. Raw files are little-endian doubles mapped a window at
+ * a time and copied out in bulk; CSV files are mapped in newline aligned chunks and one field per line is
+ * parsed straight from the bytes. A first line that is not a number is taken as a header and skipped.
+ */
+abstract class ColumnReader implements AutoCloseable {
+
+    final FileChannel channel;
+
+    private ColumnReader(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // Files ending in .csv or .txt are text, anything else raw doubles. csvColumn is 1-based.
+    static ColumnReader open(Path path, int csvColumn) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return ColumnFormat.of(path) == ColumnFormat.CSV ? new Csv(channel, csvColumn) : new Raw(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Reads at most length values into block at offset and returns how many, 0 once the column is exhausted.
+    abstract int read(double[] block, int offset, int length) throws IOException;
+
+    long bytesRead() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Raw extends ColumnReader {
+
+        private static final long WINDOW_SIZE = 64 << 20;
+
+        private final long size;
+        private long windowPosition;
+        private DoubleBuffer window;
+
+        private Raw(FileChannel channel) throws IOException {
+            super(channel);
+            this.size = channel.size();
+            if (size % Double.BYTES != 0)
+                throw new IOException("Raw column size " + size + " is not a multiple of " + Double.BYTES + " bytes");
+        }
+
+        @Override
+        int read(double[] block, int offset, int length) throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (window != null)
+                    windowPosition += (long) window.capacity() * Double.BYTES;
+                if (windowPosition >= size)
+                    return 0;
+
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowPosition, Math.min(WINDOW_SIZE, size - windowPosition))
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asDoubleBuffer();
+            }
+            int count = Math.min(length, window.remaining());
+            window.get(block, offset, count);
+            return count;
+        }
+    }
+
+    private static final class Csv extends ColumnReader {
+
+        private final ChunkReader chunks;
+        private final int column;
+        private ByteBuffer chunk;
+        private long line;
+
+        private Csv(FileChannel channel, int column) throws IOException {
+            super(channel);
+            if (column < 1)
+                throw new IllegalArgumentException("CSV column must be positive");
+
+            this.chunks = ChunkReader.mapped(channel, ChunkReader.DEFAULT_CHUNK_SIZE);
+            this.column = column;
+        }
+
+        @Override
+        int read(double[] block, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                if (chunk == null || !chunk.hasRemaining()) {
+                    chunk = chunks.next();
+                    if (chunk == null)
+                        break;
+                }
+
+                int start = chunk.position();
+                int limit = chunk.limit();
+                int end = start;
+                while (end < limit && chunk.get(end) != '\n') {
+                    end++;
+                }
+                chunk.position(end < limit ? end + 1 : end);
+                line++;
+
+                int lineEnd = end > start && chunk.get(end - 1) == '\r' ? end - 1 : end;
+                if (lineEnd == start)
+                    continue;
+
+                try {
+                    block[offset + count] = parseField(start, lineEnd);
+                    count++;
+                } catch (NumberFormatException e) {
+                    if (line > 1)
+                        throw new IOException("Line " + line + ": " + e.getMessage());
+                }
+            }
+            return count;
+        }
+
+        private double parseField(int from, int to) throws IOException {
+            int fieldStart = AsciiDoubles.fieldStart(chunk, from, to, column);
+            if (fieldStart < 0)
+                throw new IOException("Line " + line + " has no column " + column);
+
+            return AsciiDoubles.parse(chunk, fieldStart, AsciiDoubles.fieldEnd(chunk, fieldStart, to));
+        }
+    }
+}
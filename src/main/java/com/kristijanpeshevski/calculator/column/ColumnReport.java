@@ -0,0 +1,48 @@
+package com.kristijanpeshevski.calculator.column;
+
+public final class ColumnReport {
+
+    private final long values;
+    private final long bytesRead;
+    private final long bytesWritten;
+    private final long elapsedNanos;
+    private final String kernel;
+
+    ColumnReport(long values, long bytesRead, long bytesWritten, long elapsedNanos, String kernel) {
+        this.values = values;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.elapsedNanos = elapsedNanos;
+        this.kernel = kernel;
+    }
+
+    public long getValues() {
+        return values;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public String getKernel() {
+        return kernel;
+    }
+
+    // Bytes read and written per second.
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (bytesRead + bytesWritten) * 1e9 / elapsedNanos;
+    }
+
+    public String summary() {
+        return String.format("Calculated %d values (%.1f MB read, %.1f MB written) in %.2f s with the %s kernel: %.2f GB/s",
+                values, bytesRead / 1e6, bytesWritten / 1e6, elapsedNanos / 1e9, kernel, getBytesPerSecond() / 1e9);
+    }
+}
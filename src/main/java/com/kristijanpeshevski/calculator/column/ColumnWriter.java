@@ -0,0 +1,109 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Writes blocks of results through one reusable direct buffer: raw little-endian doubles copied in bulk, or
+ * one value per line formatted by DoubleFormatter straight into the buffer.
+ */
+abstract class ColumnWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    final FileChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long bytesWritten;
+
+    private ColumnWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // A null path writes text to stdout.
+    static ColumnWriter open(Path path) throws IOException {
+        if (path == null)
+            return new Csv(new FileOutputStream(FileDescriptor.out).getChannel());
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        return ColumnFormat.of(path) == ColumnFormat.CSV ? new Csv(channel) : new Raw(channel);
+    }
+
+    abstract void write(double[] block, int length) throws IOException;
+
+    long bytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static final class Raw extends ColumnWriter {
+
+        private Raw(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void write(double[] block, int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                int count = Math.min(length - offset, buffer.remaining() / Double.BYTES);
+                if (count == 0) {
+                    flush();
+                    continue;
+                }
+                buffer.asDoubleBuffer().put(block, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+            }
+        }
+    }
+
+    private static final class Csv extends ColumnWriter {
+
+        private final DoubleFormatter formatter = new DoubleFormatter();
+        private final char[] formatted = new char[formatter.maxLength()];
+
+        private Csv(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void write(double[] block, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                if (buffer.remaining() <= formatted.length)
+                    flush();
+
+                int formattedLength = formatter.format(block[i], formatted, 0);
+                for (int j = 0; j < formattedLength; j++) {
+                    buffer.put((byte) formatted[j]);
+                }
+                buffer.put((byte) '\n');
+            }
+        }
+    }
+}
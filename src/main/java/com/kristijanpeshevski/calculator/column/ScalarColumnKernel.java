@@ -0,0 +1,22 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+
+// Plain loops, which the JIT auto-vectorizes for + - * / where it can.
+final class ScalarColumnKernel implements ColumnKernel {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void calculate(double[] firstNumbers, double[] secondNumbers, char operator, double[] results, int length) {
+        CalculatorEngine.calculate(firstNumbers, 0, secondNumbers, 0, operator, results, 0, length);
+    }
+
+    @Override
+    public void calculate(double[] firstNumbers, double secondNumber, char operator, double[] results, int length) {
+        CalculatorEngine.calculate(firstNumbers, 0, secondNumber, operator, results, 0, length);
+    }
+}
@@ -0,0 +1,350 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Exact integer functions with results of any size up to MAX_RESULT_BITS.
+ *
+ * Factorials and the falling products behind binomial coefficients are computed by binary splitting: the
+ * range is halved until the pieces fit a long, and the halves are multiplied back together. Operands at each
+ * level have about the same size, which is where BigInteger's Karatsuba and Toom-Cook multiplication pay off,
+ * and long ranges are split across a fork-join pool. Fibonacci numbers use fast doubling, about log2(n) steps
+ * of three multiplications each.
+ *
+ * Factorials, binomial coefficients and Fibonacci numbers of more than MIN_CACHED_BITS are kept in a shared
+ * cache bounded by total size. A factorial continues from the largest cached factorial below it, so 100001!
+ * after 100000! is one multiplication, and a binomial coefficient takes its k! from the cache.
+ *
+ * Interrupting the calling thread stops a factorial, binomial coefficient or Fibonacci number between two
+ * multiplications with a CancellationException.
+ */
+public class BigIntegerFunctions {
+
+    public static final long MAX_RESULT_BITS = 1L << 23;
+
+    private static final long MIN_CACHED_BITS = 1 << 12;
+    private static final long MAX_CACHED_BITS = 1L << 26;
+    private static final int MAX_CACHED_VALUES = 256;
+    private static final int SEQUENTIAL_PRODUCT_LENGTH = 64;
+    private static final int PARALLEL_PRODUCT_LENGTH = 4096;
+    private static final double LOG2_GOLDEN_RATIO = Math.log((1 + Math.sqrt(5)) / 2) / Math.log(2);
+
+    // 20! is the largest factorial that fits a long.
+    private static final BigInteger[] SMALL_FACTORIALS = new BigInteger[21];
+
+    static {
+        long factorial = 1;
+        for (int i = 0; i < SMALL_FACTORIALS.length; i++) {
+            factorial *= Math.max(i, 1);
+            SMALL_FACTORIALS[i] = BigInteger.valueOf(factorial);
+        }
+    }
+
+    private static final BigIntegerFunctions SHARED = new BigIntegerFunctions(ForkJoinPool.commonPool());
+
+    private final ForkJoinPool pool;
+    private final Map<CacheKey, BigInteger> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBits;
+    private long hits;
+    private long misses;
+
+    public BigIntegerFunctions(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // The instance used by the calculator, whose cache every caller shares.
+    public static BigIntegerFunctions shared() {
+        return SHARED;
+    }
+
+    public BigInteger factorial(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Factorial of negative " + n);
+        if (n < SMALL_FACTORIALS.length)
+            return SMALL_FACTORIALS[n];
+
+        checkBits(log2Factorial(n));
+        CacheKey key = new CacheKey(CalculatorEngine.FACTORIAL, n, 0);
+        int from = SMALL_FACTORIALS.length - 1;
+        BigInteger start = SMALL_FACTORIALS[from];
+        synchronized (this) {
+            BigInteger cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+
+            // Scanning does not touch the access order, only get() does.
+            for (Map.Entry<CacheKey, BigInteger> entry : cache.entrySet()) {
+                CacheKey candidate = entry.getKey();
+                if (candidate.function == CalculatorEngine.FACTORIAL && candidate.first < n && candidate.first > from) {
+                    from = candidate.first;
+                    start = entry.getValue();
+                }
+            }
+        }
+
+        // Compute outside the lock; two threads racing on the same value both compute it and the last one wins.
+        BigInteger result = start.multiply(product(from + 1, n));
+        remember(key, result);
+        return result;
+    }
+
+    // n choose k, 0 when k > n.
+    public BigInteger binomial(int n, int k) {
+        if (n < 0 || k < 0)
+            throw new IllegalArgumentException("Binomial coefficient of negative " + Math.min(n, k));
+        if (k > n)
+            return BigInteger.ZERO;
+
+        k = Math.min(k, n - k);
+        if (k == 0)
+            return BigInteger.ONE;
+
+        checkBits(log2Binomial(n, k));
+        CacheKey key = new CacheKey(CalculatorEngine.BINOMIAL, n, k);
+        BigInteger cached = cached(key);
+        if (cached != null)
+            return cached;
+
+        // n! / (k! (n - k)!) = (n - k + 1) ... n / k!, and the division is exact.
+        BigInteger result = product(n - k + 1, n).divide(factorial(k));
+        remember(key, result);
+        return result;
+    }
+
+    public BigInteger fibonacci(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Fibonacci number of negative " + n);
+        if (n < 2)
+            return BigInteger.valueOf(n);
+
+        checkBits(log2Fibonacci(n));
+        CacheKey key = new CacheKey(CalculatorEngine.FIBONACCI, n, 0);
+        BigInteger cached = cached(key);
+        if (cached != null)
+            return cached;
+
+        // From F(k) and F(k + 1) to F(2k) = F(k) (2 F(k + 1) - F(k)) and F(2k + 1) = F(k)^2 + F(k + 1)^2, one bit
+        // of n at a time. The last step only computes the one value it returns.
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+        for (int bit = 31 - Integer.numberOfLeadingZeros(n); bit > 0; bit--) {
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Interrupted");
+
+            BigInteger even = a.multiply(b.shiftLeft(1).subtract(a));
+            BigInteger odd = a.multiply(a).add(b.multiply(b));
+            if ((n >>> bit & 1) == 0) {
+                a = even;
+                b = odd;
+            } else {
+                a = odd;
+                b = even.add(odd);
+            }
+        }
+        BigInteger result = (n & 1) == 0 ? a.multiply(b.shiftLeft(1).subtract(a)) : a.multiply(a).add(b.multiply(b));
+        remember(key, result);
+        return result;
+    }
+
+    public BigInteger pow(BigInteger base, long exponent) {
+        if (exponent < 0)
+            throw new IllegalArgumentException("Negative exponent " + exponent);
+        if (base.signum() == 0 || base.equals(BigInteger.ONE))
+            return exponent == 0 ? BigInteger.ONE : base;
+        if (base.equals(BigInteger.ONE.negate()))
+            return (exponent & 1) == 0 ? BigInteger.ONE : base;
+
+        checkBits((double) (base.abs().bitLength() - 1) * exponent);
+        return base.pow((int) exponent);
+    }
+
+    // base^exponent mod modulus without computing the power; the result is in [0, modulus).
+    public BigInteger modPow(BigInteger base, BigInteger exponent, BigInteger modulus) {
+        if (modulus.signum() <= 0)
+            throw new ArithmeticException("Modulus " + modulus + " is not positive");
+
+        return base.modPow(exponent, modulus);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        cachedBits = 0;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getCachedBits() {
+        return cachedBits;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // The product of every integer in [from, to].
+    BigInteger product(long from, long to) {
+        Product task = new Product(from, to, null);
+        if (ForkJoinTask.getPool() == pool)
+            return task.invoke();
+
+        pool.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            // Pieces not started yet see the cancellation and give up.
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private synchronized BigInteger cached(CacheKey key) {
+        BigInteger cached = cache.get(key);
+        if (cached != null)
+            hits++;
+        else
+            misses++;
+        return cached;
+    }
+
+    private void remember(CacheKey key, BigInteger value) {
+        long bits = value.bitLength();
+        if (bits < MIN_CACHED_BITS)
+            return;
+
+        synchronized (this) {
+            BigInteger previous = cache.put(key, value);
+            cachedBits += bits - (previous == null ? 0 : previous.bitLength());
+            Iterator<BigInteger> eldest = cache.values().iterator();
+            while (cachedBits > MAX_CACHED_BITS || cache.size() > MAX_CACHED_VALUES) {
+                cachedBits -= eldest.next().bitLength();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static void checkBits(double bits) {
+        if (bits > MAX_RESULT_BITS)
+            throw new ArithmeticException("Result would have about " + (long) (bits * Math.log10(2)) + " digits, more than "
+                    + (long) (MAX_RESULT_BITS * Math.log10(2)));
+    }
+
+    // Stirling's approximation of log2(n!), accurate to far less than a bit for n >= 1.
+    static double log2Factorial(int n) {
+        if (n < 2)
+            return 0;
+
+        return (n * Math.log(n) - n + 0.5 * Math.log(2 * Math.PI * n)) / Math.log(2);
+    }
+
+    static double log2Binomial(int n, int k) {
+        return k > n ? 0 : log2Factorial(n) - log2Factorial(k) - log2Factorial(n - k);
+    }
+
+    static double log2Fibonacci(int n) {
+        return n * LOG2_GOLDEN_RATIO;
+    }
+
+    private static final class Product extends RecursiveTask<BigInteger> {
+
+        private final long from;
+        private final long to;
+        private final Product root;
+
+        private Product(long from, long to, Product root) {
+            this.from = from;
+            this.to = to;
+            this.root = root == null ? this : root;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            return multiply(from, to);
+        }
+
+        private BigInteger multiply(long from, long to) {
+            if (root.isCancelled())
+                throw new CancellationException("Cancelled");
+
+            long length = to - from + 1;
+            if (length <= SEQUENTIAL_PRODUCT_LENGTH)
+                return multiplySequentially(from, to);
+
+            long middle = from + length / 2;
+            if (length <= PARALLEL_PRODUCT_LENGTH)
+                return multiply(from, middle - 1).multiply(multiply(middle, to));
+
+            Product upper = new Product(middle, to, root);
+            upper.fork();
+            BigInteger lower = multiply(from, middle - 1);
+            return lower.multiply(upper.join());
+        }
+
+        // Factors are gathered in a long until the next one would overflow it; i >= from stops i wrapping past
+        // Long.MAX_VALUE.
+        private static BigInteger multiplySequentially(long from, long to) {
+            BigInteger result = BigInteger.ONE;
+            long partial = 1;
+            for (long i = from; i <= to && i >= from; i++) {
+                if (Math.multiplyHigh(partial, i) != 0 || partial * i < 0) {
+                    result = result.multiply(BigInteger.valueOf(partial));
+                    partial = i;
+                } else {
+                    partial *= i;
+                }
+            }
+            return result.multiply(BigInteger.valueOf(partial));
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final char function;
+        private final int first;
+        private final int second;
+
+        private CacheKey(char function, int first, int second) {
+            this.function = function;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CacheKey))
+                return false;
+
+            CacheKey other = (CacheKey) o;
+            return function == other.function && first == other.first && second == other.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(function, first, second);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class CalculatorEngine {
+
+    public static final char ADD = '+';
+    public static final char SUBTRACT = '-';
+    public static final char MULTIPLY = '*';
+    public static final char DIVIDE = '/';
+    public static final char MODULO = '%';
+    public static final char POWER = '^';
+    public static final char ROOT = '√';
+    public static final char LOG = 'l';
+    public static final char FACTORIAL = '!';
+    public static final char FIBONACCI = 'F';
+    public static final char BINOMIAL = 'C';
+
+    private CalculatorEngine() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static double calculate(double firstNumber, double secondNumber, char operator) {
+        switch (operator) {
+            case ADD:
+                return firstNumber + secondNumber;
+            case SUBTRACT:
+                return firstNumber - secondNumber;
+            case MULTIPLY:
+                return firstNumber * secondNumber;
+            case DIVIDE:
+                return firstNumber / secondNumber;
+            case MODULO:
+                return firstNumber % secondNumber;
+            case POWER:
+                return Math.pow(firstNumber, secondNumber);
+            case BINOMIAL:
+                return binomial(firstNumber, secondNumber);
+            default:
+                return secondNumber;
+        }
+    }
+
+    public static double apply(char function, double value) {
+        switch (function) {
+            case ROOT:
+                return Math.sqrt(value);
+            case LOG:
+                return Math.log(value);
+            case FACTORIAL:
+                return factorial(value);
+            case FIBONACCI:
+                return fibonacci(value);
+            default:
+                return value;
+        }
+    }
+
+    // n! for integral n >= 0, infinite past 170!, NaN for anything else. Exact integers use BigIntegerFunctions.
+    public static double factorial(double n) {
+        if (!isNaturalNumber(n))
+            return Double.NaN;
+
+        return n < Tables.FACTORIALS.length ? Tables.FACTORIALS[(int) n] : Double.POSITIVE_INFINITY;
+    }
+
+    // The n-th Fibonacci number for integral n >= 0, infinite past F(1476), NaN for anything else.
+    public static double fibonacci(double n) {
+        if (!isNaturalNumber(n))
+            return Double.NaN;
+
+        return n < Tables.FIBONACCI_NUMBERS.length ? Tables.FIBONACCI_NUMBERS[(int) n] : Double.POSITIVE_INFINITY;
+    }
+
+    // n choose k for integral n, k >= 0 (0 when k > n), NaN for anything else.
+    public static double binomial(double n, double k) {
+        if (!isNaturalNumber(n) || !isNaturalNumber(k))
+            return Double.NaN;
+        if (k > n)
+            return 0;
+
+        // C(n - k + i, i) at step i is at least C(2i, i), so this ends in fewer than 600 steps either way.
+        k = Math.min(k, n - k);
+        double result = 1;
+        for (int i = 1; i <= k && result < Double.POSITIVE_INFINITY; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return Math.rint(result);
+    }
+
+    // base^exponent mod modulus for integral arguments within the long range and a positive modulus, NaN otherwise.
+    public static double modPow(double base, double exponent, double modulus) {
+        if (!isLongInteger(base) || !isLongInteger(exponent) || !isLongInteger(modulus) || !(modulus > 0))
+            return Double.NaN;
+
+        try {
+            return BigInteger.valueOf((long) base).modPow(BigInteger.valueOf((long) exponent), BigInteger.valueOf((long) modulus))
+                    .doubleValue();
+        } catch (ArithmeticException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isLongInteger(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 0x1p63;
+    }
+
+    private static boolean isNaturalNumber(double value) {
+        return value >= 0 && value == Math.rint(value);
+    }
+
+    public static boolean isBinaryOperator(char operator) {
+        switch (operator) {
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case DIVIDE:
+            case MODULO:
+            case POWER:
+            case BINOMIAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isFunction(char function) {
+        return function == ROOT || function == LOG || function == FACTORIAL || function == FIBONACCI;
+    }
+
+    public static void calculate(double[] firstNumbers, double[] secondNumbers, char operator, double[] results) {
+        checkSameLength(firstNumbers.length, secondNumbers.length, results.length);
+        calculate(firstNumbers, 0, secondNumbers, 0, operator, results, 0, results.length);
+    }
+
+    // The operator switch is hoisted out of the loops so every case is a tight, allocation-free loop the JIT can unroll.
+    public static void calculate(double[] firstNumbers, int firstOffset, double[] secondNumbers, int secondOffset,
+                                 char operator, double[] results, int resultsOffset, int length) {
+        Objects.checkFromIndexSize(firstOffset, length, firstNumbers.length);
+        Objects.checkFromIndexSize(secondOffset, length, secondNumbers.length);
+        Objects.checkFromIndexSize(resultsOffset, length, results.length);
+
+        switch (operator) {
+            case ADD:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] + secondNumbers[secondOffset + i];
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] - secondNumbers[secondOffset + i];
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] * secondNumbers[secondOffset + i];
+                break;
+            case DIVIDE:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] / secondNumbers[secondOffset + i];
+                break;
+            case MODULO:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] % secondNumbers[secondOffset + i];
+                break;
+            case POWER:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = Math.pow(firstNumbers[firstOffset + i], secondNumbers[secondOffset + i]);
+                break;
+            case BINOMIAL:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = binomial(firstNumbers[firstOffset + i], secondNumbers[secondOffset + i]);
+                break;
+            default:
+                System.arraycopy(secondNumbers, secondOffset, results, resultsOffset, length);
+        }
+    }
+
+    public static void calculate(double[] firstNumbers, double secondNumber, char operator, double[] results) {
+        checkSameLength(firstNumbers.length, firstNumbers.length, results.length);
+        calculate(firstNumbers, 0, secondNumber, operator, results, 0, results.length);
+    }
+
+    public static void calculate(double[] firstNumbers, int firstOffset, double secondNumber, char operator,
+                                 double[] results, int resultsOffset, int length) {
+        Objects.checkFromIndexSize(firstOffset, length, firstNumbers.length);
+        Objects.checkFromIndexSize(resultsOffset, length, results.length);
+
+        switch (operator) {
+            case ADD:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] + secondNumber;
+                break;
+            case SUBTRACT:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] - secondNumber;
+                break;
+            case MULTIPLY:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] * secondNumber;
+                break;
+            case DIVIDE:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] / secondNumber;
+                break;
+            case MODULO:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = firstNumbers[firstOffset + i] % secondNumber;
+                break;
+            case POWER:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = Math.pow(firstNumbers[firstOffset + i], secondNumber);
+                break;
+            case BINOMIAL:
+                for (int i = 0; i < length; i++)
+                    results[resultsOffset + i] = binomial(firstNumbers[firstOffset + i], secondNumber);
+                break;
+            default:
+                Arrays.fill(results, resultsOffset, resultsOffset + length, secondNumber);
+        }
+    }
+
+    public static void calculate(double[] firstNumbers, double[] secondNumbers, char[] operators, double[] results) {
+        checkSameLength(firstNumbers.length, secondNumbers.length, results.length);
+        checkSameLength(operators.length, operators.length, results.length);
+
+        for (int i = 0; i < results.length; i++) {
+            results[i] = calculate(firstNumbers[i], secondNumbers[i], operators[i]);
+        }
+    }
+
+    public static void apply(char function, double[] values, double[] results) {
+        checkSameLength(values.length, values.length, results.length);
+
+        int length = results.length;
+        switch (function) {
+            case ROOT:
+                for (int i = 0; i < length; i++)
+                    results[i] = Math.sqrt(values[i]);
+                break;
+            case LOG:
+                for (int i = 0; i < length; i++)
+                    results[i] = Math.log(values[i]);
+                break;
+            case FACTORIAL:
+                for (int i = 0; i < length; i++)
+                    results[i] = factorial(values[i]);
+                break;
+            case FIBONACCI:
+                for (int i = 0; i < length; i++)
+                    results[i] = fibonacci(values[i]);
+                break;
+            default:
+                System.arraycopy(values, 0, results, 0, length);
+        }
+    }
+
+    private static void checkSameLength(int first, int second, int results) {
+        if (first != results || second != results)
+            throw new IllegalArgumentException("Operand and result arrays must have the same length");
+    }
+
+    // Every finite factorial and Fibonacci number as a double, correctly rounded. Built on first use.
+    private static final class Tables {
+
+        private static final double[] FACTORIALS = new double[171];
+        private static final double[] FIBONACCI_NUMBERS = new double[1477];
+
+        static {
+            BigInteger factorial = BigInteger.ONE;
+            for (int i = 0; i < FACTORIALS.length; i++) {
+                factorial = factorial.multiply(BigInteger.valueOf(Math.max(i, 1)));
+                FACTORIALS[i] = factorial.doubleValue();
+            }
+
+            BigInteger previous = BigInteger.ONE;
+            BigInteger current = BigInteger.ZERO;
+            for (int i = 0; i < FIBONACCI_NUMBERS.length; i++) {
+                FIBONACCI_NUMBERS[i] = current.doubleValue();
+                BigInteger next = previous.add(current);
+                previous = current;
+                current = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*
+ * Runs evaluations whose estimated cost reaches a threshold on a background executor and hands their results
+ * to a publisher, the event dispatch thread in the calculator; cheaper ones run at once on the caller's thread.
+ * Submitting, cancelling and publishing all happen on the publisher's thread.
+ *
+ * Only the latest evaluation is current. Submitting another one or cancelling interrupts the one running, and a
+ * result that was superseded while it was being computed is dropped instead of published.
+ */
+public class EvaluationScheduler implements AutoCloseable {
+
+    // About a 40 000 digit result, a few milliseconds of work.
+    public static final long DEFAULT_THRESHOLD = 1 << 17;
+
+    private final ExecutorService executor;
+    private final Executor publisher;
+    private final long threshold;
+
+    private Listener listener;
+    private Future<?> running;
+    private long generation;
+
+    public EvaluationScheduler(ExecutorService executor, Executor publisher, long threshold) {
+        this.executor = executor;
+        this.publisher = publisher;
+        this.threshold = threshold;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Runs the work now or in the background; done gets the result on the publisher's thread either way.
+    // A failure in the background is passed to failed instead. An Error, such as an OutOfMemoryError on a huge
+    // exact result, is not a failure of the evaluation: it is rethrown on the publisher's thread, to reach its
+    // uncaught-exception handler, once the scheduler is no longer busy.
+    public <T> void submit(long cost, Supplier<T> work, Consumer<T> done, Consumer<RuntimeException> failed) {
+        if (cost < threshold) {
+            done.accept(work.get());
+            return;
+        }
+
+        cancelRunning();
+        long submitted = generation;
+        running = executor.submit(() -> {
+            try {
+                T result = work.get();
+                publish(submitted, () -> done.accept(result));
+            } catch (CancellationException e) {
+                // Interrupted by cancel() or by a newer evaluation, whose result is the one wanted.
+            } catch (RuntimeException e) {
+                publish(submitted, () -> failed.accept(e));
+            } catch (Error e) {
+                // The FutureTask would keep it, since nobody calls get().
+                publish(submitted, () -> {
+                    throw e;
+                });
+            }
+        });
+        if (listener != null)
+            listener.evaluationStarted();
+    }
+
+    public boolean isBusy() {
+        return running != null;
+    }
+
+    // Interrupts the evaluation running, if any, and drops its result. Returns whether there was one.
+    public boolean cancel() {
+        if (!cancelRunning())
+            return false;
+
+        if (listener != null)
+            listener.evaluationFinished();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        cancelRunning();
+        executor.shutdownNow();
+    }
+
+    private boolean cancelRunning() {
+        generation++;
+        if (running == null)
+            return false;
+
+        running.cancel(true);
+        running = null;
+        return true;
+    }
+
+    private void publish(long submitted, Runnable action) {
+        publisher.execute(() -> {
+            if (submitted != generation)
+                return;
+
+            running = null;
+            try {
+                action.run();
+            } finally {
+                if (listener != null)
+                    listener.evaluationFinished();
+            }
+        });
+    }
+
+    // Both are called on the publisher's thread.
+    public interface Listener {
+
+        void evaluationStarted();
+
+        // After the result of an evaluation has been handed over or the evaluation was cancelled. The result
+        // may have started another one, see isBusy().
+        void evaluationFinished();
+    }
+}
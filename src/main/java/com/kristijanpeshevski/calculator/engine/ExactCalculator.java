@@ -0,0 +1,251 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/*
+ * Exact counterpart of CalculatorEngine with the same operator codes. Integral operands stay on long arithmetic
+ * until an overflow check fails or a division is inexact; only then is the operation redone in BigDecimal with
+ * the configured MathContext. Non-integral powers, √ and ln, and anything involving a double operand use the
+ * double arithmetic of CalculatorEngine.
+ *
+ * Factorials, Fibonacci numbers, binomial coefficients and integral powers of integers are exact at any size
+ * BigIntegerFunctions allows, and are not rounded to the MathContext; past that they are infinite.
+ */
+public class ExactCalculator {
+
+    public static final MathContext DEFAULT_MATH_CONTEXT = MathContext.DECIMAL128;
+
+    private static final int MAX_DECIMAL_EXPONENT = 999_999_999;
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    private final MathContext mathContext;
+    private final BigIntegerFunctions functions;
+
+    public ExactCalculator() {
+        this(DEFAULT_MATH_CONTEXT);
+    }
+
+    public ExactCalculator(MathContext mathContext) {
+        this(mathContext, BigIntegerFunctions.shared());
+    }
+
+    public ExactCalculator(MathContext mathContext, BigIntegerFunctions functions) {
+        this.mathContext = mathContext;
+        this.functions = functions;
+    }
+
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    public ExactNumber calculate(ExactNumber firstNumber, ExactNumber secondNumber, char operator) {
+        if (!CalculatorEngine.isBinaryOperator(operator))
+            return secondNumber;
+        if (firstNumber.isDouble() || secondNumber.isDouble())
+            return ExactNumber.of(CalculatorEngine.calculate(firstNumber.doubleValue(), secondNumber.doubleValue(), operator));
+
+        if (operator == CalculatorEngine.BINOMIAL)
+            return binomial(firstNumber, secondNumber);
+        if (firstNumber.isLong() && secondNumber.isLong()) {
+            ExactNumber result = calculateLong(firstNumber.longValue(), secondNumber.longValue(), operator);
+            if (result != null)
+                return result;
+        }
+        if (operator == CalculatorEngine.POWER && isInteger(firstNumber) && secondNumber.isLong() && secondNumber.signum() >= 0) {
+            try {
+                return of(functions.pow(toBigInteger(firstNumber), secondNumber.longValue()));
+            } catch (ArithmeticException e) {
+                // Too large to be exact; the decimal power below rounds it or overflows.
+            }
+        }
+        return calculateDecimal(firstNumber, secondNumber, operator);
+    }
+
+    private ExactNumber binomial(ExactNumber n, ExactNumber k) {
+        if (!isInt(n) || !isInt(k) || n.signum() < 0 || k.signum() < 0)
+            return ExactNumber.of(CalculatorEngine.binomial(n.doubleValue(), k.doubleValue()));
+
+        try {
+            return of(functions.binomial((int) n.longValue(), (int) k.longValue()));
+        } catch (ArithmeticException e) {
+            return ExactNumber.of(Double.POSITIVE_INFINITY);
+        }
+    }
+
+    private static long bits(ExactNumber value) {
+        return value.isDecimal() ? value.toBigDecimal().unscaledValue().bitLength() : 0;
+    }
+
+    // Counts the zeros of a negative scale too: an integral power expands 1E20000000 to all its digits.
+    private static long integerBits(ExactNumber value) {
+        BigDecimal decimal = value.toBigDecimal();
+        return decimal.unscaledValue().bitLength() + (long) (Math.max(0, -decimal.scale()) * LOG2_10);
+    }
+
+    private static boolean isInteger(ExactNumber value) {
+        return value.isLong() || (value.isDecimal()
+                && (value.toBigDecimal().scale() <= 0 || value.toBigDecimal().stripTrailingZeros().scale() <= 0));
+    }
+
+    private static boolean isInt(ExactNumber value) {
+        return value.isLong() && value.longValue() == (int) value.longValue();
+    }
+
+    private static BigInteger toBigInteger(ExactNumber integer) {
+        return integer.isLong() ? BigInteger.valueOf(integer.longValue()) : integer.toBigDecimal().toBigIntegerExact();
+    }
+
+    private static ExactNumber of(BigInteger value) {
+        return value.bitLength() < Long.SIZE ? ExactNumber.of(value.longValue()) : ExactNumber.of(new BigDecimal(value));
+    }
+
+    public ExactNumber apply(char function, ExactNumber value) {
+        if (!CalculatorEngine.isFunction(function))
+            return value;
+
+        boolean integerFunction = function == CalculatorEngine.FACTORIAL || function == CalculatorEngine.FIBONACCI;
+        if (integerFunction && isInt(value) && value.signum() >= 0) {
+            try {
+                int n = (int) value.longValue();
+                return of(function == CalculatorEngine.FACTORIAL ? functions.factorial(n) : functions.fibonacci(n));
+            } catch (ArithmeticException e) {
+                return ExactNumber.of(Double.POSITIVE_INFINITY);
+            }
+        }
+        return ExactNumber.of(CalculatorEngine.apply(function, value.doubleValue()));
+    }
+
+    // A rough measure of the work of an operation: the size in bits of the largest number it reads or writes.
+    // Operations on longs and doubles cost nothing.
+    public long estimateCost(ExactNumber firstNumber, ExactNumber secondNumber, char operator) {
+        if (!CalculatorEngine.isBinaryOperator(operator))
+            return 0;
+
+        double cost = Math.max(bits(firstNumber), bits(secondNumber));
+        if (operator == CalculatorEngine.BINOMIAL && isInt(firstNumber) && isInt(secondNumber)
+                && firstNumber.signum() >= 0 && secondNumber.signum() >= 0) {
+            int n = (int) firstNumber.longValue();
+            int k = (int) secondNumber.longValue();
+            cost = Math.max(cost, BigIntegerFunctions.log2Binomial(n, Math.min(k, n - k)));
+        } else if (operator == CalculatorEngine.POWER && isInteger(firstNumber) && secondNumber.isLong()) {
+            long base = firstNumber.isLong() ? 64 - Long.numberOfLeadingZeros(Math.abs(firstNumber.longValue())) : integerBits(firstNumber);
+            cost = Math.max(cost, (double) base * secondNumber.longValue());
+        }
+        return (long) Math.min(cost, Long.MAX_VALUE);
+    }
+
+    public long estimateCost(char function, ExactNumber value) {
+        double cost = bits(value);
+        if (isInt(value) && value.signum() >= 0) {
+            int n = (int) value.longValue();
+            if (function == CalculatorEngine.FACTORIAL)
+                cost = BigIntegerFunctions.log2Factorial(n);
+            else if (function == CalculatorEngine.FIBONACCI)
+                cost = BigIntegerFunctions.log2Fibonacci(n);
+        }
+        return (long) cost;
+    }
+
+    // base^exponent mod modulus for integers and a positive modulus; anything else goes through doubles.
+    public ExactNumber modPow(ExactNumber base, ExactNumber exponent, ExactNumber modulus) {
+        if (!isInteger(base) || !isInteger(exponent) || !isInteger(modulus) || modulus.signum() <= 0)
+            return ExactNumber.of(CalculatorEngine.modPow(base.doubleValue(), exponent.doubleValue(), modulus.doubleValue()));
+
+        try {
+            return of(functions.modPow(toBigInteger(base), toBigInteger(exponent), toBigInteger(modulus)));
+        } catch (ArithmeticException e) {
+            // A negative exponent of a base that has no inverse modulo the modulus.
+            return ExactNumber.of(Double.NaN);
+        }
+    }
+
+    // Returns null when the result does not fit a long or is not integral.
+    private static ExactNumber calculateLong(long x, long y, char operator) {
+        switch (operator) {
+            case CalculatorEngine.ADD: {
+                long result = x + y;
+                return ((x ^ result) & (y ^ result)) < 0 ? null : ExactNumber.of(result);
+            }
+            case CalculatorEngine.SUBTRACT: {
+                long result = x - y;
+                return ((x ^ y) & (x ^ result)) < 0 ? null : ExactNumber.of(result);
+            }
+            case CalculatorEngine.MULTIPLY: {
+                long high = Math.multiplyHigh(x, y);
+                long low = x * y;
+                return (high == 0 && low >= 0) || (high == -1 && low < 0) ? ExactNumber.of(low) : null;
+            }
+            case CalculatorEngine.DIVIDE:
+                if (y == 0 || (x == Long.MIN_VALUE && y == -1) || x % y != 0)
+                    return null;
+                return ExactNumber.of(x / y);
+            case CalculatorEngine.MODULO:
+                return y == 0 ? null : ExactNumber.of(x % y);
+            case CalculatorEngine.POWER:
+                return powerLong(x, y);
+            default:
+                return null;
+        }
+    }
+
+    private static ExactNumber powerLong(long base, long exponent) {
+        if (exponent < 0)
+            return null;
+
+        long result = 1;
+        long square = base;
+        long remaining = exponent;
+        while (remaining > 0) {
+            if ((remaining & 1) == 1) {
+                long high = Math.multiplyHigh(result, square);
+                long low = result * square;
+                if (!((high == 0 && low >= 0) || (high == -1 && low < 0)))
+                    return null;
+                result = low;
+            }
+            remaining >>= 1;
+            if (remaining > 0) {
+                // Not Math.abs, which leaves Long.MIN_VALUE negative.
+                if (square < -3_037_000_499L || square > 3_037_000_499L)
+                    return null;
+                square *= square;
+            }
+        }
+        return ExactNumber.of(result);
+    }
+
+    private ExactNumber calculateDecimal(ExactNumber firstNumber, ExactNumber secondNumber, char operator) {
+        BigDecimal x = firstNumber.toBigDecimal();
+        BigDecimal y = secondNumber.toBigDecimal();
+        try {
+            switch (operator) {
+                case CalculatorEngine.ADD:
+                    return ExactNumber.of(x.add(y, mathContext));
+                case CalculatorEngine.SUBTRACT:
+                    return ExactNumber.of(x.subtract(y, mathContext));
+                case CalculatorEngine.MULTIPLY:
+                    return ExactNumber.of(x.multiply(y, mathContext));
+                case CalculatorEngine.DIVIDE:
+                    if (y.signum() == 0)
+                        break;
+                    return ExactNumber.of(x.divide(y, mathContext));
+                case CalculatorEngine.MODULO:
+                    if (y.signum() == 0)
+                        break;
+                    return ExactNumber.of(x.remainder(y, mathContext));
+                case CalculatorEngine.POWER:
+                    if (!secondNumber.isLong() || secondNumber.longValue() < -MAX_DECIMAL_EXPONENT
+                            || secondNumber.longValue() > MAX_DECIMAL_EXPONENT || (x.signum() == 0 && secondNumber.longValue() < 0))
+                        break;
+                    return ExactNumber.of(x.pow((int) secondNumber.longValue(), mathContext));
+                default:
+                    return secondNumber;
+            }
+        } catch (ArithmeticException e) {
+            // Exponent overflow or a remainder whose quotient exceeds the precision: fall through to double arithmetic.
+        }
+        return ExactNumber.of(CalculatorEngine.calculate(x.doubleValue(), y.doubleValue(), operator));
+    }
+}
@@ -0,0 +1,194 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/*
+ * A calculator value that is a primitive long whenever it is integral and fits, a BigDecimal when it needs
+ * decimal digits or more range, and a double only for results of transcendental functions or non-finite values.
+ * Factories normalize, so an integral BigDecimal or double within range always comes back as a long.
+ */
+public final class ExactNumber {
+
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final ExactNumber[] CACHE = new ExactNumber[CACHE_HIGH - CACHE_LOW + 1];
+    private static final double MAX_EXACT_DOUBLE = 0x1p53;
+    private static final double LOG10_2 = Math.log10(2);
+    private static final int MAX_LONG_DIGITS = 19;
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new ExactNumber(Kind.LONG, CACHE_LOW + i, null, 0);
+        }
+    }
+
+    public static final ExactNumber ZERO = of(0);
+
+    public enum Kind {
+        LONG, DECIMAL, DOUBLE
+    }
+
+    private final Kind kind;
+    private final long longValue;
+    private final BigDecimal decimalValue;
+    private final double doubleValue;
+
+    private ExactNumber(Kind kind, long longValue, BigDecimal decimalValue, double doubleValue) {
+        this.kind = kind;
+        this.longValue = longValue;
+        this.decimalValue = decimalValue;
+        this.doubleValue = doubleValue;
+    }
+
+    public static ExactNumber of(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH)
+            return CACHE[(int) value - CACHE_LOW];
+
+        return new ExactNumber(Kind.LONG, value, null, 0);
+    }
+
+    public static ExactNumber of(BigDecimal value) {
+        if (value.signum() == 0)
+            return ZERO;
+        if (mayFitLong(value) && (value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0)) {
+            BigInteger integral = value.toBigIntegerExact();
+            if (integral.bitLength() < Long.SIZE)
+                return of(integral.longValue());
+        }
+        return new ExactNumber(Kind.DECIMAL, 0, value, 0);
+    }
+
+    // Whether the value has between 1 and 20 digits before the point, bounded from the bit length of its unscaled
+    // value. precision() and toBigIntegerExact() would compute all digits, seconds of work for a result like 10^50000000.
+    private static boolean mayFitLong(BigDecimal value) {
+        long integerDigits = (long) (value.unscaledValue().bitLength() * LOG10_2) + 1 - (long) value.scale();
+        return integerDigits >= 1 && integerDigits <= MAX_LONG_DIGITS + 1;
+    }
+
+    public static ExactNumber of(double value) {
+        if (value == Math.rint(value) && Math.abs(value) <= MAX_EXACT_DOUBLE && !(value == 0 && 1 / value < 0))
+            return of((long) value);
+
+        return new ExactNumber(Kind.DOUBLE, 0, null, value);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isLong() {
+        return kind == Kind.LONG;
+    }
+
+    public boolean isDecimal() {
+        return kind == Kind.DECIMAL;
+    }
+
+    public boolean isDouble() {
+        return kind == Kind.DOUBLE;
+    }
+
+    public long longValue() {
+        switch (kind) {
+            case LONG:
+                return longValue;
+            case DECIMAL:
+                return decimalValue.longValue();
+            default:
+                return (long) doubleValue;
+        }
+    }
+
+    public double doubleValue() {
+        switch (kind) {
+            case LONG:
+                return longValue;
+            case DECIMAL:
+                return decimalValue.doubleValue();
+            default:
+                return doubleValue;
+        }
+    }
+
+    // Only valid for LONG and DECIMAL values; doubles that are not finite have no decimal form.
+    public BigDecimal toBigDecimal() {
+        switch (kind) {
+            case LONG:
+                return BigDecimal.valueOf(longValue);
+            case DECIMAL:
+                return decimalValue;
+            default:
+                return new BigDecimal(doubleValue);
+        }
+    }
+
+    // Writes the value as the display shows it; returns the number of characters written.
+    public int format(DoubleFormatter formatter, char[] destination, int offset) {
+        switch (kind) {
+            case LONG:
+                return formatter.format(longValue, destination, offset);
+            case DECIMAL:
+                return formatter.format(decimalValue, destination, offset);
+            default:
+                return formatter.format(doubleValue, destination, offset);
+        }
+    }
+
+    public int signum() {
+        switch (kind) {
+            case LONG:
+                return Long.signum(longValue);
+            case DECIMAL:
+                return decimalValue.signum();
+            default:
+                return (int) Math.signum(doubleValue);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ExactNumber))
+            return false;
+
+        ExactNumber other = (ExactNumber) o;
+        if (kind != other.kind)
+            return false;
+        switch (kind) {
+            case LONG:
+                return longValue == other.longValue;
+            case DECIMAL:
+                return decimalValue.compareTo(other.decimalValue) == 0;
+            default:
+                return Double.compare(doubleValue, other.doubleValue) == 0;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        switch (kind) {
+            case LONG:
+                return Long.hashCode(longValue);
+            case DECIMAL:
+                return decimalValue.stripTrailingZeros().hashCode();
+            default:
+                return Double.hashCode(doubleValue);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case LONG:
+                return Long.toString(longValue);
+            case DECIMAL:
+                return decimalValue.toPlainString();
+            default:
+                return Double.toString(doubleValue);
+        }
+    }
+}
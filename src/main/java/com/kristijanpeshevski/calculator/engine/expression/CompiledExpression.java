@@ -0,0 +1,76 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class CompiledExpression {
+
+    private static final double[] NO_VARIABLES = new double[0];
+
+    private final String source;
+    private final Expression root;
+    private final List<String> variableNames;
+    private ExactExpression exactRoot; // Compiled on first use; a race only compiles it twice.
+
+    CompiledExpression(String source, Expression root, List<String> variableNames) {
+        this.source = source;
+        this.root = root;
+        this.variableNames = Collections.unmodifiableList(variableNames);
+    }
+
+    public double evaluate() {
+        if (!variableNames.isEmpty())
+            throw new IllegalStateException("Expression requires variables " + variableNames);
+
+        return root.evaluate(NO_VARIABLES);
+    }
+
+    // The value the keypad would give, with the operators and functions of the calculator.
+    public ExactNumber evaluateExact(ExactCalculator calculator) {
+        if (!variableNames.isEmpty())
+            throw new IllegalStateException("Expression requires variables " + variableNames);
+
+        ExactExpression exact = exactRoot;
+        if (exact == null) {
+            exact = ExpressionParser.compileExact(source);
+            exactRoot = exact;
+        }
+        return exact.evaluate(calculator);
+    }
+
+    // Values are positional and follow the order of variableNames(), the order in which they first appear in the source.
+    public double evaluate(double[] variables) {
+        if (variables.length < variableNames.size())
+            throw new IllegalArgumentException("Expected " + variableNames.size() + " variables but got " + variables.length);
+
+        return root.evaluate(variables);
+    }
+
+    public Expression getRoot() {
+        return root;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getVariableNames() {
+        return variableNames;
+    }
+
+    public int variableIndex(String name) {
+        return variableNames.indexOf(name);
+    }
+
+    public boolean isConstant() {
+        return Nodes.isConstant(root);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,38 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+/*
+ * Evaluates expressions with the keypad's exact arithmetic and writes each result with the display's digits:
+ * decimals rounded to MAX_DECIMAL_DIGITS, and integers of up to that many digits written out in full, so batch
+ * mode and the evaluation server print 0.3 for 0.1 + 0.2 and 18446744073709551616 for 2^64. Compiled
+ * expressions come from a shared cache; the formatter keeps scratch state, so each thread needs its own instance.
+ */
+public final class ExactEvaluator {
+
+    private final ExpressionCache cache;
+    private final ExactCalculator calculator;
+    private final DoubleFormatter formatter = new DoubleFormatter(DoubleFormatter.MAX_SIGNIFICANT_DIGITS,
+            DoubleFormatter.DEFAULT_MIN_PLAIN_EXPONENT, DoubleFormatter.MAX_DECIMAL_DIGITS);
+    private final char[] formatted = new char[formatter.maxDecimalLength()];
+
+    public ExactEvaluator(ExpressionCache cache) {
+        this(cache, new ExactCalculator());
+    }
+
+    public ExactEvaluator(ExpressionCache cache, ExactCalculator calculator) {
+        this.cache = cache;
+        this.calculator = calculator;
+    }
+
+    // Writes the result to getFormatted() and returns its length. Throws ExpressionException for invalid text and
+    // IllegalStateException for an expression with variables.
+    public int evaluate(String source) {
+        return cache.compile(source).evaluateExact(calculator).format(formatter, formatted, 0);
+    }
+
+    public char[] getFormatted() {
+        return formatted;
+    }
+}
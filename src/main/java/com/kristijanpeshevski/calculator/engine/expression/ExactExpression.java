@@ -0,0 +1,11 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+// A constant expression evaluated with the keypad's exact arithmetic.
+@FunctionalInterface
+public interface ExactExpression {
+
+    ExactNumber evaluate(ExactCalculator calculator);
+}
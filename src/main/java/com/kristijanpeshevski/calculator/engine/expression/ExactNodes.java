@@ -0,0 +1,61 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+import java.math.BigDecimal;
+
+// Nothing is folded at compile time: the result depends on the MathContext of the calculator evaluating it.
+final class ExactNodes implements NodeFactory<ExactExpression> {
+
+    static final ExactNodes FACTORY = new ExactNodes();
+
+    private static final ExactNumber MINUS_ONE = ExactNumber.of(-1);
+
+    private ExactNodes() {
+    }
+
+    @Override
+    public ExactExpression number(String literal) {
+        try {
+            return constant(ExactNumber.of(new BigDecimal(literal)));
+        } catch (NumberFormatException e) {
+            // An exponent beyond int range: the double is 0 or infinite.
+            return constant(Double.parseDouble(literal));
+        }
+    }
+
+    @Override
+    public ExactExpression constant(double value) {
+        return constant(ExactNumber.of(value));
+    }
+
+    private static ExactExpression constant(ExactNumber value) {
+        return calculator -> value;
+    }
+
+    @Override
+    public ExactExpression variable(int index) {
+        throw new IllegalStateException("Exact expressions have no variables");
+    }
+
+    @Override
+    public ExactExpression negate(ExactExpression operand) {
+        return calculator -> calculator.calculate(operand.evaluate(calculator), MINUS_ONE, CalculatorEngine.MULTIPLY);
+    }
+
+    @Override
+    public ExactExpression binary(ExactExpression left, ExactExpression right, char operator) {
+        return calculator -> calculator.calculate(left.evaluate(calculator), right.evaluate(calculator), operator);
+    }
+
+    @Override
+    public ExactExpression function(ExactExpression operand, char function) {
+        return calculator -> calculator.apply(function, operand.evaluate(calculator));
+    }
+
+    @Override
+    public ExactExpression modPow(ExactExpression base, ExactExpression exponent, ExactExpression modulus) {
+        return calculator -> calculator.modPow(base.evaluate(calculator), exponent.evaluate(calculator), modulus.evaluate(calculator));
+    }
+}
@@ -0,0 +1,7 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+@FunctionalInterface
+public interface Expression {
+
+    double evaluate(double[] variables);
+}
@@ -0,0 +1,73 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExpressionCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    private final Map<String, CompiledExpression> compiled;
+    private long hits;
+    private long misses;
+
+    public ExpressionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ExpressionCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+
+        this.capacity = capacity;
+        this.compiled = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > ExpressionCache.this.capacity;
+            }
+        };
+    }
+
+    public CompiledExpression compile(String source) {
+        synchronized (this) {
+            CompiledExpression expression = compiled.get(source);
+            if (expression != null) {
+                hits++;
+                return expression;
+            }
+            misses++;
+        }
+
+        // Parse outside the lock; two threads racing on the same new formula both compile it and the last one wins.
+        CompiledExpression expression = ExpressionParser.compile(source);
+        synchronized (this) {
+            compiled.put(source, expression);
+        }
+        return expression;
+    }
+
+    public double evaluate(String source) {
+        return compile(source).evaluate();
+    }
+
+    public synchronized void clear() {
+        compiled.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return compiled.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
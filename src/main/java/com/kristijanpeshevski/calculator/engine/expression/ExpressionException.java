@@ -0,0 +1,15 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+public class ExpressionException extends RuntimeException {
+
+    private final int position;
+
+    public ExpressionException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,265 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Recursive descent parser for the calculator's expression language:
+ *
+ *   expression := term (('+' | '-') term)*
+ *   term       := unary (('*' | '/' | '%') unary)*
+ *   unary      := ('-' | '+') unary | power
+ *   power      := root ('^' unary)?
+ *   root       := '√' root | factorial
+ *   factorial  := primary '!'*
+ *   primary    := number | constant | variable | function '(' arguments ')' | '(' expression ')'
+ *
+ * Binary operators and functions evaluate through CalculatorEngine in double, or through ExactCalculator for
+ * compileExact, which gives exactly the result the keypad would. '×' and '÷' are accepted as aliases for '*'
+ * and '/'.
+ *
+ * Every level of nesting (parentheses, function arguments, unary signs, roots and exponents) costs a few
+ * stack frames, so nesting beyond MAX_DEPTH is rejected as an ExpressionException rather than left to
+ * overflow the stack of whichever thread parses user-supplied text.
+ */
+public class ExpressionParser<E> {
+
+    static final int MAX_DEPTH = 256;
+
+    private final String source;
+    private final NodeFactory<E> nodes;
+    private final List<String> variableNames = new ArrayList<>();
+    private int position;
+    private int depth;
+
+    private ExpressionParser(String source, NodeFactory<E> nodes) {
+        this.source = source;
+        this.nodes = nodes;
+    }
+
+    public static CompiledExpression compile(String source) {
+        ExpressionParser<Expression> parser = new ExpressionParser<>(source, Nodes.FACTORY);
+        return new CompiledExpression(source, parser.parse(), parser.variableNames);
+    }
+
+    // Only for sources without variables; CompiledExpression.evaluateExact checks that first.
+    static ExactExpression compileExact(String source) {
+        return new ExpressionParser<>(source, ExactNodes.FACTORY).parse();
+    }
+
+    private E parse() {
+        E root = parseExpression();
+        skipWhitespace();
+        if (position < source.length())
+            throw new ExpressionException("Unexpected '" + source.charAt(position) + "'", position);
+
+        return root;
+    }
+
+    private E parseExpression() {
+        E left = parseTerm();
+        while (true) {
+            if (accept('+')) {
+                left = nodes.binary(left, parseTerm(), CalculatorEngine.ADD);
+            } else if (accept('-')) {
+                left = nodes.binary(left, parseTerm(), CalculatorEngine.SUBTRACT);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private E parseTerm() {
+        E left = parseUnary();
+        while (true) {
+            if (accept('*') || accept('×')) {
+                left = nodes.binary(left, parseUnary(), CalculatorEngine.MULTIPLY);
+            } else if (accept('/') || accept('÷')) {
+                left = nodes.binary(left, parseUnary(), CalculatorEngine.DIVIDE);
+            } else if (accept('%')) {
+                left = nodes.binary(left, parseUnary(), CalculatorEngine.MODULO);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private E parseUnary() {
+        enter();
+        try {
+            if (accept('-'))
+                return nodes.negate(parseUnary());
+            if (accept('+'))
+                return parseUnary();
+
+            return parsePower();
+        } finally {
+            depth--;
+        }
+    }
+
+    private E parsePower() {
+        E base = parseRoot();
+        if (accept('^'))
+            return nodes.binary(base, parseUnary(), CalculatorEngine.POWER);
+
+        return base;
+    }
+
+    private E parseRoot() {
+        if (accept('√')) {
+            enter();
+            try {
+                return nodes.function(parseRoot(), CalculatorEngine.ROOT);
+            } finally {
+                depth--;
+            }
+        }
+
+        E operand = parsePrimary();
+        while (accept('!'))
+            operand = nodes.function(operand, CalculatorEngine.FACTORIAL);
+        return operand;
+    }
+
+    private E parsePrimary() {
+        skipWhitespace();
+        if (position >= source.length())
+            throw new ExpressionException("Unexpected end of expression", position);
+
+        char c = source.charAt(position);
+        if (c == '(') {
+            position++;
+            E inner = parseExpression();
+            expect(')');
+            return inner;
+        }
+        if (isDigit(c) || c == '.')
+            return nodes.number(parseNumber());
+        if (Character.isLetter(c))
+            return parseIdentifier();
+
+        throw new ExpressionException("Unexpected '" + c + "'", position);
+    }
+
+    private E parseIdentifier() {
+        int start = position;
+        while (position < source.length() && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '_'))
+            position++;
+        String name = source.substring(start, position);
+
+        if (accept('('))
+            return parseFunction(name, start);
+
+        switch (name) {
+            case "pi":
+                return nodes.constant(Math.PI);
+            case "e":
+                return nodes.constant(Math.E);
+            default:
+                int index = variableNames.indexOf(name);
+                if (index < 0) {
+                    index = variableNames.size();
+                    variableNames.add(name);
+                }
+                return nodes.variable(index);
+        }
+    }
+
+    private E parseFunction(String name, int start) {
+        E argument = parseExpression();
+        switch (name) {
+            case "sqrt":
+                expect(')');
+                return nodes.function(argument, CalculatorEngine.ROOT);
+            case "ln":
+                expect(')');
+                return nodes.function(argument, CalculatorEngine.LOG);
+            case "factorial":
+                expect(')');
+                return nodes.function(argument, CalculatorEngine.FACTORIAL);
+            case "fib":
+                expect(')');
+                return nodes.function(argument, CalculatorEngine.FIBONACCI);
+            case "pow":
+                return nodes.binary(argument, parseLastArgument(), CalculatorEngine.POWER);
+            case "binomial":
+                return nodes.binary(argument, parseLastArgument(), CalculatorEngine.BINOMIAL);
+            case "modpow":
+                expect(',');
+                E exponent = parseExpression();
+                return nodes.modPow(argument, exponent, parseLastArgument());
+            default:
+                throw new ExpressionException("Unknown function '" + name + "'", start);
+        }
+    }
+
+    private E parseLastArgument() {
+        expect(',');
+        E argument = parseExpression();
+        expect(')');
+        return argument;
+    }
+
+    private String parseNumber() {
+        int start = position;
+        while (position < source.length() && isDigit(source.charAt(position)))
+            position++;
+        if (position < source.length() && source.charAt(position) == '.') {
+            position++;
+            while (position < source.length() && isDigit(source.charAt(position)))
+                position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < source.length() && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-'))
+                exponent++;
+            if (exponent < source.length() && isDigit(source.charAt(exponent))) {
+                position = exponent;
+                while (position < source.length() && isDigit(source.charAt(position)))
+                    position++;
+            }
+        }
+
+        String number = source.substring(start, position);
+        if (number.equals("."))
+            throw new ExpressionException("Malformed number", start);
+
+        return number;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            depth--;
+            throw new ExpressionException("Expression nested too deeply", position);
+        }
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            if (position >= source.length())
+                throw new ExpressionException("Expected '" + expected + "' but reached end of expression", position);
+            throw new ExpressionException("Expected '" + expected + "' but found '" + source.charAt(position) + "'", position);
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position)))
+            position++;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
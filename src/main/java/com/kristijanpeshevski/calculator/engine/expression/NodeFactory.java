@@ -0,0 +1,20 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+// Builds the nodes of one kind of expression tree for ExpressionParser.
+interface NodeFactory<E> {
+
+    // The literal as written, e.g. "1.5e2".
+    E number(String literal);
+
+    E constant(double value);
+
+    E variable(int index);
+
+    E negate(E operand);
+
+    E binary(E left, E right, char operator);
+
+    E function(E operand, char function);
+
+    E modPow(E base, E exponent, E modulus);
+}
@@ -0,0 +1,110 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+
+final class Nodes {
+
+    static final NodeFactory<Expression> FACTORY = new NodeFactory<>() {
+        @Override
+        public Expression number(String literal) {
+            return constant(Double.parseDouble(literal));
+        }
+
+        @Override
+        public Expression constant(double value) {
+            return Nodes.constant(value);
+        }
+
+        @Override
+        public Expression variable(int index) {
+            return Nodes.variable(index);
+        }
+
+        @Override
+        public Expression negate(Expression operand) {
+            return Nodes.negate(operand);
+        }
+
+        @Override
+        public Expression binary(Expression left, Expression right, char operator) {
+            return Nodes.binary(left, right, operator);
+        }
+
+        @Override
+        public Expression function(Expression operand, char function) {
+            return Nodes.function(operand, function);
+        }
+
+        @Override
+        public Expression modPow(Expression base, Expression exponent, Expression modulus) {
+            return Nodes.modPow(base, exponent, modulus);
+        }
+    };
+
+    private Nodes() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    static Expression constant(double value) {
+        return new Constant(value);
+    }
+
+    static Expression variable(int index) {
+        return variables -> variables[index];
+    }
+
+    static Expression negate(Expression operand) {
+        if (operand instanceof Constant)
+            return new Constant(-((Constant) operand).value);
+
+        return variables -> -operand.evaluate(variables);
+    }
+
+    static Expression binary(Expression left, Expression right, char operator) {
+        if (left instanceof Constant && right instanceof Constant)
+            return new Constant(CalculatorEngine.calculate(((Constant) left).value, ((Constant) right).value, operator));
+
+        switch (operator) {
+            case CalculatorEngine.ADD:
+                return variables -> left.evaluate(variables) + right.evaluate(variables);
+            case CalculatorEngine.SUBTRACT:
+                return variables -> left.evaluate(variables) - right.evaluate(variables);
+            case CalculatorEngine.MULTIPLY:
+                return variables -> left.evaluate(variables) * right.evaluate(variables);
+            default:
+                return variables -> CalculatorEngine.calculate(left.evaluate(variables), right.evaluate(variables), operator);
+        }
+    }
+
+    static Expression function(Expression operand, char function) {
+        if (operand instanceof Constant)
+            return new Constant(CalculatorEngine.apply(function, ((Constant) operand).value));
+
+        return variables -> CalculatorEngine.apply(function, operand.evaluate(variables));
+    }
+
+    static Expression modPow(Expression base, Expression exponent, Expression modulus) {
+        if (base instanceof Constant && exponent instanceof Constant && modulus instanceof Constant)
+            return new Constant(CalculatorEngine.modPow(((Constant) base).value, ((Constant) exponent).value, ((Constant) modulus).value));
+
+        return variables -> CalculatorEngine.modPow(base.evaluate(variables), exponent.evaluate(variables), modulus.evaluate(variables));
+    }
+
+    static boolean isConstant(Expression expression) {
+        return expression instanceof Constant;
+    }
+
+    private static final class Constant implements Expression {
+
+        private final double value;
+
+        private Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double[] variables) {
+            return value;
+        }
+    }
+}
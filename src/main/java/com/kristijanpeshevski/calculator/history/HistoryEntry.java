@@ -0,0 +1,79 @@
+package com.kristijanpeshevski.calculator.history;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+/*
+ * One completed operation. Functions (√, ln) have no second operand.
+ */
+public final class HistoryEntry {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final ExactNumber firstOperand;
+    private final char operator;
+    private final ExactNumber secondOperand;
+    private final ExactNumber result;
+
+    public HistoryEntry(long sequence, long timestampMillis, ExactNumber firstOperand, char operator,
+                        ExactNumber secondOperand, ExactNumber result) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.firstOperand = firstOperand;
+        this.operator = operator;
+        this.secondOperand = secondOperand;
+        this.result = result;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public ExactNumber getFirstOperand() {
+        return firstOperand;
+    }
+
+    public char getOperator() {
+        return operator;
+    }
+
+    // Null for functions.
+    public ExactNumber getSecondOperand() {
+        return secondOperand;
+    }
+
+    public ExactNumber getResult() {
+        return result;
+    }
+
+    public boolean isFunction() {
+        return CalculatorEngine.isFunction(operator);
+    }
+
+    @Override
+    public String toString() {
+        if (operator == CalculatorEngine.FACTORIAL)
+            return firstOperand + "! = " + result;
+        String operatorText = operatorText(operator);
+        if (secondOperand == null)
+            return operatorText + " " + firstOperand + " = " + result;
+
+        return firstOperand + " " + operatorText + " " + secondOperand + " = " + result;
+    }
+
+    // How the operator is written between or before its operands; factorial alone is written after.
+    public static String operatorText(char operator) {
+        switch (operator) {
+            case CalculatorEngine.LOG:
+                return "ln";
+            case CalculatorEngine.FIBONACCI:
+                return "fib";
+            default:
+                return String.valueOf(operator);
+        }
+    }
+}
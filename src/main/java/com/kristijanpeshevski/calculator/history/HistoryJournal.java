@@ -0,0 +1,360 @@
+package com.kristijanpeshevski.calculator.history;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+ * Append-only journal of HistoryEntry records in memory-mapped segment files of recordsPerSegment fixed
+ * 64 byte slots ("history-000000.journal", ...). An append claims the next slot with one atomic increment,
+ * fills it with plain stores and publishes it by writing the timestamp last with release semantics, so
+ * appenders never lock or wait for each other and readers never see a half written record. Segments are
+ * created, sized and mapped once, when the first slot in them is claimed.
+ *
+ * Slot layout (little endian):
+ *    0 timestamp millis, 0 while the slot is not committed
+ *    8 first operand     16 second operand     24 result          value bits, tagged by the kind bytes
+ *   32 first scale       36 second scale       40 result scale    int
+ *   44 operator char     46 first kind         47 second kind     48 result kind
+ *   49 reserved
+ *
+ * Exact decimals keep their unscaled long and scale; decimals beyond 18 digits are stored as the nearest
+ * double. Sequences are assigned in append order and timestamps are expected to follow it, which holds for
+ * a single appending thread such as the calculator's history writer; time lookups binary search on that.
+ * A journal holds an exclusive lock on "history.lock" while it is open: two journals on one directory would
+ * recover the same next sequence and overwrite each other's records.
+ */
+public class HistoryJournal implements Closeable {
+
+    public static final int RECORD_SIZE = 64;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "history.lock";
+    private static final int RECOVERY_SCAN = 1024;
+
+    private static final int TIMESTAMP = 0;
+    private static final int FIRST_BITS = 8;
+    private static final int SECOND_BITS = 16;
+    private static final int RESULT_BITS = 24;
+    private static final int FIRST_SCALE = 32;
+    private static final int SECOND_SCALE = 36;
+    private static final int RESULT_SCALE = 40;
+    private static final int OPERATOR = 44;
+    private static final int FIRST_KIND = 46;
+    private static final int SECOND_KIND = 47;
+    private static final int RESULT_KIND = 48;
+
+    private static final byte KIND_NONE = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_DECIMAL = 2;
+    private static final byte KIND_DOUBLE = 3;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final FileChannel lock;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile boolean closed;
+
+    private HistoryJournal(Path directory, int recordsPerSegment, FileChannel lock) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.lock = lock;
+    }
+
+    public static HistoryJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    // Fails if another journal, in this or another process, has the directory open.
+    public static HistoryJournal open(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment < 1 || (long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Records per segment must be between 1 and " + Integer.MAX_VALUE / RECORD_SIZE);
+
+        Files.createDirectories(directory);
+        FileChannel lock = lock(directory);
+        try {
+            HistoryJournal journal = new HistoryJournal(directory, recordsPerSegment, lock);
+            journal.recover();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            lock.close();
+            throw e;
+        }
+    }
+
+    public long append(ExactNumber firstOperand, char operator, ExactNumber secondOperand, ExactNumber result) {
+        return append(System.currentTimeMillis(), firstOperand, operator, secondOperand, result);
+    }
+
+    // Returns the sequence of the new entry.
+    public long append(long timestampMillis, ExactNumber firstOperand, char operator, ExactNumber secondOperand,
+                       ExactNumber result) {
+        if (closed)
+            throw new IllegalStateException("History journal is closed");
+
+        long sequence = nextSequence.getAndIncrement();
+        MappedByteBuffer segment = segment(segmentOf(sequence), true);
+        int offset = offsetOf(sequence);
+        write(segment, offset + FIRST_BITS, offset + FIRST_SCALE, offset + FIRST_KIND, firstOperand);
+        write(segment, offset + SECOND_BITS, offset + SECOND_SCALE, offset + SECOND_KIND, secondOperand);
+        write(segment, offset + RESULT_BITS, offset + RESULT_SCALE, offset + RESULT_KIND, result);
+        segment.putChar(offset + OPERATOR, operator);
+        LONGS.setRelease(segment, offset + TIMESTAMP, Math.max(1, timestampMillis));
+        return sequence;
+    }
+
+    // Number of sequences handed out; the newest ones may still be being written.
+    public long size() {
+        return nextSequence.get();
+    }
+
+    // Null if the entry has not been committed (yet).
+    public HistoryEntry get(long sequence) {
+        long timestamp = timestampOf(sequence);
+        if (timestamp == 0)
+            return null;
+
+        MappedByteBuffer segment = segment(segmentOf(sequence), false);
+        int offset = offsetOf(sequence);
+        return new HistoryEntry(sequence, timestamp,
+                read(segment, offset + FIRST_BITS, offset + FIRST_SCALE, offset + FIRST_KIND),
+                segment.getChar(offset + OPERATOR),
+                read(segment, offset + SECOND_BITS, offset + SECOND_SCALE, offset + SECOND_KIND),
+                read(segment, offset + RESULT_BITS, offset + RESULT_SCALE, offset + RESULT_KIND));
+    }
+
+    // Timestamp of the entry, or 0 if it has not been committed.
+    public long timestampOf(long sequence) {
+        if (sequence < 0 || sequence >= size())
+            throw new IndexOutOfBoundsException("Sequence " + sequence + " outside [0, " + size() + ")");
+
+        MappedByteBuffer segment = segment(segmentOf(sequence), false);
+        return segment == null ? 0 : (long) LONGS.getAcquire(segment, offsetOf(sequence) + TIMESTAMP);
+    }
+
+    // Sequence of the first entry stamped at or after the given time, or size() if there is none.
+    public long firstAtOrAfter(long timestampMillis) {
+        long low = 0;
+        long high = size();
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            long timestamp = timestampOf(middle);
+            if (timestamp != 0 && timestamp < timestampMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Visits the committed entries stamped within [fromMillis, toMillis] in sequence order.
+    public void forEachInRange(long fromMillis, long toMillis, Consumer<HistoryEntry> action) {
+        long end = size();
+        for (long sequence = firstAtOrAfter(fromMillis); sequence < end; sequence++) {
+            HistoryEntry entry = get(sequence);
+            if (entry == null)
+                continue;
+            if (entry.getTimestampMillis() > toMillis)
+                return;
+            action.accept(entry);
+        }
+    }
+
+    public long countInRange(long fromMillis, long toMillis) {
+        return toMillis < fromMillis ? 0 : firstAtOrAfter(toMillis + 1) - firstAtOrAfter(fromMillis);
+    }
+
+    public int getRecordsPerSegment() {
+        return recordsPerSegment;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Writes dirty pages to disk; without it they reach disk when the OS decides, which survives a crash of the JVM.
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            if (segment != null)
+                segment.force();
+        }
+    }
+
+    // Releases the directory; appends after it fail.
+    @Override
+    public void close() {
+        closed = true;
+        force();
+        try {
+            lock.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot release " + directory.resolve(LOCK_FILE), e);
+        }
+    }
+
+    private static FileChannel lock(Path directory) throws IOException {
+        Path file = directory.resolve(LOCK_FILE);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            // Null when another process holds it, OverlappingFileLockException when this one does.
+            if (channel.tryLock() != null)
+                return channel;
+        } catch (OverlappingFileLockException e) {
+            // Fall through.
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        throw new IOException("History is in use by another calculator: " + file);
+    }
+
+    private void recover() throws IOException {
+        int lastSegment = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                lastSegment = Math.max(lastSegment, segmentIndex(file.getFileName().toString()));
+            }
+        }
+        if (lastSegment < 0)
+            return;
+
+        long segmentStart = (long) lastSegment * recordsPerSegment;
+        MappedByteBuffer segment = segment(lastSegment, false);
+
+        // Committed slots form a prefix, except for slots a crash interrupted while concurrent appends went on.
+        int low = 0;
+        int high = recordsPerSegment;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((long) LONGS.getAcquire(segment, middle * RECORD_SIZE + TIMESTAMP) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int slot = low; slot < Math.min(recordsPerSegment, low + RECOVERY_SCAN); slot++) {
+            if ((long) LONGS.getAcquire(segment, slot * RECORD_SIZE + TIMESTAMP) != 0)
+                low = slot + 1;
+        }
+        nextSequence.set(segmentStart + low);
+    }
+
+    private MappedByteBuffer segment(int index, boolean create) {
+        MappedByteBuffer[] mapped = segments;
+        if (index < mapped.length && mapped[index] != null)
+            return mapped[index];
+
+        synchronized (this) {
+            mapped = segments;
+            if (index < mapped.length && mapped[index] != null)
+                return mapped[index];
+
+            Path file = directory.resolve(segmentName(index));
+            if (!create && !Files.exists(file))
+                return null;
+
+            MappedByteBuffer segment = map(file);
+            mapped = Arrays.copyOf(mapped, Math.max(mapped.length, index + 1));
+            mapped[index] = segment;
+            segments = mapped;
+            return segment;
+        }
+    }
+
+    private MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map history segment " + file, e);
+        }
+    }
+
+    private int segmentOf(long sequence) {
+        return Math.toIntExact(sequence / recordsPerSegment);
+    }
+
+    private int offsetOf(long sequence) {
+        return (int) (sequence % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static String segmentName(int index) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static int segmentIndex(String fileName) {
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void write(MappedByteBuffer segment, int bitsOffset, int scaleOffset, int kindOffset, ExactNumber value) {
+        byte kind = KIND_NONE;
+        long bits = 0;
+        int scale = 0;
+        if (value != null) {
+            switch (value.getKind()) {
+                case LONG:
+                    kind = KIND_LONG;
+                    bits = value.longValue();
+                    break;
+                case DECIMAL:
+                    BigDecimal decimal = value.toBigDecimal();
+                    if (decimal.unscaledValue().bitLength() < Long.SIZE) {
+                        kind = KIND_DECIMAL;
+                        bits = decimal.unscaledValue().longValue();
+                        scale = decimal.scale();
+                        break;
+                    }
+                    // Too many digits for the slot: fall through to the nearest double.
+                default:
+                    kind = KIND_DOUBLE;
+                    bits = Double.doubleToRawLongBits(value.doubleValue());
+            }
+        }
+        segment.putLong(bitsOffset, bits);
+        segment.putInt(scaleOffset, scale);
+        segment.put(kindOffset, kind);
+    }
+
+    private static ExactNumber read(MappedByteBuffer segment, int bitsOffset, int scaleOffset, int kindOffset) {
+        long bits = segment.getLong(bitsOffset);
+        switch (segment.get(kindOffset)) {
+            case KIND_LONG:
+                return ExactNumber.of(bits);
+            case KIND_DECIMAL:
+                return ExactNumber.of(BigDecimal.valueOf(bits, segment.getInt(scaleOffset)));
+            case KIND_DOUBLE:
+                return ExactNumber.of(Double.longBitsToDouble(bits));
+            default:
+                return null;
+        }
+    }
+}
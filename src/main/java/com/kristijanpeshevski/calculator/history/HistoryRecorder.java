@@ -0,0 +1,119 @@
+package com.kristijanpeshevski.calculator.history;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.input.OperationListener;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Records completed operations from the event dispatch thread without touching the disk on it: the EDT only
+ * stamps the time and queues the entry. A single background thread opens the journal, appends in order and
+ * forces dirty pages to disk once a second and at exit. If the journal cannot be opened, for instance because
+ * another calculator holds its lock, the calculator keeps working without history and getDisabledReason() says why.
+ */
+public class HistoryRecorder implements OperationListener, AutoCloseable {
+
+    public static final String HISTORY_DIRECTORY_PROPERTY = "calculator.history";
+
+    private static final long FORCE_INTERVAL_MILLIS = 1000;
+
+    private final ScheduledExecutorService writer =
+            Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreads("calculator-history"));
+    final Thread shutdownHook = new Thread(this::close, "calculator-history-shutdown");
+    private volatile HistoryJournal journal;
+    private volatile String disabledReason;
+    private volatile boolean dirty;
+
+    public HistoryRecorder(Path directory) {
+        writer.execute(() -> open(directory));
+        writer.scheduleWithFixedDelay(this::force, FORCE_INTERVAL_MILLIS, FORCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // -Dcalculator.history=<directory>, otherwise ~/.calculator/history.
+    public static Path defaultDirectory() {
+        String configured = System.getProperty(HISTORY_DIRECTORY_PROPERTY);
+        if (configured != null && !configured.isEmpty())
+            return Paths.get(configured);
+
+        return Paths.get(System.getProperty("user.home"), ".calculator", "history");
+    }
+
+    @Override
+    public void operationCompleted(ExactNumber firstOperand, char operator, ExactNumber secondOperand, ExactNumber result) {
+        long timestamp = System.currentTimeMillis();
+        try {
+            writer.execute(() -> append(timestamp, firstOperand, operator, secondOperand, result));
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the entry is lost with the process.
+        }
+    }
+
+    // Null until the journal has been opened, and if it could not be.
+    public HistoryJournal getJournal() {
+        return journal;
+    }
+
+    // Why the journal could not be opened; null while it is being opened and once it is.
+    public String getDisabledReason() {
+        return disabledReason;
+    }
+
+    // Also run by the shutdown hook; a recorder closed earlier, as when the last window closes, drops the hook so
+    // it does not keep the recorder reachable for the rest of the process.
+    @Override
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, possibly in this very hook.
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(FORCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        HistoryJournal opened = journal;
+        if (opened != null)
+            opened.close();
+    }
+
+    private void open(Path directory) {
+        try {
+            journal = HistoryJournal.open(directory);
+        } catch (IOException | UncheckedIOException e) {
+            disabledReason = e.getMessage();
+            System.err.println("History disabled, cannot open " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void append(long timestamp, ExactNumber firstOperand, char operator, ExactNumber secondOperand, ExactNumber result) {
+        HistoryJournal opened = journal;
+        if (opened == null)
+            return;
+
+        try {
+            opened.append(timestamp, firstOperand, operator, secondOperand, result);
+            dirty = true;
+        } catch (UncheckedIOException e) {
+            System.err.println("Cannot record history: " + e.getMessage());
+        }
+    }
+
+    private void force() {
+        HistoryJournal opened = journal;
+        if (opened != null && dirty) {
+            dirty = false;
+            opened.force();
+        }
+    }
+}
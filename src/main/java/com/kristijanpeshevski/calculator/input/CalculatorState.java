@@ -0,0 +1,289 @@
+package com.kristijanpeshevski.calculator.input;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.EvaluationScheduler;
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/*
+ * The keypad's state machine. With an EvaluationScheduler, operations on large numbers are computed in the
+ * background: the state only changes once the result is back, and keys pressed meanwhile wait their turn.
+ * Clear, entering a value and cancel() drop a running evaluation together with the keys waiting for it.
+ */
+public class CalculatorState {
+
+    private static final MathContext DISPLAY_ROUNDING = new MathContext(DoubleFormatter.MAX_DECIMAL_DIGITS, RoundingMode.HALF_EVEN);
+
+    private final InputBuffer display = new InputBuffer();
+    private final DoubleFormatter formatter;
+    private final ExactCalculator calculator;
+
+    private char selectedOperator = ' ';
+    private boolean go = true; // For calculate with Opt != (=)
+    private boolean addToDisplay = true; // Connect numbers in display
+    private ExactNumber typedValue = ExactNumber.ZERO;
+    private OperationListener operationListener;
+    private InputListener inputListener;
+    private EvaluationScheduler scheduler;
+    private final ArrayDeque<Key> waiting = new ArrayDeque<>();
+    private Key evaluating; // Started the running evaluation, reported to inputListener once its result is shown
+
+    public CalculatorState() {
+        this(new DoubleFormatter(), new ExactCalculator());
+    }
+
+    public CalculatorState(DoubleFormatter formatter) {
+        this(formatter, new ExactCalculator());
+    }
+
+    public CalculatorState(DoubleFormatter formatter, ExactCalculator calculator) {
+        this.formatter = formatter;
+        this.calculator = calculator;
+    }
+
+    public void press(Key key) {
+        if (isBusy()) {
+            if (key != Key.CLEAR) {
+                waiting.add(key);
+                return;
+            }
+            cancel();
+        }
+
+        apply(key);
+        if (isBusy())
+            evaluating = key;
+        else if (inputListener != null)
+            inputListener.keyPressed(key);
+    }
+
+    private void apply(Key key) {
+        switch (key) {
+            case CLEAR:
+                display.reset('0');
+                selectedOperator = ' ';
+                typedValue = ExactNumber.ZERO;
+                break;
+            case BACK:
+                // Only typed digits are edited: cutting a character off a result such as "1.5E20" or "Infinity"
+                // would silently leave a different number, so a result is cleared instead.
+                if (!addToDisplay || !display.isNumber() || display.contains('E')) {
+                    display.reset('0');
+                    break;
+                }
+                display.removeLast();
+                if (display.length() == 0)
+                    display.reset('0');
+                break;
+            case POINT:
+                point();
+                break;
+            case MODULO:
+                if (!display.isNumber() || !go)
+                    return;
+                operator(key.getSymbol());
+                break;
+            case DIVIDE:
+            case MULTIPLY:
+            case SUBTRACT:
+            case ADD:
+            case POWER:
+                if (!display.isNumber())
+                    return;
+                if (go) {
+                    operator(key.getSymbol());
+                } else {
+                    selectedOperator = key.getSymbol();
+                }
+                break;
+            case EQUAL:
+                if (!display.isNumber() || !go)
+                    return;
+                calculate(() -> {
+                    selectedOperator = '=';
+                    addToDisplay = false;
+                });
+                break;
+            case ROOT:
+            case LOG:
+            case FACTORIAL:
+            case FIBONACCI:
+                if (!display.isNumber() || !go)
+                    return;
+                char function = key.getSymbol();
+                evaluate(operand -> calculator.estimateCost(function, operand), operand -> calculator.apply(function, operand), (operand, result) -> {
+                    typedValue = result;
+                    if (operationListener != null)
+                        operationListener.operationCompleted(operand, function, null, typedValue);
+                    selectedOperator = function;
+                    addToDisplay = false;
+                });
+                break;
+            default:
+                digit(key.getSymbol());
+        }
+    }
+
+    // Enters a complete value, e.g. a pasted number, as if it were a result: the next digit starts a new
+    // number and the next operator or equals uses it as its operand.
+    public void enter(ExactNumber value) {
+        cancel();
+        display.setValue(value, formatter);
+        addToDisplay = false;
+        go = true;
+        if (inputListener != null)
+            inputListener.valueEntered(value);
+    }
+
+    private void digit(char digit) {
+        if (addToDisplay) {
+            if (display.isZeros()) {
+                display.reset(digit);
+            } else {
+                display.append(digit);
+            }
+        } else {
+            display.reset(digit);
+            addToDisplay = true;
+        }
+        go = true;
+    }
+
+    private void point() {
+        if (addToDisplay) {
+            if (!display.contains('.')) {
+                display.append('.');
+            }
+        } else {
+            display.reset('0');
+            display.append('.');
+            addToDisplay = true;
+        }
+        go = true;
+    }
+
+    // Drops the evaluation running in the background and the keys waiting for it, leaving the state as it
+    // was before the key that started it. Returns whether there was one.
+    public boolean cancel() {
+        waiting.clear();
+        evaluating = null;
+        return scheduler != null && scheduler.cancel();
+    }
+
+    public boolean isBusy() {
+        return scheduler != null && scheduler.isBusy();
+    }
+
+    public void setScheduler(EvaluationScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    private void operator(char operator) {
+        calculate(() -> {
+            selectedOperator = operator;
+            go = false;
+            addToDisplay = false;
+        });
+    }
+
+    private void calculate(Runnable then) {
+        ExactNumber firstOperand = typedValue;
+        char operator = selectedOperator;
+        evaluate(secondOperand -> calculator.estimateCost(firstOperand, secondOperand, operator),
+                secondOperand -> calculator.calculate(firstOperand, secondOperand, operator), (secondOperand, result) -> {
+                    typedValue = result;
+                    if (operationListener != null && CalculatorEngine.isBinaryOperator(operator))
+                        operationListener.operationCompleted(firstOperand, operator, secondOperand, typedValue);
+                    then.run();
+                });
+    }
+
+    // Computes the result for the display's operand now or in the background, shows it and then applies the rest
+    // of the key. An operand whose exact value has to be parsed from the text, such as "1E20000000", is parsed by
+    // the computation; the estimate then only counts the other operand, which is what integral powers expand.
+    private void evaluate(ToLongFunction<ExactNumber> cost, UnaryOperator<ExactNumber> computation,
+                          BiConsumer<ExactNumber, ExactNumber> then) {
+        InputBuffer operandText = display.copy();
+        ExactNumber parsed = operandText.isLarge() ? null : operandText.exactValue();
+        Supplier<Result> work = () -> {
+            ExactNumber operand = parsed != null ? parsed : operandText.exactValue();
+            return new Result(operand, computation.apply(operand));
+        };
+        if (scheduler == null) {
+            show(work.get(), then);
+            return;
+        }
+
+        long estimate = cost.applyAsLong(parsed != null ? parsed : ExactNumber.ZERO);
+        scheduler.submit(estimate, work, result -> {
+            show(result, then);
+            Key started = evaluating;
+            evaluating = null;
+            if (started != null && inputListener != null)
+                inputListener.keyPressed(started);
+            while (!waiting.isEmpty() && !isBusy())
+                press(waiting.poll());
+        }, failure -> {
+            waiting.clear();
+            evaluating = null;
+            display.setValue(ExactNumber.of(Double.NaN), formatter);
+        });
+    }
+
+    private void show(Result result, BiConsumer<ExactNumber, ExactNumber> then) {
+        display.setValue(result.shown, formatter);
+        then.accept(result.operand, result.value);
+    }
+
+    public void setOperationListener(OperationListener operationListener) {
+        this.operationListener = operationListener;
+    }
+
+    public void setInputListener(InputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    public InputBuffer getDisplay() {
+        return display;
+    }
+
+    public char getSelectedOperator() {
+        return selectedOperator;
+    }
+
+    public double getTypedValue() {
+        return typedValue.doubleValue();
+    }
+
+    public ExactNumber getExactValue() {
+        return typedValue;
+    }
+
+    public ExactCalculator getCalculator() {
+        return calculator;
+    }
+
+    // A result and its value rounded as the display shows it. Rounding a number of a million digits takes a
+    // while, so it is done along with the computation, in the background when that is.
+    private static final class Result {
+
+        private final ExactNumber operand;
+        private final ExactNumber value;
+        private final ExactNumber shown;
+
+        private Result(ExactNumber operand, ExactNumber value) {
+            this.operand = operand;
+            this.value = value;
+            this.shown = value.isDecimal() ? ExactNumber.of(value.toBigDecimal().round(DISPLAY_ROUNDING)) : value;
+        }
+    }
+}
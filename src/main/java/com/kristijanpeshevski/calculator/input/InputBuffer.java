@@ -0,0 +1,266 @@
+package com.kristijanpeshevski.calculator.input;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Text of the calculator display backed by a growable char[]. The numeric value is tracked as digits are
+ * typed (a long mantissa plus the number of fraction digits), so reading it back never needs a regex or a
+ * String. Mutations also record the first changed index, letting the view patch only the changed tail.
+ */
+public class InputBuffer implements CharSequence {
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length;
+
+    private static final int START = 0;
+    private static final int SIGN = 1;
+    private static final int INTEGER = 2;
+    private static final int POINT = 3;
+    private static final int FRACTION = 4;
+    private static final int EXPONENT_MARK = 5;
+    private static final int EXPONENT_SIGN = 6;
+    private static final int EXPONENT = 7;
+    private static final int INVALID = 8;
+    private static final int MAX_TRACKED_EXPONENT = 1000;
+
+    private int state;
+    private boolean negative;
+    private long mantissa;
+    private int fractionDigits;
+    private boolean mantissaOverflow;
+    private boolean negativeExponent;
+    private int exponent;
+
+    private int syncedLength;
+    private int dirtyFrom;
+
+    public InputBuffer() {
+        reset('0');
+    }
+
+    public void reset(char c) {
+        dirtyFrom = 0;
+        length = 0;
+        clearValue();
+        append(c);
+    }
+
+    public void setText(CharSequence text) {
+        dirtyFrom = 0;
+        length = 0;
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            chars[length++] = text.charAt(i);
+        }
+        rescan();
+    }
+
+    public void setValue(double value, DoubleFormatter formatter) {
+        dirtyFrom = 0;
+        ensureCapacity(formatter.maxLength());
+        length = formatter.format(value, chars, 0);
+        rescan();
+    }
+
+    public void setValue(ExactNumber value, DoubleFormatter formatter) {
+        dirtyFrom = 0;
+        ensureCapacity(formatter.maxDecimalLength());
+        length = value.format(formatter, chars, 0);
+        rescan();
+    }
+
+    public void append(char c) {
+        ensureCapacity(length + 1);
+        dirtyFrom = Math.min(dirtyFrom, length);
+        chars[length++] = c;
+        track(c);
+    }
+
+    public void removeLast() {
+        if (length == 0)
+            return;
+
+        length--;
+        dirtyFrom = Math.min(dirtyFrom, length);
+        rescan();
+    }
+
+    public boolean contains(char c) {
+        for (int i = 0; i < length; i++) {
+            if (chars[i] == c)
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isZeros() {
+        for (int i = 0; i < length; i++) {
+            if (chars[i] != '0')
+                return false;
+        }
+        return true;
+    }
+
+    // The former "([-]?\d+[.]\d*)|(\d+)|(-\d+)" check, extended with the "E[-]\d+" suffix DoubleFormatter writes.
+    public boolean isNumber() {
+        return state == INTEGER || state == POINT || state == FRACTION || state == EXPONENT;
+    }
+
+    public double doubleValue() {
+        if (!isNumber())
+            return Double.NaN;
+
+        int scale = (negativeExponent ? -exponent : exponent) - fractionDigits;
+        if (mantissaOverflow || mantissa > MAX_EXACT_MANTISSA || Math.abs(scale) >= POWERS_OF_TEN.length)
+            return Double.parseDouble(toString());
+
+        // Both operands are exact doubles, so a single multiplication or division yields the correctly rounded value.
+        double value = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+        return negative ? -value : value;
+    }
+
+    // Exact decimal value of the display; only a mantissa beyond long range needs to be parsed from the text.
+    public ExactNumber exactValue() {
+        if (!isNumber())
+            return ExactNumber.of(Double.NaN);
+
+        if (isLarge())
+            return ExactNumber.of(new BigDecimal(toString()));
+
+        long signedMantissa = negative ? -mantissa : mantissa;
+        int scale = fractionDigits - (negativeExponent ? -exponent : exponent);
+        if (scale == 0)
+            return ExactNumber.of(signedMantissa);
+
+        return ExactNumber.of(BigDecimal.valueOf(signedMantissa, scale));
+    }
+
+    // Whether exactValue() has to parse the text, because the mantissa is beyond long range or the exponent is large.
+    public boolean isLarge() {
+        return mantissaOverflow || exponent >= MAX_TRACKED_EXPONENT;
+    }
+
+    public InputBuffer copy() {
+        InputBuffer copy = new InputBuffer();
+        copy.setText(this);
+        return copy;
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    public int getSyncedLength() {
+        return syncedLength;
+    }
+
+    public void markSynced() {
+        syncedLength = length;
+        dirtyFrom = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(index);
+
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+    }
+
+    private void rescan() {
+        clearValue();
+        for (int i = 0; i < length; i++) {
+            track(chars[i]);
+        }
+    }
+
+    private void clearValue() {
+        state = START;
+        negative = false;
+        mantissa = 0;
+        fractionDigits = 0;
+        mantissaOverflow = false;
+        negativeExponent = false;
+        exponent = 0;
+    }
+
+    private void track(char c) {
+        boolean digit = c >= '0' && c <= '9';
+        switch (state) {
+            case START:
+                state = c == '-' ? SIGN : digit ? INTEGER : INVALID;
+                negative = c == '-';
+                break;
+            case SIGN:
+                state = digit ? INTEGER : INVALID;
+                break;
+            case INTEGER:
+                state = digit ? INTEGER : c == '.' ? POINT : c == 'E' ? EXPONENT_MARK : INVALID;
+                break;
+            case POINT:
+            case FRACTION:
+                state = digit ? FRACTION : c == 'E' ? EXPONENT_MARK : INVALID;
+                break;
+            case EXPONENT_MARK:
+                state = c == '-' ? EXPONENT_SIGN : digit ? EXPONENT : INVALID;
+                negativeExponent = c == '-';
+                break;
+            case EXPONENT_SIGN:
+            case EXPONENT:
+                state = digit ? EXPONENT : INVALID;
+                break;
+            default:
+                return;
+        }
+        if (!digit)
+            return;
+
+        if (state == EXPONENT) {
+            exponent = Math.min(exponent * 10 + (c - '0'), MAX_TRACKED_EXPONENT);
+            return;
+        }
+        if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+            mantissaOverflow = true;
+        } else {
+            mantissa = mantissa * 10 + (c - '0');
+        }
+        if (state == FRACTION)
+            fractionDigits++;
+    }
+}
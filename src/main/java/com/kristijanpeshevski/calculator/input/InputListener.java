@@ -0,0 +1,14 @@
+package com.kristijanpeshevski.calculator.input;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+// Sees the input in the order it takes effect: a key that starts a background evaluation is reported once its
+// result is shown, and keys dropped by cancel() are never reported. Replaying the same calls on a state
+// without a scheduler ends on the same display.
+public interface InputListener {
+
+    // After the key has been applied.
+    void keyPressed(Key key);
+
+    void valueEntered(ExactNumber value);
+}
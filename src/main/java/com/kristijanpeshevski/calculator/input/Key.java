@@ -0,0 +1,93 @@
+package com.kristijanpeshevski.calculator.input;
+
+// Keystroke logs store keys by ordinal, so new keys go at the end.
+public enum Key {
+
+    DIGIT_0('0', "0"),
+    DIGIT_1('1', "1"),
+    DIGIT_2('2', "2"),
+    DIGIT_3('3', "3"),
+    DIGIT_4('4', "4"),
+    DIGIT_5('5', "5"),
+    DIGIT_6('6', "6"),
+    DIGIT_7('7', "7"),
+    DIGIT_8('8', "8"),
+    DIGIT_9('9', "9"),
+    POINT('.', "."),
+    CLEAR('C', "C"),
+    BACK('<', "<-"),
+    MODULO('%', "%"),
+    DIVIDE('/', "/"),
+    MULTIPLY('*', "*"),
+    SUBTRACT('-', "-"),
+    ADD('+', "+"),
+    EQUAL('=', "="),
+    ROOT('√', "√"),
+    POWER('^', "pow"),
+    LOG('l', "ln"),
+    FACTORIAL('!', "n!"),
+    FIBONACCI('F', "fib");
+
+    private static final Key[] DIGITS = {DIGIT_0, DIGIT_1, DIGIT_2, DIGIT_3, DIGIT_4, DIGIT_5, DIGIT_6, DIGIT_7, DIGIT_8, DIGIT_9};
+
+    private final char symbol;
+    private final String label;
+
+    Key(char symbol, String label) {
+        this.symbol = symbol;
+        this.label = label;
+    }
+
+    public char getSymbol() {
+        return symbol;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isDigit() {
+        return symbol >= '0' && symbol <= '9';
+    }
+
+    public static Key digit(int value) {
+        return DIGITS[value];
+    }
+
+    // The key a typed character stands for, including common aliases ("," "x" "×" "÷" "−"), or null.
+    public static Key forChar(char c) {
+        if (c >= '0' && c <= '9')
+            return DIGITS[c - '0'];
+
+        switch (c) {
+            case '.':
+            case ',':
+                return POINT;
+            case '+':
+                return ADD;
+            case '-':
+            case '−':
+                return SUBTRACT;
+            case '*':
+            case 'x':
+            case 'X':
+            case '×':
+                return MULTIPLY;
+            case '/':
+            case '÷':
+                return DIVIDE;
+            case '%':
+                return MODULO;
+            case '^':
+                return POWER;
+            case '=':
+                return EQUAL;
+            case '√':
+                return ROOT;
+            case '!':
+                return FACTORIAL;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.kristijanpeshevski.calculator.input;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+
+@FunctionalInterface
+public interface OperationListener {
+
+    // Called after each calculation; secondOperand is null for functions (√, ln).
+    void operationCompleted(ExactNumber firstOperand, char operator, ExactNumber secondOperand, ExactNumber result);
+}
@@ -0,0 +1,241 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+/*
+ * P * A = L * U with partial pivoting, L unit lower triangular and U upper triangular, both packed into one
+ * flat array. The factorization is blocked (right-looking, as in LAPACK's getrf): a panel of PANEL_WIDTH
+ * columns is factored on its own, then the rows of U to its right are solved and the whole trailing matrix is
+ * updated in one product-like pass that runs in parallel blocks. Almost all the work is in that update.
+ *
+ * A zero pivot marks the matrix as singular; its determinant is then 0 and solving throws.
+ */
+public final class LuDecomposition {
+
+    static final int PANEL_WIDTH = 64;
+
+    private final MatrixOperations operations;
+    private final int size;
+    private final double[] lu;
+    private final int[] pivots;
+    private boolean singular;
+    private boolean oddPermutation;
+
+    LuDecomposition(MatrixOperations operations, Matrix a) {
+        this.operations = operations;
+        this.size = a.rows;
+        this.lu = a.data.clone();
+        this.pivots = new int[size];
+        for (int i = 0; i < size; i++) {
+            pivots[i] = i;
+        }
+        factor();
+    }
+
+    public boolean isSingular() {
+        return singular;
+    }
+
+    public double determinant() {
+        if (singular)
+            return 0;
+
+        // Rescaled as it goes, so a determinant within the double range is found even when a partial product
+        // of the pivots is not.
+        double mantissa = oddPermutation ? -1 : 1;
+        long exponent = 0;
+        for (int i = 0; i < size; i++) {
+            mantissa *= lu[i * size + i];
+            int scale = Math.getExponent(mantissa);
+            if (Math.abs(scale) > 512 && Double.isFinite(mantissa) && mantissa != 0) {
+                mantissa = Math.scalb(mantissa, -scale);
+                exponent += scale;
+            }
+        }
+        return Math.scalb(mantissa, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, exponent)));
+    }
+
+    public Matrix solve(Matrix b) {
+        if (b.rows != size)
+            throw new IllegalArgumentException("Cannot solve a " + size + "x" + size + " system for a " + b.size()
+                    + " right-hand side");
+        if (singular)
+            throw new ArithmeticException("Matrix is singular");
+
+        int columns = b.columns;
+        double[] x = new double[size * columns];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(b.data, pivots[i] * columns, x, i * columns, columns);
+        }
+        // Every column of the right-hand side is independent; blocks of columns are substituted in parallel.
+        operations.run(0, 1, 0, columns, (long) size * size,
+                (rowFrom, rowTo, columnFrom, columnTo) -> substitute(x, columns, columnFrom, columnTo));
+        return new Matrix(size, columns, x);
+    }
+
+    public Matrix inverse() {
+        return solve(Matrix.identity(size));
+    }
+
+    // The unit lower triangular factor.
+    public Matrix getLower() {
+        Matrix lower = new Matrix(size, size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(lu, i * size, lower.data, i * size, i);
+            lower.data[i * size + i] = 1;
+        }
+        return lower;
+    }
+
+    public Matrix getUpper() {
+        Matrix upper = new Matrix(size, size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(lu, i * size + i, upper.data, i * size + i, size - i);
+        }
+        return upper;
+    }
+
+    // Row i of L * U is row getPivots()[i] of A.
+    public int[] getPivots() {
+        return pivots.clone();
+    }
+
+    private void factor() {
+        int n = size;
+        for (int k0 = 0; k0 < n; k0 += PANEL_WIDTH) {
+            int panelStart = k0;
+            int panelEnd = Math.min(k0 + PANEL_WIDTH, n);
+            factorPanel(panelStart, panelEnd);
+            if (panelEnd == n)
+                break;
+
+            // U12 = L11^-1 * A12, column blocks in parallel.
+            long panel = panelEnd - panelStart;
+            operations.run(0, 1, panelEnd, n, panel * panel / 2, (rowFrom, rowTo, columnFrom, columnTo) -> {
+                for (int i = panelStart + 1; i < panelEnd; i++) {
+                    int row = i * n;
+                    for (int p = panelStart; p < i; p++) {
+                        double factor = lu[row + p];
+                        int pivotRow = p * n;
+                        for (int c = columnFrom; c < columnTo; c++) {
+                            lu[row + c] -= factor * lu[pivotRow + c];
+                        }
+                    }
+                }
+            });
+
+            // A22 -= L21 * U12.
+            operations.run(panelEnd, n, panelEnd, n, panel, (rowFrom, rowTo, columnFrom, columnTo) -> {
+                for (int j0 = columnFrom; j0 < columnTo; j0 += MatrixOperations.COLUMN_BLOCK) {
+                    int j1 = Math.min(j0 + MatrixOperations.COLUMN_BLOCK, columnTo);
+                    for (int i = rowFrom; i < rowTo; i++) {
+                        int row = i * n;
+                        for (int p = panelStart; p < panelEnd; p++) {
+                            double factor = lu[row + p];
+                            int pivotRow = p * n;
+                            for (int c = j0; c < j1; c++) {
+                                lu[row + c] -= factor * lu[pivotRow + c];
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    // Unblocked elimination of the columns [from, to), swapping whole rows as pivots are chosen.
+    private void factorPanel(int from, int to) {
+        int n = size;
+        for (int j = from; j < to; j++) {
+            int pivot = j;
+            double largest = Math.abs(lu[j * n + j]);
+            for (int i = j + 1; i < n; i++) {
+                double candidate = Math.abs(lu[i * n + j]);
+                if (candidate > largest) {
+                    largest = candidate;
+                    pivot = i;
+                }
+            }
+            if (largest == 0) {
+                singular = true;
+                continue;
+            }
+            if (pivot != j)
+                swapRows(j, pivot);
+
+            int pivotRow = j * n;
+            double diagonal = lu[pivotRow + j];
+            for (int i = j + 1; i < n; i++) {
+                int row = i * n;
+                double factor = lu[row + j] /= diagonal;
+                for (int c = j + 1; c < to; c++) {
+                    lu[row + c] -= factor * lu[pivotRow + c];
+                }
+            }
+        }
+    }
+
+    private void swapRows(int first, int second) {
+        int n = size;
+        for (int c = 0; c < n; c++) {
+            double value = lu[first * n + c];
+            lu[first * n + c] = lu[second * n + c];
+            lu[second * n + c] = value;
+        }
+        int pivot = pivots[first];
+        pivots[first] = pivots[second];
+        pivots[second] = pivot;
+        oddPermutation = !oddPermutation;
+    }
+
+    /*
+     * Forward then back substitution on the columns [from, to) of x. Rows are taken ROW_BLOCK at a time: the
+     * rows already solved are applied to the whole block one by one, so each is read once per block rather
+     * than once per row, then the triangle inside the block is solved.
+     */
+    private void substitute(double[] x, int columns, int from, int to) {
+        int n = size;
+        int block = MatrixOperations.ROW_BLOCK;
+        for (int b0 = 0; b0 < n; b0 += block) {
+            int b1 = Math.min(b0 + block, n);
+            for (int p = 0; p < b0; p++) {
+                eliminate(x, columns, from, to, p, b0, b1);
+            }
+            for (int i = b0 + 1; i < b1; i++) {
+                int row = i * columns;
+                for (int p = b0; p < i; p++) {
+                    subtract(x, row, p * columns, lu[i * n + p], from, to);
+                }
+            }
+        }
+
+        for (int b1 = n; b1 > 0; b1 -= block) {
+            int b0 = Math.max(0, b1 - block);
+            for (int p = b1; p < n; p++) {
+                eliminate(x, columns, from, to, p, b0, b1);
+            }
+            for (int i = b1 - 1; i >= b0; i--) {
+                int row = i * columns;
+                for (int p = i + 1; p < b1; p++) {
+                    subtract(x, row, p * columns, lu[i * n + p], from, to);
+                }
+                double diagonal = lu[i * n + i];
+                for (int c = from; c < to; c++) {
+                    x[row + c] /= diagonal;
+                }
+            }
+        }
+    }
+
+    // Subtracts the solved row p, times the factor in column p of L or U, from rows [b0, b1).
+    private void eliminate(double[] x, int columns, int from, int to, int p, int b0, int b1) {
+        int solvedRow = p * columns;
+        for (int i = b0; i < b1; i++) {
+            subtract(x, i * columns, solvedRow, lu[i * size + p], from, to);
+        }
+    }
+
+    private static void subtract(double[] x, int row, int solvedRow, double factor, int from, int to) {
+        for (int c = from; c < to; c++) {
+            x[row + c] -= factor * x[solvedRow + c];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+
+import java.util.Arrays;
+
+/*
+ * A dense matrix of doubles stored row-major in one flat array, so a row is contiguous and element (row, column)
+ * is at row * columns + column. Element-wise arithmetic has exactly the semantics of the calculator's operators;
+ * products and decompositions are in MatrixOperations.
+ *
+ * Instances are mutable through set() and not thread safe.
+ */
+public final class Matrix {
+
+    // Transposing walks both arrays in square blocks so neither is read or written with a long stride.
+    private static final int TRANSPOSE_BLOCK = 32;
+
+    final int rows;
+    final int columns;
+    final double[] data;
+
+    public Matrix(int rows, int columns) {
+        this(rows, columns, new double[checkedSize(rows, columns)]);
+    }
+
+    Matrix(int rows, int columns, double[] data) {
+        this.rows = rows;
+        this.columns = columns;
+        this.data = data;
+    }
+
+    // The values are given row by row and copied.
+    public static Matrix of(int rows, int columns, double... values) {
+        if (values.length != checkedSize(rows, columns))
+            throw new IllegalArgumentException(values.length + " values do not fill a " + rows + "x" + columns + " matrix");
+
+        return new Matrix(rows, columns, values.clone());
+    }
+
+    public static Matrix identity(int size) {
+        Matrix identity = new Matrix(size, size);
+        for (int i = 0; i < size; i++) {
+            identity.data[i * size + i] = 1;
+        }
+        return identity;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public boolean isSquare() {
+        return rows == columns;
+    }
+
+    public double get(int row, int column) {
+        return data[index(row, column)];
+    }
+
+    public void set(int row, int column, double value) {
+        data[index(row, column)] = value;
+    }
+
+    // A copy of the values, row by row.
+    public double[] toArray() {
+        return data.clone();
+    }
+
+    public Matrix copy() {
+        return new Matrix(rows, columns, data.clone());
+    }
+
+    public Matrix transpose() {
+        Matrix transposed = new Matrix(columns, rows);
+        double[] target = transposed.data;
+        for (int rowBlock = 0; rowBlock < rows; rowBlock += TRANSPOSE_BLOCK) {
+            int rowEnd = Math.min(rowBlock + TRANSPOSE_BLOCK, rows);
+            for (int columnBlock = 0; columnBlock < columns; columnBlock += TRANSPOSE_BLOCK) {
+                int columnEnd = Math.min(columnBlock + TRANSPOSE_BLOCK, columns);
+                for (int row = rowBlock; row < rowEnd; row++) {
+                    for (int column = columnBlock; column < columnEnd; column++) {
+                        target[column * rows + row] = data[row * columns + column];
+                    }
+                }
+            }
+        }
+        return transposed;
+    }
+
+    // Applies a binary operator (+ - * / % ^) to each pair of elements; both matrices must have the same size.
+    public Matrix calculate(Matrix other, char operator) {
+        checkOperator(operator);
+        if (rows != other.rows || columns != other.columns)
+            throw new IllegalArgumentException("Cannot combine " + size() + " and " + other.size() + " element-wise");
+
+        Matrix result = new Matrix(rows, columns);
+        CalculatorEngine.calculate(data, other.data, operator, result.data);
+        return result;
+    }
+
+    public Matrix calculate(double number, char operator) {
+        checkOperator(operator);
+        Matrix result = new Matrix(rows, columns);
+        CalculatorEngine.calculate(data, number, operator, result.data);
+        return result;
+    }
+
+    // "rows x columns", as used in messages.
+    public String size() {
+        return rows + "x" + columns;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Matrix))
+            return false;
+
+        Matrix other = (Matrix) o;
+        return rows == other.rows && columns == other.columns && Arrays.equals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + columns) + Arrays.hashCode(data);
+    }
+
+    @Override
+    public String toString() {
+        return MatrixFormat.format(this, MatrixFormat.DEFAULT_MAX_ROWS, MatrixFormat.DEFAULT_MAX_COLUMNS);
+    }
+
+    private int index(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IndexOutOfBoundsException("(" + row + ", " + column + ") is outside a " + size() + " matrix");
+
+        return row * columns + column;
+    }
+
+    private static int checkedSize(int rows, int columns) {
+        if (rows <= 0 || columns <= 0)
+            throw new IllegalArgumentException("A matrix needs at least one row and one column");
+        if ((long) rows * columns > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(rows + "x" + columns + " is too large for one array");
+
+        return rows * columns;
+    }
+
+    private static void checkOperator(char operator) {
+        if (!CalculatorEngine.isBinaryOperator(operator))
+            throw new IllegalArgumentException("'" + operator + "' is not a binary operator");
+    }
+}
@@ -0,0 +1,160 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+import com.kristijanpeshevski.calculator.util.AsciiDoubles;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Matrices as text: one row per line (or separated by ';'), values separated by spaces, tabs or commas. Files
+ * are mapped and parsed straight from the bytes; a first line that is not numbers is taken as a header.
+ */
+public class MatrixFormat {
+
+    public static final int DEFAULT_MAX_ROWS = 12;
+    public static final int DEFAULT_MAX_COLUMNS = 8;
+
+    private static final DoubleFormatter SHORT = new DoubleFormatter(6, -4, 6);
+    private static final DoubleFormatter EXACT = new DoubleFormatter();
+
+    private MatrixFormat() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static Matrix parse(CharSequence text) {
+        return parse(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    public static Matrix read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException(path.getFileName() + " is too large for a matrix");
+
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), true);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Writes every value with enough digits to read back the same double.
+    public static void write(Matrix matrix, Path path) throws IOException {
+        char[] buffer = new char[EXACT.maxLength()];
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            for (int row = 0; row < matrix.rows; row++) {
+                int offset = row * matrix.columns;
+                for (int column = 0; column < matrix.columns; column++) {
+                    if (column > 0)
+                        writer.write(',');
+                    double value = matrix.data[offset + column];
+                    if (value == 0 && 1 / value < 0)
+                        writer.write("-0");
+                    else
+                        writer.write(buffer, 0, EXACT.format(value, buffer, 0));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Right-aligned columns with six significant digits. Rows and columns past the limits are elided.
+    public static String format(Matrix matrix, int maxRows, int maxColumns) {
+        int rows = Math.min(matrix.rows, maxRows);
+        int columns = Math.min(matrix.columns, maxColumns);
+        String[] cells = new String[rows * columns];
+        int[] widths = new int[columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                String cell = SHORT.format(matrix.data[row * matrix.columns + column]);
+                cells[row * columns + column] = cell;
+                widths[column] = Math.max(widths[column], cell.length());
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            if (row > 0)
+                text.append('\n');
+            for (int column = 0; column < columns; column++) {
+                String cell = cells[row * columns + column];
+                text.append(column == 0 ? "" : "  ").append(" ".repeat(widths[column] - cell.length())).append(cell);
+            }
+            if (columns < matrix.columns)
+                text.append("  …");
+        }
+        if (rows < matrix.rows)
+            text.append("\n⋮");
+        return text.toString();
+    }
+
+    private static Matrix parse(ByteBuffer buffer, boolean header) {
+        double[] values = new double[64];
+        int count = 0;
+        int rows = 0;
+        int columns = 0;
+        int line = 0;
+        int end = buffer.limit();
+        for (int position = 0; position < end; position++) {
+            int lineEnd = position;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != ';') {
+                lineEnd++;
+            }
+            line++;
+
+            int rowStart = count;
+            int fields = 0;
+            try {
+                int i = position;
+                while (true) {
+                    while (i < lineEnd && isSeparator(buffer.get(i))) {
+                        i++;
+                    }
+                    if (i == lineEnd)
+                        break;
+
+                    int start = i;
+                    while (i < lineEnd && !isSeparator(buffer.get(i))) {
+                        i++;
+                    }
+                    if (count == values.length)
+                        values = Arrays.copyOf(values, count * 2);
+                    values[count++] = AsciiDoubles.parse(buffer, start, i);
+                    fields++;
+                }
+            } catch (NumberFormatException e) {
+                if (!header)
+                    throw new IllegalArgumentException("Row " + line + ": " + e.getMessage());
+
+                header = false;
+                count = rowStart;
+                fields = 0;
+            }
+            position = lineEnd;
+            if (fields == 0)
+                continue;
+
+            header = false;
+            if (rows == 0)
+                columns = fields;
+            else if (fields != columns)
+                throw new IllegalArgumentException("Row " + line + " has " + fields + " values, expected " + columns);
+            rows++;
+        }
+        if (rows == 0)
+            throw new IllegalArgumentException("No values");
+
+        return new Matrix(rows, columns, count == values.length ? values : Arrays.copyOf(values, count));
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == ',' || b == '\r';
+    }
+}
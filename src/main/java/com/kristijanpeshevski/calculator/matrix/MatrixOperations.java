@@ -0,0 +1,156 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Matrix products and decompositions on a fork-join pool. The result is cut into blocks of at most ROW_BLOCK
+ * rows by COLUMN_BLOCK columns that are computed in parallel; within a block the shared dimension is walked
+ * DEPTH_BLOCK at a time, so the slice of the right operand in use (128 x 256 doubles) stays in cache while
+ * every row of the block is updated from it. The innermost loop runs along a row of both the operand and the
+ * result, which the JIT vectorizes, and updates four result rows per value of the operand it loads.
+ *
+ * Each element of a product is still summed in the order of the shared index, so the result is the same, bit
+ * for bit, as the textbook triple loop, whatever the number of threads.
+ */
+public class MatrixOperations {
+
+    static final int ROW_BLOCK = 64;
+    static final int COLUMN_BLOCK = 256;
+    static final int DEPTH_BLOCK = 128;
+
+    // Blocks with fewer multiply-adds than this are not worth a task of their own.
+    private static final long SEQUENTIAL_WORK = 1 << 18;
+
+    private final ForkJoinPool pool;
+
+    public MatrixOperations() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MatrixOperations(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Matrix multiply(Matrix a, Matrix b) {
+        if (a.columns != b.rows)
+            throw new IllegalArgumentException("Cannot multiply " + a.size() + " by " + b.size());
+
+        double[] left = a.data;
+        double[] right = b.data;
+        int inner = a.columns;
+        int columns = b.columns;
+        Matrix product = new Matrix(a.rows, columns);
+        double[] result = product.data;
+        run(0, a.rows, 0, columns, inner, (rowFrom, rowTo, columnFrom, columnTo) -> {
+            for (int k0 = 0; k0 < inner; k0 += DEPTH_BLOCK) {
+                int k1 = Math.min(k0 + DEPTH_BLOCK, inner);
+                for (int j0 = columnFrom; j0 < columnTo; j0 += COLUMN_BLOCK) {
+                    int j1 = Math.min(j0 + COLUMN_BLOCK, columnTo);
+                    int i = rowFrom;
+                    for (; i + 4 <= rowTo; i += 4) {
+                        int leftRow = i * inner;
+                        int resultRow = i * columns;
+                        for (int k = k0; k < k1; k++) {
+                            double factor0 = left[leftRow + k];
+                            double factor1 = left[leftRow + inner + k];
+                            double factor2 = left[leftRow + 2 * inner + k];
+                            double factor3 = left[leftRow + 3 * inner + k];
+                            int rightRow = k * columns;
+                            for (int j = j0; j < j1; j++) {
+                                double value = right[rightRow + j];
+                                result[resultRow + j] += factor0 * value;
+                                result[resultRow + columns + j] += factor1 * value;
+                                result[resultRow + 2 * columns + j] += factor2 * value;
+                                result[resultRow + 3 * columns + j] += factor3 * value;
+                            }
+                        }
+                    }
+                    for (; i < rowTo; i++) {
+                        int leftRow = i * inner;
+                        int resultRow = i * columns;
+                        for (int k = k0; k < k1; k++) {
+                            double factor = left[leftRow + k];
+                            int rightRow = k * columns;
+                            for (int j = j0; j < j1; j++) {
+                                result[resultRow + j] += factor * right[rightRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        return product;
+    }
+
+    public LuDecomposition decompose(Matrix a) {
+        if (!a.isSquare())
+            throw new IllegalArgumentException("Cannot decompose a " + a.size() + " matrix, it is not square");
+
+        return new LuDecomposition(this, a);
+    }
+
+    public double determinant(Matrix a) {
+        return decompose(a).determinant();
+    }
+
+    public Matrix inverse(Matrix a) {
+        return decompose(a).inverse();
+    }
+
+    // The x in a * x = b, for every column of b.
+    public Matrix solve(Matrix a, Matrix b) {
+        return decompose(a).solve(b);
+    }
+
+    // Runs the body over blocks of the given rows and columns in parallel. Depth is the work per element.
+    void run(int rowFrom, int rowTo, int columnFrom, int columnTo, long depth, BlockBody body) {
+        Block block = new Block(body, rowFrom, rowTo, columnFrom, columnTo, depth);
+        if (ForkJoinTask.getPool() == pool)
+            block.invoke();
+        else
+            pool.invoke(block);
+    }
+
+    interface BlockBody {
+
+        void compute(int rowFrom, int rowTo, int columnFrom, int columnTo);
+    }
+
+    private static final class Block extends RecursiveAction {
+
+        private final BlockBody body;
+        private final int rowFrom;
+        private final int rowTo;
+        private final int columnFrom;
+        private final int columnTo;
+        private final long depth;
+
+        private Block(BlockBody body, int rowFrom, int rowTo, int columnFrom, int columnTo, long depth) {
+            this.body = body;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.columnFrom = columnFrom;
+            this.columnTo = columnTo;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            int columns = columnTo - columnFrom;
+            if ((long) rows * columns * depth <= SEQUENTIAL_WORK || rows <= ROW_BLOCK && columns <= COLUMN_BLOCK) {
+                body.compute(rowFrom, rowTo, columnFrom, columnTo);
+            } else if (rows > ROW_BLOCK) {
+                int middle = rowFrom + rows / 2;
+                invokeAll(new Block(body, rowFrom, middle, columnFrom, columnTo, depth),
+                        new Block(body, middle, rowTo, columnFrom, columnTo, depth));
+            } else {
+                int middle = columnFrom + columns / 2;
+                invokeAll(new Block(body, rowFrom, rowTo, columnFrom, middle, depth),
+                        new Block(body, rowFrom, rowTo, middle, columnTo, depth));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+
+// A point-in-time summary of a LatencyHistogram, exposed over JMX as composite data. Times are in nanoseconds.
+public final class HistogramSnapshot {
+
+    private final String name;
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(String name, LatencyHistogram histogram) {
+        this.name = name;
+        this.count = histogram.getCount();
+        this.meanNanos = Math.round(histogram.getMean());
+        this.p50Nanos = histogram.percentile(50);
+        this.p90Nanos = histogram.percentile(90);
+        this.p99Nanos = histogram.percentile(99);
+        this.p999Nanos = histogram.percentile(99.9);
+        this.maxNanos = histogram.getMax();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s count %8d  mean %9.3f  p50 %9.3f  p90 %9.3f  p99 %9.3f  p99.9 %9.3f  max %9.3f",
+                name, count, millis(meanNanos), millis(p50Nanos), millis(p90Nanos), millis(p99Nanos), millis(p999Nanos),
+                millis(maxNanos));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,237 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import java.awt.EventQueue;
+import java.awt.Window;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/*
+ * Interaction metrics for the "feels laggy" reports: per-action invocation counts and service times, event
+ * dispatch thread lag, and GC pauses, with pauses that land within a second of an action counted separately.
+ *
+ * The EDT only pays for two nanoTime calls and a lock-free histogram update per action. Everything else runs
+ * on one background thread started by start(): it registers the MXBean and the GC listeners (the management
+ * API is slow to load, so never on the EDT), posts a lag probe to the event queue ten times a second, and
+ * with -Dcalculator.metrics.dump=<file> rewrites a text dump every -Dcalculator.metrics.interval seconds
+ * (60 by default) and at exit.
+ */
+public class InteractionMetrics implements InteractionMetricsMXBean, AutoCloseable {
+
+    public static final String OBJECT_NAME = "com.kristijanpeshevski.calculator:type=InteractionMetrics";
+    public static final String DUMP_FILE_PROPERTY = "calculator.metrics.dump";
+    public static final String DUMP_INTERVAL_PROPERTY = "calculator.metrics.interval";
+
+    static final long STALL_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final long INTERACTION_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long PROBE_INTERVAL_MILLIS = 100;
+    private static final long DEFAULT_DUMP_INTERVAL_SECONDS = 60;
+
+    private final Map<String, LatencyHistogram> actions = new ConcurrentHashMap<>();
+    private final LatencyHistogram edtLag = new LatencyHistogram();
+    private final AtomicLong edtStalls = new AtomicLong();
+    private final AtomicBoolean probePending = new AtomicBoolean();
+    private final LatencyHistogram gcPauses = new LatencyHistogram();
+    private final AtomicLong gcPausesDuringInteraction = new AtomicLong();
+    private final long startedNanos = System.nanoTime();
+    private volatile long lastActionNanos = startedNanos - 2 * INTERACTION_WINDOW_NANOS;
+    private ScheduledExecutorService sampler;
+
+    // The returned listener records every invocation of listener under name, including ones that throw.
+    public ActionListener instrument(String name, ActionListener listener) {
+        LatencyHistogram serviceTime = actions.computeIfAbsent(name, ignored -> new LatencyHistogram());
+        return event -> {
+            long started = System.nanoTime();
+            try {
+                listener.actionPerformed(event);
+            } finally {
+                long finished = System.nanoTime();
+                serviceTime.record(finished - started);
+                lastActionNanos = finished;
+            }
+        };
+    }
+
+    public synchronized void start() {
+        if (sampler != null)
+            return;
+
+        sampler = Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreads("calculator-metrics"));
+        sampler.execute(() -> {
+            register(ManagementFactory.getPlatformMBeanServer());
+            listenForGarbageCollections();
+        });
+        sampler.scheduleAtFixedRate(this::probe, PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        String dumpFile = System.getProperty(DUMP_FILE_PROPERTY);
+        if (dumpFile != null && !dumpFile.isEmpty()) {
+            Path path = Paths.get(dumpFile);
+            long interval = Long.getLong(DUMP_INTERVAL_PROPERTY, DEFAULT_DUMP_INTERVAL_SECONDS);
+            sampler.scheduleWithFixedDelay(() -> dumpTo(path), interval, interval, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dumpTo(path), "calculator-metrics-shutdown"));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sampler != null)
+            sampler.shutdownNow();
+    }
+
+    @Override
+    public List<HistogramSnapshot> getActions() {
+        List<HistogramSnapshot> snapshots = new ArrayList<>(actions.size());
+        actions.forEach((name, serviceTime) -> snapshots.add(new HistogramSnapshot(name, serviceTime)));
+        snapshots.sort(Comparator.comparing(HistogramSnapshot::getName));
+        return snapshots;
+    }
+
+    @Override
+    public HistogramSnapshot getEdtLag() {
+        return new HistogramSnapshot("edt-lag", edtLag);
+    }
+
+    @Override
+    public long getEdtStalls() {
+        return edtStalls.get();
+    }
+
+    @Override
+    public HistogramSnapshot getGcPauses() {
+        return new HistogramSnapshot("gc-pause", gcPauses);
+    }
+
+    @Override
+    public long getGcPausesDuringInteraction() {
+        return gcPausesDuringInteraction.get();
+    }
+
+    @Override
+    public long getUptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        dump.append("# Calculator interaction metrics at ").append(Instant.now())
+                .append(", uptime ").append(getUptimeMillis() / 1000).append(" s, times in ms\n");
+        for (HistogramSnapshot action : getActions()) {
+            dump.append(action).append('\n');
+        }
+        dump.append(getEdtLag()).append("  stalls ").append(getEdtStalls()).append('\n');
+        dump.append(getGcPauses()).append("  during interaction ").append(getGcPausesDuringInteraction()).append('\n');
+        return dump.toString();
+    }
+
+    @Override
+    public void reset() {
+        actions.values().forEach(LatencyHistogram::reset);
+        edtLag.reset();
+        edtStalls.set(0);
+        gcPauses.reset();
+        gcPausesDuringInteraction.set(0);
+    }
+
+    void register(MBeanServer server) {
+        try {
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another window in this JVM already publishes its metrics.
+        } catch (JMException e) {
+            System.err.println("Cannot register interaction metrics: " + e.getMessage());
+        }
+    }
+
+    // A GC that ends within a second of an action may well be what the user felt.
+    void gcPause(long durationNanos, long endedNanos) {
+        gcPauses.record(durationNanos);
+        if (endedNanos - lastActionNanos < INTERACTION_WINDOW_NANOS)
+            gcPausesDuringInteraction.incrementAndGet();
+    }
+
+    void edtLag(long lagNanos) {
+        edtLag.record(lagNanos);
+        if (lagNanos >= STALL_THRESHOLD_NANOS)
+            edtStalls.incrementAndGet();
+    }
+
+    // At most one probe is queued, so a stalled EDT is measured once by its oldest probe rather than flooded.
+    // Without a window there is nothing to lag, and probes would keep AWT from shutting down on its own.
+    private void probe() {
+        if (!hasDisplayableWindow() || !probePending.compareAndSet(false, true))
+            return;
+
+        long posted = System.nanoTime();
+        EventQueue.invokeLater(() -> {
+            edtLag(System.nanoTime() - posted);
+            probePending.set(false);
+        });
+    }
+
+    private static boolean hasDisplayableWindow() {
+        for (Window window : Window.getWindows()) {
+            if (window.isDisplayable())
+                return true;
+        }
+        return false;
+    }
+
+    // Concurrent cycles (ZGC and Shenandoah "Cycles", G1 "Concurrent GC") do not stop the application.
+    private void listenForGarbageCollections() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = collector.getName();
+            if (!(collector instanceof NotificationEmitter) || name.contains("Cycles") || name.contains("Concurrent"))
+                continue;
+
+            ((NotificationEmitter) collector).addNotificationListener(
+                    (notification, handback) -> gcNotification(notification),
+                    notification -> GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()),
+                    null);
+        }
+    }
+
+    private void gcNotification(Notification notification) {
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        gcPause(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()), System.nanoTime());
+    }
+
+    private void dumpTo(Path path) {
+        try {
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temporary, dump().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Cannot write interaction metrics to " + path + ": " + e.getMessage());
+        }
+    }
+}
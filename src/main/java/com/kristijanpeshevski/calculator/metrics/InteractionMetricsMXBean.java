@@ -0,0 +1,25 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import java.util.List;
+
+// Registered as com.kristijanpeshevski.calculator:type=InteractionMetrics; see InteractionMetrics.
+public interface InteractionMetricsMXBean {
+
+    // Invocation count and service time of each instrumented action, by name.
+    List<HistogramSnapshot> getActions();
+
+    // How long a probe posted to the event queue waited before the event dispatch thread ran it.
+    HistogramSnapshot getEdtLag();
+
+    long getEdtStalls();
+
+    HistogramSnapshot getGcPauses();
+
+    long getGcPausesDuringInteraction();
+
+    long getUptimeMillis();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,89 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/*
+ * Heap retained by the resources all sessions share and by each session, measured as the change in heap used
+ * after a full collection across loading them or opening it. Every measurement forces collections, tens of
+ * milliseconds each, so the calculator only keeps this report with -Dcalculator.sessions.heap=true. The first
+ * session also pays for Swing's own one-time setup; later ones show what a session costs.
+ */
+public final class SessionHeapReport {
+
+    public static final String ENABLED_PROPERTY = "calculator.sessions.heap";
+
+    private final LongSupplier heapUsed;
+    private final Map<Integer, Long> sessions = new LinkedHashMap<>();
+    private long last;
+    private long shared;
+
+    // Measures from here.
+    public SessionHeapReport() {
+        this(SessionHeapReport::heapUsedAfterCollection);
+    }
+
+    SessionHeapReport(LongSupplier heapUsed) {
+        this.heapUsed = heapUsed;
+        last = heapUsed.getAsLong();
+    }
+
+    public synchronized void sharedLoaded() {
+        shared = measure();
+    }
+
+    public synchronized void sessionOpened(int session) {
+        sessions.put(session, measure());
+    }
+
+    public synchronized void sessionClosed(int session) {
+        sessions.remove(session);
+        last = heapUsed.getAsLong();
+    }
+
+    public synchronized long getSharedBytes() {
+        return shared;
+    }
+
+    // Of a session that is open, measured when it opened.
+    public synchronized long getSessionBytes(int session) {
+        Long bytes = sessions.get(session);
+        return bytes == null ? 0 : bytes;
+    }
+
+    public synchronized String summary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("shared      %s%n", megabytes(shared)));
+        long total = 0;
+        for (Map.Entry<Integer, Long> session : sessions.entrySet()) {
+            summary.append(String.format("session %-3d %s%n", session.getKey(), megabytes(session.getValue())));
+            total += session.getValue();
+        }
+        if (!sessions.isEmpty())
+            summary.append(String.format("%d sessions, %s each on average%n", sessions.size(), megabytes(total / sessions.size())));
+        return summary.toString();
+    }
+
+    private long measure() {
+        long used = heapUsed.getAsLong();
+        long retained = used - last;
+        last = used;
+        return retained;
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.2f MB", bytes / 1e6);
+    }
+
+    private static long heapUsedAfterCollection() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        // A second collection frees what the first one only made unreachable, e.g. objects behind soft caches
+        // cleared by it.
+        memory.gc();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,127 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Samples a function for drawing at a given scale. A coarse grid of one point every two pixels is refined by
+ * bisection wherever the midpoint strays more than a quarter pixel from the straight line between its
+ * neighbours, where the curve jumps by many pixels, and where it turns undefined, down to an eighth of a
+ * pixel. Flat and straight stretches cost a point every two pixels, bends and poles get the points they need.
+ *
+ * At the finest step a large jump whose midpoint is not between its ends (a pole, as in 1/x) or sits on one
+ * of them (a step, as in x % 1) becomes a gap instead of a vertical line. The x range is split into pieces of
+ * at most 64 pixels that are sampled in parallel on a fork-join pool.
+ */
+public class AdaptiveSampler {
+
+    private static final int PIXELS_PER_TASK = 64;
+    private static final int GRID_PIXELS = 2;
+    private static final int MAX_DEPTH = 4;
+    private static final double TOLERANCE_PIXELS = 0.25;
+    private static final double JUMP_PIXELS = 16;
+
+    private final ForkJoinPool pool;
+
+    public AdaptiveSampler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AdaptiveSampler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Scale is in pixels per unit on both axes.
+    public Samples sample(PlotFunction function, double from, double to, double scale) {
+        if (!(to > from) || !(scale > 0))
+            throw new IllegalArgumentException("Empty range [" + from + ", " + to + "] at scale " + scale);
+
+        SampleTask task = new SampleTask(function, from, to, scale);
+        return ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+    }
+
+    private static final class SampleTask extends RecursiveTask<Samples> {
+
+        private final PlotFunction function;
+        private final double from;
+        private final double to;
+        private final double scale;
+
+        private double[] variables;
+        private Samples samples;
+        private double tolerance;
+
+        private SampleTask(PlotFunction function, double from, double to, double scale) {
+            this.function = function;
+            this.from = from;
+            this.to = to;
+            this.scale = scale;
+        }
+
+        @Override
+        protected Samples compute() {
+            double pixels = (to - from) * scale;
+            if (pixels > PIXELS_PER_TASK) {
+                double middle = from + (to - from) / 2;
+                SampleTask right = new SampleTask(function, middle, to, scale);
+                right.fork();
+                Samples left = new SampleTask(function, from, middle, scale).compute();
+                left.addAll(right.join());
+                return left;
+            }
+
+            int segments = Math.max(1, (int) Math.ceil(pixels / GRID_PIXELS));
+            variables = new double[1];
+            samples = new Samples(segments * 2 + 1);
+            tolerance = TOLERANCE_PIXELS / scale;
+
+            double x0 = from;
+            double y0 = valueAt(x0);
+            samples.add(x0, y0);
+            for (int i = 1; i <= segments; i++) {
+                double x1 = i == segments ? to : from + (to - from) * i / segments;
+                double y1 = valueAt(x1);
+                refine(x0, y0, x1, y1, 0);
+                samples.add(x1, y1);
+                x0 = x1;
+                y0 = y1;
+            }
+            return samples;
+        }
+
+        private void refine(double x0, double y0, double x1, double y1, int depth) {
+            double xm = x0 + (x1 - x0) / 2;
+            double ym = valueAt(xm);
+            boolean finite0 = Double.isFinite(y0);
+            boolean finite1 = Double.isFinite(y1);
+            boolean finiteM = Double.isFinite(ym);
+            if (!finite0 && !finite1 && !finiteM)
+                return;
+
+            boolean jump = finite0 && finite1 && Math.abs(y1 - y0) * scale > JUMP_PIXELS;
+            boolean partlyUndefined = !finite0 || !finite1 || !finiteM;
+            boolean bent = !partlyUndefined && Math.abs(ym - (y0 + y1) / 2) > tolerance;
+
+            if (depth < MAX_DEPTH && (jump || partlyUndefined || bent)) {
+                refine(x0, y0, xm, ym, depth + 1);
+                samples.add(xm, ym);
+                refine(xm, ym, x1, y1, depth + 1);
+            } else if (jump && isDiscontinuity(y0, ym, y1)) {
+                samples.addGap(xm);
+            } else if (partlyUndefined || bent) {
+                samples.add(xm, ym);
+            }
+        }
+
+        private boolean isDiscontinuity(double y0, double ym, double y1) {
+            double low = Math.min(y0, y1) - tolerance;
+            double high = Math.max(y0, y1) + tolerance;
+            return !(ym > low && ym < high) || Math.abs(ym - y0) < tolerance || Math.abs(ym - y1) < tolerance;
+        }
+
+        private double valueAt(double x) {
+            return function.valueAt(x, variables);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import com.kristijanpeshevski.calculator.engine.expression.CompiledExpression;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionParser;
+
+// An expression of x, e.g. "x^2 - 2" or "1 / x". Evaluation does not share state, so one instance may be
+// sampled from several threads.
+public final class PlotFunction {
+
+    public static final String VARIABLE = "x";
+
+    private final CompiledExpression expression;
+
+    private PlotFunction(CompiledExpression expression) {
+        this.expression = expression;
+    }
+
+    // Throws ExpressionException when the source does not parse and IllegalArgumentException when it uses
+    // a name other than x.
+    public static PlotFunction parse(String source) {
+        CompiledExpression expression = ExpressionParser.compile(source);
+        for (String name : expression.getVariableNames()) {
+            if (!name.equals(VARIABLE))
+                throw new IllegalArgumentException("Unknown name '" + name + "', only " + VARIABLE + " may vary");
+        }
+        return new PlotFunction(expression);
+    }
+
+    public double valueAt(double x) {
+        return valueAt(x, new double[1]);
+    }
+
+    // Reuses the caller's one element array for the variable.
+    double valueAt(double x, double[] variables) {
+        variables[0] = x;
+        return expression.evaluate(variables);
+    }
+
+    public String getSource() {
+        return expression.getSource();
+    }
+
+    @Override
+    public String toString() {
+        return expression.getSource();
+    }
+}
@@ -0,0 +1,193 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Rendered tiles of one function's curve. Tiles are drawn on a fork-join pool and handed to the publisher
+ * (the event dispatch thread in the UI), which owns the cache: panning only renders the column or row that
+ * comes into view and zooming within a level rescales tiles that are already there. The samples of a column
+ * are shared by every tile in it, so scrolling vertically never evaluates the function again.
+ *
+ * The view calls beginFrame() before asking for the tiles it paints. A queued tile that was not asked for
+ * in the latest frame has scrolled out of view and is dropped instead of rendered.
+ */
+public class PlotTiles implements AutoCloseable {
+
+    public static final int TILE_SIZE = 256;
+
+    // Stands for a tile the curve does not cross; nothing needs to be drawn for it.
+    public static final BufferedImage EMPTY = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    private static final int MAX_TILES = 64;
+    private static final int MAX_STRIPS = 256;
+    private static final float STROKE_WIDTH = 2f;
+    private static final double MAX_PIXEL = TILE_SIZE * 8;
+
+    private final PlotFunction function;
+    private final Color color;
+    private final AdaptiveSampler sampler;
+    private final ForkJoinPool pool;
+    private final Executor publisher;
+    private final Runnable tileReady;
+
+    private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private final Map<TileKey, Samples> strips = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, Samples> eldest) {
+            return size() > MAX_STRIPS;
+        }
+    };
+    private final Map<TileKey, Long> queued = new ConcurrentHashMap<>();
+    private volatile long frame;
+
+    // Tile ready runs on the publisher after a tile has been added to the cache.
+    public PlotTiles(PlotFunction function, Color color, ForkJoinPool pool, Executor publisher, Runnable tileReady) {
+        this.function = function;
+        this.color = color;
+        this.sampler = new AdaptiveSampler(pool);
+        this.pool = pool;
+        this.publisher = publisher;
+        this.tileReady = tileReady;
+    }
+
+    public void beginFrame() {
+        frame++;
+    }
+
+    // The cached tile, or null after queueing it for rendering.
+    public BufferedImage tile(TileKey key) {
+        BufferedImage tile = tiles.get(key);
+        if (tile == null && queued.put(key, frame) == null)
+            pool.execute(() -> render(key));
+        return tile;
+    }
+
+    // The cached tile or null, without rendering it.
+    public BufferedImage cachedTile(TileKey key) {
+        return tiles.get(key);
+    }
+
+    public PlotFunction getFunction() {
+        return function;
+    }
+
+    public int size() {
+        return tiles.size();
+    }
+
+    // Drops the cache; tiles still queued are skipped.
+    @Override
+    public void close() {
+        frame = Long.MAX_VALUE;
+        tiles.clear();
+    }
+
+    private void render(TileKey key) {
+        Long requested = queued.get(key);
+        if (requested == null || requested < frame) {
+            publisher.execute(() -> requeue(key));
+            return;
+        }
+
+        BufferedImage tile;
+        try {
+            tile = draw(key);
+        } catch (RuntimeException e) {
+            tile = EMPTY;
+        }
+        BufferedImage rendered = tile;
+        publisher.execute(() -> {
+            queued.remove(key);
+            if (frame != Long.MAX_VALUE) {
+                tiles.put(key, rendered);
+                tileReady.run();
+            }
+        });
+    }
+
+    // On the publisher no frame is half painted, so a tile asked for in the current frame is still wanted.
+    private void requeue(TileKey key) {
+        Long requested = queued.get(key);
+        if (requested != null && requested == frame) {
+            pool.execute(() -> render(key));
+        } else {
+            queued.remove(key);
+        }
+    }
+
+    BufferedImage draw(TileKey key) {
+        double scale = key.scale();
+        double size = TILE_SIZE / scale;
+        double left = key.getColumn() * size;
+        double bottom = key.getRow() * size;
+        double top = bottom + size;
+        double margin = STROKE_WIDTH / scale;
+
+        Samples samples = strip(key.getLevel(), key.getColumn(), left - margin, left + size + margin);
+        if (samples.getMinY() > top + margin || samples.getMaxY() < bottom - margin)
+            return EMPTY;
+
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, samples.size());
+        boolean drawing = false;
+        for (int i = 0; i < samples.size(); i++) {
+            double y = samples.y(i);
+            if (!Double.isFinite(y)) {
+                drawing = false;
+                continue;
+            }
+
+            double px = (samples.x(i) - left) * scale;
+            double py = Math.max(-MAX_PIXEL, Math.min(MAX_PIXEL, (top - y) * scale));
+            if (drawing) {
+                path.lineTo(px, py);
+            } else {
+                path.moveTo(px, py);
+                drawing = true;
+            }
+        }
+
+        BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = tile.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setStroke(new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.setColor(color);
+            g.draw(path);
+        } finally {
+            g.dispose();
+        }
+        return tile;
+    }
+
+    private Samples strip(int level, long column, double from, double to) {
+        TileKey key = new TileKey(level, column, 0);
+        synchronized (strips) {
+            Samples samples = strips.get(key);
+            if (samples != null)
+                return samples;
+        }
+
+        // Sample outside the lock; two tiles of a new column racing both sample it and the last one wins.
+        Samples samples = sampler.sample(function, from, to, Math.scalb(1.0, level));
+        synchronized (strips) {
+            strips.put(key, samples);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,71 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import java.util.Arrays;
+
+/*
+ * Points of a sampled curve in increasing x. A non-finite y is a gap: the curve is not drawn through it, which
+ * is how poles, jumps and undefined ranges (ln of a negative number) show up.
+ */
+public final class Samples {
+
+    private double[] x;
+    private double[] y;
+    private int size;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    Samples(int capacity) {
+        x = new double[Math.max(capacity, 4)];
+        y = new double[x.length];
+    }
+
+    void add(double px, double py) {
+        if (size == x.length) {
+            x = Arrays.copyOf(x, size * 2);
+            y = Arrays.copyOf(y, size * 2);
+        }
+        x[size] = px;
+        y[size] = py;
+        size++;
+        if (Double.isFinite(py)) {
+            minY = Math.min(minY, py);
+            maxY = Math.max(maxY, py);
+        }
+    }
+
+    void addGap(double px) {
+        if (size > 0 && Double.isNaN(y[size - 1]))
+            return;
+
+        add(px, Double.NaN);
+    }
+
+    // Appends samples that continue this curve; a point shared by both halves is kept once.
+    void addAll(Samples next) {
+        int from = size > 0 && next.size > 0 && x[size - 1] == next.x[0] ? 1 : 0;
+        for (int i = from; i < next.size; i++) {
+            add(next.x[i], next.y[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int index) {
+        return x[index];
+    }
+
+    public double y(int index) {
+        return y[index];
+    }
+
+    // Range of the finite values, empty (min > max) if there are none.
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+}
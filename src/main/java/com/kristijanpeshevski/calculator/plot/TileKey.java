@@ -0,0 +1,61 @@
+package com.kristijanpeshevski.calculator.plot;
+
+/*
+ * A square of PlotTiles.TILE_SIZE pixels at zoom level L, drawn at 2^L pixels per unit. Column c covers x in
+ * [c, c + 1) * TILE_SIZE / 2^L and row r covers y in [r, r + 1) * TILE_SIZE / 2^L, so rows grow upwards.
+ */
+public final class TileKey {
+
+    private final int level;
+    private final long column;
+    private final long row;
+
+    public TileKey(int level, long column, long row) {
+        this.level = level;
+        this.column = column;
+        this.row = row;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getColumn() {
+        return column;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    // Pixels per unit of this tile's level.
+    public double scale() {
+        return Math.scalb(1.0, level);
+    }
+
+    // The tile of the next coarser level that covers this one.
+    public TileKey parent() {
+        return new TileKey(level - 1, Math.floorDiv(column, 2), Math.floorDiv(row, 2));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof TileKey))
+            return false;
+
+        TileKey other = (TileKey) o;
+        return level == other.level && column == other.column && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * level + Long.hashCode(column)) + Long.hashCode(row);
+    }
+
+    @Override
+    public String toString() {
+        return level + "/" + column + "/" + row;
+    }
+}
@@ -0,0 +1,88 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.input.Key;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Encodes a keystroke log, the input of one calculator session in the order CalculatorState applied it:
+ *
+ *   'C' 'K' 'L' 1   header, the last byte is the version
+ *   0x00 - 0x7F     a key, its ordinal in Key; keys are only ever added at the end of Key
+ *   0x80 n text     an entered value, n ASCII bytes of its exact decimal as BigDecimal.toString() writes it
+ *   0x81 bits       an entered value that is an inexact double, its 8 bytes big-endian
+ *   0x82 n text     a checkpoint, n UTF-8 bytes of the display a replay must show at this point
+ *
+ * Lengths n are unsigned LEB128, 7 bits per byte. A keystroke takes one byte.
+ */
+public final class KeystrokeLogWriter {
+
+    static final byte[] HEADER = {'C', 'K', 'L', 1};
+    static final int VALUE = 0x80;
+    static final int DOUBLE = 0x81;
+    static final int CHECKPOINT = 0x82;
+
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    public KeystrokeLogWriter() {
+        for (byte b : HEADER)
+            write(b);
+    }
+
+    public void key(Key key) {
+        write(key.ordinal());
+    }
+
+    public void value(ExactNumber value) {
+        if (value.isDouble()) {
+            write(DOUBLE);
+            long bits = Double.doubleToRawLongBits(value.doubleValue());
+            for (int shift = 56; shift >= 0; shift -= 8)
+                write((int) (bits >>> shift));
+        } else {
+            write(VALUE);
+            text(value.isLong() ? value.toString() : value.toBigDecimal().toString());
+        }
+    }
+
+    public void checkpoint(CharSequence display) {
+        write(CHECKPOINT);
+        text(display.toString());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    // The bytes written since the last drain, the header included the first time.
+    public byte[] drain() {
+        byte[] drained = toByteArray();
+        size = 0;
+        return drained;
+    }
+
+    private void text(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        int length = encoded.length;
+        while (length >= 0x80) {
+            write(length & 0x7F | 0x80);
+            length >>>= 7;
+        }
+        write(length);
+        for (byte b : encoded)
+            write(b);
+    }
+
+    private void write(int b) {
+        if (size == bytes.length)
+            bytes = Arrays.copyOf(bytes, size * 2);
+        bytes[size++] = (byte) b;
+    }
+}
@@ -0,0 +1,132 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.input.InputListener;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Records a session's input to a keystroke log, so a session that went wrong can be replayed. The event
+ * dispatch thread only appends to a buffer in memory; a background thread writes out what is new once a
+ * second and at exit. Every '=' and checkpoint() also record the display, which a replay has to match. If the
+ * log cannot be written the calculator keeps working without it.
+ */
+public class KeystrokeRecorder implements InputListener, AutoCloseable {
+
+    public static final String KEYSTROKES_DIRECTORY_PROPERTY = "calculator.keystrokes";
+
+    private static final long WRITE_INTERVAL_MILLIS = 1000;
+    private static final AtomicInteger SESSIONS = new AtomicInteger();
+
+    private final Path file;
+    private final CharSequence display;
+    private final KeystrokeLogWriter log = new KeystrokeLogWriter();
+    private final ScheduledExecutorService writer =
+            Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonThreads("calculator-keystrokes"));
+    private OutputStream out; // Guarded by writer, like stopped
+    private boolean stopped; // Closed, or the log could not be written
+
+    // Records to file, with display the one the state being recorded updates.
+    public KeystrokeRecorder(Path file, CharSequence display) {
+        this.file = file;
+        this.display = display;
+        writer.scheduleWithFixedDelay(this::write, WRITE_INTERVAL_MILLIS, WRITE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "calculator-keystrokes-shutdown"));
+    }
+
+    // With -Dcalculator.keystrokes=<directory>, a recorder to a new session-<time>-<pid>-<n>.keys there, otherwise
+    // null. n tells apart the sessions of one process.
+    public static KeystrokeRecorder fromSystemProperty(CharSequence display) {
+        String configured = System.getProperty(KEYSTROKES_DIRECTORY_PROPERTY);
+        if (configured == null || configured.isEmpty())
+            return null;
+
+        String name = "session-" + System.currentTimeMillis() + "-" + ProcessHandle.current().pid() + "-"
+                + SESSIONS.incrementAndGet() + ReplayCommand.LOG_EXTENSION;
+        return new KeystrokeRecorder(Paths.get(configured, name), display);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void keyPressed(Key key) {
+        synchronized (log) {
+            log.key(key);
+            if (key == Key.EQUAL)
+                log.checkpoint(display);
+        }
+    }
+
+    @Override
+    public void valueEntered(ExactNumber value) {
+        synchronized (log) {
+            log.value(value);
+        }
+    }
+
+    // Records the display as it is now; called on the thread that updates it.
+    public void checkpoint() {
+        synchronized (log) {
+            log.checkpoint(display);
+        }
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(WRITE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // The writer thread has stopped, or is stuck and will not write again.
+        synchronized (writer) {
+            write();
+            try {
+                if (out != null)
+                    out.close();
+            } catch (IOException e) {
+                System.err.println("Cannot close keystroke log " + file + ": " + e.getMessage());
+            }
+            out = null;
+            stopped = true;
+        }
+    }
+
+    private void write() {
+        synchronized (writer) {
+            if (stopped)
+                return;
+
+            byte[] bytes;
+            synchronized (log) {
+                if (log.size() == 0)
+                    return;
+                bytes = log.drain();
+            }
+            try {
+                if (out == null) {
+                    Files.createDirectories(file.toAbsolutePath().getParent());
+                    out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                }
+                out.write(bytes);
+            } catch (IOException e) {
+                stopped = true;
+                System.err.println("Keystroke recording disabled, cannot write " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
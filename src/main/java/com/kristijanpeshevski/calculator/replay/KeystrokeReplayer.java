@@ -0,0 +1,188 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.InputBuffer;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Replays keystroke logs on CalculatorState without a window or a scheduler, so every key takes effect at once
+ * on the replaying thread, large numbers included. Each replay starts from a fresh state, and logs are spread
+ * over a fixed pool of worker threads. A replay stops at the first checkpoint the display does not match,
+ * which is where the recorded session and this build part ways.
+ */
+public class KeystrokeReplayer {
+
+    private static final Key[] KEYS = Key.values();
+
+    private final int threads;
+
+    public KeystrokeReplayer(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads must be positive");
+
+        this.threads = threads;
+    }
+
+    // Reads each log once and replays it repeat times; the result is that of the last replay.
+    public ReplayReport replay(List<Path> logs, int repeat) throws IOException {
+        if (repeat < 1)
+            throw new IllegalArgumentException("Repeat must be positive");
+
+        long started = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, VirtualThreads.daemonThreads("replay-worker"));
+        List<ReplayResult> results = new ArrayList<>(logs.size());
+        try {
+            List<Future<ReplayResult>> tasks = new ArrayList<>(logs.size());
+            for (Path log : logs) {
+                tasks.add(pool.submit(() -> replay(log, repeat)));
+            }
+            for (Future<ReplayResult> task : tasks) {
+                results.add(await(task));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ReplayReport(results, repeat, threads, System.nanoTime() - started);
+    }
+
+    // Replays one log on the calling thread.
+    public static ReplayResult replay(String name, byte[] log) {
+        CalculatorState state = new CalculatorState();
+        InputBuffer display = state.getDisplay();
+        LogReader reader = new LogReader(log);
+        long keystrokes = 0;
+        int checkpoints = 0;
+        try {
+            reader.header();
+            while (reader.hasNext()) {
+                int tag = reader.next();
+                if (tag < KEYS.length) {
+                    state.press(KEYS[tag]);
+                    keystrokes++;
+                    continue;
+                }
+
+                switch (tag) {
+                    case KeystrokeLogWriter.VALUE:
+                        state.enter(ExactNumber.of(new BigDecimal(reader.text(StandardCharsets.US_ASCII))));
+                        keystrokes++;
+                        break;
+                    case KeystrokeLogWriter.DOUBLE:
+                        state.enter(ExactNumber.of(Double.longBitsToDouble(reader.bits())));
+                        keystrokes++;
+                        break;
+                    case KeystrokeLogWriter.CHECKPOINT:
+                        String expected = reader.text(StandardCharsets.UTF_8);
+                        if (!expected.contentEquals(display))
+                            return new ReplayResult(name, keystrokes, checkpoints, display.toString(), String.format(
+                                    "checkpoint %d after %d keystrokes: expected %s, the display shows %s",
+                                    checkpoints + 1, keystrokes, expected, display));
+                        checkpoints++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown record 0x" + Integer.toHexString(tag));
+                }
+            }
+        } catch (RuntimeException e) {
+            return new ReplayResult(name, keystrokes, checkpoints, display.toString(),
+                    "cannot replay byte " + reader.position + ": " + e.getMessage());
+        }
+        return new ReplayResult(name, keystrokes, checkpoints, display.toString(), null);
+    }
+
+    private static ReplayResult replay(Path log, int repeat) throws IOException {
+        byte[] bytes = Files.readAllBytes(log);
+        ReplayResult result = null;
+        for (int i = 0; i < repeat; i++) {
+            result = replay(log.toString(), bytes);
+        }
+        return result;
+    }
+
+    private static ReplayResult await(Future<ReplayResult> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Replay interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw (RuntimeException) cause;
+        }
+    }
+
+    private static final class LogReader {
+
+        private final byte[] log;
+        private int position;
+
+        private LogReader(byte[] log) {
+            this.log = log;
+        }
+
+        private void header() {
+            for (byte b : KeystrokeLogWriter.HEADER) {
+                if (!hasNext() || log[position] != b)
+                    throw new IllegalArgumentException("Not a keystroke log of version " + KeystrokeLogWriter.HEADER[3]);
+                position++;
+            }
+        }
+
+        private boolean hasNext() {
+            return position < log.length;
+        }
+
+        private int next() {
+            if (!hasNext())
+                throw new IllegalArgumentException("Truncated log");
+
+            return log[position++] & 0xFF;
+        }
+
+        private String text(Charset charset) {
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = next();
+                if (shift > 28)
+                    throw new IllegalArgumentException("Length too large");
+                length |= (b & 0x7F) << shift;
+                if (b < 0x80)
+                    break;
+            }
+            if (length < 0 || length > log.length - position)
+                throw new IllegalArgumentException("Truncated log");
+
+            String text = new String(log, position, length, charset);
+            position += length;
+            return text;
+        }
+
+        private long bits() {
+            long bits = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                bits = bits << 8 | next();
+            }
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Command line front end of KeystrokeReplayer:
+ *
+ *   --replay path...  keystroke logs, or directories whose *.keys files are replayed
+ *   --repeat n        replay each log n times, to measure throughput; 1 by default
+ *   --threads n       worker threads, the number of processors by default
+ *
+ * Logs that do not replay as recorded go to stdout and the timing to stderr.
+ */
+public class ReplayCommand {
+
+    public static final String REPLAY_OPTION = "--replay";
+    public static final String LOG_EXTENSION = ".keys";
+
+    private ReplayCommand() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static boolean isReplay(String[] args) {
+        for (String arg : args) {
+            if (REPLAY_OPTION.equals(arg))
+                return true;
+        }
+        return false;
+    }
+
+    // Returns the process exit code: 0 when every log replayed as recorded, 1 when one did not, 2 for usage or
+    // I/O errors.
+    public static int run(String[] args) {
+        List<Path> logs = new ArrayList<>();
+        int repeat = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case REPLAY_OPTION:
+                        do {
+                            addLogs(Paths.get(value(args, ++i)), logs);
+                        } while (i + 1 < args.length && !args[i + 1].startsWith("--"));
+                        break;
+                    case "--repeat":
+                        repeat = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (logs.isEmpty())
+                throw new IllegalArgumentException("No " + LOG_EXTENSION + " logs to replay");
+
+            ReplayReport report = new KeystrokeReplayer(threads).replay(logs, repeat);
+            System.out.print(report.summary());
+            System.err.println(report.timing());
+            return report.getMismatches().isEmpty() ? 0 : 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --replay path... [--repeat n] [--threads n]");
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Replay failed: " + e);
+            return 2;
+        }
+    }
+
+    private static void addLogs(Path path, List<Path> logs) throws IOException {
+        if (!Files.isDirectory(path)) {
+            logs.add(path);
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(path)) {
+            logs.addAll(files.filter(file -> file.getFileName().toString().endsWith(LOG_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+}
@@ -0,0 +1,64 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class ReplayReport {
+
+    private final List<ReplayResult> results;
+    private final int repeat;
+    private final int threads;
+    private final long elapsedNanos;
+
+    ReplayReport(List<ReplayResult> results, int repeat, int threads, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.repeat = repeat;
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // In the order the logs were given.
+    public List<ReplayResult> getResults() {
+        return results;
+    }
+
+    public List<ReplayResult> getMismatches() {
+        List<ReplayResult> mismatches = new ArrayList<>();
+        for (ReplayResult result : results) {
+            if (!result.isMatch())
+                mismatches.add(result);
+        }
+        return mismatches;
+    }
+
+    // Every replay counted, repeats included.
+    public long getKeystrokes() {
+        long keystrokes = 0;
+        for (ReplayResult result : results) {
+            keystrokes += result.getKeystrokes();
+        }
+        return keystrokes * repeat;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // One line per log that did not replay as recorded, then the count of those that did.
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        List<ReplayResult> mismatches = getMismatches();
+        for (ReplayResult result : mismatches) {
+            summary.append(String.format("%s: %s%n", result.getName(), result.getProblem()));
+        }
+        summary.append(String.format("%d of %d logs replayed as recorded%n", results.size() - mismatches.size(), results.size()));
+        return summary.toString();
+    }
+
+    public String timing() {
+        long keystrokes = getKeystrokes();
+        return String.format("Replayed %d keystrokes in %.2f s on %d threads: %.2f million keystrokes/s", keystrokes,
+                elapsedNanos / 1e9, threads, elapsedNanos == 0 ? 0 : keystrokes * 1e3 / elapsedNanos);
+    }
+}
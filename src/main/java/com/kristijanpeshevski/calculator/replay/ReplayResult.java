@@ -0,0 +1,46 @@
+package com.kristijanpeshevski.calculator.replay;
+
+public final class ReplayResult {
+
+    private final String name;
+    private final long keystrokes;
+    private final int checkpoints;
+    private final String display;
+    private final String problem;
+
+    ReplayResult(String name, long keystrokes, int checkpoints, String display, String problem) {
+        this.name = name;
+        this.keystrokes = keystrokes;
+        this.checkpoints = checkpoints;
+        this.display = display;
+        this.problem = problem;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Keys and entered values replayed, up to the first problem.
+    public long getKeystrokes() {
+        return keystrokes;
+    }
+
+    // Checkpoints that matched.
+    public int getCheckpoints() {
+        return checkpoints;
+    }
+
+    // The display when the replay stopped.
+    public String getDisplay() {
+        return display;
+    }
+
+    // The first checkpoint that did not match or why the log could not be replayed, null if it replayed fine.
+    public String getProblem() {
+        return problem;
+    }
+
+    public boolean isMatch() {
+        return problem == null;
+    }
+}
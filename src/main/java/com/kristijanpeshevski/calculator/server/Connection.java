@@ -0,0 +1,62 @@
+package com.kristijanpeshevski.calculator.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/*
+ * Serves one TCP client on its own (virtual) thread. Requests are answered strictly in the order they arrive;
+ * responses are flushed once the client's queued requests are drained or maxUnflushedResponses accumulated,
+ * so a pipelining client gets many answers per packet and a request/response client still one per request.
+ */
+final class Connection implements Runnable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Socket socket;
+    private final EvaluationServer server;
+    private final ServerLimits limits;
+
+    Connection(Socket socket, EvaluationServer server) {
+        this.socket = socket;
+        this.server = server;
+        this.limits = server.getLimits();
+    }
+
+    @Override
+    public void run() {
+        try (Socket client = socket) {
+            client.setTcpNoDelay(true);
+            client.setSoTimeout(limits.getIdleTimeoutMillis());
+            LineReader reader = new LineReader(client.getInputStream(), BUFFER_SIZE, limits.getMaxLineLength());
+            ResponseBuffer response = new ResponseBuffer(client.getOutputStream(), BUFFER_SIZE);
+            RequestEvaluator evaluator = new RequestEvaluator(server.getCache());
+
+            int unflushed = 0;
+            int length;
+            while ((length = reader.readLine()) != LineReader.END_OF_STREAM) {
+                boolean valid;
+                if (length == LineReader.TOO_LONG) {
+                    RequestEvaluator.error("Request longer than " + limits.getMaxLineLength() + " bytes", response);
+                    valid = false;
+                } else {
+                    valid = evaluator.evaluate(reader.lineAsString(length), response);
+                }
+                response.write((byte) '\n');
+                server.requestServed(valid);
+
+                if (++unflushed >= limits.getMaxUnflushedResponses() || !reader.hasBuffered()) {
+                    response.flush();
+                    unflushed = 0;
+                }
+            }
+            response.flush();
+        } catch (SocketTimeoutException e) {
+            // Idle for longer than the limit: close.
+        } catch (IOException e) {
+            // The client went away or the server is shutting down.
+        } finally {
+            server.connectionClosed(socket);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.kristijanpeshevski.calculator.server;
+
+import com.kristijanpeshevski.calculator.batch.BatchEvaluator;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionCache;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Serves the calculator's expression evaluation to local processes, bound to the loopback address only:
+ *
+ *   TCP   one expression per line in, one result (or "Error: ...") per line out, in request order; clients
+ *         may pipeline any number of requests without waiting for answers.
+ *   HTTP  GET /calculate?expression=1%2B2 answers a single expression; POST /calculate with one expression
+ *         per line in the body answers them line by line.
+ *
+ * Every connection and HTTP exchange gets its own virtual thread (a platform thread before Java 21).
+ */
+public class EvaluationServer implements Closeable {
+
+    public static final int DEFAULT_TCP_PORT = 7077;
+    public static final int DEFAULT_HTTP_PORT = 7078;
+    public static final String HTTP_PATH = "/calculate";
+
+    private static final int BACKLOG = 512;
+
+    private final int requestedTcpPort;
+    private final int requestedHttpPort;
+    private final ServerLimits limits;
+    private final ExpressionCache cache = new ExpressionCache();
+    private final Semaphore connectionPermits;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong connectionsAccepted = new AtomicLong();
+    private final AtomicLong connectionsRejected = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private ExecutorService executor;
+    private ServerSocket serverSocket;
+    private HttpServer httpServer;
+    private Thread acceptThread;
+    private volatile boolean closed;
+
+    // Port 0 picks a free port; a negative HTTP port disables the HTTP endpoint.
+    public EvaluationServer(int tcpPort, int httpPort, ServerLimits limits) {
+        this.requestedTcpPort = tcpPort;
+        this.requestedHttpPort = httpPort;
+        this.limits = limits;
+        this.connectionPermits = new Semaphore(limits.getMaxConnections());
+    }
+
+    public synchronized void start() throws IOException {
+        if (executor != null)
+            throw new IllegalStateException("Server already started");
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        executor = VirtualThreads.newThreadPerTaskExecutor("calculator-connection");
+        try {
+            serverSocket = new ServerSocket(requestedTcpPort, BACKLOG, loopback);
+            if (requestedHttpPort >= 0) {
+                httpServer = HttpServer.create(new InetSocketAddress(loopback, requestedHttpPort), BACKLOG);
+                httpServer.createContext(HTTP_PATH, new HttpEndpoint(this));
+                httpServer.setExecutor(executor);
+                httpServer.start();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+
+        acceptThread = new Thread(this::acceptConnections, "calculator-server-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public int getTcpPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // -1 when the HTTP endpoint is disabled.
+    public int getHttpPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    public ServerLimits getLimits() {
+        return limits;
+    }
+
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.get();
+    }
+
+    public long getConnectionsRejected() {
+        return connectionsRejected.get();
+    }
+
+    public int getActiveConnections() {
+        return openSockets.size();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    ExpressionCache getCache() {
+        return cache;
+    }
+
+    void requestServed(boolean valid) {
+        requests.incrementAndGet();
+        if (!valid)
+            errors.incrementAndGet();
+    }
+
+    void connectionClosed(Socket socket) {
+        if (openSockets.remove(socket))
+            connectionPermits.release();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (serverSocket != null)
+            closeQuietly(serverSocket);
+        if (httpServer != null)
+            httpServer.stop(0);
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed)
+                    return;
+                continue;
+            }
+
+            if (!connectionPermits.tryAcquire()) {
+                connectionsRejected.incrementAndGet();
+                reject(socket, "Too many connections");
+                continue;
+            }
+            openSockets.add(socket);
+            connectionsAccepted.incrementAndGet();
+            try {
+                executor.execute(new Connection(socket, this));
+            } catch (RejectedExecutionException e) {
+                connectionClosed(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void reject(Socket socket, String reason) {
+        try (Socket rejected = socket) {
+            OutputStream out = rejected.getOutputStream();
+            out.write((BatchEvaluator.ERROR_PREFIX + reason + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            // Nothing left to tell a client that is already gone.
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Closing during shutdown; the socket is unusable either way.
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.kristijanpeshevski.calculator.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+final class HttpEndpoint implements HttpHandler {
+
+    private static final String EXPRESSION_PARAMETER = "expression=";
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+
+    private final EvaluationServer server;
+    private final ServerLimits limits;
+
+    HttpEndpoint(EvaluationServer server) {
+        this.server = server;
+        this.limits = server.getLimits();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            ResponseBuffer response = new ResponseBuffer(null, 256);
+            int status;
+            switch (exchange.getRequestMethod()) {
+                case "GET":
+                    status = get(exchange.getRequestURI().getRawQuery(), response);
+                    break;
+                case "POST":
+                    status = post(exchange.getRequestBody(), response);
+                    break;
+                default:
+                    exchange.getResponseHeaders().set("Allow", "GET, POST");
+                    status = METHOD_NOT_ALLOWED;
+                    RequestEvaluator.error("Use GET or POST", response);
+                    response.write((byte) '\n');
+            }
+
+            byte[] body = response.toByteArray();
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private int get(String query, ResponseBuffer response) throws IOException {
+        String expression = parameter(query);
+        if (expression == null) {
+            RequestEvaluator.error("Missing query parameter 'expression'", response);
+            response.write((byte) '\n');
+            return BAD_REQUEST;
+        }
+        if (expression.length() > limits.getMaxLineLength()) {
+            RequestEvaluator.error("Request longer than " + limits.getMaxLineLength() + " bytes", response);
+            response.write((byte) '\n');
+            return BAD_REQUEST;
+        }
+
+        boolean valid = new RequestEvaluator(server.getCache()).evaluate(expression, response);
+        response.write((byte) '\n');
+        server.requestServed(valid);
+        return valid ? OK : BAD_REQUEST;
+    }
+
+    private int post(InputStream body, ResponseBuffer response) throws IOException {
+        byte[] bytes = body.readNBytes(limits.getMaxHttpBodyBytes() + 1);
+        if (bytes.length > limits.getMaxHttpBodyBytes()) {
+            RequestEvaluator.error("Body larger than " + limits.getMaxHttpBodyBytes() + " bytes", response);
+            response.write((byte) '\n');
+            return PAYLOAD_TOO_LARGE;
+        }
+
+        LineReader reader = new LineReader(new ByteArrayInputStream(bytes), Math.max(1, bytes.length), limits.getMaxLineLength());
+        RequestEvaluator evaluator = new RequestEvaluator(server.getCache());
+        int length;
+        while ((length = reader.readLine()) != LineReader.END_OF_STREAM) {
+            boolean valid;
+            if (length == LineReader.TOO_LONG) {
+                RequestEvaluator.error("Request longer than " + limits.getMaxLineLength() + " bytes", response);
+                valid = false;
+            } else {
+                valid = evaluator.evaluate(reader.lineAsString(length), response);
+            }
+            response.write((byte) '\n');
+            server.requestServed(valid);
+        }
+        return OK;
+    }
+
+    private static String parameter(String query) {
+        if (query == null)
+            return null;
+
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(EXPRESSION_PARAMETER))
+                return URLDecoder.decode(pair.substring(EXPRESSION_PARAMETER.length()), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.kristijanpeshevski.calculator.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Reads '\n' terminated lines from a socket through its own buffer, so hasBuffered() can tell a pipelining
+ * peer's queued requests apart from an idle connection without another system call.
+ */
+final class LineReader {
+
+    static final int END_OF_STREAM = -1;
+    static final int TOO_LONG = -2;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private final byte[] line;
+    private int position;
+    private int limit;
+
+    LineReader(InputStream in, int bufferSize, int maxLineLength) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        this.line = new byte[maxLineLength];
+    }
+
+    /*
+     * Returns the length of the next line (without "\r\n"), END_OF_STREAM, or TOO_LONG after skipping a line
+     * longer than the maximum. A final line without a newline still counts.
+     */
+    int readLine() throws IOException {
+        int length = 0;
+        boolean tooLong = false;
+        while (true) {
+            if (position == limit) {
+                int read = in.read(buffer);
+                if (read < 0)
+                    return length == 0 && !tooLong ? END_OF_STREAM : finish(length, tooLong);
+                position = 0;
+                limit = read;
+            }
+
+            byte b = buffer[position++];
+            if (b == '\n')
+                return finish(length, tooLong);
+            if (length < line.length) {
+                line[length++] = b;
+            } else {
+                tooLong = true;
+            }
+        }
+    }
+
+    String lineAsString(int length) {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    boolean hasBuffered() {
+        return position < limit;
+    }
+
+    private int finish(int length, boolean tooLong) {
+        if (tooLong)
+            return TOO_LONG;
+        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+    }
+}
@@ -0,0 +1,166 @@
+package com.kristijanpeshevski.calculator.server;
+
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Drives the TCP protocol from several connections, each keeping up to `pipeline` requests outstanding, and
+ * reports requests per second and the latency of each request from the flush that sent it to its answer:
+ *
+ *   java ... server.LoadTestClient [--port 7077] [--connections 8] [--requests 100000] [--pipeline 32]
+ *                                  [--expression "12.5 * 4"]
+ */
+public class LoadTestClient {
+
+    private LoadTestClient() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = EvaluationServer.DEFAULT_TCP_PORT;
+        int connections = 8;
+        int requests = 100_000;
+        int pipeline = 32;
+        String expression = "12.5 * 4";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--requests":
+                    requests = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--pipeline":
+                    pipeline = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--expression":
+                    expression = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        System.out.println(run(port, connections, requests, pipeline, expression).summary());
+    }
+
+    public static Report run(int port, int connections, int requestsPerConnection, int pipeline, String expression)
+            throws IOException, InterruptedException {
+        byte[] request = (expression + "\n").getBytes(StandardCharsets.UTF_8);
+        LatencyHistogram latency = new LatencyHistogram();
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                results.add(clients.submit(client(port, requestsPerConnection, pipeline, request, latency)));
+            }
+            long errors = 0;
+            for (Future<Long> result : results) {
+                errors += result.get();
+            }
+            return new Report((long) connections * requestsPerConnection, errors, System.nanoTime() - started, latency);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    // Returns the number of error responses.
+    private static Callable<Long> client(int port, int total, int pipeline, byte[] request, LatencyHistogram latency) {
+        return () -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                LineReader in = new LineReader(socket.getInputStream(), 64 * 1024, 4096);
+                long[] sentAt = new long[pipeline];
+                byte[] batch = new byte[request.length * pipeline];
+                int sent = 0;
+                int received = 0;
+                long errors = 0;
+                while (received < total) {
+                    if (sent < total && sent - received < pipeline && !in.hasBuffered()) {
+                        int count = Math.min(pipeline - (sent - received), total - sent);
+                        for (int i = 0; i < count; i++) {
+                            System.arraycopy(request, 0, batch, i * request.length, request.length);
+                        }
+                        long now = System.nanoTime();
+                        for (int i = 0; i < count; i++) {
+                            sentAt[(sent + i) % pipeline] = now;
+                        }
+                        out.write(batch, 0, count * request.length);
+                        out.flush();
+                        sent += count;
+                    }
+
+                    int length = in.readLine();
+                    if (length == LineReader.END_OF_STREAM)
+                        throw new IOException("Server closed the connection after " + received + " responses");
+                    latency.record(System.nanoTime() - sentAt[received % pipeline]);
+                    if (length == LineReader.TOO_LONG || in.lineAsString(length).startsWith("Error"))
+                        errors++;
+                    received++;
+                }
+                return errors;
+            }
+        };
+    }
+
+    public static final class Report {
+
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        private Report(long requests, long errors, long elapsedNanos, LatencyHistogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public double getRequestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+        }
+
+        public String summary() {
+            return String.format("%d requests (%d errors) in %.2f s: %.0f requests/s, latency p50 %.1f us, "
+                            + "p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    requests, errors, elapsedNanos / 1e9, getRequestsPerSecond(), latency.percentile(50) / 1e3,
+                    latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, latency.getMax() / 1e3);
+        }
+    }
+}
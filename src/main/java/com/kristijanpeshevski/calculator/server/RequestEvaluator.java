@@ -0,0 +1,42 @@
+package com.kristijanpeshevski.calculator.server;
+
+import com.kristijanpeshevski.calculator.batch.BatchEvaluator;
+import com.kristijanpeshevski.calculator.engine.expression.ExactEvaluator;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionCache;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Evaluates one request with the same exact arithmetic as batch mode and writes its response line, without the
+ * newline, as UTF-8 bytes. Each connection owns one, so formatting needs no locking; compiled expressions are
+ * shared through the server's cache.
+ */
+final class RequestEvaluator {
+
+    private final ExactEvaluator evaluator;
+
+    RequestEvaluator(ExpressionCache cache) {
+        this.evaluator = new ExactEvaluator(cache);
+    }
+
+    // Returns false when the request was not a valid expression and an error line was written instead.
+    boolean evaluate(String source, ResponseBuffer response) throws IOException {
+        if (source.isBlank())
+            return true;
+
+        try {
+            int length = evaluator.evaluate(source);
+            response.writeAscii(evaluator.getFormatted(), length);
+            return true;
+        } catch (ExpressionException | IllegalStateException e) {
+            error(e.getMessage(), response);
+            return false;
+        }
+    }
+
+    static void error(String message, ResponseBuffer response) throws IOException {
+        response.write((BatchEvaluator.ERROR_PREFIX + message).getBytes(StandardCharsets.UTF_8));
+    }
+}
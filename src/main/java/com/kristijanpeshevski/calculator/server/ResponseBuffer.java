@@ -0,0 +1,69 @@
+package com.kristijanpeshevski.calculator.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/*
+ * Collects response bytes until flush(). When a client pipelines more than fits, the buffer drains to the
+ * stream on its own, and a client that stops reading then blocks the writing thread: TCP flow control is
+ * the backpressure, no response is ever dropped or queued without bound.
+ */
+final class ResponseBuffer {
+
+    private final OutputStream out;
+    private byte[] bytes;
+    private int length;
+
+    ResponseBuffer(OutputStream out, int capacity) {
+        this.out = out;
+        this.bytes = new byte[capacity];
+    }
+
+    void writeAscii(char[] chars, int count) throws IOException {
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            bytes[length++] = (byte) chars[i];
+        }
+    }
+
+    void write(byte[] data) throws IOException {
+        ensureCapacity(data.length);
+        System.arraycopy(data, 0, bytes, length, data.length);
+        length += data.length;
+    }
+
+    void write(byte b) throws IOException {
+        ensureCapacity(1);
+        bytes[length++] = b;
+    }
+
+    int size() {
+        return length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    void flush() throws IOException {
+        if (out == null || length == 0)
+            return;
+
+        out.write(bytes, 0, length);
+        out.flush();
+        length = 0;
+    }
+
+    private void ensureCapacity(int additional) throws IOException {
+        if (length + additional <= bytes.length)
+            return;
+
+        if (out != null) {
+            flush();
+            if (additional <= bytes.length)
+                return;
+        }
+        bytes = Arrays.copyOf(bytes, Math.max(length + additional, bytes.length * 2));
+    }
+}
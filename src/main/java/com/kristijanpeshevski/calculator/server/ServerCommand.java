@@ -0,0 +1,103 @@
+package com.kristijanpeshevski.calculator.server;
+
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * Command line front end of EvaluationServer:
+ *
+ *   --server                  run the server instead of the window
+ *   --port n                  TCP port, 7077 by default
+ *   --http-port n             HTTP port, 7078 by default, -1 disables HTTP
+ *   --max-connections n       --max-line bytes       --max-unflushed n
+ *   --idle-timeout ms         --max-body bytes       see ServerLimits
+ */
+public class ServerCommand {
+
+    public static final String SERVER_OPTION = "--server";
+
+    private ServerCommand() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static boolean isServer(String[] args) {
+        for (String arg : args) {
+            if (SERVER_OPTION.equals(arg))
+                return true;
+        }
+        return false;
+    }
+
+    // Blocks until the process is stopped; returns 2 for usage or bind errors.
+    public static int run(String[] args) {
+        ServerLimits defaults = ServerLimits.DEFAULT;
+        int tcpPort = EvaluationServer.DEFAULT_TCP_PORT;
+        int httpPort = EvaluationServer.DEFAULT_HTTP_PORT;
+        int maxConnections = defaults.getMaxConnections();
+        int maxLineLength = defaults.getMaxLineLength();
+        int maxUnflushed = defaults.getMaxUnflushedResponses();
+        int idleTimeout = defaults.getIdleTimeoutMillis();
+        int maxBody = defaults.getMaxHttpBodyBytes();
+        EvaluationServer server;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (SERVER_OPTION.equals(args[i]))
+                    continue;
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+
+                int value = Integer.parseInt(args[++i]);
+                switch (args[i - 1]) {
+                    case "--port":
+                        tcpPort = value;
+                        break;
+                    case "--http-port":
+                        httpPort = value;
+                        break;
+                    case "--max-connections":
+                        maxConnections = value;
+                        break;
+                    case "--max-line":
+                        maxLineLength = value;
+                        break;
+                    case "--max-unflushed":
+                        maxUnflushed = value;
+                        break;
+                    case "--idle-timeout":
+                        idleTimeout = value;
+                        break;
+                    case "--max-body":
+                        maxBody = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+
+            server = new EvaluationServer(tcpPort, httpPort,
+                    new ServerLimits(maxConnections, maxLineLength, maxUnflushed, idleTimeout, maxBody));
+            server.start();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --server [--port n] [--http-port n] [--max-connections n] [--max-line bytes] "
+                    + "[--max-unflushed n] [--idle-timeout ms] [--max-body bytes]");
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Could not start the server: " + e);
+            return 2;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.err.println("Listening on 127.0.0.1: TCP " + server.getTcpPort()
+                + (server.getHttpPort() < 0 ? "" : ", HTTP " + server.getHttpPort())
+                + (VirtualThreads.isAvailable() ? " (virtual threads)" : " (platform threads)"));
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
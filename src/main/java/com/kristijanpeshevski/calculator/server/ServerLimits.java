@@ -0,0 +1,52 @@
+package com.kristijanpeshevski.calculator.server;
+
+public final class ServerLimits {
+
+    public static final ServerLimits DEFAULT = new ServerLimits(1024, 4096, 256, 60_000, 1 << 20);
+
+    private final int maxConnections;
+    private final int maxLineLength;
+    private final int maxUnflushedResponses;
+    private final int idleTimeoutMillis;
+    private final int maxHttpBodyBytes;
+
+    /*
+     * maxConnections: TCP connections served at once; further ones get an error line and are closed.
+     * maxLineLength: bytes in one request line (and one expression over HTTP).
+     * maxUnflushedResponses: responses buffered for a pipelining client before they are flushed anyway.
+     * idleTimeoutMillis: a connection with no request for this long is closed, 0 waits forever.
+     * maxHttpBodyBytes: size of a POST body holding several expressions.
+     */
+    public ServerLimits(int maxConnections, int maxLineLength, int maxUnflushedResponses, int idleTimeoutMillis,
+                        int maxHttpBodyBytes) {
+        if (maxConnections < 1 || maxLineLength < 1 || maxUnflushedResponses < 1 || idleTimeoutMillis < 0
+                || maxHttpBodyBytes < 1)
+            throw new IllegalArgumentException("Server limits must be positive");
+
+        this.maxConnections = maxConnections;
+        this.maxLineLength = maxLineLength;
+        this.maxUnflushedResponses = maxUnflushedResponses;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxHttpBodyBytes = maxHttpBodyBytes;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    public int getMaxUnflushedResponses() {
+        return maxUnflushedResponses;
+    }
+
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getMaxHttpBodyBytes() {
+        return maxHttpBodyBytes;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kristijanpeshevski.calculator.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Process wide record of startup phases. Each phase() call closes the phase that has been running since the
+ * previous mark; firstPaint() closes the last one and completes the report. With -Dcalculator.startup.log=true
+ * the completed report is also logged as a single line.
+ */
+public final class StartupReport {
+
+    public static final String LOG_PROPERTY = "calculator.startup.log";
+    public static final String FIRST_PAINT = "first paint";
+
+    private static final StartupReport INSTANCE = new StartupReport();
+
+    private final long originNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+    private long lastMarkNanos = originNanos;
+    private boolean complete;
+
+    private StartupReport() {
+    }
+
+    public static StartupReport get() {
+        return INSTANCE;
+    }
+
+    public synchronized void phase(String name) {
+        if (complete)
+            return;
+
+        long now = System.nanoTime();
+        phases.add(new Phase(name, now - lastMarkNanos, now - originNanos));
+        lastMarkNanos = now;
+    }
+
+    public void firstPaint() {
+        synchronized (this) {
+            if (complete)
+                return;
+            phase(FIRST_PAINT);
+            complete = true;
+        }
+
+        if (Boolean.getBoolean(LOG_PROPERTY)) {
+            System.getLogger(StartupReport.class.getName()).log(System.Logger.Level.INFO, summary());
+        }
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    // Time from entering main() to the last recorded phase.
+    public synchronized long getElapsedNanos() {
+        return lastMarkNanos - originNanos;
+    }
+
+    // Only the log line pays for the management API, to include the JVM's own startup before main().
+    public synchronized String summary() {
+        StringBuilder summary = new StringBuilder("Startup:");
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long mainEnteredMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos);
+        summary.append(" jvm ").append(Math.max(0, mainEnteredMillis - jvmStartMillis)).append(" ms,");
+        for (Phase phase : phases) {
+            summary.append(' ').append(phase.getName()).append(' ').append(format(phase.getDurationNanos())).append(',');
+        }
+        return summary.append(" total ").append(format(lastMarkNanos - originNanos)).toString();
+    }
+
+    private static String format(long nanos) {
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+
+    public static final class Phase {
+
+        private final String name;
+        private final long durationNanos;
+        private final long elapsedNanos;
+
+        private Phase(String name, long durationNanos, long elapsedNanos) {
+            this.name = name;
+            this.durationNanos = durationNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.kristijanpeshevski.calculator.stats;
+
+/*
+ * Approximate quantiles in bounded memory, after DDSketch. A value v falls into the bucket
+ * ceil(log(|v|) / log(gamma)) with gamma = (1 + a) / (1 - a), so every value of a bucket is within a relative
+ * error a of the bucket's representative value. Positive and negative values have their own buckets. Only
+ * counts are kept: 1% accuracy covers 1e-300 to 1e300 with about 69,000 buckets, and far fewer for real data.
+ *
+ * When the buckets of one sign would exceed maxBuckets, those closest to zero are folded into one, so the quantiles of
+ * the largest magnitudes stay accurate. Sketches with the same accuracy merge by adding bucket counts, which
+ * gives the same result as sketching all values in one place.
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+    // Smaller magnitudes are counted as zero.
+    private static final double MIN_INDEXABLE = 1e-300;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final Buckets positive;
+    private final Buckets negative;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+    }
+
+    public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1))
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        if (maxBuckets < 2)
+            throw new IllegalArgumentException("At least 2 buckets are needed");
+
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positive = new Buckets(maxBuckets);
+        this.negative = new Buckets(maxBuckets);
+    }
+
+    public void add(double value) {
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else if (value == value) {
+            zeroCount++;
+        } else {
+            throw new IllegalArgumentException("NaN cannot be added");
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy)
+            throw new IllegalArgumentException("Cannot merge sketches of relative accuracy "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    // The value at rank q * (count - 1), within the relative accuracy; NaN when the sketch is empty.
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1))
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        if (count == 0)
+            return Double.NaN;
+
+        double rank = q * (count - 1);
+        long seen = 0;
+        // Ascending order: negative buckets from the largest magnitude down, zeros, then positive buckets.
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank)
+                return -value(negative.offset + i);
+        }
+        seen += zeroCount;
+        if (seen > rank)
+            return 0;
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank)
+                return value(positive.offset + i);
+        }
+        return Double.NaN;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    // Buckets in use, a measure of the memory held.
+    public int getBucketCount() {
+        return positive.counts.length + negative.counts.length;
+    }
+
+    private int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / logGamma);
+    }
+
+    // Bucket i holds (gamma^(i-1), gamma^i]; this value is within the relative accuracy of both ends.
+    private double value(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    // Counts of the consecutive bucket indexes offset, offset + 1, ... grown on demand up to maxBuckets.
+    private static final class Buckets {
+
+        private static final int INITIAL_BUCKETS = 16;
+
+        private final int maxBuckets;
+        private long[] counts = new long[0];
+        private int offset;
+
+        private Buckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        void add(int index, long n) {
+            if (counts.length == 0) {
+                counts = new long[Math.min(INITIAL_BUCKETS, maxBuckets)];
+                offset = index - counts.length / 2;
+            }
+            if (index >= offset + counts.length || index < offset && counts.length < maxBuckets)
+                cover(index);
+            // Below a full store: folded into the lowest bucket.
+            counts[Math.max(0, index - offset)] += n;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0)
+                    add(other.offset + i, other.counts[i]);
+            }
+        }
+
+        // Grows the store to include index, at least doubling it, with the headroom on the side that grew. If
+        // the range is wider than maxBuckets, the lowest indexes are folded into the lowest bucket kept.
+        private void cover(int index) {
+            int high = Math.max(index, offset + counts.length - 1);
+            int low = Math.min(index, offset);
+            int length = Math.min(maxBuckets, Math.max(high - low + 1, counts.length * 2));
+            int newOffset = high - low + 1 > maxBuckets || index < offset ? high - length + 1 : low;
+
+            long[] grown = new long[length];
+            for (int i = 0; i < counts.length; i++) {
+                grown[Math.max(0, offset + i - newOffset)] += counts[i];
+            }
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+}
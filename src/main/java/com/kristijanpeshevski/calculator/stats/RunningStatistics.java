@@ -0,0 +1,136 @@
+package com.kristijanpeshevski.calculator.stats;
+
+/*
+ * Summary statistics of a stream of values in one pass and constant memory. The sum is compensated (Neumaier),
+ * so adding millions of values loses no more than a rounding or two; mean and variance are updated with
+ * Welford's method, which does not cancel catastrophically the way sum-of-squares does. Quantiles come from a
+ * QuantileSketch. Partial statistics, e.g. one per thread over parts of a file, combine with merge() into the
+ * statistics of all values (Chan et al. for the variance).
+ *
+ * Instances are not thread safe.
+ */
+public final class RunningStatistics {
+
+    private final QuantileSketch sketch;
+    private long count;
+    private double sum;
+    private double compensation;
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public RunningStatistics() {
+        this(new QuantileSketch());
+    }
+
+    public RunningStatistics(QuantileSketch sketch) {
+        if (sketch.getCount() != 0)
+            throw new IllegalArgumentException("The sketch must be empty");
+
+        this.sketch = sketch;
+    }
+
+    // Only finite values can be added; anything else would turn every statistic into NaN or infinity.
+    public void add(double value) {
+        if (!Double.isFinite(value))
+            throw new IllegalArgumentException(value + " cannot be added");
+
+        count++;
+        addToSum(value);
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+        if (value < min)
+            min = value;
+        if (value > max)
+            max = value;
+        sketch.add(value);
+    }
+
+    public void addAll(double[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            add(values[i]);
+        }
+    }
+
+    public void merge(RunningStatistics other) {
+        if (other.count == 0)
+            return;
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        count = total;
+        addToSum(other.sum);
+        addToSum(other.compensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum + compensation;
+    }
+
+    // NaN for no values, as are the other statistics below.
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Sample variance, divided by count - 1.
+    public double getVariance() {
+        return count < 2 ? Double.NaN : squaredDeviations / (count - 1);
+    }
+
+    public double getPopulationVariance() {
+        return count == 0 ? Double.NaN : squaredDeviations / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    // Approximate, see QuantileSketch; exact at 0 and 1, and never outside [min, max].
+    public double quantile(double q) {
+        if (count == 0)
+            return Double.NaN;
+        if (q == 0)
+            return min;
+        if (q == 1)
+            return max;
+
+        return Math.max(min, Math.min(max, sketch.quantile(q)));
+    }
+
+    public double getMedian() {
+        return quantile(0.5);
+    }
+
+    public QuantileSketch getSketch() {
+        return sketch;
+    }
+
+    private void addToSum(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.kristijanpeshevski.calculator.stats;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+
+/*
+ * Command line front end of StatisticsReader:
+ *
+ *   --stats input|-   summarize input, or one value per line from stdin
+ *   --csv-column n    1-based column read from CSV inputs, 1 by default
+ *   --threads n       worker threads, the number of processors by default
+ *
+ * Files ending in .csv or .txt are text with one row per line; anything else holds raw little-endian doubles.
+ * The statistics go to stdout and the timing to stderr.
+ */
+public class StatisticsCommand {
+
+    public static final String STATS_OPTION = "--stats";
+
+    private StatisticsCommand() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static boolean isStats(String[] args) {
+        for (String arg : args) {
+            if (STATS_OPTION.equals(arg))
+                return true;
+        }
+        return false;
+    }
+
+    // Returns the process exit code: 0 on success, 2 for usage or I/O errors.
+    public static int run(String[] args) {
+        String input = null;
+        int csvColumn = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case STATS_OPTION:
+                        input = value(args, ++i);
+                        break;
+                    case "--csv-column":
+                        csvColumn = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            StatisticsReader reader = new StatisticsReader(threads, csvColumn, StatisticsReader.DEFAULT_CHUNK_SIZE);
+            StatisticsReport report;
+            if ("-".equals(input)) {
+                try (FileChannel stdin = new FileInputStream(FileDescriptor.in).getChannel()) {
+                    report = reader.read(stdin);
+                }
+            } else {
+                report = reader.read(Paths.get(input));
+            }
+            System.out.print(report.summary());
+            System.err.println(report.timing());
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --stats input|- [--csv-column n] [--threads n]");
+            return 2;
+        } catch (IOException e) {
+            System.err.println("Statistics failed: " + e);
+            return 2;
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+
+        return args[index];
+    }
+}
@@ -0,0 +1,241 @@
+package com.kristijanpeshevski.calculator.stats;
+
+import com.kristijanpeshevski.calculator.batch.ChunkReader;
+import com.kristijanpeshevski.calculator.column.ColumnFormat;
+import com.kristijanpeshevski.calculator.util.AsciiDoubles;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Computes RunningStatistics over a file in one pass on all cores. The file is mapped in slices (newline
+ * aligned chunks for text, fixed windows for raw little-endian doubles) that workers summarize into their own
+ * partial statistics; the partials are merged at the end. Memory stays constant whatever the file size: a few
+ * slices per worker in flight plus one quantile sketch per worker.
+ *
+ * Text has one value per line, or per row in a CSV column. A first line that is not a number is a header;
+ * later lines that are not finite numbers are skipped and counted.
+ */
+public class StatisticsReader {
+
+    public static final int DEFAULT_CHUNK_SIZE = ChunkReader.DEFAULT_CHUNK_SIZE;
+
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 4;
+    private static final int RAW_SLICE_SIZE = 8 << 20;
+
+    private final int threads;
+    private final int csvColumn;
+    private final int chunkSize;
+
+    public StatisticsReader() {
+        this(Runtime.getRuntime().availableProcessors(), 1, DEFAULT_CHUNK_SIZE);
+    }
+
+    public StatisticsReader(int threads, int csvColumn, int chunkSize) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads must be positive");
+        if (csvColumn < 1)
+            throw new IllegalArgumentException("CSV column must be positive");
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be positive");
+
+        this.threads = threads;
+        this.csvColumn = csvColumn;
+        this.chunkSize = chunkSize;
+    }
+
+    // Files ending in .csv or .txt are text, anything else raw doubles.
+    public StatisticsReport read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ColumnFormat.of(path) == ColumnFormat.CSV)
+                return read(ChunkReader.mapped(channel, chunkSize)::next, false);
+
+            long size = channel.size();
+            if (size % Double.BYTES != 0)
+                throw new IOException("Raw column size " + size + " is not a multiple of " + Double.BYTES + " bytes");
+
+            long[] position = {0};
+            return read(() -> {
+                if (position[0] >= size)
+                    return null;
+
+                ByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, position[0], Math.min(RAW_SLICE_SIZE, size - position[0]));
+                position[0] += slice.capacity();
+                return slice;
+            }, true);
+        }
+    }
+
+    // Text, e.g. stdin.
+    public StatisticsReport read(ReadableByteChannel input) throws IOException {
+        return read(ChunkReader.streamed(input, chunkSize)::next, false);
+    }
+
+    // Values typed or pasted: numbers separated by white space, commas or semicolons.
+    public static StatisticsReport parse(CharSequence text) {
+        long started = System.nanoTime();
+        RunningStatistics statistics = new RunningStatistics();
+        long skipped = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean separator = i == text.length() || isSeparator(text.charAt(i));
+            if (!separator && start < 0) {
+                start = i;
+            } else if (separator && start >= 0) {
+                try {
+                    double value = Double.parseDouble(text.subSequence(start, i).toString());
+                    if (Double.isFinite(value)) {
+                        statistics.add(value);
+                    } else {
+                        skipped++;
+                    }
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+                start = -1;
+            }
+        }
+        return new StatisticsReport(statistics, skipped, text.length(), System.nanoTime() - started);
+    }
+
+    private StatisticsReport read(Slices reader, boolean raw) throws IOException {
+        long started = System.nanoTime();
+        List<Partial> partials = new ArrayList<>();
+        ThreadLocal<Partial> partial = ThreadLocal.withInitial(() -> {
+            Partial created = new Partial();
+            synchronized (partials) {
+                partials.add(created);
+            }
+            return created;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, VirtualThreads.daemonThreads("stats-worker"));
+        ArrayDeque<Future<?>> inFlight = new ArrayDeque<>();
+        long bytesRead = 0;
+        try {
+            ByteBuffer chunk;
+            boolean first = true;
+            while ((chunk = reader.next()) != null) {
+                bytesRead += chunk.remaining();
+                if (inFlight.size() >= threads * CHUNKS_IN_FLIGHT_PER_THREAD)
+                    await(inFlight.poll());
+
+                ByteBuffer slice = chunk;
+                boolean header = first && !raw;
+                inFlight.add(pool.submit(() -> {
+                    if (raw) {
+                        partial.get().addRaw(slice);
+                    } else {
+                        partial.get().addLines(slice, header);
+                    }
+                }));
+                first = false;
+            }
+            while (!inFlight.isEmpty()) {
+                await(inFlight.poll());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every task has completed, so the partials are visible and no longer change.
+        RunningStatistics statistics = new RunningStatistics();
+        long skipped = 0;
+        for (Partial each : partials) {
+            statistics.merge(each.statistics);
+            skipped += each.skipped;
+        }
+        return new StatisticsReport(statistics, skipped, bytesRead, System.nanoTime() - started);
+    }
+
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Reading statistics interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static boolean isSeparator(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == ';';
+    }
+
+    // Newline aligned text chunks, or windows of raw doubles; null at the end.
+    private interface Slices {
+
+        ByteBuffer next() throws IOException;
+    }
+
+    private final class Partial {
+
+        private final RunningStatistics statistics = new RunningStatistics();
+        private long skipped;
+
+        void addRaw(ByteBuffer slice) {
+            DoubleBuffer values = slice.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            for (int i = 0; i < values.limit(); i++) {
+                double value = values.get(i);
+                if (Double.isFinite(value)) {
+                    statistics.add(value);
+                } else {
+                    skipped++;
+                }
+            }
+        }
+
+        void addLines(ByteBuffer chunk, boolean header) {
+            int position = chunk.position();
+            int limit = chunk.limit();
+            boolean firstLine = header;
+            while (position < limit) {
+                int start = position;
+                while (position < limit && chunk.get(position) != '\n') {
+                    position++;
+                }
+                int end = position > start && chunk.get(position - 1) == '\r' ? position - 1 : position;
+                position++;
+                if (end > start)
+                    addLine(chunk, start, end, firstLine);
+                firstLine = false;
+            }
+        }
+
+        private void addLine(ByteBuffer chunk, int from, int to, boolean header) {
+            int fieldStart = AsciiDoubles.fieldStart(chunk, from, to, csvColumn);
+            double value;
+            try {
+                value = fieldStart < 0 ? Double.NaN : AsciiDoubles.parse(chunk, fieldStart, AsciiDoubles.fieldEnd(chunk, fieldStart, to));
+            } catch (NumberFormatException e) {
+                value = Double.NaN;
+            }
+            if (Double.isFinite(value)) {
+                statistics.add(value);
+            } else if (!header) {
+                skipped++;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.kristijanpeshevski.calculator.stats;
+
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+public final class StatisticsReport {
+
+    private static final double[] QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+    private static final String[] QUANTILE_NAMES = {"p1", "p5", "p25", "median", "p75", "p95", "p99"};
+    // Quantiles are only good to about 1%, more digits would suggest otherwise.
+    private static final int QUANTILE_DIGITS = 4;
+
+    private final RunningStatistics statistics;
+    private final long skipped;
+    private final long bytesRead;
+    private final long elapsedNanos;
+
+    StatisticsReport(RunningStatistics statistics, long skipped, long bytesRead, long elapsedNanos) {
+        this.statistics = statistics;
+        this.skipped = skipped;
+        this.bytesRead = bytesRead;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public RunningStatistics getStatistics() {
+        return statistics;
+    }
+
+    // Values that were not finite numbers.
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // One "name value" line per statistic, values formatted as the display shows them.
+    public String summary() {
+        DoubleFormatter formatter = new DoubleFormatter();
+        DoubleFormatter approximate = new DoubleFormatter(QUANTILE_DIGITS, DoubleFormatter.DEFAULT_MIN_PLAIN_EXPONENT,
+                DoubleFormatter.DEFAULT_MAX_PLAIN_EXPONENT);
+        StringBuilder summary = new StringBuilder();
+        line(summary, "count", Long.toString(statistics.getCount()));
+        line(summary, "sum", formatter.format(statistics.getSum()));
+        line(summary, "mean", formatter.format(statistics.getMean()));
+        line(summary, "std dev", formatter.format(statistics.getStandardDeviation()));
+        line(summary, "variance", formatter.format(statistics.getVariance()));
+        line(summary, "min", formatter.format(statistics.getMin()));
+        for (int i = 0; i < QUANTILES.length; i++) {
+            line(summary, QUANTILE_NAMES[i], "~" + approximate.format(statistics.quantile(QUANTILES[i])));
+        }
+        line(summary, "max", formatter.format(statistics.getMax()));
+        if (skipped > 0)
+            line(summary, "skipped", Long.toString(skipped));
+        return summary.toString();
+    }
+
+    public String timing() {
+        return String.format("Summarized %d values (%.1f MB) in %.2f s: %.1f MB/s", statistics.getCount(),
+                bytesRead / 1e6, elapsedNanos / 1e9, elapsedNanos == 0 ? 0 : bytesRead * 1e3 / elapsedNanos);
+    }
+
+    private static void line(StringBuilder summary, String name, String value) {
+        summary.append(String.format("%-9s %s%n", name, value));
+    }
+}
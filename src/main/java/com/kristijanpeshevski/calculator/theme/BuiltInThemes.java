@@ -0,0 +1,39 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Generated by ThemeSnapshotGenerator from application.yaml. Do not edit.
+final class BuiltInThemes {
+
+    private BuiltInThemes() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    static Map<String, Theme> themes() {
+        Map<String, Theme> themes = new LinkedHashMap<>();
+        add(themes, "Light", "f9f9f9", "000000", "ffffff", "f1f9fc", "ffffff", "0067ff");
+        add(themes, "Dark", "111111", "ffffff", "ffffff", "2d3361", "363c47", "4ccfff");
+        add(themes, "Crimson", "dc143c", "ffffff", "ffffff", "a80f2e", "e3426d", "8b0000");
+        add(themes, "Purple", "4b0082", "ffffff", "ffffff", "2c0057", "5d3fd3", "800080");
+        add(themes, "Toxic", "00ff00", "000000", "000000", "008000", "00cc00", "009900");
+        add(themes, "Gold", "fff8dc", "d4af37", "000000", "ffd700", "ffe680", "ffbf00");
+        return themes;
+    }
+
+    private static void add(Map<String, Theme> themes, String name, String applicationBackground, String textColor,
+                            String btnEqualTextColor, String operatorBackground, String numbersBackground,
+                            String btnEqualBackground) {
+        Theme theme = new Theme();
+        theme.setName(name);
+        theme.setApplicationBackground(applicationBackground);
+        theme.setTextColor(textColor);
+        theme.setBtnEqualTextColor(btnEqualTextColor);
+        theme.setOperatorBackground(operatorBackground);
+        theme.setNumbersBackground(numbersBackground);
+        theme.setBtnEqualBackground(btnEqualBackground);
+        themes.put(name, theme);
+    }
+}
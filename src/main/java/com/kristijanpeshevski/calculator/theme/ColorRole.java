@@ -0,0 +1,32 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public enum ColorRole {
+
+    APPLICATION_BACKGROUND(Theme::getApplicationBackground, Theme::setApplicationBackground),
+    TEXT(Theme::getTextColor, Theme::setTextColor),
+    BTN_EQUAL_TEXT(Theme::getBtnEqualTextColor, Theme::setBtnEqualTextColor),
+    OPERATOR_BACKGROUND(Theme::getOperatorBackground, Theme::setOperatorBackground),
+    NUMBERS_BACKGROUND(Theme::getNumbersBackground, Theme::setNumbersBackground),
+    BTN_EQUAL_BACKGROUND(Theme::getBtnEqualBackground, Theme::setBtnEqualBackground);
+
+    private final Function<Theme, String> property;
+    private final BiConsumer<Theme, String> setter;
+
+    ColorRole(Function<Theme, String> property, BiConsumer<Theme, String> setter) {
+        this.property = property;
+        this.setter = setter;
+    }
+
+    public String hexOf(Theme theme) {
+        return property.apply(theme);
+    }
+
+    public void setHex(Theme theme, String hex) {
+        setter.accept(theme, hex);
+    }
+}
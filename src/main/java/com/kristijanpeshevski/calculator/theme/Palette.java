@@ -0,0 +1,50 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+
+import java.awt.Color;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.kristijanpeshevski.calculator.util.ColorUtil.hex2Color;
+
+// A theme resolved once into Color instances, indexed by ColorRole, so applying it never parses or allocates.
+public final class Palette {
+
+    private static final ColorRole[] ROLES = ColorRole.values();
+
+    private final String name;
+    private final Color[] colors;
+
+    private Palette(String name, Color[] colors) {
+        this.name = name;
+        this.colors = colors;
+    }
+
+    public static Palette of(Theme theme) {
+        Color[] colors = new Color[ROLES.length];
+        for (ColorRole role : ROLES) {
+            colors[role.ordinal()] = hex2Color(role.hexOf(theme));
+        }
+        return new Palette(theme.getName(), colors);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Color get(ColorRole role) {
+        return colors[role.ordinal()];
+    }
+
+    // The roles whose color is not the same in other.
+    public Set<ColorRole> differences(Palette other) {
+        Set<ColorRole> roles = EnumSet.noneOf(ColorRole.class);
+        for (ColorRole role : ROLES) {
+            if (!Objects.equals(get(role), other.get(role)))
+                roles.add(role);
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// What reloading the themes changed: themes added and removed, and the roles whose color changed in each theme
+// that is still there. The new palettes are resolved along with the diff.
+public final class ThemeChanges {
+
+    private final Map<String, Theme> themes;
+    private final Map<String, Palette> palettes;
+    private final List<String> added = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private final Map<String, Set<ColorRole>> changed = new HashMap<>();
+
+    private ThemeChanges(Map<String, Theme> themes, Map<String, Palette> palettes) {
+        this.themes = Collections.unmodifiableMap(themes);
+        this.palettes = Collections.unmodifiableMap(palettes);
+    }
+
+    public static ThemeChanges between(Map<String, Palette> before, Map<String, Theme> after) {
+        Map<String, Palette> palettes = new LinkedHashMap<>();
+        after.forEach((name, theme) -> palettes.put(name, Palette.of(theme)));
+
+        ThemeChanges changes = new ThemeChanges(new LinkedHashMap<>(after), palettes);
+        palettes.forEach((name, palette) -> {
+            Palette previous = before.get(name);
+            if (previous == null) {
+                changes.added.add(name);
+                return;
+            }
+
+            Set<ColorRole> roles = previous.differences(palette);
+            if (!roles.isEmpty())
+                changes.changed.put(name, roles);
+        });
+        for (String name : before.keySet()) {
+            if (!palettes.containsKey(name))
+                changes.removed.add(name);
+        }
+        return changes;
+    }
+
+    // Every theme after the change, in order.
+    public Map<String, Theme> getThemes() {
+        return themes;
+    }
+
+    public Map<String, Palette> getPalettes() {
+        return palettes;
+    }
+
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    // Empty for a theme that did not change or was added or removed.
+    public Set<ColorRole> getChangedRoles(String themeName) {
+        Set<ColorRole> roles = changed.get(themeName);
+        return roles == null ? EnumSet.noneOf(ColorRole.class) : Collections.unmodifiableSet(roles);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+}
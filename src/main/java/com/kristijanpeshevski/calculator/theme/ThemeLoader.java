@@ -1,29 +1,80 @@
 package com.kristijanpeshevski.calculator.theme;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.kristijanpeshevski.calculator.theme.properties.Theme;
-import com.kristijanpeshevski.calculator.theme.properties.ThemeList;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ThemeLoader {
 
+    public static final String THEMES_RESOURCE = "/application.yaml";
+    public static final String USER_THEMES_PROPERTY = "calculator.themes";
+
     private ThemeLoader() {
         throw new AssertionError("Constructor is not allowed");
     }
 
+    /*
+     * Bundled themes come from BuiltInThemes, generated from application.yaml at build time, so a cold start never
+     * initializes Jackson. YAML is parsed only when a user themes file exists; its themes replace bundled themes of
+     * the same name and are added after them otherwise. A user theme may set only some colors: the rest come from
+     * the bundled theme it replaces, or from the first bundled theme.
+     */
     public static Map<String, Theme> loadThemes() {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        mapper.findAndRegisterModules();
+        Path userThemes = userThemesPath();
         try {
-            ThemeList themeList = mapper.readValue(new File("src/main/resources/application.yaml"), ThemeList.class);
-            return themeList.getThemesAsMap();
-        } catch (IOException e) {
-            return Collections.emptyMap();
+            return loadThemes(userThemes);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable themes file " + userThemes + ": " + e.getMessage());
+            return BuiltInThemes.themes();
+        }
+    }
+
+    // As loadThemes(), with the user themes from the given file, which need not exist.
+    public static Map<String, Theme> loadThemes(Path userThemes) throws IOException {
+        Map<String, Theme> themes = BuiltInThemes.themes();
+        if (!Files.isRegularFile(userThemes))
+            return themes;
+
+        Theme fallback = themes.values().iterator().next();
+        for (Theme theme : YamlThemeReader.read(userThemes).values()) {
+            if (theme.getName() == null)
+                throw new IOException("A theme has no name");
+
+            complete(theme, themes.getOrDefault(theme.getName(), fallback));
+            themes.put(theme.getName(), theme);
+        }
+        return themes;
+    }
+
+    // Fills the colors theme does not set from base and checks the ones it does, so a palette never has a gap.
+    private static void complete(Theme theme, Theme base) throws IOException {
+        for (ColorRole role : ColorRole.values()) {
+            String hex = role.hexOf(theme);
+            if (hex == null) {
+                role.setHex(theme, role.hexOf(base));
+            } else if (!hex.matches("[0-9a-fA-F]{6}.*")) {
+                throw new IOException("Theme " + theme.getName() + " has an invalid " + role + " color: " + hex);
+            }
         }
     }
+
+    public static Map<String, Palette> loadPalettes() {
+        Map<String, Palette> palettes = new LinkedHashMap<>();
+        loadThemes().forEach((name, theme) -> palettes.put(name, Palette.of(theme)));
+        return palettes;
+    }
+
+    // -Dcalculator.themes=<file>, otherwise ~/.calculator/application.yaml.
+    public static Path userThemesPath() {
+        String configured = System.getProperty(USER_THEMES_PROPERTY);
+        if (configured != null && !configured.isEmpty())
+            return Paths.get(configured);
+
+        return Paths.get(System.getProperty("user.home"), ".calculator", "application.yaml");
+    }
 }
@@ -0,0 +1,94 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/*
+ * Compiles application.yaml into BuiltInThemes.java, so the application never needs Jackson for its bundled
+ * themes. The build does not run it: BuiltInThemes.java is checked in and regenerated by hand after editing
+ * application.yaml, and ThemeSnapshotTest fails until it is. Usage: ThemeSnapshotGenerator <output BuiltInThemes.java>
+ *
+ *   mvn compile org.codehaus.mojo:exec-maven-plugin:3.2.0:java
+ *       -Dexec.mainClass=com.kristijanpeshevski.calculator.theme.ThemeSnapshotGenerator
+ *       -Dexec.args=src/main/java/com/kristijanpeshevski/calculator/theme/BuiltInThemes.java
+ */
+public class ThemeSnapshotGenerator {
+
+    private ThemeSnapshotGenerator() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ThemeSnapshotGenerator <output BuiltInThemes.java>");
+            System.exit(2);
+        }
+
+        Map<String, Theme> themes;
+        try (InputStream in = ThemeLoader.class.getResourceAsStream(ThemeLoader.THEMES_RESOURCE)) {
+            if (in == null)
+                throw new IOException("Resource " + ThemeLoader.THEMES_RESOURCE + " not found on the classpath");
+            themes = YamlThemeReader.read(in);
+        }
+
+        Path output = Paths.get(args[0]);
+        Files.write(output, generate(themes).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String generate(Map<String, Theme> themes) {
+        StringBuilder source = new StringBuilder()
+                .append("package com.kristijanpeshevski.calculator.theme;\n\n")
+                .append("import com.kristijanpeshevski.calculator.theme.properties.Theme;\n\n")
+                .append("import java.util.LinkedHashMap;\n")
+                .append("import java.util.Map;\n\n")
+                .append("// Generated by ThemeSnapshotGenerator from application.yaml. Do not edit.\n")
+                .append("final class BuiltInThemes {\n\n")
+                .append("    private BuiltInThemes() {\n")
+                .append("        throw new AssertionError(\"Constructor is not allowed\");\n")
+                .append("    }\n\n")
+                .append("    static Map<String, Theme> themes() {\n")
+                .append("        Map<String, Theme> themes = new LinkedHashMap<>();\n");
+        for (Theme theme : themes.values()) {
+            source.append("        add(themes, ")
+                    .append(quote(theme.getName())).append(", ")
+                    .append(quote(theme.getApplicationBackground())).append(", ")
+                    .append(quote(theme.getTextColor())).append(", ")
+                    .append(quote(theme.getBtnEqualTextColor())).append(", ")
+                    .append(quote(theme.getOperatorBackground())).append(", ")
+                    .append(quote(theme.getNumbersBackground())).append(", ")
+                    .append(quote(theme.getBtnEqualBackground())).append(");\n");
+        }
+        return source
+                .append("        return themes;\n")
+                .append("    }\n\n")
+                .append("    private static void add(Map<String, Theme> themes, String name, String applicationBackground, String textColor,\n")
+                .append("                            String btnEqualTextColor, String operatorBackground, String numbersBackground,\n")
+                .append("                            String btnEqualBackground) {\n")
+                .append("        Theme theme = new Theme();\n")
+                .append("        theme.setName(name);\n")
+                .append("        theme.setApplicationBackground(applicationBackground);\n")
+                .append("        theme.setTextColor(textColor);\n")
+                .append("        theme.setBtnEqualTextColor(btnEqualTextColor);\n")
+                .append("        theme.setOperatorBackground(operatorBackground);\n")
+                .append("        theme.setNumbersBackground(numbersBackground);\n")
+                .append("        theme.setBtnEqualBackground(btnEqualBackground);\n")
+                .append("        themes.put(name, theme);\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+
+    private static String quote(String value) {
+        if (value == null)
+            return "null";
+
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,131 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+ * Reloads the user themes file whenever it is saved, so a theme being edited shows without a restart. A daemon
+ * thread watches the file's directory. Editors save in bursts (truncate then write, or write a temporary file
+ * and rename it), so a reload waits until the directory has been quiet for DEBOUNCE_MILLIS. The file is parsed
+ * and diffed against the themes in use on that thread, and only a diff that changes something is handed to the
+ * listener on the publisher's thread. While the file does not parse, the themes in use are kept.
+ */
+public class ThemeWatcher implements AutoCloseable {
+
+    static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path file;
+    private final Map<String, Theme> themes;
+    private final Executor publisher;
+    private final Consumer<ThemeChanges> listener;
+    private final Thread thread;
+    private final CountDownLatch watching = new CountDownLatch(1);
+    private volatile boolean closed;
+    private volatile int reloads; // Written by the watcher thread only
+
+    private Map<String, Palette> palettes; // Watcher thread only, resolved on the first reload
+
+    // themes are the ones in use, loaded from file; a file whose directory does not exist is not watched.
+    public ThemeWatcher(Path file, Map<String, Theme> themes, Executor publisher, Consumer<ThemeChanges> listener) {
+        this.file = file.toAbsolutePath();
+        this.themes = new LinkedHashMap<>(themes);
+        this.publisher = publisher;
+        this.listener = listener;
+        thread = VirtualThreads.daemonThreads("calculator-themes").newThread(this::watch);
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    // For tests: waits until saves are seen, or the watcher gave up on the directory. Returns false on timeout.
+    boolean awaitWatching(long timeout, TimeUnit unit) throws InterruptedException {
+        return watching.await(timeout, unit);
+    }
+
+    // For tests: the number of times the file was read, whether or not it parsed or changed anything.
+    int getReloads() {
+        return reloads;
+    }
+
+    private void watch() {
+        Path directory = file.getParent();
+        if (!Files.isDirectory(directory)) {
+            watching.countDown();
+            return;
+        }
+
+        try (WatchService service = directory.getFileSystem().newWatchService()) {
+            try {
+                directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            } finally {
+                watching.countDown();
+            }
+            while (!closed) {
+                if (!touchesFile(service.take()))
+                    continue;
+
+                WatchKey more;
+                while ((more = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touchesFile(more);
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        } catch (IOException e) {
+            System.err.println("Themes are not reloaded, cannot watch " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        boolean touches = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+                touches = true;
+        }
+        key.reset();
+        return touches;
+    }
+
+    private void reload() {
+        if (palettes == null) {
+            palettes = new LinkedHashMap<>();
+            themes.forEach((name, theme) -> palettes.put(name, Palette.of(theme)));
+        }
+
+        ThemeChanges changes;
+        try {
+            changes = ThemeChanges.between(palettes, ThemeLoader.loadThemes(file));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable themes file " + file + ": " + e.getMessage());
+            return;
+        } finally {
+            reloads++;
+        }
+        if (changes.isEmpty() || closed)
+            return;
+
+        palettes = changes.getPalettes();
+        publisher.execute(() -> listener.accept(changes));
+    }
+}
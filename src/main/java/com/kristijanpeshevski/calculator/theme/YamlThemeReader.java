@@ -0,0 +1,31 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+import com.kristijanpeshevski.calculator.theme.properties.ThemeList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+// The only class that touches Jackson; it is loaded only when a YAML file actually has to be parsed.
+final class YamlThemeReader {
+
+    private YamlThemeReader() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    static Map<String, Theme> read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    static Map<String, Theme> read(InputStream in) throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        return mapper.readValue(in, ThemeList.class).getThemesAsMap();
+    }
+}
@@ -1,5 +1,6 @@
 package com.kristijanpeshevski.calculator.theme.properties;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -17,6 +18,6 @@ public class ThemeList {
     }
 
     public Map<String, Theme> getThemesAsMap() {
-        return themes.stream().collect(Collectors.toMap(Theme::getName, Function.identity()));
+        return themes.stream().collect(Collectors.toMap(Theme::getName, Function.identity(), (first, second) -> second, LinkedHashMap::new));
     }
 }
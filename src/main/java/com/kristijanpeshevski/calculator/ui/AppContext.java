@@ -0,0 +1,135 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import com.kristijanpeshevski.calculator.history.HistoryRecorder;
+import com.kristijanpeshevski.calculator.metrics.InteractionMetrics;
+import com.kristijanpeshevski.calculator.metrics.SessionHeapReport;
+import com.kristijanpeshevski.calculator.startup.StartupReport;
+import com.kristijanpeshevski.calculator.theme.Palette;
+import com.kristijanpeshevski.calculator.theme.ThemeChanges;
+import com.kristijanpeshevski.calculator.theme.ThemeLoader;
+import com.kristijanpeshevski.calculator.theme.ThemeWatcher;
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/*
+ * What the calculator windows of one JVM share. Each CalculatorUI is a session with its own state, display and
+ * windows, while the themes and their palettes, the formatter, the exact calculator, the evaluation threads,
+ * the history and the interaction metrics exist once. Fonts and cursors are shared constants already. Apart
+ * from the evaluation threads, all of it is used on the event dispatch thread only. Closing the last session
+ * stops the shared threads and releases the history, and the JVM ends with its window.
+ */
+public final class AppContext {
+
+    private final SessionHeapReport heap;
+    private Map<String, Theme> themes;
+    private final Map<String, Palette> palettes = new HashMap<>();
+    private final DoubleFormatter formatter = new DoubleFormatter();
+    private final ExactCalculator calculator = new ExactCalculator();
+    private final ExecutorService evaluations = VirtualThreads.newThreadPerTaskExecutor("evaluation");
+    private final HistoryRecorder history = new HistoryRecorder(HistoryRecorder.defaultDirectory());
+    private final InteractionMetrics metrics = new InteractionMetrics();
+    private final ThemeWatcher themeWatcher;
+    private final List<CalculatorUI> sessions = new ArrayList<>();
+    private int lastSession;
+
+    public AppContext() {
+        // Only with -Dcalculator.sessions.heap=true, measured from before anything shared is loaded.
+        heap = Boolean.getBoolean(SessionHeapReport.ENABLED_PROPERTY) ? new SessionHeapReport() : null;
+        themes = ThemeLoader.loadThemes();
+        themeWatcher = new ThemeWatcher(ThemeLoader.userThemesPath(), themes, SwingUtilities::invokeLater, this::themesChanged);
+        StartupReport.get().phase("load themes");
+        if (heap != null)
+            heap.sharedLoaded();
+    }
+
+    // Opens a new calculator window.
+    public CalculatorUI openSession() {
+        return new CalculatorUI(this);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // Null unless -Dcalculator.sessions.heap=true.
+    public SessionHeapReport getHeapReport() {
+        return heap;
+    }
+
+    Map<String, Theme> getThemes() {
+        return themes;
+    }
+
+    // Palettes other than the default one are resolved the first time a session selects them.
+    Palette palette(String themeName) {
+        return palettes.computeIfAbsent(themeName, name -> Palette.of(themes.get(name)));
+    }
+
+    DoubleFormatter getFormatter() {
+        return formatter;
+    }
+
+    ExactCalculator getCalculator() {
+        return calculator;
+    }
+
+    ExecutorService getEvaluations() {
+        return evaluations;
+    }
+
+    HistoryRecorder getHistory() {
+        return history;
+    }
+
+    InteractionMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Returns the session's number, 1 for the first one.
+    int sessionOpened(CalculatorUI session) {
+        sessions.add(session);
+        metrics.start();
+        int number = ++lastSession;
+        if (heap != null) {
+            heap.sessionOpened(number);
+            log();
+        }
+        return number;
+    }
+
+    void sessionClosed(CalculatorUI session, int number) {
+        sessions.remove(session);
+        if (heap != null) {
+            heap.sessionClosed(number);
+            log();
+        }
+        if (sessions.isEmpty()) {
+            themeWatcher.close();
+            evaluations.shutdownNow();
+            metrics.close();
+            history.close();
+        }
+    }
+
+    private void themesChanged(ThemeChanges changes) {
+        themes = changes.getThemes();
+        palettes.clear();
+        palettes.putAll(changes.getPalettes());
+        for (CalculatorUI session : sessions) {
+            session.themesChanged(changes);
+        }
+    }
+
+    private void log() {
+        System.getLogger(SessionHeapReport.class.getName()).log(System.Logger.Level.INFO, heap.summary());
+    }
+}
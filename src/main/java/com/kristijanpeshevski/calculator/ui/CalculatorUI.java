@@ -1,586 +1,401 @@
 package com.kristijanpeshevski.calculator.ui;
 
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.EvaluationScheduler;
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.metrics.InteractionMetrics;
+import com.kristijanpeshevski.calculator.replay.KeystrokeRecorder;
+import com.kristijanpeshevski.calculator.startup.StartupReport;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.theme.Palette;
+import com.kristijanpeshevski.calculator.theme.ThemeChanges;
 import com.kristijanpeshevski.calculator.theme.properties.Theme;
-import com.kristijanpeshevski.calculator.theme.ThemeLoader;
 
 import java.awt.Cursor;
-import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
 import java.awt.event.ItemEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
 import java.awt.Color;
 import javax.swing.*;
 
-import static com.kristijanpeshevski.calculator.util.ColorUtil.hex2Color;
-
 public class CalculatorUI {
 
-    private static final String FONT_NAME = "Comic Sans MS";
-    private static final String DOUBLE_OR_NUMBER_REGEX = "([-]?\\d+[.]\\d*)|(\\d+)|(-\\d+)";
+    static final String FONT_NAME = "Comic Sans MS";
     private static final String APPLICATION_TITLE = "Calculator";
     private static final int WINDOW_WIDTH = 410;
     private static final int WINDOW_HEIGHT = 600;
-    private static final int BUTTON_WIDTH = 80;
-    private static final int BUTTON_HEIGHT = 70;
+    private static final int MATRIX_WINDOW_WIDTH = 760;
     private static final int MARGIN_X = 20;
     private static final int MARGIN_Y = 60;
 
+    private static final int KEYPAD_Y = MARGIN_Y + 100;
+    private static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+
     private final JFrame window;
     private JComboBox<String> comboCalculatorType;
     private JComboBox<String> comboTheme;
     private JTextField inputScreen;
-    private JButton btnC;
-    private JButton btnBack;
-    private JButton btnMod;
-    private JButton btnDiv;
-    private JButton btnMul;
-    private JButton btnSub;
-    private JButton btnAdd;
-    private JButton btn0;
-    private JButton btn1;
-    private JButton btn2;
-    private JButton btn3;
-    private JButton btn4;
-    private JButton btn5;
-    private JButton btn6;
-    private JButton btn7;
-    private JButton btn8;
-    private JButton btn9;
-    private JButton btnPoint;
-    private JButton btnEqual;
-    private JButton btnRoot;
-    private JButton btnPower;
-    private JButton btnLog;
-
-    private char selectedOperator = ' ';
-    private boolean go = true; // For calculate with Opt != (=)
-    private boolean addToDisplay = true; // Connect numbers in display
-    private double typedValue = 0;
-
-    private final Map<String, Theme> themesMap;
-
+    private InputScreenUpdater inputScreenUpdater;
+    private Keypad keypad;
+    private KeyboardInput keyboard;
+    private EvaluationProgress progress;
+    private MatrixPanel matrixPanel;
+
+    private final AppContext context;
+    private final CalculatorState state;
+    private final InteractionMetrics metrics;
+    private final KeystrokeRecorder keystrokes;
+    private HistoryWindow historyWindow;
+    private WorksheetWindow worksheetWindow;
+    private PlotWindow plotWindow;
+    private StatisticsWindow statisticsWindow;
+
+    private Palette currentPalette;
+    private final ColorRoleRegistry colorRoles = new ColorRoleRegistry();
+
+    // A calculator on its own, which closes with its window.
     public CalculatorUI() {
-        themesMap = ThemeLoader.loadThemes();
+        this(new AppContext());
+    }
+
+    // A session of context; see AppContext.openSession().
+    CalculatorUI(AppContext context) {
+        this.context = context;
+        state = new CalculatorState(context.getFormatter(), context.getCalculator());
+        metrics = context.getMetrics();
+        keystrokes = KeystrokeRecorder.fromSystemProperty(state.getDisplay());
+        StartupReport startup = StartupReport.get();
 
         window = new JFrame(APPLICATION_TITLE);
+        window.setContentPane(new FirstPaintPanel(this::initSession));
         window.setSize(WINDOW_WIDTH, WINDOW_HEIGHT);
         window.setLocationRelativeTo(null);
+        colorRoles.register(window.getContentPane(), null, ColorRole.APPLICATION_BACKGROUND);
+        startup.phase("create window");
 
-        int[] columns = {MARGIN_X, MARGIN_X + 90, MARGIN_X + 90 * 2, MARGIN_X + 90 * 3, MARGIN_X + 90 * 4};
-        int[] rows = {MARGIN_Y, MARGIN_Y + 100, MARGIN_Y + 100 + 80, MARGIN_Y + 100 + 80 * 2, MARGIN_Y + 100 + 80 * 3, MARGIN_Y + 100 + 80 * 4};
-
-        initInputScreen(columns, rows);
-        initButtons(columns, rows);
+        initInputScreen();
+        initKeypad();
+        initKeyboard();
         initCalculatorTypeSelector();
+        startup.phase("create components");
 
         initThemeSelector();
+        startup.phase("apply theme");
 
         window.setLayout(null);
         window.setResizable(false);
-        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        window.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         window.setVisible(true);
+        startup.phase("show window");
+    }
+
+    // What the first frame does not show is built once it is on screen, after the paint events already queued.
+    private void initSession() {
+        initEvaluation();
+        initWindows();
+        initKeystrokeRecording();
+        applyTheme(currentPalette);
+
+        int session = context.sessionOpened(this);
+        if (session > 1)
+            window.setTitle(APPLICATION_TITLE + " " + session);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent event) {
+                close();
+                context.sessionClosed(CalculatorUI.this, session);
+            }
+        });
     }
 
     public double calculate(double firstNumber, double secondNumber, char operator) {
-        switch (operator) {
-            case '+':
-                return firstNumber + secondNumber;
-            case '-':
-                return firstNumber - secondNumber;
-            case '*':
-                return firstNumber * secondNumber;
-            case '/':
-                return firstNumber / secondNumber;
-            case '%':
-                return firstNumber % secondNumber;
-            case '^':
-                return Math.pow(firstNumber, secondNumber);
-            default:
-                return secondNumber;
-        }
+        return CalculatorEngine.calculate(firstNumber, secondNumber, operator);
+    }
+
+    JFrame getWindow() {
+        return window;
     }
 
+    // The window has closed; what the session started stops with it.
+    private void close() {
+        keyboard.flush();
+        state.cancel();
+        if (keystrokes != null)
+            keystrokes.close();
+        if (historyWindow != null)
+            historyWindow.dispose();
+        if (worksheetWindow != null)
+            worksheetWindow.dispose();
+        if (plotWindow != null)
+            plotWindow.dispose();
+        if (statisticsWindow != null)
+            statisticsWindow.dispose();
+    }
+
+    // Saving the user themes file updates the list and the theme in use while the calculator runs.
     private void initThemeSelector() {
-        comboTheme = createComboBox(themesMap.keySet().toArray(new String[0]), 230, 30, "Theme");
+        Map<String, Theme> themes = context.getThemes();
+        comboTheme = createComboBox(themes.keySet().toArray(new String[0]), 230, 30, "Theme");
         comboTheme.addItemListener(event -> {
             if (event.getStateChange() != ItemEvent.SELECTED)
                 return;
 
             String selectedTheme = (String) event.getItem();
-            applyTheme(themesMap.get(selectedTheme));
+            applyTheme(context.palette(selectedTheme));
         });
 
-        if (themesMap.entrySet().iterator().hasNext()) {
-            applyTheme(themesMap.entrySet().iterator().next().getValue());
+        if (!themes.isEmpty()) {
+            applyTheme(context.palette(themes.keySet().iterator().next()));
+        }
+    }
+
+    /*
+     * Removing the selected theme selects another one, which the item listener applies in full. Otherwise the
+     * selection stays and only the roles whose colors changed in it are applied again. AppContext has updated
+     * the themes and palettes already.
+     */
+    void themesChanged(ThemeChanges changes) {
+        DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) comboTheme.getModel();
+        for (String name : changes.getRemoved()) {
+            model.removeElement(name);
+        }
+        int index = 0;
+        for (String name : changes.getThemes().keySet()) {
+            if (model.getIndexOf(name) < 0)
+                model.insertElementAt(name, index);
+            index++;
         }
+
+        String selected = (String) comboTheme.getSelectedItem();
+        Set<ColorRole> roles = changes.getChangedRoles(selected);
+        if (!roles.isEmpty())
+            applyChanges(context.palette(selected), roles);
     }
 
-    private void initInputScreen(int[] columns, int[] rows) {
-        inputScreen = new JTextField("0");
-        inputScreen.setBounds(columns[0], rows[0], 350, 70);
+    private void initInputScreen() {
+        inputScreen = new JTextField();
+        inputScreenUpdater = new InputScreenUpdater(inputScreen, state.getDisplay());
+        inputScreen.setBounds(MARGIN_X, MARGIN_Y, 350, 70);
         inputScreen.setEditable(false);
         inputScreen.setBackground(Color.WHITE);
-        inputScreen.setFont(new Font(FONT_NAME, Font.PLAIN, 33));
+        inputScreen.setFont(Fonts.of(33));
+        colorRoles.register(inputScreen, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
         window.add(inputScreen);
     }
 
-    private void initCalculatorTypeSelector() {
-        comboCalculatorType = createComboBox(new String[]{"Standard", "Scientific"}, 20, 30, "Calculator type");
-        comboCalculatorType.addItemListener(event -> {
-            if (event.getStateChange() != ItemEvent.SELECTED)
-                return;
-
-            String selectedItem = (String) event.getItem();
-            switch (selectedItem) {
-                case "Standard":
-                    window.setSize(WINDOW_WIDTH, WINDOW_HEIGHT);
-                    btnRoot.setVisible(false);
-                    btnPower.setVisible(false);
-                    btnLog.setVisible(false);
-                    break;
-                case "Scientific":
-                    window.setSize(WINDOW_WIDTH + 80, WINDOW_HEIGHT);
-                    btnRoot.setVisible(true);
-                    btnPower.setVisible(true);
-                    btnLog.setVisible(true);
-                    break;
-            }
-        });
+    // Operations on very large numbers run on a virtual thread; the progress bar under the display cancels them.
+    // Sessions share the threads, each with a scheduler of its own.
+    private void initEvaluation() {
+        EvaluationScheduler scheduler = new EvaluationScheduler(context.getEvaluations(), SwingUtilities::invokeLater, EvaluationScheduler.DEFAULT_THRESHOLD);
+        state.setScheduler(scheduler);
+        progress = new EvaluationProgress(state, inputScreenUpdater::refresh, metrics.instrument("CANCEL", event -> {
+            keyboard.flush();
+            state.cancel();
+        }));
+        scheduler.setListener(progress);
+        progress.setBounds(MARGIN_X, MARGIN_Y + 72, 350, 24);
+        progress.registerColors(colorRoles);
+        window.add(progress);
     }
 
-    private void initButtons(int[] columns, int[] rows) {
-        btnC = createButton("C", columns[0], rows[1]);
-        btnC.addActionListener(event -> {
-            inputScreen.setText("0");
-            selectedOperator = ' ';
-            typedValue = 0;
-        });
-
-        btnBack = createButton("<-", columns[1], rows[1]);
-        btnBack.addActionListener(event -> {
-            String str = inputScreen.getText();
-            StringBuilder str2 = new StringBuilder();
-            for (int i = 0; i < (str.length() - 1); i++) {
-                str2.append(str.charAt(i));
-            }
-            if (str2.toString().equals("")) {
-                inputScreen.setText("0");
-            } else {
-                inputScreen.setText(str2.toString());
-            }
-        });
-
-        btnMod = createButton("%", columns[2], rows[1]);
-        btnMod.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()) || !go)
-                return;
-
-            typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-            if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                inputScreen.setText(String.valueOf((int) typedValue));
-            } else {
-                inputScreen.setText(String.valueOf(typedValue));
-            }
-            selectedOperator = '%';
-            go = false;
-            addToDisplay = false;
-        });
-
-        btnDiv = createButton("/", columns[3], rows[1]);
-        btnDiv.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
-
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '/';
-                go = false;
-                addToDisplay = false;
-            } else {
-                selectedOperator = '/';
-            }
-        });
-
-        btn7 = createButton("7", columns[0], rows[2]);
-        btn7.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("7");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "7");
-                }
-            } else {
-                inputScreen.setText("7");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btn8 = createButton("8", columns[1], rows[2]);
-        btn8.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("8");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "8");
-                }
-            } else {
-                inputScreen.setText("8");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btn9 = createButton("9", columns[2], rows[2]);
-        btn9.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("9");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "9");
-                }
-            } else {
-                inputScreen.setText("9");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btnMul = createButton("*", columns[3], rows[2]);
-        btnMul.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
-
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '*';
-                go = false;
-                addToDisplay = false;
-            } else {
-                selectedOperator = '*';
-            }
-        });
-
-        btn4 = createButton("4", columns[0], rows[3]);
-        btn4.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("4");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "4");
-                }
-            } else {
-                inputScreen.setText("4");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btn5 = createButton("5", columns[1], rows[3]);
-        btn5.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("5");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "5");
-                }
-            } else {
-                inputScreen.setText("5");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btn6 = createButton("6", columns[2], rows[3]);
-        btn6.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("6");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "6");
-                }
-            } else {
-                inputScreen.setText("6");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btnSub = createButton("-", columns[3], rows[3]);
-        btnSub.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
-
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-
-                selectedOperator = '-';
-                go = false;
-                addToDisplay = false;
-            } else {
-                selectedOperator = '-';
-            }
-        });
-
-        btn1 = createButton("1", columns[0], rows[4]);
-        btn1.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("1");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "1");
-                }
-            } else {
-                inputScreen.setText("1");
-                addToDisplay = true;
-            }
-            go = true;
-        });
-
-        btn2 = createButton("2", columns[1], rows[4]);
-        btn2.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("2");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "2");
-                }
-            } else {
-                inputScreen.setText("2");
-                addToDisplay = true;
-            }
-            go = true;
-        });
+    // The history (Ctrl+H), worksheet (Ctrl+E), plot (Ctrl+P) and statistics (Ctrl+T) windows open from the
+    // display's context menu and are built on first use. So does another session (Ctrl+N).
+    private void initWindows() {
+        state.setOperationListener(context.getHistory());
+
+        JPopupMenu popup = new JPopupMenu();
+        popup.add(windowAction("History", KeyEvent.VK_H, this::showHistory));
+        popup.add(windowAction("Worksheet", KeyEvent.VK_E, this::showWorksheet));
+        popup.add(windowAction("Plot", KeyEvent.VK_P, this::showPlot));
+        popup.add(windowAction("Statistics", KeyEvent.VK_T, this::showStatistics));
+        popup.addSeparator();
+        popup.add(windowAction("New window", KeyEvent.VK_N, context::openSession));
+        inputScreen.setComponentPopupMenu(popup);
+    }
 
-        btn3 = createButton("3", columns[2], rows[4]);
-        btn3.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("3");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "3");
-                }
-            } else {
-                inputScreen.setText("3");
-                addToDisplay = true;
+    // Only with -Dcalculator.keystrokes=<directory>. The display at exit closes the log.
+    private void initKeystrokeRecording() {
+        if (keystrokes == null)
+            return;
+
+        state.setInputListener(keystrokes);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                keyboard.flush();
+                keystrokes.checkpoint();
             }
-            go = true;
         });
+    }
 
-        btnAdd = createButton("+", columns[3], rows[4]);
-        btnAdd.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
-
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '+';
-                go = false;
-                addToDisplay = false;
-            } else {
-                selectedOperator = '+';
+    private Action windowAction(String name, int keyCode, Runnable show) {
+        ActionListener listener = metrics.instrument(name, event -> show.run());
+        Action action = new AbstractAction(name) {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                listener.actionPerformed(event);
             }
-        });
+        };
+        KeyStroke keyStroke = KeyStroke.getKeyStroke(keyCode, InputEvent.CTRL_DOWN_MASK);
+        action.putValue(Action.ACCELERATOR_KEY, keyStroke);
+        JRootPane rootPane = window.getRootPane();
+        rootPane.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(keyStroke, name);
+        rootPane.getActionMap().put(name, action);
+        return action;
+    }
 
-        btnPoint = createButton(".", columns[0], rows[5]);
-        btnPoint.addActionListener(event -> {
-            if (addToDisplay) {
-                if (!inputScreen.getText().contains(".")) {
-                    inputScreen.setText(inputScreen.getText() + ".");
-                }
-            } else {
-                inputScreen.setText("0.");
-                addToDisplay = true;
-            }
-            go = true;
-        });
+    private void showHistory() {
+        if (historyWindow == null) {
+            historyWindow = new HistoryWindow(context.getHistory());
+            historyWindow.registerColors(colorRoles);
+            applyTheme(currentPalette);
+        }
+        historyWindow.show(window);
+    }
 
-        btn0 = createButton("0", columns[1], rows[5]);
-        btn0.addActionListener(event -> {
-            if (addToDisplay) {
-                if (Pattern.matches("[0]*", inputScreen.getText())) {
-                    inputScreen.setText("0");
-                } else {
-                    inputScreen.setText(inputScreen.getText() + "0");
-                }
-            } else {
-                inputScreen.setText("0");
-                addToDisplay = true;
-            }
-            go = true;
-        });
+    private void showWorksheet() {
+        if (worksheetWindow == null) {
+            worksheetWindow = new WorksheetWindow();
+            worksheetWindow.registerColors(colorRoles);
+            applyTheme(currentPalette);
+        }
+        worksheetWindow.show(window);
+    }
 
-        btnEqual = createButton("=", columns[2], rows[5]);
-        btnEqual.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
+    private void showPlot() {
+        if (plotWindow == null) {
+            plotWindow = new PlotWindow();
+            plotWindow.registerColors(colorRoles);
+            applyTheme(currentPalette);
+        }
+        plotWindow.show(window);
+    }
 
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '=';
-                addToDisplay = false;
-            }
-        });
-        btnEqual.setSize(2 * BUTTON_WIDTH + 10, BUTTON_HEIGHT);
+    private void showStatistics() {
+        if (statisticsWindow == null) {
+            statisticsWindow = new StatisticsWindow();
+            statisticsWindow.registerColors(colorRoles);
+            applyTheme(currentPalette);
+        }
+        statisticsWindow.show(window);
+    }
 
-        btnRoot = createButton("√", columns[4], rows[1]);
-        btnRoot.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
+    private void initCalculatorTypeSelector() {
+        comboCalculatorType = createComboBox(new String[]{"Standard", "Scientific", "Matrix"}, 20, 30, "Calculator type");
+        comboCalculatorType.addItemListener(event -> {
+            if (event.getStateChange() != ItemEvent.SELECTED)
                 return;
 
-            if (go) {
-                typedValue = Math.sqrt(Double.parseDouble(inputScreen.getText()));
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '√';
-                addToDisplay = false;
+            String selectedItem = (String) event.getItem();
+            switch (selectedItem) {
+                case "Standard":
+                    setMatrixMode(false);
+                    window.setSize(WINDOW_WIDTH, WINDOW_HEIGHT);
+                    keypad.setScientific(false);
+                    break;
+                case "Scientific":
+                    setMatrixMode(false);
+                    window.setSize(WINDOW_WIDTH + 80, WINDOW_HEIGHT);
+                    keypad.setScientific(true);
+                    break;
+                case "Matrix":
+                    setMatrixMode(true);
+                    window.setSize(MATRIX_WINDOW_WIDTH, WINDOW_HEIGHT);
+                    break;
             }
         });
-        btnRoot.setVisible(false);
+    }
 
-        btnPower = createButton("pow", columns[4], rows[2]);
-        btnPower.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
+    // The matrix panel takes the place of the display and the keypad; it is built the first time it is shown.
+    private void setMatrixMode(boolean matrix) {
+        if (matrix && matrixPanel == null) {
+            matrixPanel = new MatrixPanel();
+            matrixPanel.setBounds(MARGIN_X, MARGIN_Y, MATRIX_WINDOW_WIDTH - 2 * MARGIN_X - 20, WINDOW_HEIGHT - MARGIN_Y - 60);
+            matrixPanel.registerColors(colorRoles);
+            window.add(matrixPanel);
+            applyTheme(currentPalette);
+        }
+        if (matrixPanel != null)
+            matrixPanel.setVisible(matrix);
+        inputScreen.setVisible(!matrix);
+        keypad.setVisible(!matrix);
+        if (matrix)
+            state.cancel();
+    }
 
-            if (go) {
-                typedValue = calculate(typedValue, Double.parseDouble(inputScreen.getText()), selectedOperator);
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = '^';
-                go = false;
-                addToDisplay = false;
-            } else {
-                selectedOperator = '^';
-            }
-        });
-        btnPower.setFont(new Font("Comic Sans MS", Font.PLAIN, 24));
-        btnPower.setVisible(false);
+    private void initKeypad() {
+        keypad = new Keypad();
+        keypad.setLocation(MARGIN_X, KEYPAD_Y);
+        for (Key key : Key.values()) {
+            keypad.setAction(key, metrics.instrument(key.name(), event -> press(key)));
+        }
+        window.add(keypad);
+    }
 
-        btnLog = createButton("ln", columns[4], rows[3]);
-        btnLog.addActionListener(event -> {
-            if (!Pattern.matches(DOUBLE_OR_NUMBER_REGEX, inputScreen.getText()))
-                return;
+    private void initKeyboard() {
+        keyboard = new KeyboardInput(state, inputScreenUpdater, metrics);
+        keyboard.install(window.getRootPane(), inputScreen);
+    }
 
-            if (go) {
-                typedValue = Math.log(Double.parseDouble(inputScreen.getText()));
-                if (Pattern.matches("[-]?[\\d]+[.][0]*", String.valueOf(typedValue))) {
-                    inputScreen.setText(String.valueOf((int) typedValue));
-                } else {
-                    inputScreen.setText(String.valueOf(typedValue));
-                }
-                selectedOperator = 'l';
-                addToDisplay = false;
-            }
-        });
-        btnLog.setVisible(false);
+    private void press(Key key) {
+        keyboard.flush();
+        state.press(key);
+        inputScreenUpdater.refresh();
     }
 
     private JComboBox<String> createComboBox(String[] items, int x, int y, String toolTip) {
         JComboBox<String> combo = new JComboBox<>(items);
         combo.setBounds(x, y, 140, 25);
         combo.setToolTipText(toolTip);
-        combo.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        combo.setCursor(HAND_CURSOR);
+        colorRoles.register(combo, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
         window.add(combo);
 
         return combo;
     }
 
-    private JButton createButton(String label, int x, int y) {
-        JButton btn = new JButton(label);
-        btn.setBounds(x, y, BUTTON_WIDTH, BUTTON_HEIGHT);
-        btn.setFont(new Font("Comic Sans MS", Font.PLAIN, 28));
-        btn.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        btn.setFocusable(false);
-        window.add(btn);
+    void applyTheme(Palette palette) {
+        currentPalette = palette;
+        colorRoles.apply(palette);
+        keypad.setPalette(palette);
+        if (plotWindow != null && palette != null)
+            plotWindow.setPalette(palette);
+    }
 
-        return btn;
+    private void applyChanges(Palette palette, Set<ColorRole> roles) {
+        currentPalette = palette;
+        colorRoles.apply(palette, roles);
+        keypad.setPalette(palette);
+        if (plotWindow != null && roles.contains(ColorRole.BTN_EQUAL_BACKGROUND))
+            plotWindow.setPalette(palette);
     }
 
-    private void applyTheme(Theme theme) {
-        window.getContentPane().setBackground(hex2Color(theme.getApplicationBackground()));
-
-        comboCalculatorType.setForeground(hex2Color(theme.getTextColor()));
-        comboTheme.setForeground(hex2Color(theme.getTextColor()));
-        inputScreen.setForeground(hex2Color(theme.getTextColor()));
-        btn0.setForeground(hex2Color(theme.getTextColor()));
-        btn1.setForeground(hex2Color(theme.getTextColor()));
-        btn2.setForeground(hex2Color(theme.getTextColor()));
-        btn3.setForeground(hex2Color(theme.getTextColor()));
-        btn4.setForeground(hex2Color(theme.getTextColor()));
-        btn5.setForeground(hex2Color(theme.getTextColor()));
-        btn6.setForeground(hex2Color(theme.getTextColor()));
-        btn7.setForeground(hex2Color(theme.getTextColor()));
-        btn8.setForeground(hex2Color(theme.getTextColor()));
-        btn9.setForeground(hex2Color(theme.getTextColor()));
-        btnPoint.setForeground(hex2Color(theme.getTextColor()));
-        btnC.setForeground(hex2Color(theme.getTextColor()));
-        btnBack.setForeground(hex2Color(theme.getTextColor()));
-        btnMod.setForeground(hex2Color(theme.getTextColor()));
-        btnDiv.setForeground(hex2Color(theme.getTextColor()));
-        btnMul.setForeground(hex2Color(theme.getTextColor()));
-        btnSub.setForeground(hex2Color(theme.getTextColor()));
-        btnAdd.setForeground(hex2Color(theme.getTextColor()));
-        btnRoot.setForeground(hex2Color(theme.getTextColor()));
-        btnLog.setForeground(hex2Color(theme.getTextColor()));
-        btnPower.setForeground(hex2Color(theme.getTextColor()));
-        btnEqual.setForeground(hex2Color(theme.getBtnEqualTextColor()));
-
-        comboCalculatorType.setBackground(hex2Color(theme.getApplicationBackground()));
-        comboTheme.setBackground(hex2Color(theme.getApplicationBackground()));
-        inputScreen.setBackground(hex2Color(theme.getApplicationBackground()));
-        btn0.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn1.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn2.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn3.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn4.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn5.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn6.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn7.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn8.setBackground(hex2Color(theme.getNumbersBackground()));
-        btn9.setBackground(hex2Color(theme.getNumbersBackground()));
-        btnPoint.setBackground(hex2Color(theme.getNumbersBackground()));
-        btnC.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnBack.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnMod.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnDiv.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnMul.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnSub.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnAdd.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnRoot.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnLog.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnPower.setBackground(hex2Color(theme.getOperatorBackground()));
-        btnEqual.setBackground(hex2Color(theme.getBtnEqualBackground()));
+    private static final class FirstPaintPanel extends JPanel {
+
+        private final Runnable afterFirstPaint;
+        private boolean painted;
+
+        private FirstPaintPanel(Runnable afterFirstPaint) {
+            super(null);
+            this.afterFirstPaint = afterFirstPaint;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (!painted) {
+                painted = true;
+                StartupReport.get().firstPaint();
+                SwingUtilities.invokeLater(afterFirstPaint);
+            }
+        }
     }
-}
\ No newline at end of file
+}
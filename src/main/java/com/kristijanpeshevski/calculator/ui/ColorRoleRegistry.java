@@ -0,0 +1,59 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.theme.Palette;
+
+import java.awt.Component;
+import java.util.Arrays;
+import java.util.Set;
+
+// Which palette roles color which component; applying a palette is one pass over flat arrays.
+public class ColorRoleRegistry {
+
+    private Component[] components = new Component[32];
+    private ColorRole[] foregrounds = new ColorRole[32];
+    private ColorRole[] backgrounds = new ColorRole[32];
+    private int size;
+
+    // Either role may be null to leave that color untouched.
+    public void register(Component component, ColorRole foreground, ColorRole background) {
+        if (size == components.length) {
+            components = Arrays.copyOf(components, size * 2);
+            foregrounds = Arrays.copyOf(foregrounds, size * 2);
+            backgrounds = Arrays.copyOf(backgrounds, size * 2);
+        }
+        components[size] = component;
+        foregrounds[size] = foreground;
+        backgrounds[size] = background;
+        size++;
+    }
+
+    /*
+     * Components only repaint when a color actually changes, and those repaint requests are coalesced by the
+     * RepaintManager into a single paint pass once the event handler returns.
+     */
+    public void apply(Palette palette) {
+        for (int i = 0; i < size; i++) {
+            Component component = components[i];
+            if (foregrounds[i] != null)
+                component.setForeground(palette.get(foregrounds[i]));
+            if (backgrounds[i] != null)
+                component.setBackground(palette.get(backgrounds[i]));
+        }
+    }
+
+    // Only the colors of the given roles, on only the components that use them.
+    public void apply(Palette palette, Set<ColorRole> roles) {
+        for (int i = 0; i < size; i++) {
+            Component component = components[i];
+            if (foregrounds[i] != null && roles.contains(foregrounds[i]))
+                component.setForeground(palette.get(foregrounds[i]));
+            if (backgrounds[i] != null && roles.contains(backgrounds[i]))
+                component.setBackground(palette.get(backgrounds[i]));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
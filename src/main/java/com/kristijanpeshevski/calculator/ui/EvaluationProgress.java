@@ -0,0 +1,81 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.engine.EvaluationScheduler;
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionListener;
+import java.util.Locale;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+
+/*
+ * A progress bar with the time spent so far and a Cancel button, below the display while an operation runs in
+ * the background. It only appears once the operation has taken SHOW_AFTER_MILLIS, so results that come back
+ * quickly do not make it flicker. The display is refreshed whenever a result arrives.
+ */
+class EvaluationProgress extends JPanel implements EvaluationScheduler.Listener {
+
+    static final int SHOW_AFTER_MILLIS = 150;
+
+    private static final int TICK_MILLIS = 100;
+
+    private final CalculatorState state;
+    private final Runnable refresh;
+    private final JProgressBar bar = new JProgressBar();
+    private final JButton cancel = new JButton("Cancel");
+    private final Timer ticks;
+    private long startNanos;
+
+    EvaluationProgress(CalculatorState state, Runnable refresh, ActionListener cancelAction) {
+        super(new BorderLayout(6, 0));
+        this.state = state;
+        this.refresh = refresh;
+        setOpaque(false);
+        setVisible(false);
+
+        bar.setIndeterminate(true);
+        bar.setStringPainted(true);
+        cancel.setToolTipText("Stop the calculation and keep the numbers as they were");
+        cancel.addActionListener(cancelAction);
+        add(bar, BorderLayout.CENTER);
+        add(cancel, BorderLayout.EAST);
+
+        ticks = new Timer(TICK_MILLIS, event -> tick());
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(cancel, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    @Override
+    public void evaluationStarted() {
+        if (ticks.isRunning())
+            return;
+
+        startNanos = System.nanoTime();
+        ticks.start();
+    }
+
+    @Override
+    public void evaluationFinished() {
+        refresh.run();
+        if (state.isBusy())
+            return;
+
+        ticks.stop();
+        setVisible(false);
+    }
+
+    private void tick() {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (millis < SHOW_AFTER_MILLIS)
+            return;
+
+        bar.setString(String.format(Locale.ROOT, "Calculating... %.1f s", millis / 1000.0));
+        setVisible(true);
+    }
+}
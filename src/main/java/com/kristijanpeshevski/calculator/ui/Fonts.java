@@ -0,0 +1,25 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import java.awt.Font;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Fonts are immutable, so every window of every session shares one instance per size.
+final class Fonts {
+
+    private static final Map<Integer, Font> PLAIN = new ConcurrentHashMap<>();
+    private static final Map<Integer, Font> MONOSPACED = new ConcurrentHashMap<>();
+
+    private Fonts() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    // The calculator's font, CalculatorUI.FONT_NAME.
+    static Font of(int size) {
+        return PLAIN.computeIfAbsent(size, ignored -> new Font(CalculatorUI.FONT_NAME, Font.PLAIN, size));
+    }
+
+    static Font monospaced(int size) {
+        return MONOSPACED.computeIfAbsent(size, ignored -> new Font(Font.MONOSPACED, Font.PLAIN, size));
+    }
+}
@@ -0,0 +1,51 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.history.HistoryEntry;
+import com.kristijanpeshevski.calculator.history.HistoryJournal;
+
+import javax.swing.AbstractListModel;
+import java.util.function.Supplier;
+
+/*
+ * Newest-first view of the history journal. Nothing is copied: getElementAt decodes the one slot a visible
+ * row needs, so a list over millions of entries costs no more than one over ten. Rows not yet committed
+ * by the writer come back as null.
+ */
+class HistoryListModel extends AbstractListModel<HistoryEntry> {
+
+    private final Supplier<HistoryJournal> journal;
+    private int size;
+
+    HistoryListModel(Supplier<HistoryJournal> journal) {
+        this.journal = journal;
+    }
+
+    // Picks up entries appended since the last call; new rows appear at the top.
+    void refresh() {
+        HistoryJournal opened = journal.get();
+        int current = opened == null ? 0 : (int) Math.min(Integer.MAX_VALUE, opened.size());
+        if (current > size) {
+            int added = current - size;
+            size = current;
+            fireIntervalAdded(this, 0, added - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public HistoryEntry getElementAt(int index) {
+        return journal.get().get(sequenceAt(index));
+    }
+
+    long sequenceAt(int index) {
+        return size - 1L - index;
+    }
+
+    int indexOf(long sequence) {
+        return (int) (size - 1L - sequence);
+    }
+}
@@ -0,0 +1,164 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.history.HistoryEntry;
+import com.kristijanpeshevski.calculator.history.HistoryJournal;
+import com.kristijanpeshevski.calculator.history.HistoryRecorder;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import javax.swing.*;
+
+/*
+ * Scrollable history of every completed operation. The list uses a fixed cell size so Swing never measures
+ * rows it does not paint, and polls the journal for new entries only while the window is showing. The field
+ * at the top jumps to the first entry at or after a time ("2024-05-01 14:30"). When the journal could not be
+ * opened, usually because another calculator is recording to it, the title says that history is disabled.
+ */
+class HistoryWindow {
+
+    private static final int WIDTH = 420;
+    private static final int HEIGHT = 600;
+    private static final int ROW_HEIGHT = 24;
+    private static final int REFRESH_MILLIS = 250;
+    private static final String TITLE = "History";
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter GO_TO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    private final JFrame frame;
+    private final JList<HistoryEntry> list;
+    private final HistoryListModel model;
+    private final JTextField goTo;
+    private final HistoryRecorder history;
+    private final Timer refresh;
+
+    HistoryWindow(HistoryRecorder history) {
+        this.history = history;
+        model = new HistoryListModel(history::getJournal);
+        list = new JList<>(model);
+        list.setFixedCellHeight(ROW_HEIGHT);
+        list.setFixedCellWidth(WIDTH - 40);
+        list.setFont(Fonts.of(16));
+        list.setCellRenderer(new EntryRenderer());
+
+        goTo = new JTextField();
+        goTo.setToolTipText("Go to time: yyyy-MM-dd HH:mm[:ss]");
+        goTo.addActionListener(event -> goTo(goTo.getText()));
+
+        frame = new JFrame(TITLE);
+        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        frame.setSize(WIDTH, HEIGHT);
+        frame.add(goTo, BorderLayout.NORTH);
+        frame.add(new JScrollPane(list), BorderLayout.CENTER);
+
+        refresh = new Timer(REFRESH_MILLIS, event -> refresh());
+        frame.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                refresh();
+                refresh.start();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                refresh.stop();
+            }
+        });
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(list, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(goTo, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    void show(Component relativeTo) {
+        if (!frame.isVisible())
+            frame.setLocationRelativeTo(relativeTo);
+        frame.setVisible(true);
+        frame.toFront();
+    }
+
+    void dispose() {
+        refresh.stop();
+        frame.dispose();
+    }
+
+    private void refresh() {
+        model.refresh();
+        String disabled = history.getDisabledReason();
+        String title = disabled == null ? TITLE : TITLE + " (disabled: " + disabled + ")";
+        if (!title.equals(frame.getTitle()))
+            frame.setTitle(title);
+    }
+
+    private void goTo(String text) {
+        HistoryJournal journal = history.getJournal();
+        if (journal == null)
+            return;
+
+        try {
+            long millis = LocalDateTime.parse(text.trim(), GO_TO).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            model.refresh();
+            long sequence = journal.firstAtOrAfter(millis);
+            int index = model.indexOf(Math.min(sequence, model.getSize() - 1L));
+            if (index >= 0 && index < model.getSize()) {
+                list.setSelectedIndex(index);
+                list.ensureIndexIsVisible(index);
+            }
+        } catch (DateTimeParseException e) {
+            goTo.selectAll();
+        }
+    }
+
+    private static final class EntryRenderer extends DefaultListCellRenderer {
+
+        private final DoubleFormatter formatter = new DoubleFormatter();
+        private final char[] formatted = new char[formatter.maxDecimalLength()];
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                      boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, describe((HistoryEntry) value), index, isSelected, cellHasFocus);
+            return this;
+        }
+
+        private String describe(HistoryEntry entry) {
+            if (entry == null)
+                return "…";
+
+            text.setLength(0);
+            TIME.formatTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()), ZoneId.systemDefault()), text);
+            text.append("   ");
+            String operator = HistoryEntry.operatorText(entry.getOperator());
+            if (entry.getOperator() == CalculatorEngine.FACTORIAL) {
+                append(entry.getFirstOperand());
+                text.append('!');
+            } else if (entry.getSecondOperand() == null) {
+                text.append(operator).append(' ');
+                append(entry.getFirstOperand());
+            } else {
+                append(entry.getFirstOperand());
+                text.append(' ').append(operator).append(' ');
+                append(entry.getSecondOperand());
+            }
+            text.append(" = ");
+            append(entry.getResult());
+            return text.toString();
+        }
+
+        private void append(ExactNumber value) {
+            text.append(formatted, 0, value.format(formatter, formatted, 0));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.input.InputBuffer;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+
+// Patches only the tail of the document that changed since the last refresh, so typing a digit inserts one
+// shared single-character string instead of building and setting a new text.
+public class InputScreenUpdater {
+
+    private static final String[] SINGLE_CHARACTERS = new String[128];
+
+    static {
+        for (char c = 0; c < SINGLE_CHARACTERS.length; c++) {
+            SINGLE_CHARACTERS[c] = String.valueOf(c).intern();
+        }
+    }
+
+    private final JTextComponent inputScreen;
+    private final InputBuffer display;
+
+    public InputScreenUpdater(JTextComponent inputScreen, InputBuffer display) {
+        this.inputScreen = inputScreen;
+        this.display = display;
+        inputScreen.setText(display.toString());
+        display.markSynced();
+    }
+
+    public void refresh() {
+        Document document = inputScreen.getDocument();
+        int from = display.getDirtyFrom();
+        try {
+            if (display.getSyncedLength() > from)
+                document.remove(from, display.getSyncedLength() - from);
+            if (display.length() > from)
+                document.insertString(from, textFrom(from), null);
+        } catch (BadLocationException e) {
+            inputScreen.setText(display.toString());
+        }
+        display.markSynced();
+    }
+
+    private String textFrom(int from) {
+        char first = display.getChars()[from];
+        if (display.length() - from == 1 && first < SINGLE_CHARACTERS.length)
+            return SINGLE_CHARACTERS[first];
+
+        return new String(display.getChars(), from, display.length() - from);
+    }
+}
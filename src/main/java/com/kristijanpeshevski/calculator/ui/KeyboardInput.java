@@ -0,0 +1,255 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionException;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionParser;
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.metrics.InteractionMetrics;
+
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
+import javax.swing.JRootPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.UIManager;
+
+/*
+ * Typing on the physical keyboard. Keys are not applied one event at a time: they are queued and flushed at
+ * most once per frame, so a held key or a fast typist costs one display update per frame instead of one per
+ * event. The first key after a quiet frame is flushed as soon as the events already queued have been handled,
+ * later ones wait for the rest of the frame on a Swing timer.
+ *
+ * Paste (Ctrl+V, Cmd+V or Shift+Insert) accepts numbers with grouping separators ("1,234.5", "1 000", "1'000"),
+ * exponents and signs, and constant expressions ("(2+3)*4"), which are evaluated with the keypad's exact
+ * arithmetic, so "0.1+0.2" enters 0.3. Whatever its length, a paste is entered as one value that replaces the
+ * number being typed, with a single display update.
+ */
+class KeyboardInput {
+
+    static final int FRAME_MILLIS = 16;
+
+    private static final String TYPE = "typeKey";
+    private static final String PASTE = "paste";
+    private static final long FRAME_NANOS = FRAME_MILLIS * 1_000_000L;
+    private static final int MAX_EXACT_SCALE = 1000;
+    private static final char[] TYPED_CHARACTERS = "0123456789.,+-−*xX×/÷%^=!".toCharArray();
+
+    private final CalculatorState state;
+    private final InputScreenUpdater updater;
+    private final ActionListener timedFlush;
+    private final Timer frameTimer;
+
+    private Key[] pending = new Key[16];
+    private int pendingCount;
+    private boolean scheduled;
+    private long lastFlushNanos = System.nanoTime() - FRAME_NANOS;
+
+    KeyboardInput(CalculatorState state, InputScreenUpdater updater, InteractionMetrics metrics) {
+        this.state = state;
+        this.updater = updater;
+        timedFlush = metrics.instrument("KEYBOARD", event -> flush());
+        frameTimer = new Timer(FRAME_MILLIS, timedFlush);
+        frameTimer.setRepeats(false);
+    }
+
+    // Binds the keys on the window and on each focusable component that would otherwise consume them, as a
+    // focused text field does with typed characters.
+    void install(JRootPane rootPane, JComponent... focusable) {
+        install(rootPane, JComponent.WHEN_IN_FOCUSED_WINDOW);
+        for (JComponent component : focusable) {
+            install(component, JComponent.WHEN_FOCUSED);
+        }
+    }
+
+    private void install(JComponent component, int condition) {
+        InputMap inputMap = component.getInputMap(condition);
+        for (char c : TYPED_CHARACTERS) {
+            inputMap.put(KeyStroke.getKeyStroke(c), TYPE);
+        }
+        bind(inputMap, KeyEvent.VK_ENTER, 0, Key.EQUAL.name());
+        bind(inputMap, KeyEvent.VK_BACK_SPACE, 0, Key.BACK.name());
+        bind(inputMap, KeyEvent.VK_ESCAPE, 0, Key.CLEAR.name());
+        bind(inputMap, KeyEvent.VK_DELETE, 0, Key.CLEAR.name());
+        bind(inputMap, KeyEvent.VK_V, InputEvent.CTRL_DOWN_MASK, PASTE);
+        bind(inputMap, KeyEvent.VK_V, InputEvent.META_DOWN_MASK, PASTE);
+        bind(inputMap, KeyEvent.VK_INSERT, InputEvent.SHIFT_DOWN_MASK, PASTE);
+
+        ActionMap actionMap = component.getActionMap();
+        actionMap.put(TYPE, action(event -> {
+            String command = event.getActionCommand();
+            Key key = command == null || command.length() != 1 ? null : Key.forChar(command.charAt(0));
+            if (key != null)
+                type(key);
+        }));
+        for (Key key : new Key[]{Key.EQUAL, Key.BACK, Key.CLEAR}) {
+            actionMap.put(key.name(), action(event -> type(key)));
+        }
+        actionMap.put(PASTE, action(event -> pasteClipboard()));
+    }
+
+    void type(Key key) {
+        if (pendingCount == pending.length)
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        pending[pendingCount++] = key;
+        if (scheduled)
+            return;
+
+        scheduled = true;
+        long sinceFlush = System.nanoTime() - lastFlushNanos;
+        if (sinceFlush >= FRAME_NANOS) {
+            SwingUtilities.invokeLater(() -> {
+                if (scheduled)
+                    timedFlush.actionPerformed(null);
+            });
+        } else {
+            frameTimer.setInitialDelay((int) ((FRAME_NANOS - sinceFlush) / 1_000_000) + 1);
+            frameTimer.restart();
+        }
+    }
+
+    // Applies every queued key and updates the display once. Also called before a keypad click, so clicks
+    // and typing stay in order.
+    void flush() {
+        frameTimer.stop();
+        scheduled = false;
+        if (pendingCount == 0)
+            return;
+
+        for (int i = 0; i < pendingCount; i++) {
+            state.press(pending[i]);
+            pending[i] = null;
+        }
+        pendingCount = 0;
+        updater.refresh();
+        lastFlushNanos = System.nanoTime();
+    }
+
+    int pendingKeys() {
+        return pendingCount;
+    }
+
+    boolean paste(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty())
+            return false;
+
+        ExactNumber value = parse(normalized);
+        if (value == null)
+            return false;
+
+        flush();
+        state.enter(value);
+        updater.refresh();
+        return true;
+    }
+
+    private void pasteClipboard() {
+        String text;
+        try {
+            text = (String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+        } catch (UnsupportedFlavorException | IOException | IllegalStateException e) {
+            text = null;
+        }
+        if (text == null || !paste(text))
+            UIManager.getLookAndFeel().provideErrorFeedback(null);
+    }
+
+    // Drops whitespace, '_' and '\'' separators and a trailing '='. In text that is only digits, points and
+    // commas, commas group thousands when there is a point, more than one comma, or a single comma between a
+    // group of one to three digits not starting with 0 and exactly three digits ("1,234"); otherwise a comma
+    // is the decimal separator ("3,14", "0,125").
+    static String normalize(String text) {
+        text = text.strip();
+        if (text.endsWith("="))
+            text = text.substring(0, text.length() - 1);
+
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean numeric = true;
+        int points = 0;
+        int commas = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c) || c == '_' || c == '\'')
+                continue;
+
+            switch (c) {
+                case '−':
+                    c = '-';
+                    break;
+                case '×':
+                    c = '*';
+                    break;
+                case '÷':
+                    c = '/';
+                    break;
+                case '.':
+                    points++;
+                    break;
+                case ',':
+                    commas++;
+                    break;
+                default:
+                    numeric &= c >= '0' && c <= '9';
+            }
+            normalized.append(c);
+        }
+        if (!numeric || commas == 0)
+            return normalized.toString();
+
+        String grouped = normalized.toString();
+        return points > 0 || commas > 1 || isThousands(grouped) ? grouped.replace(",", "") : grouped.replace(',', '.');
+    }
+
+    private static boolean isThousands(String digits) {
+        int comma = digits.indexOf(',');
+        return comma >= 1 && comma <= 3 && digits.charAt(0) != '0' && digits.length() - comma - 1 == 3;
+    }
+
+    // Null when the text is neither a number nor a constant expression with a finite value.
+    private ExactNumber parse(String text) {
+        try {
+            BigDecimal decimal = new BigDecimal(text);
+            if (Math.abs(decimal.scale()) <= MAX_EXACT_SCALE)
+                return ExactNumber.of(decimal);
+
+            // "1e999999" would expand to a million digits, beyond that only the double matters.
+            double value = decimal.doubleValue();
+            return Double.isFinite(value) ? ExactNumber.of(value) : null;
+        } catch (NumberFormatException e) {
+            // Not a plain number, try it as an expression.
+        }
+        try {
+            ExactNumber value = ExpressionParser.compile(text).evaluateExact(state.getCalculator());
+            return !value.isDouble() || Double.isFinite(value.doubleValue()) ? value : null;
+        } catch (ExpressionException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static void bind(InputMap inputMap, int keyCode, int modifiers, String name) {
+        inputMap.put(KeyStroke.getKeyStroke(keyCode, modifiers), name);
+    }
+
+    private static AbstractAction action(ActionListener listener) {
+        return new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                listener.actionPerformed(event);
+            }
+        };
+    }
+}
@@ -0,0 +1,754 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.theme.Palette;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Locale;
+import java.util.Map;
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleAction;
+import javax.accessibility.AccessibleComponent;
+import javax.accessibility.AccessibleContext;
+import javax.accessibility.AccessibleRole;
+import javax.accessibility.AccessibleState;
+import javax.accessibility.AccessibleStateSet;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+
+/*
+ * All calculator keys as one component. Keys are placed from a layout table, painted in a single
+ * paintComponent pass and hit tested by arithmetic on the grid. The key faces (backgrounds and glyphs) are
+ * rendered once into a VolatileImage and only redrawn when the palette, the scientific column or the surface
+ * itself changes; a repaint blits that image and draws the hover, pressed and focus overlays on top.
+ *
+ * The arrow keys move the focused key and Space presses it; Enter is left to the window, where it means "=".
+ * Each key is exposed to assistive technologies as a push button child with a press action.
+ */
+class Keypad extends JComponent implements Accessible {
+
+    static final int COLUMN_PITCH = 90;
+    static final int ROW_PITCH = 80;
+    static final int KEY_WIDTH = 80;
+    static final int KEY_HEIGHT = 70;
+
+    private static final int STANDARD_COLUMNS = 4;
+    private static final int SCIENTIFIC_COLUMNS = 5;
+    private static final int ARC = 12;
+
+    // A key repeated in adjacent cells spans them; the last column is only shown in the scientific layout.
+    private static final Key[][] LAYOUT = {
+            {Key.CLEAR, Key.BACK, Key.MODULO, Key.DIVIDE, Key.ROOT},
+            {Key.DIGIT_7, Key.DIGIT_8, Key.DIGIT_9, Key.MULTIPLY, Key.POWER},
+            {Key.DIGIT_4, Key.DIGIT_5, Key.DIGIT_6, Key.SUBTRACT, Key.LOG},
+            {Key.DIGIT_1, Key.DIGIT_2, Key.DIGIT_3, Key.ADD, Key.FACTORIAL},
+            {Key.POINT, Key.DIGIT_0, Key.EQUAL, Key.EQUAL, Key.FIBONACCI}
+    };
+
+    private static final Key[] KEYS = Key.values();
+    private static final Rectangle[] BOUNDS = new Rectangle[KEYS.length];
+    private static final Point[] CELLS = new Point[KEYS.length];
+
+    // Shared by every keypad: fonts and cursors are immutable flyweights.
+    private static final Font KEY_FONT = Fonts.of(28);
+    private static final Font WORD_KEY_FONT = Fonts.of(24);
+    private static final Cursor HAND_CURSOR = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
+    private static final Color HOVER = new Color(255, 255, 255, 40);
+    private static final Color PRESSED = new Color(0, 0, 0, 60);
+
+    static {
+        for (int row = 0; row < LAYOUT.length; row++) {
+            for (int column = 0; column < LAYOUT[row].length; column++) {
+                Key key = LAYOUT[row][column];
+                if (key == null)
+                    continue;
+
+                Rectangle bounds = BOUNDS[key.ordinal()];
+                if (bounds == null) {
+                    BOUNDS[key.ordinal()] = new Rectangle(column * COLUMN_PITCH, row * ROW_PITCH, KEY_WIDTH, KEY_HEIGHT);
+                    CELLS[key.ordinal()] = new Point(column, row);
+                } else {
+                    bounds.width += COLUMN_PITCH;
+                }
+            }
+        }
+    }
+
+    private final ActionListener[] listeners = new ActionListener[KEYS.length];
+    private final Object desktopHints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+    private Palette palette;
+    private boolean scientific;
+    private Key focused = Key.CLEAR;
+    private Key hovered;
+    private Key armed;
+    private VolatileImage faces;
+    private BufferedImage offscreenFaces;
+    private boolean facesValid;
+
+    Keypad() {
+        setOpaque(true);
+        setFocusable(true);
+        setCursor(HAND_CURSOR);
+        setSize(getPreferredSize());
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent event) {
+                Key key = keyAt(event.getX(), event.getY());
+                if (key != null && event.getButton() == MouseEvent.BUTTON1)
+                    setArmed(key);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent event) {
+                Key key = armed;
+                setArmed(null);
+                if (key != null && key == keyAt(event.getX(), event.getY()))
+                    press(key);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent event) {
+                setHovered(keyAt(event.getX(), event.getY()));
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent event) {
+                setHovered(keyAt(event.getX(), event.getY()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent event) {
+                setHovered(null);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusGained(FocusEvent event) {
+                repaintKey(focused);
+            }
+
+            @Override
+            public void focusLost(FocusEvent event) {
+                repaintKey(focused);
+            }
+        });
+
+        bind(KeyEvent.VK_LEFT, "focusLeft", () -> moveFocus(0, -1));
+        bind(KeyEvent.VK_RIGHT, "focusRight", () -> moveFocus(0, 1));
+        bind(KeyEvent.VK_UP, "focusUp", () -> moveFocus(-1, 0));
+        bind(KeyEvent.VK_DOWN, "focusDown", () -> moveFocus(1, 0));
+        bind(KeyEvent.VK_SPACE, "pressFocused", () -> press(focused));
+    }
+
+    void setAction(Key key, ActionListener listener) {
+        listeners[key.ordinal()] = listener;
+    }
+
+    void setPalette(Palette palette) {
+        this.palette = palette;
+        invalidateFaces();
+    }
+
+    void setScientific(boolean scientific) {
+        if (this.scientific == scientific)
+            return;
+
+        this.scientific = scientific;
+        if (!isShown(focused))
+            focused = Key.CLEAR;
+        setSize(getPreferredSize());
+        invalidateFaces();
+    }
+
+    boolean isScientific() {
+        return scientific;
+    }
+
+    boolean isShown(Key key) {
+        Point cell = CELLS[key.ordinal()];
+        return cell != null && cell.x < columns();
+    }
+
+    Key getFocusedKey() {
+        return focused;
+    }
+
+    static Rectangle boundsOf(Key key) {
+        return new Rectangle(BOUNDS[key.ordinal()]);
+    }
+
+    // The key under a point, or null for the gaps between keys.
+    Key keyAt(int x, int y) {
+        if (x < 0 || y < 0)
+            return null;
+
+        int column = x / COLUMN_PITCH;
+        int row = y / ROW_PITCH;
+        if (row >= LAYOUT.length || column >= columns())
+            return null;
+
+        Key key = LAYOUT[row][column];
+        return key != null && BOUNDS[key.ordinal()].contains(x, y) ? key : null;
+    }
+
+    void press(Key key) {
+        ActionListener listener = listeners[key.ordinal()];
+        if (listener != null && isShown(key))
+            listener.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED, key.name()));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(columns() * COLUMN_PITCH - (COLUMN_PITCH - KEY_WIDTH),
+                LAYOUT.length * ROW_PITCH - (ROW_PITCH - KEY_HEIGHT));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (palette == null)
+            return;
+
+        Graphics2D g2 = (Graphics2D) g;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration == null) {
+            g2.drawImage(offscreenFaces(), 0, 0, null);
+        } else {
+            do {
+                validateFaces(configuration);
+                g2.drawImage(faces, 0, 0, getWidth(), getHeight(), null);
+            } while (faces.contentsLost());
+        }
+        paintOverlays(g2);
+    }
+
+    @Override
+    public AccessibleContext getAccessibleContext() {
+        if (accessibleContext == null)
+            accessibleContext = new AccessibleKeypad();
+        return accessibleContext;
+    }
+
+    private int columns() {
+        return scientific ? SCIENTIFIC_COLUMNS : STANDARD_COLUMNS;
+    }
+
+    private void invalidateFaces() {
+        facesValid = false;
+        repaint();
+    }
+
+    // The image is device-sized so glyphs stay sharp on scaled displays.
+    private void validateFaces(GraphicsConfiguration configuration) {
+        offscreenFaces = null;
+        AffineTransform scale = configuration.getDefaultTransform();
+        int width = (int) Math.ceil(getWidth() * scale.getScaleX());
+        int height = (int) Math.ceil(getHeight() * scale.getScaleY());
+        int status = faces == null || faces.getWidth() != width || faces.getHeight() != height
+                ? VolatileImage.IMAGE_INCOMPATIBLE : faces.validate(configuration);
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (faces != null)
+                faces.flush();
+            faces = configuration.createCompatibleVolatileImage(width, height);
+            facesValid = false;
+        } else if (status == VolatileImage.IMAGE_RESTORED) {
+            facesValid = false;
+        }
+        if (facesValid)
+            return;
+
+        Graphics2D g = faces.createGraphics();
+        try {
+            g.scale(scale.getScaleX(), scale.getScaleY());
+            paintFaces(g);
+        } finally {
+            g.dispose();
+        }
+        facesValid = true;
+    }
+
+    // Without a screen (offscreen or headless painting) the faces are cached in an ordinary image instead.
+    private BufferedImage offscreenFaces() {
+        if (faces != null) {
+            faces.flush();
+            faces = null;
+            facesValid = false;
+        }
+        if (offscreenFaces == null || offscreenFaces.getWidth() != getWidth() || offscreenFaces.getHeight() != getHeight()) {
+            offscreenFaces = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+            facesValid = false;
+        }
+        if (!facesValid) {
+            Graphics2D g = offscreenFaces.createGraphics();
+            try {
+                paintFaces(g);
+            } finally {
+                g.dispose();
+            }
+            facesValid = true;
+        }
+        return offscreenFaces;
+    }
+
+    private void paintFaces(Graphics2D g) {
+        g.setColor(palette.get(ColorRole.APPLICATION_BACKGROUND));
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (desktopHints instanceof Map)
+            g.addRenderingHints((Map<?, ?>) desktopHints);
+        else
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        for (Key key : KEYS) {
+            if (!isShown(key))
+                continue;
+
+            Rectangle bounds = BOUNDS[key.ordinal()];
+            Color background = palette.get(backgroundRole(key));
+            g.setColor(background);
+            g.fillRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, ARC, ARC);
+            g.setColor(background.darker());
+            g.drawRoundRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1, ARC, ARC);
+
+            Font font = key.getLabel().length() > 2 ? WORD_KEY_FONT : KEY_FONT;
+            FontMetrics metrics = g.getFontMetrics(font);
+            g.setFont(font);
+            g.setColor(palette.get(foregroundRole(key)));
+            g.drawString(key.getLabel(), bounds.x + (bounds.width - metrics.stringWidth(key.getLabel())) / 2,
+                    bounds.y + (bounds.height - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+    }
+
+    private void paintOverlays(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (hovered != null && hovered != armed)
+            fillKey(g, hovered, HOVER);
+        if (armed != null)
+            fillKey(g, armed, PRESSED);
+        if (isFocusOwner()) {
+            Rectangle bounds = BOUNDS[focused.ordinal()];
+            g.setColor(palette.get(foregroundRole(focused)));
+            g.drawRoundRect(bounds.x + 3, bounds.y + 3, bounds.width - 7, bounds.height - 7, ARC, ARC);
+        }
+    }
+
+    private static void fillKey(Graphics2D g, Key key, Color color) {
+        Rectangle bounds = BOUNDS[key.ordinal()];
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setColor(color);
+        g.fillRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, ARC, ARC);
+    }
+
+    private void setHovered(Key key) {
+        if (hovered == key)
+            return;
+
+        repaintKey(hovered);
+        hovered = key;
+        repaintKey(key);
+    }
+
+    private void setArmed(Key key) {
+        if (armed == key)
+            return;
+
+        repaintKey(armed);
+        armed = key;
+        repaintKey(key);
+    }
+
+    private void setFocused(Key key) {
+        Key previous = focused;
+        repaintKey(previous);
+        focused = key;
+        repaintKey(key);
+        if (accessibleContext != null) {
+            accessibleContext.firePropertyChange(AccessibleContext.ACCESSIBLE_ACTIVE_DESCENDANT_PROPERTY,
+                    accessibleKey(previous), accessibleKey(key));
+        }
+    }
+
+    // Walks the grid from the focused key's first cell, skipping the other cells of a spanning key.
+    private void moveFocus(int rowStep, int columnStep) {
+        Point cell = CELLS[focused.ordinal()];
+        int row = cell.y;
+        int column = cell.x;
+        while (true) {
+            row += rowStep;
+            column += columnStep;
+            if (row < 0 || row >= LAYOUT.length || column < 0 || column >= columns())
+                return;
+
+            Key key = LAYOUT[row][column];
+            if (key != null && key != focused) {
+                setFocused(key);
+                return;
+            }
+        }
+    }
+
+    private void repaintKey(Key key) {
+        if (key != null)
+            repaint(BOUNDS[key.ordinal()]);
+    }
+
+    private void bind(int keyCode, String name, Runnable action) {
+        getInputMap(WHEN_FOCUSED).put(KeyStroke.getKeyStroke(keyCode, 0), name);
+        getActionMap().put(name, new AbstractAction(name) {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                action.run();
+            }
+        });
+    }
+
+    static ColorRole foregroundRole(Key key) {
+        return key == Key.EQUAL ? ColorRole.BTN_EQUAL_TEXT : ColorRole.TEXT;
+    }
+
+    static ColorRole backgroundRole(Key key) {
+        if (key == Key.EQUAL)
+            return ColorRole.BTN_EQUAL_BACKGROUND;
+        if (key.isDigit() || key == Key.POINT)
+            return ColorRole.NUMBERS_BACKGROUND;
+        return ColorRole.OPERATOR_BACKGROUND;
+    }
+
+    static String accessibleName(Key key) {
+        switch (key) {
+            case CLEAR:
+                return "Clear";
+            case BACK:
+                return "Backspace";
+            case MODULO:
+                return "Modulo";
+            case DIVIDE:
+                return "Divide";
+            case MULTIPLY:
+                return "Multiply";
+            case SUBTRACT:
+                return "Subtract";
+            case ADD:
+                return "Add";
+            case EQUAL:
+                return "Equals";
+            case POINT:
+                return "Decimal point";
+            case ROOT:
+                return "Square root";
+            case POWER:
+                return "Power";
+            case LOG:
+                return "Natural logarithm";
+            case FACTORIAL:
+                return "Factorial";
+            case FIBONACCI:
+                return "Fibonacci number";
+            default:
+                return key.getLabel();
+        }
+    }
+
+    private AccessibleKey accessibleKey(Key key) {
+        return accessibleContext == null ? null : ((AccessibleKeypad) accessibleContext).keys[key.ordinal()];
+    }
+
+    private final class AccessibleKeypad extends AccessibleJComponent {
+
+        private final AccessibleKey[] keys = new AccessibleKey[KEYS.length];
+
+        private AccessibleKeypad() {
+            for (Key key : KEYS) {
+                keys[key.ordinal()] = new AccessibleKey(key);
+            }
+            setAccessibleName("Keypad");
+        }
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PANEL;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            int count = 0;
+            for (Key key : KEYS) {
+                if (isShown(key))
+                    count++;
+            }
+            return count;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int index) {
+            for (Key key : KEYS) {
+                if (isShown(key) && index-- == 0)
+                    return keys[key.ordinal()];
+            }
+            return null;
+        }
+
+        @Override
+        public Accessible getAccessibleAt(Point point) {
+            Key key = keyAt(point.x, point.y);
+            return key == null ? null : keys[key.ordinal()];
+        }
+    }
+
+    // A key as a push button child of the keypad. Bounds come from the layout table; colors, fonts and focus
+    // are the keypad's own.
+    private final class AccessibleKey extends AccessibleContext implements Accessible, AccessibleAction, AccessibleComponent {
+
+        private final Key key;
+
+        private AccessibleKey(Key key) {
+            this.key = key;
+            setAccessibleName(accessibleName(key));
+            setAccessibleParent(Keypad.this);
+        }
+
+        @Override
+        public AccessibleContext getAccessibleContext() {
+            return this;
+        }
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PUSH_BUTTON;
+        }
+
+        @Override
+        public AccessibleStateSet getAccessibleStateSet() {
+            AccessibleStateSet states = new AccessibleStateSet();
+            states.add(AccessibleState.ENABLED);
+            states.add(AccessibleState.FOCUSABLE);
+            if (isShown(key)) {
+                states.add(AccessibleState.VISIBLE);
+                if (Keypad.this.isShowing())
+                    states.add(AccessibleState.SHOWING);
+            }
+            if (key == focused && isFocusOwner())
+                states.add(AccessibleState.FOCUSED);
+            if (key == armed)
+                states.add(AccessibleState.PRESSED);
+            return states;
+        }
+
+        @Override
+        public int getAccessibleIndexInParent() {
+            int index = 0;
+            for (Key each : KEYS) {
+                if (each == key)
+                    return isShown(key) ? index : -1;
+                if (isShown(each))
+                    index++;
+            }
+            return -1;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return 0;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int index) {
+            return null;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return Keypad.this.getLocale();
+        }
+
+        @Override
+        public AccessibleComponent getAccessibleComponent() {
+            return this;
+        }
+
+        @Override
+        public AccessibleAction getAccessibleAction() {
+            return this;
+        }
+
+        @Override
+        public int getAccessibleActionCount() {
+            return 1;
+        }
+
+        @Override
+        public String getAccessibleActionDescription(int index) {
+            return index == 0 ? AccessibleAction.CLICK : null;
+        }
+
+        @Override
+        public boolean doAccessibleAction(int index) {
+            if (index != 0 || !isShown(key))
+                return false;
+
+            press(key);
+            return true;
+        }
+
+        @Override
+        public Color getBackground() {
+            return palette == null ? null : palette.get(backgroundRole(key));
+        }
+
+        @Override
+        public void setBackground(Color color) {
+        }
+
+        @Override
+        public Color getForeground() {
+            return palette == null ? null : palette.get(foregroundRole(key));
+        }
+
+        @Override
+        public void setForeground(Color color) {
+        }
+
+        @Override
+        public Cursor getCursor() {
+            return Keypad.this.getCursor();
+        }
+
+        @Override
+        public void setCursor(Cursor cursor) {
+        }
+
+        @Override
+        public Font getFont() {
+            return key.getLabel().length() > 2 ? WORD_KEY_FONT : KEY_FONT;
+        }
+
+        @Override
+        public void setFont(Font font) {
+        }
+
+        @Override
+        public FontMetrics getFontMetrics(Font font) {
+            return Keypad.this.getFontMetrics(font);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return Keypad.this.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+        }
+
+        @Override
+        public boolean isVisible() {
+            return isShown(key);
+        }
+
+        @Override
+        public void setVisible(boolean visible) {
+        }
+
+        @Override
+        public boolean isShowing() {
+            return isShown(key) && Keypad.this.isShowing();
+        }
+
+        @Override
+        public boolean contains(Point point) {
+            return point.x >= 0 && point.y >= 0 && point.x < BOUNDS[key.ordinal()].width && point.y < BOUNDS[key.ordinal()].height;
+        }
+
+        @Override
+        public Point getLocationOnScreen() {
+            if (!Keypad.this.isShowing())
+                return null;
+
+            Point location = Keypad.this.getLocationOnScreen();
+            location.translate(BOUNDS[key.ordinal()].x, BOUNDS[key.ordinal()].y);
+            return location;
+        }
+
+        @Override
+        public Point getLocation() {
+            return BOUNDS[key.ordinal()].getLocation();
+        }
+
+        @Override
+        public void setLocation(Point point) {
+        }
+
+        @Override
+        public Rectangle getBounds() {
+            return boundsOf(key);
+        }
+
+        @Override
+        public void setBounds(Rectangle bounds) {
+        }
+
+        @Override
+        public Dimension getSize() {
+            return BOUNDS[key.ordinal()].getSize();
+        }
+
+        @Override
+        public void setSize(Dimension size) {
+        }
+
+        @Override
+        public Accessible getAccessibleAt(Point point) {
+            return contains(point) ? this : null;
+        }
+
+        @Override
+        public boolean isFocusTraversable() {
+            return true;
+        }
+
+        @Override
+        public void requestFocus() {
+            if (isShown(key)) {
+                setFocused(key);
+                Keypad.this.requestFocusInWindow();
+            }
+        }
+
+        @Override
+        public void addFocusListener(FocusListener listener) {
+            Keypad.this.addFocusListener(listener);
+        }
+
+        @Override
+        public void removeFocusListener(FocusListener listener) {
+            Keypad.this.removeFocusListener(listener);
+        }
+    }
+}
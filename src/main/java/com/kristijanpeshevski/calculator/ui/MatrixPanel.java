@@ -0,0 +1,256 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.matrix.Matrix;
+import com.kristijanpeshevski.calculator.matrix.MatrixFormat;
+import com.kristijanpeshevski.calculator.matrix.MatrixOperations;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.*;
+
+/*
+ * Matrix mode: two operands, A and B, typed one row per line or loaded from a file, and the result below.
+ * Everything past reading the text fields runs on a background thread, so a 2000x2000 inverse does not freeze
+ * the window. A result can be saved or taken as the next A.
+ */
+class MatrixPanel extends JPanel {
+
+    private static final int PREVIEW_ROWS = 20;
+    private static final int PREVIEW_COLUMNS = 10;
+    private static final String[] ELEMENT_WISE_OPERATORS = {"+", "-", "*", "/", "%", "^"};
+    private static final String HINT = "Rows on separate lines or separated by ';', values by spaces or commas";
+
+    private final MatrixOperations operations = new MatrixOperations();
+    private final DoubleFormatter formatter = new DoubleFormatter();
+    private final Operand first;
+    private final Operand second;
+    private final JComboBox<String> operator;
+    private final JTextArea result;
+    private final List<JButton> buttons = new ArrayList<>();
+    private final JButton useResult;
+    private final JButton saveResult;
+    private Matrix lastResult;
+
+    MatrixPanel() {
+        super(new BorderLayout(0, 8));
+        first = new Operand("A");
+        second = new Operand("B");
+        JPanel operands = new JPanel(new GridLayout(1, 2, 8, 0));
+        operands.setOpaque(false);
+        operands.add(first.panel);
+        operands.add(second.panel);
+
+        operator = new JComboBox<>(ELEMENT_WISE_OPERATORS);
+        operator.setToolTipText("Element-wise operator; a 1x1 B applies to every element of A");
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        actions.setOpaque(false);
+        actions.add(button("A × B", (a, b, op) -> operations.multiply(a.call(), b.call())));
+        actions.add(button("Aᵀ", (a, b, op) -> a.call().transpose()));
+        actions.add(button("det A", (a, b, op) -> Matrix.of(1, 1, operations.determinant(a.call()))));
+        actions.add(button("A⁻¹", (a, b, op) -> operations.inverse(a.call())));
+        actions.add(button("Solve A x = B", (a, b, op) -> operations.solve(a.call(), b.call())));
+        actions.add(button("A ∘ B", (a, b, op) -> {
+            Matrix right = b.call();
+            boolean scalar = right.getRows() == 1 && right.getColumns() == 1;
+            return scalar ? a.call().calculate(right.get(0, 0), op) : a.call().calculate(right, op);
+        }));
+        actions.add(operator);
+
+        result = new JTextArea();
+        result.setFont(Fonts.monospaced(13));
+        result.setEditable(false);
+        useResult = new JButton("Use as A");
+        useResult.addActionListener(event -> first.set(lastResult, "Result"));
+        saveResult = new JButton("Save...");
+        saveResult.addActionListener(event -> save());
+        JPanel resultActions = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 0));
+        resultActions.setOpaque(false);
+        resultActions.add(useResult);
+        resultActions.add(saveResult);
+        setResult(null, "");
+
+        JPanel bottom = new JPanel(new BorderLayout(0, 4));
+        bottom.setOpaque(false);
+        bottom.add(actions, BorderLayout.NORTH);
+        bottom.add(new JScrollPane(result), BorderLayout.CENTER);
+        bottom.add(resultActions, BorderLayout.SOUTH);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, operands, bottom);
+        split.setOpaque(false);
+        split.setBorder(null);
+        split.setResizeWeight(0.5);
+        add(split, BorderLayout.CENTER);
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(this, null, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(first.text, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(second.text, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(result, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    private JButton button(String name, Computation computation) {
+        JButton button = new JButton(name);
+        button.addActionListener(event -> {
+            // The operands and the operator are read here, on the event dispatch thread.
+            Callable<Matrix> a = first.snapshot();
+            Callable<Matrix> b = second.snapshot();
+            char op = ((String) operator.getSelectedItem()).charAt(0);
+            long start = System.nanoTime();
+            result.setText(name + "...");
+            background(() -> computation.compute(a, b, op), matrix -> {
+                String took = " in " + (System.nanoTime() - start) / 1_000_000 + " ms";
+                if (matrix.getRows() == 1 && matrix.getColumns() == 1)
+                    setResult(matrix, name + " = " + formatter.format(matrix.get(0, 0)) + took);
+                else
+                    setResult(matrix, name + ": " + matrix.size() + took + System.lineSeparator()
+                            + MatrixFormat.format(matrix, PREVIEW_ROWS, PREVIEW_COLUMNS));
+            }, message -> setResult(null, "Cannot compute " + name + ": " + message));
+        });
+        buttons.add(button);
+        return button;
+    }
+
+    private void setResult(Matrix matrix, String text) {
+        lastResult = matrix;
+        result.setText(text);
+        result.setCaretPosition(0);
+        useResult.setEnabled(matrix != null);
+        saveResult.setEnabled(matrix != null);
+    }
+
+    private void save() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save the result as comma separated rows");
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+
+        Path path = chooser.getSelectedFile().toPath();
+        Matrix matrix = lastResult;
+        background(() -> {
+            MatrixFormat.write(matrix, path);
+            return matrix;
+        }, saved -> result.append(System.lineSeparator() + "Saved to " + path.getFileName()),
+                message -> result.append(System.lineSeparator() + "Cannot save " + path.getFileName() + ": " + message));
+    }
+
+    // Runs work off the event dispatch thread with every button disabled, then reports back on it.
+    private <T> void background(Callable<T> work, Consumer<T> done, Consumer<String> failed) {
+        setBusy(true);
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                try {
+                    done.accept(get());
+                } catch (ExecutionException e) {
+                    failed.accept(e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    private void setBusy(boolean busy) {
+        for (JButton button : buttons) {
+            button.setEnabled(!busy);
+        }
+        useResult.setEnabled(!busy && lastResult != null);
+        saveResult.setEnabled(!busy && lastResult != null);
+    }
+
+    private interface Computation {
+
+        Matrix compute(Callable<Matrix> a, Callable<Matrix> b, char operator) throws Exception;
+    }
+
+    // A typed operand, or a loaded one that is only previewed since it may be far too large to edit.
+    private final class Operand {
+
+        private final String name;
+        private final JTextArea text;
+        private final JButton load;
+        private final JPanel panel;
+        private Matrix loaded;
+
+        private Operand(String name) {
+            this.name = name;
+            text = new JTextArea();
+            text.setFont(Fonts.of(15));
+            text.setToolTipText(HINT);
+
+            load = new JButton();
+            load.addActionListener(event -> {
+                if (loaded == null)
+                    chooseFile();
+                else
+                    clear();
+            });
+            buttons.add(load);
+
+            panel = new JPanel(new BorderLayout(0, 4));
+            panel.setOpaque(false);
+            panel.add(load, BorderLayout.NORTH);
+            panel.add(new JScrollPane(text), BorderLayout.CENTER);
+            clear();
+        }
+
+        private Callable<Matrix> snapshot() {
+            Matrix matrix = loaded;
+            if (matrix != null)
+                return () -> matrix;
+
+            String source = text.getText();
+            return () -> {
+                try {
+                    return MatrixFormat.parse(source);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(name + ": " + e.getMessage(), e);
+                }
+            };
+        }
+
+        private void set(Matrix matrix, String description) {
+            loaded = matrix;
+            text.setText(description + ", " + matrix.size() + System.lineSeparator()
+                    + MatrixFormat.format(matrix, PREVIEW_ROWS, PREVIEW_COLUMNS));
+            text.setCaretPosition(0);
+            text.setEditable(false);
+            load.setText("Clear " + name);
+        }
+
+        private void clear() {
+            loaded = null;
+            text.setText("");
+            text.setEditable(true);
+            load.setText("Load " + name + "...");
+        }
+
+        private void chooseFile() {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Load " + name + ": one row per line, values separated by spaces or commas");
+            if (chooser.showOpenDialog(MatrixPanel.this) != JFileChooser.APPROVE_OPTION)
+                return;
+
+            Path path = chooser.getSelectedFile().toPath();
+            text.setText("Reading " + path.getFileName() + "...");
+            background(() -> MatrixFormat.read(path), matrix -> set(matrix, path.getFileName().toString()),
+                    message -> text.setText("Cannot read " + path.getFileName() + ": " + message));
+        }
+    }
+}
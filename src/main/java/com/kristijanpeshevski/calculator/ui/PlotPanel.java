@@ -0,0 +1,258 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.plot.PlotFunction;
+import com.kristijanpeshevski.calculator.plot.PlotTiles;
+import com.kristijanpeshevski.calculator.plot.TileKey;
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/*
+ * Graph of one function with equal scales on both axes. Drag to pan, use the wheel to zoom around the pointer.
+ * The curve comes from PlotTiles at the zoom level nearest the current scale, stretched or shrunk by at most
+ * √2; a tile that is still rendering is stood in for by the coarser tile around it if that one is cached.
+ */
+class PlotPanel extends JComponent {
+
+    static final double MIN_SCALE = 1e-4;
+    static final double MAX_SCALE = 1e7;
+
+    private static final double DEFAULT_SCALE = 40;
+    private static final double ZOOM_STEP = 1.1;
+    private static final int GRID_PIXELS = 50;
+    private static final int LABEL_GAP = 4;
+    private static final double MAX_PIXEL = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final DoubleFormatter formatter = new DoubleFormatter();
+
+    private PlotTiles tiles;
+    private double centerX;
+    private double centerY;
+    private double scale = DEFAULT_SCALE;
+    private Color curveColor = Color.BLUE;
+    private Point dragFrom;
+
+    PlotPanel() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    PlotPanel(ForkJoinPool pool) {
+        this.pool = pool;
+        setFont(Fonts.of(12));
+        setPreferredSize(new Dimension(520, 480));
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setForeground(Color.BLACK);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent event) {
+                dragFrom = event.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent event) {
+                if (dragFrom == null)
+                    return;
+
+                pan(event.getX() - dragFrom.x, event.getY() - dragFrom.y);
+                dragFrom = event.getPoint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent event) {
+                dragFrom = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent event) {
+                zoom(Math.pow(ZOOM_STEP, -event.getPreciseWheelRotation()), event.getX(), event.getY());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    // A null function clears the graph.
+    void setFunction(PlotFunction function) {
+        if (tiles != null)
+            tiles.close();
+        tiles = function == null ? null : new PlotTiles(function, curveColor, pool, SwingUtilities::invokeLater, this::repaint);
+        repaint();
+    }
+
+    PlotFunction getFunction() {
+        return tiles == null ? null : tiles.getFunction();
+    }
+
+    void setCurveColor(Color color) {
+        if (color.equals(curveColor))
+            return;
+
+        curveColor = color;
+        setFunction(getFunction());
+    }
+
+    // Moves the graph by the given number of pixels, as a drag does.
+    void pan(int dx, int dy) {
+        centerX -= dx / scale;
+        centerY += dy / scale;
+        repaint();
+    }
+
+    // Zooms by the factor keeping the point under (x, y) in place.
+    void zoom(double factor, int x, int y) {
+        double next = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        double worldX = toWorldX(x);
+        double worldY = toWorldY(y);
+        scale = next;
+        centerX = worldX - (x - getWidth() / 2.0) / scale;
+        centerY = worldY + (y - getHeight() / 2.0) / scale;
+        repaint();
+    }
+
+    double getScale() {
+        return scale;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        int width = getWidth();
+        int height = getHeight();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, width, height);
+        paintGrid(g, width, height);
+        if (tiles != null)
+            paintTiles(g, width, height);
+    }
+
+    private void paintTiles(Graphics2D g, int width, int height) {
+        int level = Math.getExponent(scale * Math.sqrt(2));
+        double tileScale = Math.scalb(1.0, level);
+        double tileWorld = PlotTiles.TILE_SIZE / tileScale;
+        long firstColumn = (long) Math.floor(toWorldX(0) / tileWorld);
+        long lastColumn = (long) Math.floor(toWorldX(width) / tileWorld);
+        long firstRow = (long) Math.floor(toWorldY(height) / tileWorld);
+        long lastRow = (long) Math.floor(toWorldY(0) / tileWorld);
+
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        tiles.beginFrame();
+        for (long column = firstColumn; column <= lastColumn; column++) {
+            int x0 = toScreenX(column * tileWorld);
+            int x1 = toScreenX((column + 1) * tileWorld);
+            for (long row = firstRow; row <= lastRow; row++) {
+                int y0 = toScreenY((row + 1) * tileWorld);
+                int y1 = toScreenY(row * tileWorld);
+                TileKey key = new TileKey(level, column, row);
+                BufferedImage tile = tiles.tile(key);
+                if (tile != null) {
+                    if (tile != PlotTiles.EMPTY)
+                        g.drawImage(tile, x0, y0, x1 - x0, y1 - y0, null);
+                    continue;
+                }
+
+                // The coarser tile covers a 2x2 block; draw the quarter this tile stands in for.
+                BufferedImage parent = tiles.cachedTile(key.parent());
+                if (parent != null && parent != PlotTiles.EMPTY) {
+                    int half = PlotTiles.TILE_SIZE / 2;
+                    int sx = (int) Math.floorMod(column, 2L) * half;
+                    int sy = (1 - (int) Math.floorMod(row, 2L)) * half;
+                    g.drawImage(parent, x0, y0, x1, y1, sx, sy, sx + half, sy + half, null);
+                }
+            }
+        }
+    }
+
+    private void paintGrid(Graphics2D g, int width, int height) {
+        // The smallest 1, 2 or 5 times a power of ten that keeps grid lines GRID_PIXELS apart.
+        double raw = GRID_PIXELS / scale;
+        int exponent = (int) Math.floor(Math.log10(raw));
+        double power = Math.pow(10, exponent);
+        int mantissa = raw <= power ? 1 : raw <= 2 * power ? 2 : raw <= 5 * power ? 5 : 10;
+        double step = mantissa * power;
+
+        Color foreground = getForeground();
+        Color grid = new Color(foreground.getRed(), foreground.getGreen(), foreground.getBlue(), 40);
+        FontMetrics metrics = g.getFontMetrics(getFont());
+        int axisX = Math.max(0, Math.min(width - 1, toScreenX(0)));
+        int axisY = Math.max(0, Math.min(height - 1, toScreenY(0)));
+
+        long first = (long) Math.ceil(toWorldX(0) / step);
+        long last = (long) Math.floor(toWorldX(width) / step);
+        for (long k = first; k <= last; k++) {
+            int x = toScreenX(k * step);
+            g.setColor(grid);
+            g.drawLine(x, 0, x, height);
+            if (k != 0) {
+                g.setColor(foreground);
+                String label = label(k, mantissa, exponent);
+                int y = axisY + metrics.getAscent() + LABEL_GAP;
+                if (x + LABEL_GAP + metrics.stringWidth(label) <= width)
+                    g.drawString(label, x + LABEL_GAP, y > height - LABEL_GAP ? axisY - LABEL_GAP : y);
+            }
+        }
+
+        first = (long) Math.ceil(toWorldY(height) / step);
+        last = (long) Math.floor(toWorldY(0) / step);
+        for (long k = first; k <= last; k++) {
+            int y = toScreenY(k * step);
+            g.setColor(grid);
+            g.drawLine(0, y, width, y);
+            if (k != 0) {
+                g.setColor(foreground);
+                String label = label(k, mantissa, exponent);
+                int x = axisX + LABEL_GAP;
+                if (x + metrics.stringWidth(label) > width)
+                    x = axisX - LABEL_GAP - metrics.stringWidth(label);
+                g.drawString(label, x, y - LABEL_GAP);
+            }
+        }
+
+        g.setColor(foreground);
+        g.drawLine(axisX, 0, axisX, height);
+        g.drawLine(0, axisY, width, axisY);
+    }
+
+    // k steps of mantissa * 10^exponent, divided rather than multiplied by the power so 3 * 0.1 reads "0.3".
+    private String label(long k, int mantissa, int exponent) {
+        double value = exponent >= 0 ? k * mantissa * Math.pow(10, exponent) : k * mantissa / Math.pow(10, -exponent);
+        return formatter.format(value);
+    }
+
+    private double toWorldX(int x) {
+        return centerX + (x - getWidth() / 2.0) / scale;
+    }
+
+    private double toWorldY(int y) {
+        return centerY - (y - getHeight() / 2.0) / scale;
+    }
+
+    private int toScreenX(double x) {
+        return toPixel(getWidth() / 2.0 + (x - centerX) * scale);
+    }
+
+    private int toScreenY(double y) {
+        return toPixel(getHeight() / 2.0 - (y - centerY) * scale);
+    }
+
+    // Far off-screen coordinates are clamped so they cannot wrap around when narrowed to int.
+    private static int toPixel(double position) {
+        return (int) Math.round(Math.max(-MAX_PIXEL, Math.min(MAX_PIXEL, position)));
+    }
+}
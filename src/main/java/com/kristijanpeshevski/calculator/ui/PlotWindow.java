@@ -0,0 +1,75 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionException;
+import com.kristijanpeshevski.calculator.plot.PlotFunction;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.theme.Palette;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import javax.swing.*;
+
+// Plot mode: type an expression of x, e.g. "x^2 - 2" or "1 / x", and press Enter to graph it.
+class PlotWindow {
+
+    private static final String HINT = "Expression of x, e.g. x^2 - 2 or 1 / x. Drag to pan, scroll to zoom";
+
+    private final JFrame frame;
+    private final JTextField input;
+    private final PlotPanel panel;
+
+    PlotWindow() {
+        panel = new PlotPanel();
+
+        input = new JTextField();
+        input.setFont(Fonts.of(18));
+        input.setToolTipText(HINT);
+        input.addActionListener(event -> plot(input.getText()));
+
+        frame = new JFrame("Plot");
+        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        frame.add(input, BorderLayout.NORTH);
+        frame.add(panel, BorderLayout.CENTER);
+        frame.pack();
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(input, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(panel, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    // The curve is baked into the cached tiles, so a new color renders them again.
+    void setPalette(Palette palette) {
+        panel.setCurveColor(palette.get(ColorRole.BTN_EQUAL_BACKGROUND));
+    }
+
+    void show(Component relativeTo) {
+        if (!frame.isVisible())
+            frame.setLocationRelativeTo(relativeTo);
+        frame.setVisible(true);
+        frame.toFront();
+        input.requestFocusInWindow();
+    }
+
+    // Also stops rendering tiles.
+    void dispose() {
+        panel.setFunction(null);
+        frame.dispose();
+    }
+
+    private void plot(String text) {
+        if (text.isBlank()) {
+            panel.setFunction(null);
+            input.setToolTipText(HINT);
+            return;
+        }
+
+        try {
+            panel.setFunction(PlotFunction.parse(text));
+            input.setToolTipText(HINT);
+        } catch (ExpressionException | IllegalArgumentException e) {
+            input.setToolTipText(e.getMessage());
+            input.selectAll();
+        }
+    }
+}
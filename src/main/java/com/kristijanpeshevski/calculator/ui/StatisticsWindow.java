@@ -0,0 +1,126 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.stats.StatisticsReader;
+import com.kristijanpeshevski.calculator.stats.StatisticsReport;
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/*
+ * Statistics mode: type or paste numbers on the left (separated by spaces, commas, semicolons or new lines)
+ * and the summary on the right follows a moment after the last edit. "Open file..." summarizes a file of any
+ * size on a background thread instead.
+ */
+class StatisticsWindow {
+
+    private static final int WIDTH = 560;
+    private static final int HEIGHT = 480;
+    private static final int SETTLE_MILLIS = 200;
+
+    private final JFrame frame;
+    private final JTextArea values;
+    private final JTextArea summary;
+    private final JButton open;
+    private final Timer settle;
+
+    StatisticsWindow() {
+        values = new JTextArea();
+        values.setFont(Fonts.of(16));
+        values.setLineWrap(true);
+        values.setToolTipText("Numbers separated by spaces, commas, semicolons or new lines");
+
+        summary = new JTextArea();
+        summary.setFont(Fonts.monospaced(14));
+        summary.setEditable(false);
+        summary.setColumns(24);
+
+        open = new JButton("Open file...");
+        open.addActionListener(event -> chooseFile());
+
+        settle = new Timer(SETTLE_MILLIS, event -> summarize());
+        settle.setRepeats(false);
+        values.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent event) {
+                settle.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent event) {
+                settle.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent event) {
+            }
+        });
+
+        frame = new JFrame("Statistics");
+        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        frame.setSize(WIDTH, HEIGHT);
+        frame.add(open, BorderLayout.NORTH);
+        frame.add(new JScrollPane(values), BorderLayout.CENTER);
+        frame.add(new JScrollPane(summary), BorderLayout.EAST);
+        summarize();
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(values, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(summary, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    void show(Component relativeTo) {
+        if (!frame.isVisible())
+            frame.setLocationRelativeTo(relativeTo);
+        frame.setVisible(true);
+        frame.toFront();
+        values.requestFocusInWindow();
+    }
+
+    void dispose() {
+        settle.stop();
+        frame.dispose();
+    }
+
+    private void summarize() {
+        summary.setText(StatisticsReader.parse(values.getText()).summary());
+    }
+
+    private void chooseFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Summarize one value per line (.csv, .txt) or raw little-endian doubles");
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION)
+            return;
+
+        Path path = chooser.getSelectedFile().toPath();
+        open.setEnabled(false);
+        summary.setText("Reading " + path.getFileName() + "...");
+        new SwingWorker<StatisticsReport, Void>() {
+            @Override
+            protected StatisticsReport doInBackground() throws IOException {
+                return new StatisticsReader().read(path);
+            }
+
+            @Override
+            protected void done() {
+                open.setEnabled(true);
+                try {
+                    StatisticsReport report = get();
+                    summary.setText(path.getFileName() + System.lineSeparator() + report.summary()
+                            + System.lineSeparator() + report.timing());
+                } catch (ExecutionException e) {
+                    summary.setText("Cannot read " + path.getFileName() + ": " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,113 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.util.DoubleFormatter;
+import com.kristijanpeshevski.calculator.worksheet.Cell;
+import com.kristijanpeshevski.calculator.worksheet.Worksheet;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Name / formula / value rows over a Worksheet. After an edit only the rows the worksheet recomputed are
+ * repainted, as one contiguous range event; rows are rebuilt only when cells appear or disappear.
+ */
+class WorksheetTableModel extends AbstractTableModel {
+
+    static final int NAME = 0;
+    static final int FORMULA = 1;
+    static final int VALUE = 2;
+
+    private static final String[] COLUMNS = {"Name", "Formula", "Value"};
+
+    private final Worksheet worksheet;
+    private final DoubleFormatter formatter = new DoubleFormatter();
+    private final List<Cell> rows = new ArrayList<>();
+    private final Map<Cell, Integer> rowOf = new HashMap<>();
+
+    WorksheetTableModel(Worksheet worksheet) {
+        this.worksheet = worksheet;
+    }
+
+    // Throws IllegalArgumentException for an invalid name; formula errors are shown in the value column.
+    void define(String name, String formula) {
+        updated(worksheet.set(name, formula));
+    }
+
+    void remove(int row) {
+        updated(worksheet.remove(rows.get(row).getName()));
+    }
+
+    Cell getCell(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == FORMULA;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Cell cell = rows.get(row);
+        switch (column) {
+            case NAME:
+                return cell.getName();
+            case FORMULA:
+                return cell.getFormula() == null ? "" : cell.getFormula();
+            default:
+                return cell.getError() != null ? "Error: " + cell.getError() : formatter.format(cell.getValue());
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        String formula = value.toString().trim();
+        Cell cell = rows.get(row);
+        if (formula.isEmpty()) {
+            updated(worksheet.remove(cell.getName()));
+        } else if (!formula.equals(cell.getFormula())) {
+            define(cell.getName(), formula);
+        }
+    }
+
+    private void updated(List<Cell> recomputed) {
+        if (worksheet.size() != rows.size() || !rowOf.keySet().containsAll(recomputed)) {
+            rows.clear();
+            rowOf.clear();
+            for (Cell cell : worksheet.getCells()) {
+                rowOf.put(cell, rows.size());
+                rows.add(cell);
+            }
+            fireTableDataChanged();
+            return;
+        }
+
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (Cell cell : recomputed) {
+            int row = rowOf.get(cell);
+            first = Math.min(first, row);
+            last = Math.max(last, row);
+        }
+        if (last >= 0)
+            fireTableRowsUpdated(first, last);
+    }
+}
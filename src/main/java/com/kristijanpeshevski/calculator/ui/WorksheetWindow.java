@@ -0,0 +1,85 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.theme.ColorRole;
+import com.kristijanpeshevski.calculator.worksheet.Worksheet;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import javax.swing.*;
+
+/*
+ * Worksheet mode: type "name = formula" in the field to define a cell, edit a formula in place, or clear it
+ * (or press Delete on a row) to remove the cell.
+ */
+class WorksheetWindow {
+
+    private static final int WIDTH = 520;
+    private static final int HEIGHT = 600;
+
+    private final JFrame frame;
+    private final JTextField input;
+    private final JTable table;
+    private final WorksheetTableModel model;
+
+    WorksheetWindow() {
+        model = new WorksheetTableModel(new Worksheet());
+        table = new JTable(model);
+        table.setFont(Fonts.of(16));
+        table.setRowHeight(24);
+        table.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "removeCell");
+        table.getActionMap().put("removeCell", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                int row = table.getSelectedRow();
+                if (row >= 0 && !table.isEditing())
+                    model.remove(table.convertRowIndexToModel(row));
+            }
+        });
+
+        input = new JTextField();
+        input.setFont(Fonts.of(18));
+        input.setToolTipText("name = formula, e.g. total = price * (1 + rate)");
+        input.addActionListener(event -> define(input.getText()));
+
+        frame = new JFrame("Worksheet");
+        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        frame.setSize(WIDTH, HEIGHT);
+        frame.add(input, BorderLayout.NORTH);
+        frame.add(new JScrollPane(table), BorderLayout.CENTER);
+    }
+
+    void registerColors(ColorRoleRegistry colorRoles) {
+        colorRoles.register(input, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+        colorRoles.register(table, ColorRole.TEXT, ColorRole.APPLICATION_BACKGROUND);
+    }
+
+    void show(Component relativeTo) {
+        if (!frame.isVisible())
+            frame.setLocationRelativeTo(relativeTo);
+        frame.setVisible(true);
+        frame.toFront();
+        input.requestFocusInWindow();
+    }
+
+    void dispose() {
+        frame.dispose();
+    }
+
+    private void define(String text) {
+        int equals = text.indexOf('=');
+        if (equals < 0) {
+            input.selectAll();
+            return;
+        }
+
+        try {
+            model.define(text.substring(0, equals).trim(), text.substring(equals + 1).trim());
+            input.setText("");
+        } catch (IllegalArgumentException e) {
+            input.setToolTipText(e.getMessage());
+            input.selectAll();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kristijanpeshevski.calculator.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Parses decimal numbers and comma separated fields straight from ASCII bytes in a buffer, without building a
+ * String for the common case. Reads use absolute indexes only, so threads may share a buffer.
+ */
+public class AsciiDoubles {
+
+    // Every power of ten up to 10^22 is exact as a double.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private AsciiDoubles() {
+        throw new AssertionError("Constructor is not allowed");
+    }
+
+    // Start of the 1-based column in the line [from, to), or -1 if the line has fewer fields.
+    public static int fieldStart(ByteBuffer buffer, int from, int to, int column) {
+        int start = from;
+        for (int field = 1; field < column; field++) {
+            while (start < to && buffer.get(start) != ',') {
+                start++;
+            }
+            if (start == to)
+                return -1;
+            start++;
+        }
+        return start;
+    }
+
+    // End of the field starting at from: the next comma or to.
+    public static int fieldEnd(ByteBuffer buffer, int from, int to) {
+        int end = from;
+        while (end < to && buffer.get(end) != ',') {
+            end++;
+        }
+        return end;
+    }
+
+    // Parses [from, to) ignoring surrounding spaces, tabs and quotes.
+    public static double parse(ByteBuffer buffer, int from, int to) {
+        while (from < to && isTrimmed(buffer.get(from))) {
+            from++;
+        }
+        while (to > from && isTrimmed(buffer.get(to - 1))) {
+            to--;
+        }
+
+        double value = parseFast(buffer, from, to);
+        if (!Double.isNaN(value))
+            return value;
+
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        String text = new String(bytes, StandardCharsets.US_ASCII);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("'" + text + "' is not a number");
+        }
+    }
+
+    /*
+     * Decimals with at most 15 significant digits and a small exponent are exact as a long scaled by one
+     * power of ten, and a single multiplication or division of two exact doubles rounds correctly. Anything
+     * else returns NaN and goes through Double.parseDouble.
+     */
+    private static double parseFast(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+'))
+            negative = buffer.get(i++) == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0')
+                    digits++;
+                if (digits > 15)
+                    return Double.NaN;
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint)
+                    scale--;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit)
+            return Double.NaN;
+
+        if (i < to) {
+            byte b = buffer.get(i++);
+            if (b != 'e' && b != 'E' || i == to)
+                return Double.NaN;
+
+            boolean negativeExponent = false;
+            if (buffer.get(i) == '-' || buffer.get(i) == '+')
+                negativeExponent = buffer.get(i++) == '-';
+            if (i == to || to - i > 3)
+                return Double.NaN;
+
+            int exponent = 0;
+            for (; i < to; i++) {
+                b = buffer.get(i);
+                if (b < '0' || b > '9')
+                    return Double.NaN;
+                exponent = exponent * 10 + (b - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+
+        double value;
+        if (scale == 0 || mantissa == 0)
+            value = mantissa;
+        else if (scale > 0 && scale < POWERS_OF_TEN.length)
+            value = mantissa * POWERS_OF_TEN[scale];
+        else if (scale < 0 && -scale < POWERS_OF_TEN.length)
+            value = mantissa / POWERS_OF_TEN[-scale];
+        else
+            return Double.NaN;
+        return negative ? -value : value;
+    }
+
+    private static boolean isTrimmed(byte b) {
+        return b == ' ' || b == '\t' || b == '"';
+    }
+}
@@ -1,7 +1,6 @@
 package com.kristijanpeshevski.calculator.util;
 
 import java.awt.*;
-import java.util.Optional;
 
 public class ColorUtil {
 
@@ -10,11 +9,9 @@ public class ColorUtil {
     }
 
     public static Color hex2Color(String colorHex) {
-        return Optional.ofNullable(colorHex)
-                .map(hex -> new Color(
-                        Integer.valueOf(colorHex.substring(0, 2), 16),
-                        Integer.valueOf(colorHex.substring(2, 4), 16),
-                        Integer.valueOf(colorHex.substring(4, 6), 16)))
-                .orElse(null);
+        if (colorHex == null)
+            return null;
+
+        return new Color(Integer.parseInt(colorHex, 0, 6, 16));
     }
 }
@@ -0,0 +1,360 @@
+package com.kristijanpeshevski.calculator.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/*
+ * Writes a double as the shortest decimal text that parses back to the same double, into a caller supplied
+ * char[]. Values whose leading digit lies in [10^minPlainExponent, 10^maxPlainExponent) are written in plain
+ * notation ("12345678901", "0.0025"), everything else in Java style scientific notation ("1.5E20", "2.0E-9"
+ * without the redundant ".0"). The common cases are solved with exact long/double arithmetic; only values
+ * that need 17 digits or lie far outside the long range fall back to BigDecimal.
+ *
+ * Exact long and BigDecimal values use the same layout; they keep all their digits (decimals are rounded to
+ * MAX_DECIMAL_DIGITS), so the text parses back to the same number.
+ *
+ * Instances keep scratch state and are not thread safe.
+ */
+public class DoubleFormatter {
+
+    public static final int MAX_SIGNIFICANT_DIGITS = 17;
+    public static final int MAX_DECIMAL_DIGITS = 34;
+    public static final int DEFAULT_MIN_PLAIN_EXPONENT = -7;
+    public static final int DEFAULT_MAX_PLAIN_EXPONENT = 16;
+
+    private static final long MAX_EXACT_LONG = 1L << 53;
+    private static final double TWO_POW_63 = 0x1p63;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long[] LONG_POWERS_OF_TEN = new long[19];
+
+    static {
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int maxSignificantDigits;
+    private final int minPlainExponent;
+    private final int maxPlainExponent;
+    private final int maxLength;
+    private final int maxDecimalLength;
+
+    private final char[] digitChars = new char[MAX_DECIMAL_DIGITS + 2];
+    private long digits;
+    private int exponent;
+
+    public DoubleFormatter() {
+        this(MAX_SIGNIFICANT_DIGITS, DEFAULT_MIN_PLAIN_EXPONENT, DEFAULT_MAX_PLAIN_EXPONENT);
+    }
+
+    public DoubleFormatter(int maxSignificantDigits, int minPlainExponent, int maxPlainExponent) {
+        if (maxSignificantDigits < 1 || maxSignificantDigits > MAX_SIGNIFICANT_DIGITS)
+            throw new IllegalArgumentException("Significant digits must be between 1 and " + MAX_SIGNIFICANT_DIGITS);
+        if (minPlainExponent > 0 || maxPlainExponent < 1 || minPlainExponent < -340 || maxPlainExponent > 340)
+            throw new IllegalArgumentException("Plain notation range must contain 10^0 and stay within the double range");
+
+        this.maxSignificantDigits = maxSignificantDigits;
+        this.minPlainExponent = minPlainExponent;
+        this.maxPlainExponent = maxPlainExponent;
+        // Sign, then the longest of: plain integer, "0." plus leading zeros plus digits, scientific notation.
+        this.maxLength = 1 + Math.max(Math.max(maxPlainExponent, MAX_SIGNIFICANT_DIGITS + 1),
+                Math.max(1 - minPlainExponent + MAX_SIGNIFICANT_DIGITS, MAX_SIGNIFICANT_DIGITS + 6));
+        this.maxDecimalLength = 1 + Math.max(Math.max(maxPlainExponent, MAX_DECIMAL_DIGITS + 1),
+                Math.max(1 - minPlainExponent + MAX_DECIMAL_DIGITS, MAX_DECIMAL_DIGITS + 13));
+    }
+
+    // Upper bound of the characters written by a single format call.
+    public int maxLength() {
+        return maxLength;
+    }
+
+    // Upper bound of the characters written when formatting a long or BigDecimal.
+    public int maxDecimalLength() {
+        return maxDecimalLength;
+    }
+
+    public String format(double value) {
+        char[] text = new char[maxLength];
+        return new String(text, 0, format(value, text, 0));
+    }
+
+    // Returns the number of characters written starting at offset.
+    public int format(double value, char[] destination, int offset) {
+        if (Double.isNaN(value))
+            return write("NaN", destination, offset);
+        if (value == Double.POSITIVE_INFINITY)
+            return write("Infinity", destination, offset);
+        if (value == Double.NEGATIVE_INFINITY)
+            return write("-Infinity", destination, offset);
+        if (value == 0) {
+            destination[offset] = '0';
+            return 1;
+        }
+
+        int position = offset;
+        if (value < 0) {
+            destination[position++] = '-';
+            value = -value;
+        }
+
+        decompose(value);
+        limitSignificantDigits();
+
+        return layout(toChars(), destination, position) - offset;
+    }
+
+    public int format(long value, char[] destination, int offset) {
+        if (value == 0) {
+            destination[offset] = '0';
+            return 1;
+        }
+        if (value == Long.MIN_VALUE)
+            return format(BigDecimal.valueOf(value), destination, offset);
+
+        int position = offset;
+        if (value < 0) {
+            destination[position++] = '-';
+            value = -value;
+        }
+
+        digits = value;
+        exponent = 0;
+        stripTrailingZeros();
+        return layout(toChars(), destination, position) - offset;
+    }
+
+    public int format(BigDecimal value, char[] destination, int offset) {
+        if (value.signum() == 0) {
+            destination[offset] = '0';
+            return 1;
+        }
+
+        int position = offset;
+        if (value.signum() < 0) {
+            destination[position++] = '-';
+            value = value.negate();
+        }
+
+        BigDecimal rounded = value.round(new MathContext(MAX_DECIMAL_DIGITS, RoundingMode.HALF_EVEN)).stripTrailingZeros();
+        String unscaled = rounded.unscaledValue().toString();
+        unscaled.getChars(0, unscaled.length(), digitChars, 0);
+        exponent = -rounded.scale();
+        return layout(unscaled.length(), destination, position) - offset;
+    }
+
+    public int getMaxSignificantDigits() {
+        return maxSignificantDigits;
+    }
+
+    public int getMinPlainExponent() {
+        return minPlainExponent;
+    }
+
+    public int getMaxPlainExponent() {
+        return maxPlainExponent;
+    }
+
+    // Finds the shortest digits/exponent pair with digits * 10^exponent == value (after rounding to a double).
+    private void decompose(double value) {
+        if (value < TWO_POW_63 && value == Math.rint(value)) {
+            decomposeIntegral((long) value, value);
+        } else {
+            int failedAt = decomposeFraction(value);
+            if (failedAt != 0)
+                decomposeExactly(value, failedAt > 0 && value < TWO_POW_63 ? MAX_SIGNIFICANT_DIGITS - 1 : 1);
+        }
+        stripTrailingZeros();
+    }
+
+    private void decomposeIntegral(long integral, double value) {
+        digits = integral;
+        exponent = 0;
+        if (integral <= MAX_EXACT_LONG)
+            return;
+
+        // Above 2^53 not every integer is a double, so trailing digits can be dropped while the value still round trips.
+        for (int k = 1; k < LONG_POWERS_OF_TEN.length; k++) {
+            long power = LONG_POWERS_OF_TEN[k];
+            long truncated = integral / power;
+            long nearest = roundDivide(integral, power);
+            long other = nearest == truncated ? truncated + 1 : truncated;
+            if (roundTrips(nearest, power, value)) {
+                digits = nearest;
+            } else if (roundTrips(other, power, value)) {
+                digits = other;
+            } else {
+                return;
+            }
+            exponent = k;
+        }
+    }
+
+    /*
+     * Returns 0 when the digits were found, otherwise the number of fraction digits at which the search gave up
+     * because value * 10^k no longer fits the exact long range, or -1 when it ran out of powers of ten. Every
+     * candidate with fewer fraction digits has been ruled out, and a non-integral value that reached
+     * 10^k * value >= 2^53 > 10^15 therefore needs at least 16 significant digits.
+     */
+    private int decomposeFraction(double value) {
+        for (int fractionDigits = 1; fractionDigits < DOUBLE_POWERS_OF_TEN.length; fractionDigits++) {
+            double scaled = value * DOUBLE_POWERS_OF_TEN[fractionDigits];
+            if (scaled >= MAX_EXACT_LONG)
+                return fractionDigits;
+
+            long nearest = Math.round(scaled);
+            long candidate = fractionMatch(nearest, fractionDigits, value);
+            if (candidate >= 0) {
+                digits = candidate;
+                exponent = -fractionDigits;
+                return 0;
+            }
+        }
+        return -1;
+    }
+
+    private static long fractionMatch(long nearest, int fractionDigits, double value) {
+        double power = DOUBLE_POWERS_OF_TEN[fractionDigits];
+        // Both operands are exact doubles, so the quotient is the correctly rounded parse of "nearest / 10^p".
+        if (nearest / power == value)
+            return nearest;
+        if (nearest > 0 && (nearest - 1) / power == value)
+            return nearest - 1;
+        if ((nearest + 1) / power == value)
+            return nearest + 1;
+        return -1;
+    }
+
+    private void decomposeExactly(double value, int minPrecision) {
+        BigDecimal exact = new BigDecimal(value);
+        for (int precision = minPrecision; precision < MAX_SIGNIFICANT_DIGITS; precision++) {
+            // At powers of two the rounding interval is asymmetric, so the neighbour on the far side can match when the nearest does not.
+            if (matchExactly(exact, precision, RoundingMode.HALF_EVEN, value)
+                    || matchExactly(exact, precision, RoundingMode.CEILING, value)
+                    || matchExactly(exact, precision, RoundingMode.FLOOR, value))
+                return;
+        }
+        matchExactly(exact, MAX_SIGNIFICANT_DIGITS, RoundingMode.HALF_EVEN, Double.NaN);
+    }
+
+    private boolean matchExactly(BigDecimal exact, int precision, RoundingMode roundingMode, double value) {
+        BigDecimal rounded = exact.round(new MathContext(precision, roundingMode));
+        if (rounded.doubleValue() != value && !Double.isNaN(value))
+            return false;
+
+        digits = rounded.unscaledValue().longValueExact();
+        exponent = -rounded.scale();
+        return true;
+    }
+
+    private void limitSignificantDigits() {
+        int excess = digitCount(digits) - maxSignificantDigits;
+        if (excess <= 0)
+            return;
+
+        digits = roundDivide(digits, LONG_POWERS_OF_TEN[excess]);
+        exponent += excess;
+        stripTrailingZeros();
+    }
+
+    private void stripTrailingZeros() {
+        while (digits != 0 && digits % 10 == 0) {
+            digits /= 10;
+            exponent++;
+        }
+    }
+
+    private int toChars() {
+        int count = digitCount(digits);
+        long remaining = digits;
+        for (int i = count - 1; i >= 0; i--) {
+            digitChars[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return count;
+    }
+
+    private int layout(int count, char[] destination, int position) {
+        int scientificExponent = count - 1 + exponent;
+        if (scientificExponent >= minPlainExponent && scientificExponent < maxPlainExponent)
+            return writePlain(count, destination, position);
+
+        return writeScientific(count, scientificExponent, destination, position);
+    }
+
+    private int writePlain(int count, char[] destination, int position) {
+        int integerDigits = count + exponent;
+        if (integerDigits >= count) {
+            System.arraycopy(digitChars, 0, destination, position, count);
+            position += count;
+            for (int i = count; i < integerDigits; i++)
+                destination[position++] = '0';
+        } else if (integerDigits > 0) {
+            System.arraycopy(digitChars, 0, destination, position, integerDigits);
+            position += integerDigits;
+            destination[position++] = '.';
+            System.arraycopy(digitChars, integerDigits, destination, position, count - integerDigits);
+            position += count - integerDigits;
+        } else {
+            destination[position++] = '0';
+            destination[position++] = '.';
+            for (int i = integerDigits; i < 0; i++)
+                destination[position++] = '0';
+            System.arraycopy(digitChars, 0, destination, position, count);
+            position += count;
+        }
+        return position;
+    }
+
+    private int writeScientific(int count, int scientificExponent, char[] destination, int position) {
+        destination[position++] = digitChars[0];
+        if (count > 1) {
+            destination[position++] = '.';
+            System.arraycopy(digitChars, 1, destination, position, count - 1);
+            position += count - 1;
+        }
+        destination[position++] = 'E';
+        if (scientificExponent < 0) {
+            destination[position++] = '-';
+            scientificExponent = -scientificExponent;
+        }
+        int exponentDigits = 1;
+        for (int power = 10; power <= scientificExponent && exponentDigits < 10; power *= 10)
+            exponentDigits++;
+        for (int i = position + exponentDigits - 1; i >= position; i--) {
+            destination[i] = (char) ('0' + scientificExponent % 10);
+            scientificExponent /= 10;
+        }
+        return position + exponentDigits;
+    }
+
+    // The long to double conversion is correctly rounded, so this is exactly "does candidate * power parse to value".
+    private static boolean roundTrips(long candidate, long power, double value) {
+        return candidate <= Long.MAX_VALUE / power && (double) (candidate * power) == value;
+    }
+
+    private static long roundDivide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend - quotient * divisor;
+        long twice = remainder * 2;
+        if (twice > divisor || (twice == divisor && (quotient & 1) == 1))
+            quotient++;
+        return quotient;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (count < LONG_POWERS_OF_TEN.length && value >= LONG_POWERS_OF_TEN[count])
+            count++;
+        return count;
+    }
+
+    private static int write(String text, char[] destination, int offset) {
+        text.getChars(0, text.length(), destination, offset);
+        return text.length();
+    }
+}
@@ -0,0 +1,114 @@
+package com.kristijanpeshevski.calculator.worksheet;
+
+import com.kristijanpeshevski.calculator.engine.expression.CompiledExpression;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+ * A named value in a Worksheet. Cells referenced by a formula but never defined exist as placeholders
+ * (no formula, NaN), so defining them later recomputes whatever already refers to them.
+ */
+public final class Cell {
+
+    private final String name;
+    private String formula;
+    private CompiledExpression expression;
+    private Cell[] dependencies = new Cell[0];
+    private final Set<Cell> dependents = new LinkedHashSet<>();
+    private double[] arguments = new double[0];
+    private double value = Double.NaN;
+    private String error;
+
+    // Scratch state of the recompute in progress, only touched by the thread running it.
+    int pendingDependencies;
+    boolean affected;
+
+    Cell(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Null for a placeholder.
+    public String getFormula() {
+        return formula;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    // Null unless the formula does not parse, refers to itself through other cells, or the cell is undefined.
+    public String getError() {
+        return error;
+    }
+
+    public boolean isDefined() {
+        return formula != null;
+    }
+
+    public Cell[] getDependencies() {
+        return dependencies.clone();
+    }
+
+    public Set<Cell> getDependents() {
+        return Collections.unmodifiableSet(dependents);
+    }
+
+    void define(String formula, CompiledExpression expression, Cell[] dependencies, String error) {
+        this.formula = formula;
+        this.expression = expression;
+        this.dependencies = dependencies;
+        this.arguments = new double[dependencies.length];
+        this.error = error;
+    }
+
+    Cell[] dependencies() {
+        return dependencies;
+    }
+
+    Set<Cell> dependents() {
+        return dependents;
+    }
+
+    void evaluate() {
+        if (formula == null) {
+            fail("Undefined");
+            return;
+        }
+        if (expression == null) {
+            value = Double.NaN;
+            return;
+        }
+
+        for (int i = 0; i < dependencies.length; i++) {
+            Cell dependency = dependencies[i];
+            if (dependency.formula == null) {
+                fail(dependency.name + " is undefined");
+                return;
+            }
+            if (dependency.error != null) {
+                fail(dependency.error.equals(Worksheet.CIRCULAR_REFERENCE) ? dependency.error
+                        : "Error in " + dependency.name);
+                return;
+            }
+            arguments[i] = dependency.value;
+        }
+        value = expression.evaluate(arguments);
+        error = null;
+    }
+
+    void fail(String message) {
+        value = Double.NaN;
+        error = message;
+    }
+
+    @Override
+    public String toString() {
+        return name + " = " + (formula == null ? "?" : formula);
+    }
+}
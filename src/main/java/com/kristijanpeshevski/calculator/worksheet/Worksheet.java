@@ -0,0 +1,231 @@
+package com.kristijanpeshevski.calculator.worksheet;
+
+import com.kristijanpeshevski.calculator.engine.expression.CompiledExpression;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionException;
+import com.kristijanpeshevski.calculator.engine.expression.ExpressionParser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Named cells whose formulas may refer to each other ("rate = 0.05", "total = price * (1 + rate)"). Each cell
+ * keeps edges to the cells it reads and the cells that read it. An edit recomputes only the cells downstream
+ * of it: they are ordered into levels with Kahn's algorithm, where every cell of a level depends only on
+ * earlier levels, and large levels are evaluated in parallel on a fork-join pool. Cells left over after the
+ * ordering sit on or behind a cycle and get a "Circular reference" error.
+ *
+ * A worksheet is edited from one thread at a time (the event dispatch thread in the UI).
+ */
+public class Worksheet {
+
+    public static final String CIRCULAR_REFERENCE = "Circular reference";
+
+    private static final Cell[] NO_CELLS = new Cell[0];
+    private static final int PARALLEL_LEVEL_SIZE = 512;
+    private static final int CELLS_PER_TASK = 128;
+
+    private final Map<String, Cell> cells = new LinkedHashMap<>();
+    private final ForkJoinPool pool;
+
+    public Worksheet() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public Worksheet(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Returns the recomputed cells in evaluation order.
+    public List<Cell> set(String name, String formula) {
+        return recompute(Collections.singletonList(define(name, formula)));
+    }
+
+    // Defines several cells and recomputes what they affect once, e.g. when loading a sheet.
+    public List<Cell> setAll(Map<String, String> formulas) {
+        List<Cell> changed = new ArrayList<>(formulas.size());
+        formulas.forEach((name, formula) -> changed.add(define(name, formula)));
+        return recompute(changed);
+    }
+
+    // A removed cell that other formulas still refer to stays behind as an undefined placeholder.
+    public List<Cell> remove(String name) {
+        Cell cell = cells.get(name);
+        if (cell == null || !cell.isDefined())
+            return Collections.emptyList();
+
+        unlink(cell);
+        cell.define(null, null, NO_CELLS, null);
+        if (cell.dependents().isEmpty()) {
+            cells.remove(name);
+            return Collections.emptyList();
+        }
+        return recompute(Collections.singletonList(cell));
+    }
+
+    public List<Cell> recomputeAll() {
+        return recompute(cells.values());
+    }
+
+    // Null if no formula defines or refers to the name.
+    public Cell get(String name) {
+        return cells.get(name);
+    }
+
+    public double value(String name) {
+        Cell cell = cells.get(name);
+        return cell == null ? Double.NaN : cell.getValue();
+    }
+
+    // Defined cells and placeholders, in the order they were first mentioned.
+    public Collection<Cell> getCells() {
+        return Collections.unmodifiableCollection(cells.values());
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    // A name is valid when the expression parser reads it as a variable, so "pi", "e" and "2x" are not.
+    public static boolean isValidName(String name) {
+        try {
+            CompiledExpression expression = ExpressionParser.compile(name);
+            return expression.getVariableNames().size() == 1 && expression.getVariableNames().get(0).equals(name);
+        } catch (ExpressionException e) {
+            return false;
+        }
+    }
+
+    private Cell define(String name, String formula) {
+        if (!isValidName(name))
+            throw new IllegalArgumentException("'" + name + "' is not a valid cell name");
+
+        Cell cell = cells.computeIfAbsent(name, Cell::new);
+        unlink(cell);
+
+        CompiledExpression expression = null;
+        Cell[] dependencies = NO_CELLS;
+        String error = null;
+        try {
+            expression = ExpressionParser.compile(formula);
+            List<String> names = expression.getVariableNames();
+            dependencies = new Cell[names.size()];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = cells.computeIfAbsent(names.get(i), Cell::new);
+                dependencies[i].dependents().add(cell);
+            }
+        } catch (ExpressionException e) {
+            expression = null;
+            error = e.getMessage();
+        }
+        cell.define(formula, expression, dependencies, error);
+        return cell;
+    }
+
+    // Drops the cell's edges, and placeholders nothing refers to any more.
+    private void unlink(Cell cell) {
+        for (Cell dependency : cell.dependencies()) {
+            dependency.dependents().remove(cell);
+            if (!dependency.isDefined() && dependency.dependents().isEmpty() && dependency != cell)
+                cells.remove(dependency.getName());
+        }
+    }
+
+    private List<Cell> recompute(Collection<Cell> changed) {
+        List<Cell> affected = new ArrayList<>();
+        ArrayDeque<Cell> stack = new ArrayDeque<>();
+        for (Cell cell : changed) {
+            if (!cell.affected) {
+                cell.affected = true;
+                stack.push(cell);
+            }
+        }
+        while (!stack.isEmpty()) {
+            Cell cell = stack.pop();
+            affected.add(cell);
+            for (Cell dependent : cell.dependents()) {
+                if (!dependent.affected) {
+                    dependent.affected = true;
+                    stack.push(dependent);
+                }
+            }
+        }
+
+        List<Cell> level = new ArrayList<>();
+        for (Cell cell : affected) {
+            int pending = 0;
+            for (Cell dependency : cell.dependencies()) {
+                if (dependency.affected)
+                    pending++;
+            }
+            cell.pendingDependencies = pending;
+            if (pending == 0)
+                level.add(cell);
+        }
+
+        List<Cell> order = new ArrayList<>(affected.size());
+        while (!level.isEmpty()) {
+            evaluate(level);
+            order.addAll(level);
+
+            List<Cell> next = new ArrayList<>();
+            for (Cell cell : level) {
+                for (Cell dependent : cell.dependents()) {
+                    if (dependent.affected && --dependent.pendingDependencies == 0)
+                        next.add(dependent);
+                }
+            }
+            level = next;
+        }
+
+        for (Cell cell : affected) {
+            if (cell.pendingDependencies > 0) {
+                cell.fail(CIRCULAR_REFERENCE);
+                order.add(cell);
+            }
+            cell.affected = false;
+        }
+        return order;
+    }
+
+    private void evaluate(List<Cell> level) {
+        if (level.size() < PARALLEL_LEVEL_SIZE) {
+            for (Cell cell : level) {
+                cell.evaluate();
+            }
+        } else {
+            pool.invoke(new EvaluateLevel(level, 0, level.size()));
+        }
+    }
+
+    private static final class EvaluateLevel extends RecursiveAction {
+
+        private final List<Cell> level;
+        private final int from;
+        private final int to;
+
+        private EvaluateLevel(List<Cell> level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CELLS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    level.get(i).evaluate();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateLevel(level, from, middle), new EvaluateLevel(level, middle, to));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.kristijanpeshevski.calculator.batch;
+
+import com.kristijanpeshevski.calculator.util.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchEvaluatorTest {
+
+    private static final String INPUT = "1 + 2\n0.1 + 0.2\r\n\n2 ^ 10\n√81 × 2\n1 +\n10 / 4";
+    private static final String OUTPUT = "3\n0.3\n\n1024\n18\nError: Unexpected end of expression at position 3\n2.5\n";
+
+    @Test
+    void testResultsKeepInputOrderAcrossChunks() throws IOException {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            input.append(i).append(" * 2\n");
+            expected.append(i * 2).append('\n');
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchReport report = new BatchEvaluator(4, 64).evaluate(
+                Channels.newChannel(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(output));
+
+        assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+        assertEquals(5000, report.getLines());
+        assertEquals(5000, report.getLatency().getCount());
+    }
+
+    @Test
+    void testErrorsAndBlankLinesKeepLineNumbers() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchReport report = new BatchEvaluator(2, 8).evaluate(
+                Channels.newChannel(new ByteArrayInputStream(INPUT.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(output));
+
+        assertEquals(OUTPUT, output.toString(StandardCharsets.UTF_8));
+        assertEquals(7, report.getLines());
+        assertEquals(1, report.getErrors());
+    }
+
+    @Test
+    void testArithmeticIsExactLikeTheKeypad() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BatchEvaluator(2, 16).evaluate(
+                Channels.newChannel(new ByteArrayInputStream("0.1+0.2\n2^64\n99999999999999999+1\n1/3\n2^200\n".getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(output));
+
+        assertEquals("0.3\n18446744073709551616\n100000000000000000\n0.3333333333333333333333333333333333\n"
+                + "1.606938044258990275541962092341163E60\n", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testTooDeeplyNestedLineIsAnErrorLine() throws IOException {
+        String nested = "(".repeat(5000) + "1" + ")".repeat(5000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BatchReport report = new BatchEvaluator(2, 64).evaluate(
+                Channels.newChannel(new ByteArrayInputStream(("1 + 1\n" + nested + "\n2 * 3\n").getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(output));
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("2", lines[0]);
+        assertTrue(lines[1].startsWith("Error: Expression nested too deeply"));
+        assertEquals("6", lines[2]);
+        assertEquals(1, report.getErrors());
+    }
+
+    @Test
+    void testSummaryCountsAgreeWithTheirNouns() {
+        String one = new BatchReport(1, 1, 10, 1_000_000_000, 1, new LatencyHistogram()).summary();
+        assertTrue(one.startsWith("Evaluated 1 line (1 error, 0.0 MB) in 1.00 s on 1 thread: "), one);
+
+        String many = new BatchReport(2, 0, 10, 1_000_000_000, 4, new LatencyHistogram()).summary();
+        assertTrue(many.startsWith("Evaluated 2 lines (0 errors, 0.0 MB) in 1.00 s on 4 threads: "), many);
+    }
+
+    @Test
+    void testMappedFileInput() throws IOException {
+        Path input = Files.createTempFile("batch", ".txt");
+        Path output = Files.createTempFile("batch", ".out");
+        try {
+            Files.write(input, INPUT.getBytes(StandardCharsets.UTF_8));
+            BatchReport report = new BatchEvaluator(3, 5).evaluate(input, output);
+
+            assertEquals(OUTPUT, new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+            assertTrue(report.summary().startsWith("Evaluated 7 lines (1 error, "));
+        } finally {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+}
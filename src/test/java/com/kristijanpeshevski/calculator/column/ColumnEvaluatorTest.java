@@ -0,0 +1,198 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ColumnEvaluatorTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("columns");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"+", "-", "*", "/", "%", "^"})
+    void testKernelsMatchCalculate(char operator) {
+        Random random = new Random(7);
+        int length = 1003;
+        double[] first = new double[length];
+        double[] second = new double[length];
+        for (int i = 0; i < length; i++) {
+            first[i] = (random.nextDouble() - 0.5) * 1000;
+            second[i] = random.nextInt(10) == 0 ? 0 : random.nextDouble() * 4;
+        }
+
+        double[] expected = new double[length];
+        double[] expectedScalar = new double[length];
+        for (int i = 0; i < length; i++) {
+            expected[i] = CalculatorEngine.calculate(first[i], second[i], operator);
+            expectedScalar[i] = CalculatorEngine.calculate(first[i], 1.5, operator);
+        }
+
+        for (ColumnKernel kernel : new ColumnKernel[]{ColumnKernels.scalar(), ColumnKernels.best()}) {
+            double[] results = new double[length];
+            kernel.calculate(first, second, operator, results, length);
+            assertArrayEquals(expected, results, kernel.getName());
+
+            kernel.calculate(first, 1.5, operator, results, length);
+            assertArrayEquals(expectedScalar, results, kernel.getName());
+        }
+    }
+
+    // Runs where the build compiled src/vector and the JVM has jdk.incubator.vector; every length up to a few
+    // vectors of the widest species leaves every possible tail.
+    @ParameterizedTest
+    @CsvSource({"+", "-", "*", "/"})
+    void testVectorKernelMatchesScalar(char operator) {
+        ColumnKernel vector = ColumnKernels.vector();
+        assumeTrue(vector != null, "Vector API not available");
+
+        Random random = new Random(13);
+        double[] specials = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE};
+        double[] first = new double[80];
+        double[] second = new double[first.length];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = random.nextInt(8) == 0 ? specials[random.nextInt(specials.length)] : (random.nextDouble() - 0.5) * 1e6;
+            second[i] = random.nextInt(8) == 0 ? specials[random.nextInt(specials.length)] : random.nextDouble() * 4;
+        }
+
+        for (int length = 0; length <= 67; length++) {
+            double[] expected = new double[first.length];
+            double[] results = new double[first.length];
+            ColumnKernels.scalar().calculate(first, second, operator, expected, length);
+            vector.calculate(first, second, operator, results, length);
+            assertArrayEquals(expected, results, vector.getName() + ", length " + length);
+
+            ColumnKernels.scalar().calculate(first, second[length], operator, expected, length);
+            vector.calculate(first, second[length], operator, results, length);
+            assertArrayEquals(expected, results, vector.getName() + ", length " + length + " by " + second[length]);
+        }
+    }
+
+    @Test
+    void testRawColumnsAcrossShortBlocks() throws IOException {
+        double[] first = new double[1000];
+        double[] second = new double[1000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = i * 0.5;
+            second[i] = i + 1;
+        }
+        Path output = directory.resolve("out.bin");
+
+        ColumnReport report = new ColumnEvaluator(ColumnKernels.best(), 1, 37)
+                .evaluate(writeRaw("first.bin", first), CalculatorEngine.DIVIDE, writeRaw("second.bin", second), output);
+
+        double[] results = readRaw(output);
+        assertEquals(1000, report.getValues());
+        assertEquals(8000, report.getBytesWritten());
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i] / second[i], results[i]);
+        }
+    }
+
+    @Test
+    void testCsvColumnWithHeaderToCsv() throws IOException {
+        Path input = directory.resolve("prices.csv");
+        Files.write(input, "item,price\r\napple, 1.25\r\npear,\"0.1\"\r\n\r\nplum,2e3\r\nfig,-7\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        Path output = directory.resolve("gross.csv");
+
+        ColumnReport report = new ColumnEvaluator(ColumnKernels.best(), 2, 2).evaluate(input, '+', 0.2, output);
+
+        assertEquals(4, report.getValues());
+        assertEquals("1.45\n0.30000000000000004\n2000.2\n-6.8\n",
+                new String(Files.readAllBytes(output), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testCsvValuesParseLikeDouble() throws IOException {
+        Random random = new Random(11);
+        String[] texts = new String[2000];
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < texts.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    texts[i] = Double.toString(random.nextDouble() * 1e6);
+                    break;
+                case 1:
+                    texts[i] = String.format("%.3f", (random.nextDouble() - 0.5) * 100);
+                    break;
+                case 2:
+                    texts[i] = random.nextInt(1000) + "e-" + random.nextInt(30);
+                    break;
+                default:
+                    texts[i] = Double.toString(random.nextGaussian() * 1e-300);
+            }
+            csv.append(texts[i]).append('\n');
+        }
+        Path input = directory.resolve("values.txt");
+        Files.write(input, csv.toString().getBytes(StandardCharsets.US_ASCII));
+        Path output = directory.resolve("values.bin");
+
+        new ColumnEvaluator(ColumnKernels.scalar(), 1, 64).evaluate(input, '*', 1, output);
+
+        double[] results = readRaw(output);
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(Double.parseDouble(texts[i]), results[i], texts[i]);
+        }
+    }
+
+    @Test
+    void testMismatchedLengthsAndBadValuesFail() throws IOException {
+        Path three = writeRaw("three.bin", new double[3]);
+        Path four = writeRaw("four.bin", new double[4]);
+        Path bad = directory.resolve("bad.csv");
+        Files.write(bad, "1\n2\nthree\n".getBytes(StandardCharsets.US_ASCII));
+        Path output = directory.resolve("out.bin");
+        ColumnEvaluator evaluator = new ColumnEvaluator();
+
+        assertThrows(IOException.class, () -> evaluator.evaluate(three, '+', four, output));
+        assertThrows(IOException.class, () -> evaluator.evaluate(four, '+', three, output));
+        IOException e = assertThrows(IOException.class, () -> evaluator.evaluate(bad, '+', 1, output));
+        assertEquals("Line 3: 'three' is not a number", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate(three, '√', 1, output));
+    }
+
+    private Path writeRaw(String name, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        Path path = directory.resolve(name);
+        Files.write(path, buffer.array());
+        return path;
+    }
+
+    private static double[] readRaw(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[buffer.remaining() / Double.BYTES];
+        buffer.asDoubleBuffer().get(values);
+        return values;
+    }
+}
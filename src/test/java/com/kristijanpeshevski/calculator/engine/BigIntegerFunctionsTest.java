@@ -0,0 +1,120 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BigIntegerFunctionsTest {
+
+    private final BigIntegerFunctions functions = new BigIntegerFunctions(new ForkJoinPool(4));
+
+    @Test
+    void testFactorialMatchesNaiveProduct() {
+        BigInteger expected = BigInteger.ONE;
+        for (int n = 0; n <= 3000; n++) {
+            if (n > 0)
+                expected = expected.multiply(BigInteger.valueOf(n));
+            if (n <= 30 || n % 97 == 0 || n == 3000)
+                assertEquals(expected, functions.factorial(n), n + "!");
+        }
+        assertEquals(expected, functions.product(1, 3000));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(Long.MAX_VALUE - 1)),
+                functions.product(Long.MAX_VALUE - 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testFactorialContinuesFromCachedValue() {
+        BigInteger first = functions.factorial(20_000);
+        long misses = functions.getMisses();
+
+        assertSame(first, functions.factorial(20_000));
+        assertEquals(1, functions.getHits());
+        assertEquals(first.multiply(BigInteger.valueOf(20_001)), functions.factorial(20_001));
+        assertEquals(misses + 1, functions.getMisses());
+        assertEquals(2, functions.size());
+
+        functions.clear();
+        assertEquals(0, functions.size());
+        assertEquals(0, functions.getCachedBits());
+    }
+
+    @Test
+    void testBinomial() {
+        assertEquals(BigInteger.valueOf(2_598_960), functions.binomial(52, 5));
+        assertEquals(BigInteger.ONE, functions.binomial(7, 0));
+        assertEquals(BigInteger.ZERO, functions.binomial(5, 6));
+        assertEquals(functions.binomial(2000, 300), functions.binomial(2000, 1700));
+
+        // Pascal's rule, far past the long range.
+        assertEquals(functions.binomial(5000, 2500),
+                functions.binomial(4999, 2499).add(functions.binomial(4999, 2500)));
+        assertEquals(functions.factorial(5000).divide(functions.factorial(2500).pow(2)), functions.binomial(5000, 2500));
+    }
+
+    @Test
+    void testFibonacciMatchesIteration() {
+        BigInteger previous = BigInteger.ONE;
+        BigInteger current = BigInteger.ZERO;
+        for (int n = 0; n <= 5000; n++) {
+            assertEquals(current, functions.fibonacci(n), "F(" + n + ")");
+            BigInteger next = previous.add(current);
+            previous = current;
+            current = next;
+        }
+    }
+
+    @Test
+    void testPowers() {
+        BigInteger base = new BigInteger("-123456789123456789");
+        assertEquals(base.pow(1000), functions.pow(base, 1000));
+        assertEquals(BigInteger.ONE, functions.pow(BigInteger.valueOf(-1), Long.MAX_VALUE - 1));
+        assertEquals(BigInteger.ZERO, functions.pow(BigInteger.ZERO, Long.MAX_VALUE));
+
+        BigInteger modulus = BigInteger.TEN.pow(30).add(BigInteger.valueOf(57));
+        assertEquals(BigInteger.valueOf(3).pow(10_000).mod(modulus),
+                functions.modPow(BigInteger.valueOf(3), BigInteger.valueOf(10_000), modulus));
+        assertEquals(BigInteger.valueOf(445), functions.modPow(BigInteger.valueOf(4), BigInteger.valueOf(13), BigInteger.valueOf(497)));
+    }
+
+    @Test
+    void testInterruptStopsComputation() throws InterruptedException {
+        AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                functions.factorial(400_000);
+            } catch (RuntimeException e) {
+                thrown.set(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(50);
+        thread.interrupt();
+        thread.join(10_000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(thrown.get() instanceof CancellationException);
+    }
+
+    @Test
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class, () -> functions.factorial(-1));
+        assertThrows(IllegalArgumentException.class, () -> functions.binomial(-5, 2));
+        assertThrows(IllegalArgumentException.class, () -> functions.fibonacci(-1));
+        assertThrows(IllegalArgumentException.class, () -> functions.pow(BigInteger.TWO, -1));
+        assertThrows(ArithmeticException.class, () -> functions.modPow(BigInteger.TWO, BigInteger.TEN, BigInteger.ZERO));
+
+        assertThrows(ArithmeticException.class, () -> functions.factorial(Integer.MAX_VALUE));
+        assertThrows(ArithmeticException.class, () -> functions.fibonacci(100_000_000));
+        assertThrows(ArithmeticException.class, () -> functions.pow(BigInteger.TWO, BigIntegerFunctions.MAX_RESULT_BITS + 1));
+        assertTrue(functions.factorial(100_000).bitLength() < BigIntegerFunctions.MAX_RESULT_BITS);
+    }
+}
@@ -0,0 +1,77 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CalculatorEngineTest {
+
+    @ParameterizedTest
+    @CsvSource({"3,5,+,8", "2,8,-,-6", "44.5,10,*,445", "320,5,/,64", "3,5,%,3", "5,3,^,125", "7,9,=,9"})
+    void testCalculation(double firstNumber, double secondNumber, char operator, double expectedResult) {
+        assertEquals(expectedResult, CalculatorEngine.calculate(firstNumber, secondNumber, operator));
+    }
+
+    @Test
+    void testFunctions() {
+        assertEquals(3, CalculatorEngine.apply(CalculatorEngine.ROOT, 9));
+        assertEquals(0, CalculatorEngine.apply(CalculatorEngine.LOG, 1));
+    }
+
+    @Test
+    void testIntegerFunctionsInDoubles() {
+        assertEquals(120, CalculatorEngine.apply(CalculatorEngine.FACTORIAL, 5));
+        assertEquals(7.257415615307999e306, CalculatorEngine.factorial(170));
+        assertEquals(Double.POSITIVE_INFINITY, CalculatorEngine.factorial(171));
+        assertEquals(Double.NaN, CalculatorEngine.factorial(2.5));
+        assertEquals(Double.NaN, CalculatorEngine.factorial(-1));
+
+        assertEquals(0, CalculatorEngine.fibonacci(0));
+        assertEquals(12586269025.0, CalculatorEngine.apply(CalculatorEngine.FIBONACCI, 50));
+        assertEquals(Double.POSITIVE_INFINITY, CalculatorEngine.fibonacci(1477));
+
+        assertEquals(2598960, CalculatorEngine.calculate(52, 5, CalculatorEngine.BINOMIAL));
+        assertEquals(0, CalculatorEngine.binomial(5, 52));
+        assertEquals(Double.POSITIVE_INFINITY, CalculatorEngine.binomial(1e6, 5e5));
+        assertEquals(445, CalculatorEngine.modPow(4, 13, 497));
+        assertEquals(Double.NaN, CalculatorEngine.modPow(4, 13, 0));
+    }
+
+    @Test
+    void testBatchCalculationMatchesScalar() {
+        double[] first = {3, 2, 44.5, 320, 3, 5};
+        double[] second = {5, 8, 10, 5, 5, 3};
+        double[] results = new double[first.length];
+
+        for (char operator : new char[]{'+', '-', '*', '/', '%', '^'}) {
+            CalculatorEngine.calculate(first, second, operator, results);
+            for (int i = 0; i < results.length; i++) {
+                assertEquals(CalculatorEngine.calculate(first[i], second[i], operator), results[i]);
+            }
+        }
+    }
+
+    @Test
+    void testBatchWithScalarAndOperatorCodes() {
+        double[] results = new double[3];
+
+        CalculatorEngine.calculate(new double[]{1, 2, 3}, 2, '*', results);
+        assertArrayEquals(new double[]{2, 4, 6}, results);
+
+        CalculatorEngine.calculate(new double[]{1, 2, 3}, new double[]{4, 5, 6}, new char[]{'+', '-', '^'}, results);
+        assertArrayEquals(new double[]{5, -3, 729}, results);
+
+        CalculatorEngine.apply(CalculatorEngine.ROOT, new double[]{4, 9, 16}, results);
+        assertArrayEquals(new double[]{2, 3, 4}, results);
+    }
+
+    @Test
+    void testBatchRejectsMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CalculatorEngine.calculate(new double[2], new double[3], '+', new double[2]));
+    }
+}
@@ -0,0 +1,150 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationSchedulerTest {
+
+    private final LinkedBlockingQueue<Runnable> published = new LinkedBlockingQueue<>();
+    private final List<String> events = new ArrayList<>();
+    private final EvaluationScheduler scheduler = new EvaluationScheduler(VirtualThreads.newThreadPerTaskExecutor("test"),
+            published::add, 100);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    void testCheapWorkRunsAtOnce() {
+        scheduler.submit(99, () -> "cheap", events::add, null);
+
+        assertEquals(List.of("cheap"), events);
+        assertFalse(scheduler.isBusy());
+    }
+
+    @Test
+    void testResultIsPublished() throws InterruptedException {
+        listen();
+        scheduler.submit(100, () -> "expensive", events::add, null);
+        assertTrue(scheduler.isBusy());
+        assertEquals(List.of("started"), events);
+
+        publishNext();
+        assertFalse(scheduler.isBusy());
+        assertEquals(List.of("started", "expensive", "finished"), events);
+    }
+
+    @Test
+    void testSupersededResultIsDropped() throws InterruptedException {
+        // The first evaluation ignores the interrupt and finishes anyway.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(100, () -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+            return "stale";
+        }, events::add, null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        scheduler.submit(100, () -> "latest", events::add, null);
+        release.countDown();
+
+        publishNext();
+        publishNext();
+        assertEquals(List.of("latest"), events);
+    }
+
+    @Test
+    void testCancelInterruptsWork() throws InterruptedException {
+        listen();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        scheduler.submit(100, () -> {
+            try {
+                started.countDown();
+                Thread.sleep(60_000);
+                return "slept";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new CancellationException();
+            }
+        }, events::add, null);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(scheduler.cancel());
+        assertFalse(scheduler.isBusy());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("started", "finished"), events);
+        assertFalse(scheduler.cancel());
+    }
+
+    @Test
+    void testFailureIsPublished() throws InterruptedException {
+        scheduler.<String>submit(100, () -> {
+            throw new IllegalStateException("broken");
+        }, events::add, e -> events.add(e.getMessage()));
+
+        publishNext();
+        assertEquals(List.of("broken"), events);
+    }
+
+    @Test
+    void testErrorFreesTheSchedulerAndIsRethrownOnThePublisher() throws InterruptedException {
+        listen();
+        scheduler.<String>submit(100, () -> {
+            throw new OutOfMemoryError("huge");
+        }, events::add, e -> events.add("failed"));
+
+        OutOfMemoryError error = assertThrows(OutOfMemoryError.class, this::publishNext);
+        assertEquals("huge", error.getMessage());
+        assertFalse(scheduler.isBusy());
+        assertEquals(List.of("started", "finished"), events);
+    }
+
+    private void listen() {
+        scheduler.setListener(new EvaluationScheduler.Listener() {
+            @Override
+            public void evaluationStarted() {
+                events.add("started");
+            }
+
+            @Override
+            public void evaluationFinished() {
+                events.add("finished");
+            }
+        });
+    }
+
+    private void publishNext() throws InterruptedException {
+        Runnable next = published.poll(5, TimeUnit.SECONDS);
+        assertTrue(next != null, "nothing was published");
+        next.run();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+}
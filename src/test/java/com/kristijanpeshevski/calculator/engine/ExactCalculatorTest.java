@@ -0,0 +1,109 @@
+package com.kristijanpeshevski.calculator.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExactCalculatorTest {
+
+    private final ExactCalculator calculator = new ExactCalculator();
+
+    @ParameterizedTest
+    @CsvSource({"0.1,0.2,+,0.3", "1,0.9,-,0.1", "1.1,1.1,*,1.21", "1,3,/,0.3333333333333333333333333333333333",
+            "10,4,/,2.5", "5.5,2,%,1.5", "1.5,2,^,2.25", "2,-2,^,0.25", "7,9,=,9"})
+    void testDecimalCalculation(String firstNumber, String secondNumber, char operator, String expectedResult) {
+        ExactNumber result = calculator.calculate(number(firstNumber), number(secondNumber), operator);
+        assertEquals(expectedResult, result.toString());
+    }
+
+    @Test
+    void testIntegralResultsStayOnLongs() {
+        ExactNumber result = calculator.calculate(ExactNumber.of(320), ExactNumber.of(5), CalculatorEngine.DIVIDE);
+        assertTrue(result.isLong());
+        assertEquals(64, result.longValue());
+
+        result = calculator.calculate(ExactNumber.of(new BigDecimal("0.5")), ExactNumber.of(4), CalculatorEngine.MULTIPLY);
+        assertTrue(result.isLong());
+        assertEquals(2, result.longValue());
+    }
+
+    @Test
+    void testOverflowPromotesToDecimal() {
+        ExactNumber result = calculator.calculate(ExactNumber.of(Long.MAX_VALUE), ExactNumber.of(1), CalculatorEngine.ADD);
+        assertTrue(result.isDecimal());
+        assertEquals("9223372036854775808", result.toString());
+
+        result = calculator.calculate(ExactNumber.of(3_037_000_500L), ExactNumber.of(3_037_000_500L), CalculatorEngine.MULTIPLY);
+        assertEquals("9223372037000250000", result.toString());
+
+        result = calculator.calculate(ExactNumber.of(2), ExactNumber.of(64), CalculatorEngine.POWER);
+        assertEquals("18446744073709551616", result.toString());
+
+        result = calculator.calculate(ExactNumber.of(Long.MIN_VALUE), ExactNumber.of(-1), CalculatorEngine.DIVIDE);
+        assertEquals("9223372036854775808", result.toString());
+
+        result = calculator.calculate(ExactNumber.of(Long.MIN_VALUE), ExactNumber.of(1), CalculatorEngine.POWER);
+        assertEquals(Long.MIN_VALUE, result.longValue());
+        result = calculator.calculate(ExactNumber.of(Long.MIN_VALUE), ExactNumber.of(2), CalculatorEngine.POWER);
+        assertEquals("85070591730234615865843651857942052864", result.toString());
+        result = calculator.calculate(ExactNumber.of(Long.MIN_VALUE), ExactNumber.of(3), CalculatorEngine.POWER);
+        assertEquals("-784637716923335095479473677900958302012794430558004314112", result.toString());
+        result = calculator.calculate(ExactNumber.of(new BigDecimal("1.5")), ExactNumber.of(Long.MIN_VALUE), CalculatorEngine.POWER);
+        assertEquals("0", result.toString());
+    }
+
+    @Test
+    void testDoubleSemanticsAreKeptWhereExactIsImpossible() {
+        assertEquals(Double.POSITIVE_INFINITY,
+                calculator.calculate(ExactNumber.of(1), ExactNumber.ZERO, CalculatorEngine.DIVIDE).doubleValue());
+        assertTrue(Double.isNaN(calculator.calculate(ExactNumber.of(1), ExactNumber.ZERO, CalculatorEngine.MODULO).doubleValue()));
+        assertEquals(Math.sqrt(2), calculator.calculate(ExactNumber.of(2), number("0.5"), CalculatorEngine.POWER).doubleValue());
+        assertEquals(Math.sqrt(2), calculator.apply(CalculatorEngine.ROOT, ExactNumber.of(2)).doubleValue());
+
+        ExactNumber root = calculator.apply(CalculatorEngine.ROOT, ExactNumber.of(81));
+        assertTrue(root.isLong());
+        assertEquals(9, root.longValue());
+    }
+
+    @Test
+    void testIntegerFunctionsAreExact() {
+        ExactNumber factorial = calculator.apply(CalculatorEngine.FACTORIAL, ExactNumber.of(25));
+        assertEquals("15511210043330985984000000", factorial.toString());
+        assertEquals("354224848179261915075", calculator.apply(CalculatorEngine.FIBONACCI, ExactNumber.of(100)).toString());
+        assertEquals("100891344545564193334812497256",
+                calculator.calculate(ExactNumber.of(100), ExactNumber.of(50), CalculatorEngine.BINOMIAL).toString());
+        assertEquals("1" + "0".repeat(60), calculator.calculate(ExactNumber.of(10), ExactNumber.of(60), CalculatorEngine.POWER).toString());
+        assertEquals(445, calculator.modPow(ExactNumber.of(4), ExactNumber.of(13), ExactNumber.of(497)).longValue());
+
+        assertTrue(Double.isNaN(calculator.apply(CalculatorEngine.FACTORIAL, ExactNumber.of(-1)).doubleValue()));
+        assertEquals(Double.POSITIVE_INFINITY, calculator.apply(CalculatorEngine.FACTORIAL, ExactNumber.of(100_000_000)).doubleValue());
+        assertEquals(0, calculator.calculate(ExactNumber.of(3), ExactNumber.of(5), CalculatorEngine.BINOMIAL).longValue());
+    }
+
+    @Test
+    void testHugeDecimalsAreNotExpandedToCheckForLongs() {
+        ExactNumber huge = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> number("1E+50000000"));
+        assertTrue(huge.isDecimal());
+        assertTrue(assertTimeoutPreemptively(Duration.ofSeconds(5), () -> number("-1E+999999999")).isDecimal());
+        assertTrue(assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> calculator.calculate(ExactNumber.of(2), ExactNumber.of(100_000_000), CalculatorEngine.POWER)).isDecimal());
+
+        assertEquals(Long.MAX_VALUE, number("9223372036854775807").longValue());
+        assertTrue(number("9223372036854775807").isLong());
+        assertTrue(number("9223372036854775808").isDecimal());
+        assertTrue(number("1E+18").isLong());
+        assertTrue(number("100.000").isLong());
+        assertTrue(number("0.5").isDecimal());
+    }
+
+    private static ExactNumber number(String value) {
+        return ExactNumber.of(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,93 @@
+package com.kristijanpeshevski.calculator.engine.expression;
+
+import com.kristijanpeshevski.calculator.engine.ExactCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionParserTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "1 + 2 * 3|7", "(1 + 2) * 3|9", "2 ^ 3 ^ 2|512", "-2 ^ 2|-4", "2 ^ -1|0.5", "10 - 4 - 3|3",
+            "7 % 4 * 2|6", "√9 + 1|4", "sqrt(16) / ln(e)|4", "pow(2, 10)|1024", "--3|3", "1.5e2 × 2|300", "9 ÷ 3|3",
+            "3!^2|36", "-3!|-6", "3!!|720", "factorial(20) / 19!|20", "fib(10)|55", "binomial(52, 5)|2598960",
+            "modpow(4, 13, 497)|445"})
+    void testEvaluation(String source, double expectedResult) {
+        assertEquals(expectedResult, ExpressionParser.compile(source).evaluate());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "0.1 + 0.2|0.3", "2 ^ 64|18446744073709551616", "-(99999999999999999 + 1)|-100000000000000000",
+            "1 / 4 - 0.25|0", "--3!|6", "factorial(25)|15511210043330985984000000", "√81 + 0.1|9.1",
+            "modpow(4, 13, 497)|445", "1e3 * 1.5|1500"})
+    void testExactEvaluation(String source, String expectedResult) {
+        assertEquals(expectedResult, ExpressionParser.compile(source).evaluateExact(new ExactCalculator()).toString());
+    }
+
+    @Test
+    void testExactEvaluationNeedsAConstantExpression() {
+        assertThrows(IllegalStateException.class, () -> ExpressionParser.compile("x + 1").evaluateExact(new ExactCalculator()));
+    }
+
+    @Test
+    void testVariablesAreBoundPositionally() {
+        CompiledExpression expression = ExpressionParser.compile("price * (1 + rate) - price");
+
+        assertEquals(List.of("price", "rate"), expression.getVariableNames());
+        assertEquals(5, expression.evaluate(new double[]{100, 0.05}), 1e-9);
+    }
+
+    @Test
+    void testConstantSubexpressionsAreFolded() {
+        assertTrue(ExpressionParser.compile("2 * (3 + 4) - √16").isConstant());
+    }
+
+    @Test
+    void testSyntaxErrorsReportPosition() {
+        ExpressionException exception = assertThrows(ExpressionException.class, () -> ExpressionParser.compile("1 + * 2"));
+        assertEquals(4, exception.getPosition());
+
+        assertThrows(ExpressionException.class, () -> ExpressionParser.compile("(1 + 2"));
+        assertThrows(ExpressionException.class, () -> ExpressionParser.compile("foo(1)"));
+    }
+
+    @Test
+    void testDeepNestingIsRejectedInsteadOfOverflowingTheStack() {
+        String parentheses = "(".repeat(5000) + "1" + ")".repeat(5000);
+        ExpressionException exception = assertThrows(ExpressionException.class, () -> ExpressionParser.compile(parentheses));
+        assertTrue(exception.getMessage().startsWith("Expression nested too deeply"));
+
+        assertThrows(ExpressionException.class, () -> ExpressionParser.compile("-".repeat(5000) + "1"));
+        assertThrows(ExpressionException.class, () -> ExpressionParser.compile("√".repeat(5000) + "1"));
+        assertThrows(ExpressionException.class, () -> ExpressionParser.compile("2^".repeat(5000) + "1"));
+
+        int limit = ExpressionParser.MAX_DEPTH - 1;
+        assertEquals(1, ExpressionParser.compile("(".repeat(limit) + "1" + ")".repeat(limit)).evaluate());
+    }
+
+    @Test
+    void testCacheReusesAndEvictsLeastRecentlyUsed() {
+        ExpressionCache cache = new ExpressionCache(2);
+
+        CompiledExpression first = cache.compile("1 + 1");
+        CompiledExpression second = cache.compile("2 + 2");
+        assertSame(first, cache.compile("1 + 1"));
+        cache.compile("3 + 3");
+
+        assertEquals(2, cache.size());
+        assertSame(first, cache.compile("1 + 1"));
+        assertNotSame(second, cache.compile("2 + 2"));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+}
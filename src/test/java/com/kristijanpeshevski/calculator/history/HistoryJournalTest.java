@@ -0,0 +1,154 @@
+package com.kristijanpeshevski.calculator.history;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryJournalTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("history");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testEntriesKeepExactValues() throws IOException {
+        try (HistoryJournal journal = HistoryJournal.open(directory)) {
+            journal.append(1000, decimal("0.1"), CalculatorEngine.ADD, decimal("0.2"), decimal("0.3"));
+            journal.append(2000, ExactNumber.of(81), CalculatorEngine.ROOT, null, ExactNumber.of(9));
+            journal.append(3000, ExactNumber.of(2), CalculatorEngine.POWER, ExactNumber.of(0.5), ExactNumber.of(Math.sqrt(2)));
+
+            assertEquals("0.1 + 0.2 = 0.3", journal.get(0).toString());
+            assertEquals("√ 81 = 9", journal.get(1).toString());
+            assertNull(journal.get(1).getSecondOperand());
+            assertEquals(Math.sqrt(2), journal.get(2).getResult().doubleValue());
+            assertEquals(3000, journal.get(2).getTimestampMillis());
+        }
+    }
+
+    @Test
+    void testSegmentsRollAndReopen() throws IOException {
+        try (HistoryJournal journal = HistoryJournal.open(directory, 16)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(1000 + i, ExactNumber.of(i), CalculatorEngine.MULTIPLY, ExactNumber.of(2), ExactNumber.of(2 * i));
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(7, files.filter(file -> file.toString().endsWith(".journal")).count());
+        }
+        try (HistoryJournal journal = HistoryJournal.open(directory, 16)) {
+            assertEquals(100, journal.size());
+            assertEquals(99 * 2, journal.get(99).getResult().longValue());
+
+            journal.append(5000, ExactNumber.of(1), CalculatorEngine.ADD, ExactNumber.of(1), ExactNumber.of(2));
+            assertEquals(101, journal.size());
+            assertEquals(5000, journal.timestampOf(100));
+        }
+    }
+
+    @Test
+    void testDirectoryIsLockedWhileOpen() throws IOException {
+        try (HistoryJournal journal = HistoryJournal.open(directory, 16)) {
+            journal.append(1000, ExactNumber.of(5), CalculatorEngine.MULTIPLY, ExactNumber.of(5), ExactNumber.of(25));
+            assertThrows(IOException.class, () -> HistoryJournal.open(directory, 16));
+        }
+        try (HistoryJournal journal = HistoryJournal.open(directory, 16)) {
+            journal.append(2000, ExactNumber.of(6), CalculatorEngine.MULTIPLY, ExactNumber.of(6), ExactNumber.of(36));
+        }
+        try (HistoryJournal journal = HistoryJournal.open(directory, 16)) {
+            assertEquals(2, journal.size());
+            assertEquals("5 * 5 = 25", journal.get(0).toString());
+        }
+    }
+
+    @Test
+    void testTimeRangeLookup() throws IOException {
+        try (HistoryJournal journal = HistoryJournal.open(directory, 64)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append(10_000 + i * 10L, ExactNumber.of(i), CalculatorEngine.ADD, ExactNumber.ZERO, ExactNumber.of(i));
+            }
+
+            assertEquals(0, journal.firstAtOrAfter(0));
+            assertEquals(500, journal.firstAtOrAfter(15_000));
+            assertEquals(501, journal.firstAtOrAfter(15_001));
+            assertEquals(1000, journal.firstAtOrAfter(100_000));
+            assertEquals(11, journal.countInRange(15_000, 15_100));
+
+            List<Long> results = new ArrayList<>();
+            journal.forEachInRange(19_950, 30_000, entry -> results.add(entry.getResult().longValue()));
+            assertEquals(List.of(995L, 996L, 997L, 998L, 999L), results);
+        }
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllCommitted() throws Exception {
+        try (HistoryJournal journal = HistoryJournal.open(directory, 1000)) {
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        journal.append(ExactNumber.of(i), CalculatorEngine.ADD, ExactNumber.of(1), ExactNumber.of(i + 1));
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(20_000, journal.size());
+            for (long sequence = 0; sequence < journal.size(); sequence++) {
+                HistoryEntry entry = journal.get(sequence);
+                assertTrue(entry != null);
+                assertEquals(entry.getFirstOperand().longValue() + 1, entry.getResult().longValue());
+            }
+        }
+    }
+
+    @Test
+    void testRecorderIsDisabledWhileAnotherHoldsTheJournal() throws IOException {
+        try (HistoryJournal held = HistoryJournal.open(directory)) {
+            HistoryRecorder recorder = new HistoryRecorder(directory);
+            recorder.close();
+
+            assertNull(recorder.getJournal());
+            assertTrue(recorder.getDisabledReason().startsWith("History is in use by another calculator"));
+            assertFalse(Runtime.getRuntime().removeShutdownHook(recorder.shutdownHook), "close removes the hook");
+        }
+
+        HistoryRecorder recorder = new HistoryRecorder(directory);
+        recorder.close();
+        assertNull(recorder.getDisabledReason());
+    }
+
+    private static ExactNumber decimal(String value) {
+        return ExactNumber.of(new BigDecimal(value));
+    }
+}
@@ -0,0 +1,240 @@
+package com.kristijanpeshevski.calculator.input;
+
+import com.kristijanpeshevski.calculator.engine.EvaluationScheduler;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalculatorStateTest {
+
+    private CalculatorState state;
+
+    @BeforeEach
+    void setUp() {
+        state = new CalculatorState();
+    }
+
+    @Test
+    void testLeadingZerosAreReplaced() {
+        press(Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_7, Key.DIGIT_0);
+        assertEquals("70", display());
+    }
+
+    @Test
+    void testOperatorsEvaluateLeftToRight() {
+        press(Key.DIGIT_1, Key.DIGIT_2, Key.ADD, Key.DIGIT_3);
+        assertEquals("3", display());
+
+        press(Key.MULTIPLY);
+        assertEquals("15", display());
+
+        press(Key.DIGIT_2, Key.EQUAL);
+        assertEquals("30", display());
+    }
+
+    @Test
+    void testDecimalEntryAndBackspace() {
+        press(Key.POINT, Key.DIGIT_5, Key.POINT, Key.DIGIT_2);
+        assertEquals("0.52", display());
+        assertEquals(0.52, state.getDisplay().doubleValue());
+
+        press(Key.BACK, Key.BACK, Key.BACK, Key.BACK);
+        assertEquals("0", display());
+    }
+
+    @Test
+    void testBackspaceClearsAResultInsteadOfEditingIt() {
+        state.enter(ExactNumber.of(new BigDecimal("1.5E20")));
+        assertEquals("1.5E20", display());
+        press(Key.BACK);
+        assertEquals("0", display());
+        assertEquals(0, state.getDisplay().doubleValue());
+
+        press(Key.DIGIT_1, Key.DIGIT_2, Key.ADD, Key.DIGIT_3, Key.EQUAL);
+        assertEquals("15", display());
+        press(Key.BACK);
+        assertEquals("0", display());
+
+        press(Key.DIGIT_1, Key.DIVIDE, Key.DIGIT_0, Key.EQUAL, Key.BACK);
+        assertEquals("0", display());
+    }
+
+    @Test
+    void testFunctionsReplaceDisplay() {
+        press(Key.DIGIT_8, Key.DIGIT_1, Key.ROOT);
+        assertEquals("9", display());
+
+        press(Key.CLEAR, Key.DIGIT_1, Key.DIGIT_0, Key.FACTORIAL);
+        assertEquals("3628800", display());
+
+        press(Key.CLEAR, Key.DIGIT_1, Key.DIGIT_2, Key.FIBONACCI, Key.ADD, Key.DIGIT_1, Key.EQUAL);
+        assertEquals("145", display());
+    }
+
+    @Test
+    void testNonNumericDisplayBlocksOperators() {
+        press(Key.DIGIT_1, Key.DIVIDE, Key.DIGIT_0, Key.EQUAL);
+        assertEquals("Infinity", display());
+
+        press(Key.ADD);
+        assertEquals("Infinity", display());
+    }
+
+    @Test
+    void testLargeResultsAreNotTruncated() {
+        press(Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.MULTIPLY,
+                Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.DIGIT_9, Key.EQUAL);
+        assertEquals("9999800001", display());
+    }
+
+    @Test
+    void testDecimalArithmeticIsExact() {
+        press(Key.POINT, Key.DIGIT_1, Key.ADD, Key.POINT, Key.DIGIT_2, Key.EQUAL);
+        assertEquals("0.3", display());
+
+        press(Key.CLEAR, Key.DIGIT_1, Key.POINT, Key.DIGIT_1, Key.MULTIPLY, Key.DIGIT_3, Key.EQUAL);
+        assertEquals("3.3", display());
+    }
+
+    @Test
+    void testCompletedOperationsAreReported() {
+        List<String> operations = new ArrayList<>();
+        state.setOperationListener((first, operator, second, result) ->
+                operations.add(first + " " + operator + " " + second + " = " + result));
+
+        press(Key.DIGIT_7, Key.ADD, Key.DIGIT_5, Key.MULTIPLY, Key.DIGIT_2, Key.EQUAL, Key.DIGIT_9, Key.ROOT, Key.EQUAL);
+        assertEquals(List.of("7 + 5 = 12", "12 * 2 = 24", "9 √ null = 3"), operations);
+    }
+
+    @Test
+    void testScientificResultCanBeUsedAsOperand() {
+        press(Key.DIGIT_1, Key.DIGIT_0, Key.POWER, Key.DIGIT_2, Key.DIGIT_0, Key.MULTIPLY);
+        assertEquals("1E20", display());
+
+        press(Key.DIGIT_2, Key.EQUAL);
+        assertEquals("2E20", display());
+    }
+
+    @Test
+    void testEnteredValueActsAsOperand() {
+        press(Key.DIGIT_5, Key.ADD);
+        state.enter(ExactNumber.of(new BigDecimal("2.75")));
+        assertEquals("2.75", display());
+
+        press(Key.EQUAL);
+        assertEquals("7.75", display());
+
+        state.enter(ExactNumber.of(4));
+        press(Key.DIGIT_1, Key.MULTIPLY, Key.DIGIT_2, Key.EQUAL);
+        assertEquals("2", display(), "a digit after an entered value starts a new number");
+    }
+
+    @Test
+    void testLargeOperationsRunInBackground() throws InterruptedException {
+        LinkedBlockingQueue<Runnable> published = new LinkedBlockingQueue<>();
+        try (EvaluationScheduler scheduler = new EvaluationScheduler(VirtualThreads.newThreadPerTaskExecutor("test"),
+                published::add, EvaluationScheduler.DEFAULT_THRESHOLD)) {
+            state.setScheduler(scheduler);
+
+            // 30000! has about 360 000 bits; the keys typed meanwhile wait for it.
+            press(Key.DIGIT_3, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.FACTORIAL);
+            assertTrue(state.isBusy());
+            press(Key.MULTIPLY, Key.DIGIT_2, Key.EQUAL);
+            assertEquals("30000", display());
+
+            published.poll(10, TimeUnit.SECONDS).run();
+            assertFalse(state.isBusy());
+            assertEquals("5.519074492438769198759884332850926E121287", display());
+
+            press(Key.CLEAR, Key.DIGIT_4, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.FACTORIAL, Key.ADD);
+            assertTrue(state.cancel());
+            assertFalse(state.isBusy());
+            press(Key.DIGIT_1, Key.EQUAL);
+            assertEquals("400001", display(), "cancel leaves the state as it was before the key");
+        }
+    }
+
+    @Test
+    void testOperatorAfterAHugeResultDoesNotBlock() {
+        // The only worker is held, so the scheduled power is never computed, only queued.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (EvaluationScheduler scheduler = new EvaluationScheduler(executor, Runnable::run, EvaluationScheduler.DEFAULT_THRESHOLD)) {
+            state.setScheduler(scheduler);
+            state.enter(ExactNumber.of(new BigDecimal("1E20000000")));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> press(Key.ADD, Key.DIGIT_1, Key.EQUAL));
+            assertFalse(state.isBusy(), "adding rounds to the display precision at once");
+            assertEquals("1E20000000", display());
+
+            // Squaring expands all 20 000 001 digits, so it goes to the background.
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> press(Key.POWER, Key.DIGIT_2, Key.EQUAL));
+            assertTrue(state.isBusy());
+            assertTrue(state.cancel());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testTypedCharactersMapToKeys() {
+        assertEquals(Key.DIGIT_7, Key.forChar('7'));
+        assertEquals(Key.POINT, Key.forChar(','));
+        assertEquals(Key.MULTIPLY, Key.forChar('×'));
+        assertEquals(Key.DIVIDE, Key.forChar('÷'));
+        assertEquals(Key.SUBTRACT, Key.forChar('−'));
+        assertEquals(null, Key.forChar('a'));
+    }
+
+    @Test
+    void testInputBufferTracksValue() {
+        InputBuffer buffer = new InputBuffer();
+        buffer.setText("-12.5");
+        assertTrue(buffer.isNumber());
+        assertEquals(-12.5, buffer.doubleValue());
+
+        buffer.setText("123456789012345678901234567890");
+        assertEquals(1.2345678901234568E29, buffer.doubleValue());
+
+        buffer.setText("1.5E-3");
+        assertEquals(0.0015, buffer.doubleValue());
+
+        buffer.setText("1.2.3");
+        assertFalse(buffer.isNumber());
+        buffer.setText("-");
+        assertFalse(buffer.isNumber());
+    }
+
+    private void press(Key... keys) {
+        for (Key key : keys) {
+            state.press(key);
+        }
+    }
+
+    private String display() {
+        return state.getDisplay().toString();
+    }
+}
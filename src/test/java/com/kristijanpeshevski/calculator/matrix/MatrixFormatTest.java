@@ -0,0 +1,63 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MatrixFormatTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("matrix");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testParse() {
+        assertEquals(Matrix.of(2, 3, 1, 2, 3, 4.5, -5, 6e2), MatrixFormat.parse(" 1 2,3\n\n4.5\t-5, 6e2\n"));
+        assertEquals(Matrix.of(2, 2, 1, 2, 3, 4), MatrixFormat.parse("1 2; 3 4"));
+        assertThrows(IllegalArgumentException.class, () -> MatrixFormat.parse("1 2\n3"));
+        assertThrows(IllegalArgumentException.class, () -> MatrixFormat.parse("a b\n1 2"));
+        assertThrows(IllegalArgumentException.class, () -> MatrixFormat.parse(" \n"));
+    }
+
+    @Test
+    void testWriteAndReadBack() throws IOException {
+        Matrix matrix = Matrix.of(2, 3, 0.1, 1.0 / 3, -2e-300, 1e22, Math.PI, -0.0);
+        Path path = directory.resolve("m.csv");
+        MatrixFormat.write(matrix, path);
+
+        assertEquals(matrix, MatrixFormat.read(path));
+
+        Path withHeader = directory.resolve("header.csv");
+        Files.write(withHeader, "x,y\r\n1,2\r\n3,4\r\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(Matrix.of(2, 2, 1, 2, 3, 4), MatrixFormat.read(withHeader));
+
+        Files.write(withHeader, "1,2\n3,x\n".getBytes(StandardCharsets.US_ASCII));
+        assertThrows(IOException.class, () -> MatrixFormat.read(withHeader));
+    }
+
+    @Test
+    void testFormatElidesLargeMatrices() {
+        assertEquals("  1  -2.5\n300     4", MatrixFormat.format(Matrix.of(2, 2, 1, -2.5, 300, 4), 12, 8));
+        assertEquals("1  0  …\n⋮", MatrixFormat.format(Matrix.identity(3), 1, 2));
+    }
+}
@@ -0,0 +1,146 @@
+package com.kristijanpeshevski.calculator.matrix;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatrixOperationsTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final MatrixOperations operations = new MatrixOperations(pool);
+    private final Random random = new Random(7);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testMultiplyMatchesTripleLoopAcrossBlocks() {
+        // Sizes that are not multiples of any block size, with a shared dimension of more than one depth block.
+        Matrix a = random(150, 300);
+        Matrix b = random(300, 270);
+
+        assertEquals(naiveMultiply(a, b), operations.multiply(a, b), "same sums in the same order");
+        assertEquals(naiveMultiply(b.transpose(), a.transpose()), operations.multiply(b.transpose(), a.transpose()));
+    }
+
+    @Test
+    void testMultiplyVectorsAndMismatch() {
+        Matrix row = Matrix.of(1, 3, 1, 2, 3);
+        Matrix column = Matrix.of(3, 1, 4, 5, 6);
+
+        assertEquals(Matrix.of(1, 1, 32), operations.multiply(row, column));
+        assertEquals(Matrix.of(3, 3, 4, 8, 12, 5, 10, 15, 6, 12, 18), operations.multiply(column, row));
+        assertThrows(IllegalArgumentException.class, () -> operations.multiply(row, row));
+    }
+
+    @Test
+    void testDecompositionReproducesPermutedMatrix() {
+        Matrix a = random(200, 200);
+        LuDecomposition lu = operations.decompose(a);
+        Matrix product = operations.multiply(lu.getLower(), lu.getUpper());
+        int[] pivots = lu.getPivots();
+
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 200; j++) {
+                assertEquals(a.get(pivots[i], j), product.get(i, j), 1e-12);
+            }
+        }
+        assertFalse(lu.isSingular());
+    }
+
+    @Test
+    void testDeterminant() {
+        assertEquals(-2, operations.determinant(Matrix.of(2, 2, 1, 2, 3, 4)), 1e-15);
+        assertEquals(-1, operations.determinant(Matrix.of(2, 2, 0, 1, 1, 0)), "one row swap");
+        assertEquals(24, operations.determinant(Matrix.of(3, 3, 2, 5, 7, 0, 3, 11, 0, 0, 4)));
+        assertEquals(1e100, operations.determinant(Matrix.of(3, 3, 1e200, 0, 0, 0, 1e200, 0, 0, 0, 1e-300)), 1e86);
+
+        Matrix singular = Matrix.of(3, 3, 1, 2, 3, 2, 4, 6, 1, 1, 1);
+        assertEquals(0, operations.determinant(singular));
+        assertTrue(operations.decompose(singular).isSingular());
+        assertThrows(ArithmeticException.class, () -> operations.inverse(singular));
+        assertThrows(IllegalArgumentException.class, () -> operations.determinant(new Matrix(2, 3)));
+    }
+
+    @Test
+    void testSolveAndInverseAcrossPanels() {
+        Matrix a = random(300, 300);
+        for (int i = 0; i < 300; i++) {
+            a.set(i, i, a.get(i, i) + 300);
+        }
+        Matrix x = random(300, 3);
+        Matrix b = operations.multiply(a, x);
+
+        assertArrayEquals(x.toArray(), operations.solve(a, b).toArray(), 1e-12);
+        assertArrayEquals(Matrix.identity(300).toArray(), operations.multiply(a, operations.inverse(a)).toArray(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> operations.solve(a, new Matrix(299, 1)));
+    }
+
+    @Test
+    void testElementwiseUsesEngineOperators() {
+        Matrix a = Matrix.of(2, 3, 1, -2, 3.5, 7, 0, 2);
+        Matrix b = Matrix.of(2, 3, 2, 3, 0.5, 4, 0, -1);
+
+        for (char operator : "+-*/%^".toCharArray()) {
+            Matrix result = a.calculate(b, operator);
+            for (int i = 0; i < 2; i++) {
+                for (int j = 0; j < 3; j++) {
+                    double expected = CalculatorEngine.calculate(a.get(i, j), b.get(i, j), operator);
+                    assertEquals(expected, result.get(i, j));
+                }
+            }
+        }
+        assertEquals(Matrix.of(2, 3, 1, 4, 12.25, 49, 0, 4), a.calculate(2, '^'));
+        assertThrows(IllegalArgumentException.class, () -> a.calculate(a.transpose(), '+'));
+        assertThrows(IllegalArgumentException.class, () -> a.calculate(b, '√'));
+    }
+
+    @Test
+    void testTranspose() {
+        Matrix a = random(70, 33);
+        Matrix transposed = a.transpose();
+
+        assertEquals(33, transposed.getRows());
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j < 33; j++) {
+                assertEquals(a.get(i, j), transposed.get(j, i));
+            }
+        }
+        assertEquals(a, transposed.transpose());
+    }
+
+    private Matrix random(int rows, int columns) {
+        Matrix matrix = new Matrix(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                matrix.set(i, j, random.nextDouble() * 2 - 1);
+            }
+        }
+        return matrix;
+    }
+
+    private static Matrix naiveMultiply(Matrix a, Matrix b) {
+        Matrix product = new Matrix(a.getRows(), b.getColumns());
+        for (int i = 0; i < a.getRows(); i++) {
+            for (int j = 0; j < b.getColumns(); j++) {
+                double sum = 0;
+                for (int k = 0; k < a.getColumns(); k++) {
+                    sum += a.get(i, k) * b.get(k, j);
+                }
+                product.set(i, j, sum);
+            }
+        }
+        return product;
+    }
+}
@@ -0,0 +1,84 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.ActionListener;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InteractionMetricsTest {
+
+    @Test
+    void testInstrumentedActionsAreCountedAndTimed() {
+        InteractionMetrics metrics = new InteractionMetrics();
+        ActionListener add = metrics.instrument("ADD", event -> sleep(2));
+        ActionListener equal = metrics.instrument("EQUAL", event -> {
+            throw new IllegalStateException("failed");
+        });
+
+        add.actionPerformed(null);
+        add.actionPerformed(null);
+        assertThrows(IllegalStateException.class, () -> equal.actionPerformed(null));
+
+        List<HistogramSnapshot> actions = metrics.getActions();
+        assertEquals("ADD", actions.get(0).getName());
+        assertEquals(2, actions.get(0).getCount());
+        assertTrue(actions.get(0).getP50Nanos() >= 2_000_000);
+        assertEquals("EQUAL", actions.get(1).getName());
+        assertEquals(1, actions.get(1).getCount());
+    }
+
+    @Test
+    void testStallsAndGcPausesDuringInteraction() {
+        InteractionMetrics metrics = new InteractionMetrics();
+        metrics.edtLag(1_000_000);
+        metrics.edtLag(InteractionMetrics.STALL_THRESHOLD_NANOS);
+        metrics.gcPause(5_000_000, System.nanoTime());
+
+        metrics.instrument("CLEAR", event -> { }).actionPerformed(null);
+        metrics.gcPause(8_000_000, System.nanoTime());
+
+        assertEquals(2, metrics.getEdtLag().getCount());
+        assertEquals(1, metrics.getEdtStalls());
+        assertEquals(2, metrics.getGcPauses().getCount());
+        assertEquals(1, metrics.getGcPausesDuringInteraction());
+
+        String dump = metrics.dump();
+        assertTrue(dump.contains("CLEAR"), dump);
+        assertTrue(dump.contains("stalls 1"), dump);
+
+        metrics.reset();
+        assertEquals(0, metrics.getActions().get(0).getCount());
+        assertEquals(0, metrics.getEdtStalls());
+        assertEquals(0, metrics.getGcPausesDuringInteraction());
+    }
+
+    @Test
+    void testAttributesAreOpenData() throws Exception {
+        InteractionMetrics metrics = new InteractionMetrics();
+        metrics.instrument("DIGIT_7", event -> { }).actionPerformed(null);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.register(server);
+
+        ObjectName name = new ObjectName(InteractionMetrics.OBJECT_NAME);
+        CompositeData[] actions = (CompositeData[]) server.getAttribute(name, "Actions");
+        assertEquals("DIGIT_7", actions[0].get("name"));
+        assertEquals(1L, actions[0].get("count"));
+        assertEquals(0L, ((CompositeData) server.getAttribute(name, "EdtLag")).get("count"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.kristijanpeshevski.calculator.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionHeapReportTest {
+
+    @Test
+    void testSessionsAreMeasuredFromTheLastMeasurement() {
+        PrimitiveIterator.OfLong heapUsed = Arrays.stream(new long[]{
+                10_000_000, // Baseline
+                14_000_000, // Shared resources loaded
+                20_000_000, // Session 1, with Swing's setup
+                21_000_000, // Session 2
+                20_000_000, // Session 1 closed
+                21_500_000, // Session 3
+        }).iterator();
+        SessionHeapReport report = new SessionHeapReport(heapUsed::nextLong);
+
+        report.sharedLoaded();
+        report.sessionOpened(1);
+        report.sessionOpened(2);
+        assertEquals(4_000_000L, report.getSharedBytes());
+        assertEquals(6_000_000L, report.getSessionBytes(1));
+        assertEquals(1_000_000L, report.getSessionBytes(2));
+
+        report.sessionClosed(1);
+        report.sessionOpened(3);
+        assertEquals(0L, report.getSessionBytes(1));
+        assertEquals(1_500_000L, report.getSessionBytes(3));
+
+        String summary = report.summary();
+        assertTrue(summary.contains("shared      4.00 MB"), summary);
+        assertTrue(summary.contains("session 3   1.50 MB"), summary);
+        assertTrue(summary.contains("2 sessions, 1.25 MB each on average"), summary);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveSamplerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final AdaptiveSampler sampler = new AdaptiveSampler(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testStraightLinesAreNotRefined() {
+        Samples samples = sampler.sample(PlotFunction.parse("2 * x + 1"), 0, 64, 10);
+
+        assertEquals(321, samples.size(), "one point every two pixels");
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(2 * samples.x(i) + 1, samples.y(i), 1e-9);
+        }
+    }
+
+    @Test
+    void testBendsAreRefinedWithinTolerance() {
+        PlotFunction function = PlotFunction.parse("x^2");
+        double scale = 100;
+        Samples samples = sampler.sample(function, -3, 3, scale);
+
+        assertTrue(samples.size() > 301, "more points than the coarse grid");
+        for (int i = 1; i < samples.size(); i++) {
+            double middle = (samples.x(i - 1) + samples.x(i)) / 2;
+            double straight = (samples.y(i - 1) + samples.y(i)) / 2;
+            assertTrue(Math.abs(function.valueAt(middle) - straight) * scale <= 0.25,
+                    "segment at " + middle + " strays from the curve");
+        }
+    }
+
+    @Test
+    void testPolesBecomeGaps() {
+        Samples samples = sampler.sample(PlotFunction.parse("1 / x"), -1.05, 1, 100);
+
+        boolean gap = false;
+        for (int i = 1; i < samples.size(); i++) {
+            double previous = samples.y(i - 1);
+            double current = samples.y(i);
+            gap |= Double.isNaN(current) || Double.isInfinite(current);
+            assertFalse(previous < -10 && current > 10, "segment across the pole at " + samples.x(i));
+        }
+        assertTrue(gap);
+        assertEquals(-1 / 1.05, samples.y(0), 1e-12);
+    }
+
+    @Test
+    void testUndefinedRangesStayEmpty() {
+        Samples samples = sampler.sample(PlotFunction.parse("ln(x)"), -2, 2, 50);
+
+        for (int i = 0; i < samples.size(); i++) {
+            double y = samples.y(i);
+            assertEquals(samples.x(i) > 0, Double.isFinite(y), "x = " + samples.x(i));
+        }
+    }
+
+    @Test
+    void testParallelSamplingMatchesSequential() {
+        PlotFunction function = PlotFunction.parse("x % 1 + sqrt(x)");
+        Samples parallel = sampler.sample(function, 0, 40, 64);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            Samples sequential = new AdaptiveSampler(single).sample(function, 0, 40, 64);
+            assertArrayEquals(xs(sequential), xs(parallel), "x");
+            assertArrayEquals(ys(sequential), ys(parallel), "y");
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void testOnlyXMayVary() {
+        assertThrows(IllegalArgumentException.class, () -> PlotFunction.parse("x + y"));
+        assertEquals(4, PlotFunction.parse("pow(x, 2)").valueAt(2));
+    }
+
+    private static double[] xs(Samples samples) {
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.x(i);
+        }
+        return values;
+    }
+
+    private static double[] ys(Samples samples) {
+        double[] values = new double[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.y(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,94 @@
+package com.kristijanpeshevski.calculator.plot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlotTilesTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(1);
+    private final AtomicInteger ready = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testTilesAreRenderedOnceAndCached() {
+        PlotTiles tiles = tiles("x");
+        TileKey diagonal = new TileKey(0, 0, 0);
+        TileKey above = new TileKey(0, 0, 5);
+
+        tiles.beginFrame();
+        assertNull(tiles.tile(diagonal));
+        assertNull(tiles.tile(above));
+        assertNull(tiles.tile(diagonal), "queued once");
+        awaitPool();
+
+        BufferedImage tile = tiles.tile(diagonal);
+        assertNotNull(tile);
+        assertEquals(PlotTiles.TILE_SIZE, tile.getWidth());
+        assertTrue(tile.getRGB(128, 128) >>> 24 > 0, "y = x crosses the middle of the tile");
+        assertEquals(0, tile.getRGB(200, 50) >>> 24, "and nothing else");
+        assertSame(PlotTiles.EMPTY, tiles.tile(above));
+        assertEquals(2, ready.get());
+        assertEquals(2, tiles.size());
+    }
+
+    @Test
+    void testTilesScrolledOutOfViewAreDropped() throws InterruptedException {
+        PlotTiles tiles = tiles("x^2");
+        CountDownLatch blocked = new CountDownLatch(1);
+        pool.execute(() -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        tiles.beginFrame();
+        tiles.tile(new TileKey(3, 0, 0));
+        tiles.beginFrame();
+        tiles.tile(new TileKey(3, 1, 0));
+        blocked.countDown();
+        awaitPool();
+
+        assertNull(tiles.cachedTile(new TileKey(3, 0, 0)));
+        assertNotNull(tiles.cachedTile(new TileKey(3, 1, 0)));
+        assertEquals(1, ready.get());
+    }
+
+    @Test
+    void testClosedTilesAreNotPublished() {
+        PlotTiles tiles = tiles("x");
+        tiles.beginFrame();
+        tiles.tile(new TileKey(0, 0, 0));
+        tiles.close();
+        awaitPool();
+
+        assertEquals(0, tiles.size());
+        assertEquals(0, ready.get());
+    }
+
+    private PlotTiles tiles(String source) {
+        return new PlotTiles(PlotFunction.parse(source), Color.BLUE, pool, Runnable::run, ready::incrementAndGet);
+    }
+
+    private void awaitPool() {
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,176 @@
+package com.kristijanpeshevski.calculator.replay;
+
+import com.kristijanpeshevski.calculator.engine.EvaluationScheduler;
+import com.kristijanpeshevski.calculator.engine.ExactNumber;
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.InputListener;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.util.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeystrokeReplayerTest {
+
+    private Path directory;
+    private CalculatorState state;
+    private KeystrokeLogWriter log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("keystrokes");
+        state = new CalculatorState();
+        log = new KeystrokeLogWriter();
+        state.setInputListener(new InputListener() {
+            @Override
+            public void keyPressed(Key key) {
+                log.key(key);
+            }
+
+            @Override
+            public void valueEntered(ExactNumber value) {
+                log.value(value);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void press(Key... keys) {
+        for (Key key : keys) {
+            state.press(key);
+        }
+    }
+
+    private ReplayResult replay() {
+        log.checkpoint(state.getDisplay());
+        return KeystrokeReplayer.replay("session", log.toByteArray());
+    }
+
+    @Test
+    void testReplayEndsOnTheRecordedDisplay() {
+        press(Key.DIGIT_1, Key.DIGIT_2, Key.POINT, Key.DIGIT_5, Key.MULTIPLY, Key.DIGIT_4, Key.EQUAL);
+        log.checkpoint(state.getDisplay());
+        press(Key.ROOT, Key.POWER, Key.DIGIT_3, Key.SUBTRACT, Key.DIGIT_7, Key.BACK, Key.DIGIT_9, Key.EQUAL, Key.DIGIT_8);
+
+        ReplayResult result = replay();
+        assertNull(result.getProblem());
+        assertEquals(16, result.getKeystrokes());
+        assertEquals(2, result.getCheckpoints());
+        assertEquals("8", result.getDisplay());
+    }
+
+    @Test
+    void testEnteredValuesKeepTheirKind() {
+        state.enter(ExactNumber.of(new BigDecimal("0.1000000000000000000000000000000000000001")));
+        press(Key.ADD);
+        state.enter(ExactNumber.of(Math.PI));
+        press(Key.MULTIPLY);
+        state.enter(ExactNumber.of(-123456789012L));
+        press(Key.EQUAL);
+
+        ReplayResult result = replay();
+        assertNull(result.getProblem());
+        assertEquals(state.getDisplay().toString(), result.getDisplay());
+    }
+
+    @Test
+    void testMismatchStopsTheReplay() {
+        press(Key.DIGIT_6, Key.MULTIPLY, Key.DIGIT_7, Key.EQUAL);
+        log.checkpoint("41");
+        press(Key.ADD, Key.DIGIT_1, Key.EQUAL);
+
+        ReplayResult result = replay();
+        assertFalse(result.isMatch());
+        assertEquals("checkpoint 1 after 4 keystrokes: expected 41, the display shows 42", result.getProblem());
+        assertEquals("42", result.getDisplay());
+    }
+
+    @Test
+    void testMalformedLogs() {
+        assertTrue(KeystrokeReplayer.replay("empty", new byte[0]).getProblem().startsWith("cannot replay byte 0: Not a keystroke log"));
+
+        press(Key.DIGIT_1, Key.DIGIT_2);
+        log.checkpoint(state.getDisplay());
+        byte[] bytes = log.toByteArray();
+        ReplayResult truncated = KeystrokeReplayer.replay("truncated", Arrays.copyOf(bytes, bytes.length - 1));
+        assertEquals("cannot replay byte 8: Truncated log", truncated.getProblem());
+        assertEquals(2, truncated.getKeystrokes());
+
+        bytes[KeystrokeLogWriter.HEADER.length] = 0x7F;
+        assertEquals("cannot replay byte 5: Unknown record 0x7f", KeystrokeReplayer.replay("unknown", bytes).getProblem());
+    }
+
+    @Test
+    void testCancelledKeysAreNotRecorded() throws InterruptedException {
+        LinkedBlockingQueue<Runnable> published = new LinkedBlockingQueue<>();
+        try (EvaluationScheduler scheduler = new EvaluationScheduler(VirtualThreads.newThreadPerTaskExecutor("test"),
+                published::add, EvaluationScheduler.DEFAULT_THRESHOLD)) {
+            state.setScheduler(scheduler);
+
+            press(Key.DIGIT_3, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.FACTORIAL, Key.MULTIPLY, Key.DIGIT_2, Key.EQUAL);
+            published.poll(10, TimeUnit.SECONDS).run();
+            assertFalse(state.isBusy());
+
+            press(Key.CLEAR, Key.DIGIT_4, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.DIGIT_0, Key.FACTORIAL, Key.ADD);
+            assertTrue(state.cancel());
+            press(Key.DIGIT_1, Key.EQUAL);
+        }
+
+        ReplayResult result = replay();
+        assertNull(result.getProblem());
+        assertEquals(17, result.getKeystrokes());
+        assertEquals("400001", result.getDisplay());
+    }
+
+    @Test
+    void testRecordedSessionsReplayInParallel() throws IOException {
+        for (int session = 0; session < 3; session++) {
+            try (KeystrokeRecorder recorder = new KeystrokeRecorder(directory.resolve("session-" + session + ".keys"), state.getDisplay())) {
+                state.setInputListener(recorder);
+                press(Key.CLEAR, Key.digit(session), Key.ADD, Key.DIGIT_9, Key.EQUAL, Key.MULTIPLY, Key.DIGIT_3);
+                recorder.checkpoint();
+            }
+        }
+        Files.write(directory.resolve("notes.txt"), Collections.singletonList("not a log"));
+
+        ReplayReport report = new KeystrokeReplayer(2).replay(listLogs(), 4);
+        assertEquals(3, report.getResults().size());
+        assertTrue(report.getMismatches().isEmpty());
+        assertEquals(3 * 7 * 4, report.getKeystrokes());
+        assertEquals("3", report.getResults().get(2).getDisplay());
+        assertEquals(2, report.getResults().get(2).getCheckpoints());
+        assertEquals(String.format("3 of 3 logs replayed as recorded%n"), report.summary());
+    }
+
+    private List<Path> listLogs() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(ReplayCommand.LOG_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.kristijanpeshevski.calculator.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluationServerTest {
+
+    private EvaluationServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new EvaluationServer(0, 0, new ServerLimits(2, 16, 8, 10_000, 64));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testPipelinedRequestsAreAnsweredInOrder() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort())) {
+            StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                requests.append(i).append(" * 3\n");
+            }
+            requests.append("1 +\r\n\n12345678901234567\n0.1 + 0.2\n1.1 * 1.1\n");
+            socket.getOutputStream().write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+
+            BufferedReader responses = reader(socket.getInputStream());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(String.valueOf(i * 3), responses.readLine());
+            }
+            assertEquals("Error: Unexpected end of expression at position 3", responses.readLine());
+            assertEquals("", responses.readLine());
+            assertEquals("Error: Request longer than 16 bytes", responses.readLine());
+            assertEquals("0.3", responses.readLine());
+            assertEquals("1.21", responses.readLine());
+        }
+        assertEquals(1005, server.getRequests());
+        assertEquals(2, server.getErrors());
+    }
+
+    @Test
+    void testTooDeeplyNestedRequestIsAnsweredWithAnError() throws IOException {
+        try (EvaluationServer deep = new EvaluationServer(0, 0, ServerLimits.DEFAULT)) {
+            deep.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), deep.getTcpPort())) {
+                String nested = "(".repeat(2000) + "1" + ")".repeat(2000);
+                socket.getOutputStream().write(("1 + 1\n" + nested + "\n2 * 3\n").getBytes(StandardCharsets.UTF_8));
+                socket.getOutputStream().flush();
+
+                BufferedReader responses = reader(socket.getInputStream());
+                assertEquals("2", responses.readLine());
+                assertTrue(responses.readLine().startsWith("Error: Expression nested too deeply"));
+                assertEquals("6", responses.readLine());
+            }
+            assertEquals(1, deep.getErrors());
+        }
+    }
+
+    @Test
+    void testConnectionsBeyondTheLimitAreRejected() throws IOException {
+        try (Socket first = connect(); Socket second = connect(); Socket third = connect()) {
+            assertEquals("3", request(first, "1 + 2"));
+            assertEquals("4", request(second, "2 + 2"));
+            assertEquals("Error: Too many connections", reader(third.getInputStream()).readLine());
+        }
+        assertEquals(1, server.getConnectionsRejected());
+    }
+
+    @Test
+    void testHttpEndpoint() throws IOException {
+        HttpURLConnection get = open("/calculate?expression=%E2%88%9A81%20*%202");
+        assertEquals(200, get.getResponseCode());
+        assertEquals("18", reader(get.getInputStream()).readLine());
+
+        HttpURLConnection invalid = open("/calculate?expression=2%2Bx");
+        assertEquals(400, invalid.getResponseCode());
+
+        HttpURLConnection post = open("/calculate");
+        post.setRequestMethod("POST");
+        post.setDoOutput(true);
+        try (OutputStream body = post.getOutputStream()) {
+            body.write("10 / 4\n2 ^ 10\n2 ^ 64\n".getBytes(StandardCharsets.UTF_8));
+        }
+        BufferedReader results = reader(post.getInputStream());
+        assertEquals("2.5", results.readLine());
+        assertEquals("1024", results.readLine());
+        assertEquals("18446744073709551616", results.readLine());
+
+        HttpURLConnection tooLarge = open("/calculate");
+        tooLarge.setRequestMethod("POST");
+        tooLarge.setDoOutput(true);
+        try (OutputStream body = tooLarge.getOutputStream()) {
+            body.write(new byte[100]);
+        }
+        assertEquals(413, tooLarge.getResponseCode());
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http", "127.0.0.1", server.getHttpPort(), path).openConnection();
+    }
+
+    private static String request(Socket socket, String expression) throws IOException {
+        socket.getOutputStream().write((expression + "\n").getBytes(StandardCharsets.UTF_8));
+        return reader(socket.getInputStream()).readLine();
+    }
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.kristijanpeshevski.calculator.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunningStatisticsTest {
+
+    @Test
+    void testSmallSample() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.addAll(new double[]{2, 4, 4, 4, 5, 5, 7, 9}, 0, 8);
+
+        assertEquals(8, statistics.getCount());
+        assertEquals(40, statistics.getSum());
+        assertEquals(5, statistics.getMean());
+        assertEquals(4, statistics.getPopulationVariance(), 1e-12);
+        assertEquals(32 / 7.0, statistics.getVariance(), 1e-12);
+        assertEquals(2, statistics.getMin());
+        assertEquals(9, statistics.getMax());
+    }
+
+    @Test
+    void testEmptyStatisticsAreNaN() {
+        RunningStatistics statistics = new RunningStatistics();
+
+        assertEquals(0, statistics.getSum());
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getMin()));
+        assertTrue(Double.isNaN(statistics.quantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> statistics.add(Double.NaN));
+    }
+
+    @Test
+    void testSumIsCompensated() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.add(1e16);
+        for (int i = 0; i < 1000; i++) {
+            statistics.add(1);
+        }
+        statistics.add(-1e16);
+
+        assertEquals(1000, statistics.getSum());
+    }
+
+    @Test
+    void testVarianceDoesNotCancelWithLargeOffset() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (int i = 0; i < 1000; i++) {
+            statistics.add(1e9 + (i % 2 == 0 ? 1 : -1));
+        }
+
+        assertEquals(1, statistics.getPopulationVariance(), 1e-9);
+    }
+
+    @Test
+    void testMergedPartsMatchOnePass() {
+        Random random = new Random(11);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 50 + 200;
+        }
+
+        RunningStatistics whole = new RunningStatistics();
+        whole.addAll(values, 0, values.length);
+        RunningStatistics merged = new RunningStatistics();
+        for (int from = 0; from < values.length; from += 7_919) {
+            RunningStatistics part = new RunningStatistics();
+            part.addAll(values, from, Math.min(7_919, values.length - from));
+            merged.merge(part);
+        }
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getSum(), merged.getSum(), 1e-6);
+        assertEquals(whole.getMean(), merged.getMean(), 1e-10);
+        assertEquals(whole.getVariance(), merged.getVariance(), 1e-8);
+        assertEquals(whole.getMin(), merged.getMin());
+        assertEquals(whole.getMax(), merged.getMax());
+        for (double q : new double[]{0.01, 0.5, 0.99}) {
+            assertEquals(whole.quantile(q), merged.quantile(q), "quantile " + q);
+        }
+    }
+
+    @Test
+    void testQuantilesAreWithinRelativeAccuracy() {
+        Random random = new Random(5);
+        double[] values = new double[200_001];
+        RunningStatistics statistics = new RunningStatistics();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 3) * (random.nextInt(4) == 0 ? -1 : 1);
+            statistics.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999}) {
+            double exact = values[(int) Math.round(q * (values.length - 1))];
+            double estimate = statistics.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= 0.0101 * Math.abs(exact),
+                    "quantile " + q + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(values[0], statistics.quantile(0));
+        assertEquals(values[values.length - 1], statistics.quantile(1));
+    }
+
+    @Test
+    void testSketchMemoryIsBounded() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 64);
+        for (int i = -300; i <= 300; i++) {
+            sketch.add(Math.pow(10, i));
+        }
+
+        assertTrue(sketch.getBucketCount() <= 64);
+        assertEquals(601, sketch.getCount());
+        double top = sketch.quantile(1);
+        assertTrue(Math.abs(top - 1e300) <= 0.01 * 1e300, "largest values stay accurate: " + top);
+    }
+}
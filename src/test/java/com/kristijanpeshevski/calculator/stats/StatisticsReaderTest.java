@@ -0,0 +1,85 @@
+package com.kristijanpeshevski.calculator.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatisticsReaderTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("statistics");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testCsvColumnAcrossChunksAndThreads() throws IOException {
+        StringBuilder csv = new StringBuilder("id,price\r\n");
+        for (int i = 1; i <= 10_000; i++) {
+            csv.append(i).append(", ").append(i % 100).append(".5\r\n");
+        }
+        csv.append("10001,n/a\n\n");
+        Path path = directory.resolve("prices.csv");
+        Files.write(path, csv.toString().getBytes(StandardCharsets.US_ASCII));
+
+        StatisticsReport report = new StatisticsReader(4, 2, 4096).read(path);
+        RunningStatistics statistics = report.getStatistics();
+
+        assertEquals(10_000, statistics.getCount());
+        assertEquals(1, report.getSkipped(), "n/a is skipped, the header is not counted");
+        assertEquals(50, statistics.getMean(), 1e-9);
+        assertEquals(0.5, statistics.getMin());
+        assertEquals(99.5, statistics.getMax());
+
+        RunningStatistics single = new StatisticsReader(1, 2, 1 << 20).read(path).getStatistics();
+        assertEquals(single.getSum(), statistics.getSum());
+        assertEquals(single.getVariance(), statistics.getVariance(), 1e-9);
+        assertEquals(single.getMedian(), statistics.getMedian());
+    }
+
+    @Test
+    void testRawDoubles() throws IOException {
+        ByteBuffer raw = ByteBuffer.allocate(1000 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 999; i++) {
+            raw.putDouble(i);
+        }
+        raw.putDouble(Double.NaN);
+        Path path = directory.resolve("values.bin");
+        Files.write(path, raw.array());
+
+        StatisticsReport report = new StatisticsReader(2, 1, 1 << 20).read(path);
+
+        assertEquals(999, report.getStatistics().getCount());
+        assertEquals(1, report.getSkipped());
+        assertEquals(498_501, report.getStatistics().getSum());
+        assertEquals(8000, report.getBytesRead());
+    }
+
+    @Test
+    void testParseTypedValues() {
+        StatisticsReport report = StatisticsReader.parse("1 2,3;\n4\t5e0 x");
+
+        assertEquals(5, report.getStatistics().getCount());
+        assertEquals(3, report.getStatistics().getMean());
+        assertEquals(1, report.getSkipped());
+    }
+}
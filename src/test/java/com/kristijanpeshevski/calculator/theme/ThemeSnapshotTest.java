@@ -0,0 +1,23 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ThemeSnapshotTest {
+
+    @Test
+    void testSnapshotMatchesApplicationYaml() throws IOException {
+        Map<String, Theme> yamlThemes;
+        try (InputStream in = ThemeLoader.class.getResourceAsStream(ThemeLoader.THEMES_RESOURCE)) {
+            yamlThemes = YamlThemeReader.read(in);
+        }
+
+        assertEquals(ThemeSnapshotGenerator.generate(yamlThemes), ThemeSnapshotGenerator.generate(BuiltInThemes.themes()));
+    }
+}
@@ -0,0 +1,138 @@
+package com.kristijanpeshevski.calculator.theme;
+
+import com.kristijanpeshevski.calculator.theme.properties.Theme;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThemeWatcherTest {
+
+    // JSON is also YAML.
+    private static final String MINT = "{\"name\": \"Mint\", \"applicationBackground\": \"f5fffa\", \"textColor\": \"%s\", "
+            + "\"btnEqualTextColor\": \"000000\", \"operatorBackground\": \"aaf0d1\", \"numbersBackground\": \"ffffff\", "
+            + "\"btnEqualBackground\": \"3eb489\"}";
+    private static final String DARK = "{\"name\": \"Dark\", \"applicationBackground\": \"000000\", \"textColor\": \"ffffff\", "
+            + "\"btnEqualTextColor\": \"ffffff\", \"operatorBackground\": \"2d3361\", \"numbersBackground\": \"363c47\", "
+            + "\"btnEqualBackground\": \"4ccfff\"}";
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("themes");
+        file = directory.resolve("application.yaml");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void writeThemes(String... themes) throws IOException {
+        Files.write(file, ("{\"themes\": [" + String.join(", ", themes) + "]}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Palette> palettes(Map<String, Theme> themes) {
+        Map<String, Palette> palettes = new LinkedHashMap<>();
+        themes.forEach((name, theme) -> palettes.put(name, Palette.of(theme)));
+        return palettes;
+    }
+
+    @Test
+    void testChangesBetweenThemes() throws IOException {
+        writeThemes(String.format(MINT, "000000"));
+        Map<String, Palette> before = palettes(ThemeLoader.loadThemes(file));
+
+        writeThemes(String.format(MINT, "112233"), DARK);
+        ThemeChanges changes = ThemeChanges.between(before, ThemeLoader.loadThemes(file));
+        assertEquals(EnumSet.of(ColorRole.TEXT), changes.getChangedRoles("Mint"));
+        assertEquals(EnumSet.of(ColorRole.APPLICATION_BACKGROUND), changes.getChangedRoles("Dark"));
+        assertTrue(changes.getChangedRoles("Light").isEmpty());
+        assertTrue(changes.getAdded().isEmpty());
+
+        Files.delete(file);
+        changes = ThemeChanges.between(changes.getPalettes(), ThemeLoader.loadThemes(file));
+        assertEquals(Collections.singletonList("Mint"), changes.getRemoved());
+        assertEquals(EnumSet.of(ColorRole.APPLICATION_BACKGROUND), changes.getChangedRoles("Dark"));
+        assertEquals(BuiltInThemes.themes().keySet(), changes.getThemes().keySet());
+
+        assertTrue(ThemeChanges.between(changes.getPalettes(), ThemeLoader.loadThemes(file)).isEmpty());
+    }
+
+    @Test
+    void testIncompleteThemesTakeTheMissingColorsFromBundledThemes() throws IOException {
+        writeThemes("{\"name\": \"Dark\", \"applicationBackground\": \"000000\"}", "{\"name\": \"Mint\", \"textColor\": \"112233\"}");
+        Map<String, Palette> palettes = palettes(ThemeLoader.loadThemes(file));
+        Map<String, Palette> bundled = palettes(BuiltInThemes.themes());
+
+        assertEquals(EnumSet.of(ColorRole.APPLICATION_BACKGROUND), palettes.get("Dark").differences(bundled.get("Dark")));
+        assertEquals(EnumSet.of(ColorRole.TEXT), palettes.get("Mint").differences(bundled.get("Light")));
+        for (ColorRole role : ColorRole.values()) {
+            assertNotNull(palettes.get("Dark").get(role), role.name());
+        }
+
+        writeThemes("{\"name\": \"Mint\", \"textColor\": \"green\"}");
+        IOException e = assertThrows(IOException.class, () -> ThemeLoader.loadThemes(file));
+        assertEquals("Theme Mint has an invalid TEXT color: green", e.getMessage());
+    }
+
+    @Test
+    void testSavesAreDebouncedIntoOneReload() throws IOException, InterruptedException {
+        LinkedBlockingQueue<ThemeChanges> published = new LinkedBlockingQueue<>();
+        try (ThemeWatcher watcher = new ThemeWatcher(file, ThemeLoader.loadThemes(file), Runnable::run, published::add)) {
+            assertTrue(watcher.awaitWatching(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 5; i++) {
+                writeThemes(String.format(MINT, "00000" + i));
+            }
+
+            // A reload between the saves would have published Mint with an earlier color first.
+            ThemeChanges changes = published.poll(10, TimeUnit.SECONDS);
+            assertEquals(Collections.singletonList("Mint"), changes.getAdded());
+            assertEquals("000004", text(changes, "Mint"));
+
+            int reloads = watcher.getReloads();
+            Files.write(file, "{\"themes\": [".getBytes(StandardCharsets.UTF_8));
+            awaitReloads(watcher, reloads + 1);
+
+            // Had the broken file been applied, Mint would come back as added rather than changed.
+            writeThemes(String.format(MINT, "00000f"));
+            changes = published.poll(10, TimeUnit.SECONDS);
+            assertTrue(changes.getAdded().isEmpty(), "a broken file keeps the themes");
+            assertEquals(EnumSet.of(ColorRole.TEXT), changes.getChangedRoles("Mint"));
+            assertEquals("00000f", text(changes, "Mint"));
+        }
+    }
+
+    private static String text(ThemeChanges changes, String theme) {
+        return String.format("%06x", changes.getPalettes().get(theme).get(ColorRole.TEXT).getRGB() & 0xFFFFFF);
+    }
+
+    private static void awaitReloads(ThemeWatcher watcher, int reloads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (watcher.getReloads() < reloads) {
+            assertTrue(System.nanoTime() < deadline, "the file was not reloaded");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.input.CalculatorState;
+import com.kristijanpeshevski.calculator.input.Key;
+import com.kristijanpeshevski.calculator.metrics.InteractionMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyboardInputTest {
+
+    private final CalculatorState state = new CalculatorState();
+    private JTextField screen;
+    private KeyboardInput keyboard;
+    private int documentChanges;
+
+    @BeforeEach
+    void setUp() {
+        screen = new JTextField();
+        keyboard = new KeyboardInput(state, new InputScreenUpdater(screen, state.getDisplay()), new InteractionMetrics());
+        screen.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent event) {
+                documentChanges++;
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent event) {
+                documentChanges++;
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent event) {
+                documentChanges++;
+            }
+        });
+    }
+
+    // Keyboard input is confined to the event dispatch thread, which also runs the flush it schedules.
+    @Test
+    void testKeysAreCoalescedIntoOneUpdate() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            for (char c : "123+4=".toCharArray()) {
+                keyboard.type(Key.forChar(c));
+            }
+            assertEquals(6, keyboard.pendingKeys());
+            assertEquals("0", screen.getText());
+
+            keyboard.flush();
+            assertEquals(0, keyboard.pendingKeys());
+            assertEquals("127", screen.getText());
+            assertEquals(2, documentChanges, "one remove and one insert");
+        });
+    }
+
+    @Test
+    void testPasteNumbers() {
+        assertTrue(keyboard.paste(" 1,234.5\n"));
+        assertEquals("1234.5", screen.getText());
+
+        assertTrue(keyboard.paste("-12.5"));
+        assertEquals("-12.5", screen.getText());
+
+        assertTrue(keyboard.paste("1'000'000"));
+        assertEquals("1000000", screen.getText());
+
+        assertTrue(keyboard.paste("2,5"));
+        assertEquals("2.5", screen.getText());
+
+        assertTrue(keyboard.paste("1,234"));
+        assertEquals("1234", screen.getText());
+    }
+
+    @Test
+    void testPasteExpressionIsEnteredAsValue() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            keyboard.type(Key.DIGIT_2);
+            keyboard.type(Key.ADD);
+            assertTrue(keyboard.paste("(2+3)*4 ="));
+            assertEquals("20", screen.getText());
+
+            keyboard.type(Key.EQUAL);
+            keyboard.flush();
+            assertEquals("22", screen.getText());
+        });
+    }
+
+    @Test
+    void testPasteExpressionIsExact() {
+        assertTrue(keyboard.paste("0.1+0.2"));
+        assertEquals("0.3", screen.getText());
+        assertEquals("0.3", state.getDisplay().exactValue().toString());
+
+        assertTrue(keyboard.paste("2^64 + 1"));
+        assertEquals("18446744073709551617", state.getDisplay().exactValue().toString());
+    }
+
+    @Test
+    void testInvalidPasteIsRejected() {
+        assertFalse(keyboard.paste("abc"));
+        assertFalse(keyboard.paste(""));
+        assertFalse(keyboard.paste("1/0"));
+        assertFalse(keyboard.paste("1.2.3"));
+        assertFalse(keyboard.paste("(".repeat(5000) + "1" + ")".repeat(5000)));
+        assertEquals("0", screen.getText());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("1234567", KeyboardInput.normalize("1,234,567"));
+        assertEquals("3.14", KeyboardInput.normalize("3,14"));
+        assertEquals("1234", KeyboardInput.normalize("1,234"));
+        assertEquals("999000", KeyboardInput.normalize("999,000"));
+        assertEquals("0.125", KeyboardInput.normalize("0,125"));
+        assertEquals("1234.567", KeyboardInput.normalize("1234,567"));
+        assertEquals("1.2345", KeyboardInput.normalize("1,2345"));
+        assertEquals("2*3-1", KeyboardInput.normalize("2 × 3 − 1 ="));
+        assertEquals("1000", KeyboardInput.normalize("1_000"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.kristijanpeshevski.calculator.ui;
+
+import com.kristijanpeshevski.calculator.input.Key;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.accessibility.AccessibleContext;
+import javax.accessibility.AccessibleRole;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeypadTest {
+
+    @Test
+    void testHitTestingFollowsLayout() {
+        Keypad keypad = new Keypad();
+
+        assertEquals(Key.CLEAR, keypad.keyAt(0, 0));
+        assertEquals(Key.DIGIT_5, keypad.keyAt(Keypad.COLUMN_PITCH + 40, 2 * Keypad.ROW_PITCH + 35));
+        assertNull(keypad.keyAt(Keypad.KEY_WIDTH + 5, 10), "gap between keys");
+        assertEquals(Key.EQUAL, keypad.keyAt(2 * Keypad.COLUMN_PITCH + Keypad.KEY_WIDTH + 5, 4 * Keypad.ROW_PITCH + 10),
+                "equals spans two columns");
+        assertNull(keypad.keyAt(4 * Keypad.COLUMN_PITCH + 10, 10), "scientific column is hidden");
+
+        keypad.setScientific(true);
+        assertEquals(Key.ROOT, keypad.keyAt(4 * Keypad.COLUMN_PITCH + 10, 10));
+        assertEquals(5 * Keypad.COLUMN_PITCH - 10, keypad.getWidth());
+    }
+
+    @Test
+    void testKeyboardMovesFocusAndPresses() {
+        Keypad keypad = new Keypad();
+        List<Key> pressed = record(keypad);
+
+        perform(keypad, "focusDown");
+        perform(keypad, "focusRight");
+        perform(keypad, "pressFocused");
+        perform(keypad, "focusDown");
+        perform(keypad, "focusDown");
+        perform(keypad, "focusDown");
+        perform(keypad, "focusRight");
+        perform(keypad, "focusRight");
+        perform(keypad, "pressFocused");
+
+        assertEquals(List.of(Key.DIGIT_8, Key.EQUAL), pressed);
+        assertEquals(Key.EQUAL, keypad.getFocusedKey());
+    }
+
+    @Test
+    void testKeysAreAccessibleButtons() {
+        Keypad keypad = new Keypad();
+        List<Key> pressed = record(keypad);
+        AccessibleContext context = keypad.getAccessibleContext();
+
+        assertEquals(19, context.getAccessibleChildrenCount());
+        keypad.setScientific(true);
+        assertEquals(24, context.getAccessibleChildrenCount());
+
+        AccessibleContext root = null;
+        for (int i = 0; i < context.getAccessibleChildrenCount(); i++) {
+            AccessibleContext child = context.getAccessibleChild(i).getAccessibleContext();
+            assertEquals(AccessibleRole.PUSH_BUTTON, child.getAccessibleRole());
+            assertEquals(i, child.getAccessibleIndexInParent());
+            if ("Square root".equals(child.getAccessibleName()))
+                root = child;
+        }
+        assertTrue(root.getAccessibleAction().doAccessibleAction(0));
+        assertEquals(List.of(Key.ROOT), pressed);
+        assertEquals(Keypad.boundsOf(Key.ROOT), root.getAccessibleComponent().getBounds());
+
+        keypad.setScientific(false);
+        assertFalse(root.getAccessibleAction().doAccessibleAction(0));
+    }
+
+    private static List<Key> record(Keypad keypad) {
+        List<Key> pressed = new ArrayList<>();
+        for (Key key : Key.values()) {
+            keypad.setAction(key, event -> pressed.add(Key.valueOf(event.getActionCommand())));
+        }
+        return pressed;
+    }
+
+    private static void perform(Keypad keypad, String action) {
+        keypad.getActionMap().get(action).actionPerformed(null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.kristijanpeshevski.calculator.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoubleFormatterTest {
+
+    private final DoubleFormatter formatter = new DoubleFormatter();
+
+    @ParameterizedTest
+    @CsvSource({"8,8", "-6,-6", "0.1,0.1", "445,445", "2147483648,2147483648", "9007199254740993,9007199254740992",
+            "1e15,1000000000000000", "1e16,1E16", "1.5e20,1.5E20", "0.0001,0.0001", "1e-7,0.0000001", "2.5e-9,2.5E-9",
+            "-0.0,0", "9.223372036854776E18,9.223372036854776E18", "4.9e-324,5E-324"})
+    void testFormat(double value, String expected) {
+        assertEquals(expected, formatter.format(value));
+    }
+
+    @Test
+    void testSpecialValues() {
+        assertEquals("0.30000000000000004", formatter.format(0.1 + 0.2));
+        assertEquals("NaN", formatter.format(Double.NaN));
+        assertEquals("-Infinity", formatter.format(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void testSignificantDigitsAndNotationAreConfigurable() {
+        DoubleFormatter threeDigits = new DoubleFormatter(3, -3, 6);
+
+        assertEquals("0.333", threeDigits.format(1.0 / 3));
+        assertEquals("1.23E6", threeDigits.format(1234567));
+        assertEquals("1E-4", threeDigits.format(0.0001));
+    }
+
+    @Test
+    void testWritesIntoBufferAtOffset() {
+        char[] buffer = new char[formatter.maxLength() + 2];
+        buffer[0] = '[';
+
+        int length = formatter.format(-12.5, buffer, 1);
+        assertEquals("[-12.5", new String(buffer, 0, length + 1));
+    }
+
+    @Test
+    void testRandomValuesRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value))
+                continue;
+
+            assertEquals(value, Double.parseDouble(formatter.format(value)));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.kristijanpeshevski.calculator.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = (long) (percentile * 1000);
+            long reported = histogram.percentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.04, percentile + "% reported " + reported);
+        }
+        assertEquals(100_000, histogram.percentile(100));
+    }
+
+    @Test
+    void testBucketsCoverTheLongRange() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 1000, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    void testAddMergesCounts() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(1000);
+        first.add(second);
+
+        assertEquals(2, first.getCount());
+        assertEquals(1000, first.getMax());
+        assertEquals(10, first.percentile(50));
+    }
+}
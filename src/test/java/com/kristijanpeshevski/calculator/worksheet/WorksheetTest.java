@@ -0,0 +1,160 @@
+package com.kristijanpeshevski.calculator.worksheet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorksheetTest {
+
+    @Test
+    void testEditRecomputesDependentsInOrder() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("price", "200");
+        worksheet.set("rate", "0.05");
+        worksheet.set("tax", "price * rate");
+        worksheet.set("total", "price + tax");
+        worksheet.set("unrelated", "1 + 1");
+        assertEquals(210, worksheet.value("total"), 1e-9);
+
+        List<Cell> recomputed = worksheet.set("rate", "0.1");
+
+        assertEquals(List.of("rate", "tax", "total"), names(recomputed));
+        assertEquals(220, worksheet.value("total"), 1e-9);
+    }
+
+    @Test
+    void testDiamondEvaluatesSharedDependentOnce() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("a", "1");
+        worksheet.set("b", "a * 2");
+        worksheet.set("c", "a * 3");
+        worksheet.set("d", "b + c");
+
+        List<Cell> recomputed = worksheet.set("a", "2");
+
+        assertEquals(4, recomputed.size());
+        assertEquals("d", recomputed.get(3).getName());
+        assertEquals(10, worksheet.value("d"), 1e-9);
+    }
+
+    @Test
+    void testCycleIsReportedAndRecovers() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("a", "b + 1");
+        worksheet.set("b", "c + 1");
+        worksheet.set("c", "a + 1");
+        worksheet.set("d", "c * 2");
+
+        for (String name : List.of("a", "b", "c", "d")) {
+            assertEquals(Worksheet.CIRCULAR_REFERENCE, worksheet.get(name).getError());
+            assertTrue(Double.isNaN(worksheet.value(name)));
+        }
+
+        worksheet.set("c", "5");
+
+        assertNull(worksheet.get("a").getError());
+        assertEquals(7, worksheet.value("a"), 1e-9);
+        assertEquals(10, worksheet.value("d"), 1e-9);
+    }
+
+    @Test
+    void testSelfReferenceIsCircular() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("x", "x + 1");
+
+        assertEquals(Worksheet.CIRCULAR_REFERENCE, worksheet.get("x").getError());
+    }
+
+    @Test
+    void testUndefinedReferenceBecomesPlaceholder() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("area", "width * height");
+        worksheet.set("width", "3");
+
+        assertFalse(worksheet.get("height").isDefined());
+        assertTrue(Double.isNaN(worksheet.value("area")));
+        assertTrue(worksheet.get("area").getError().contains("height"));
+
+        worksheet.set("height", "4");
+
+        assertEquals(12, worksheet.value("area"), 1e-9);
+        assertNull(worksheet.get("area").getError());
+    }
+
+    @Test
+    void testParseErrorIsKeptOnCell() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("a", "1 +");
+        worksheet.set("b", "a + 1");
+
+        assertEquals("Unexpected end of expression at position 3", worksheet.get("a").getError());
+        assertTrue(Double.isNaN(worksheet.value("b")));
+    }
+
+    @Test
+    void testRemoveKeepsPlaceholderWhileReferenced() {
+        Worksheet worksheet = new Worksheet();
+        worksheet.set("a", "1");
+        worksheet.set("b", "a + 1");
+        worksheet.set("c", "2");
+
+        worksheet.remove("c");
+        assertNull(worksheet.get("c"));
+
+        worksheet.remove("a");
+        assertFalse(worksheet.get("a").isDefined());
+        assertTrue(Double.isNaN(worksheet.value("b")));
+
+        worksheet.set("b", "3");
+        assertNull(worksheet.get("a"));
+        assertEquals(1, worksheet.size());
+    }
+
+    @Test
+    void testInvalidNamesAreRejected() {
+        Worksheet worksheet = new Worksheet();
+
+        assertThrows(IllegalArgumentException.class, () -> worksheet.set("pi", "3"));
+        assertThrows(IllegalArgumentException.class, () -> worksheet.set("2x", "3"));
+        assertThrows(IllegalArgumentException.class, () -> worksheet.set("a b", "3"));
+        assertEquals(0, worksheet.size());
+    }
+
+    @Test
+    void testWideLevelIsEvaluatedInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Worksheet worksheet = new Worksheet(pool);
+            Map<String, String> formulas = new LinkedHashMap<>();
+            formulas.put("base", "1");
+            for (int i = 0; i < 5000; i++) {
+                formulas.put("cell" + i, "base * " + i);
+                formulas.put("sum" + i, "cell" + i + " + base");
+            }
+            worksheet.setAll(formulas);
+
+            List<Cell> recomputed = worksheet.set("base", "2");
+
+            assertEquals(10001, recomputed.size());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals(2.0 * i + 2, worksheet.value("sum" + i), 1e-9);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<String> names(List<Cell> cells) {
+        return cells.stream().map(Cell::getName).collect(Collectors.toList());
+    }
+}
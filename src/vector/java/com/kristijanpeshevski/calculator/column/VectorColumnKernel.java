@@ -0,0 +1,82 @@
+package com.kristijanpeshevski.calculator.column;
+
+import com.kristijanpeshevski.calculator.engine.CalculatorEngine;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * Compiled separately with JDK 17+ and --add-modules jdk.incubator.vector; see ColumnKernels. Only + - * /
+ * use SIMD lanes, because they round exactly like the scalar operators; % and ^ have no lane-wise equivalent
+ * that matches CalculatorEngine bit for bit, so they run the scalar loops. The operator is switched on outside
+ * the loops so every lane operation is a constant the JIT can intrinsify.
+ */
+public final class VectorColumnKernel implements ColumnKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public void calculate(double[] firstNumbers, double[] secondNumbers, char operator, double[] results, int length) {
+        int step = SPECIES.length();
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        switch (operator) {
+            case CalculatorEngine.ADD:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i)
+                            .add(DoubleVector.fromArray(SPECIES, secondNumbers, i)).intoArray(results, i);
+                break;
+            case CalculatorEngine.SUBTRACT:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i)
+                            .sub(DoubleVector.fromArray(SPECIES, secondNumbers, i)).intoArray(results, i);
+                break;
+            case CalculatorEngine.MULTIPLY:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i)
+                            .mul(DoubleVector.fromArray(SPECIES, secondNumbers, i)).intoArray(results, i);
+                break;
+            case CalculatorEngine.DIVIDE:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i)
+                            .div(DoubleVector.fromArray(SPECIES, secondNumbers, i)).intoArray(results, i);
+                break;
+            default:
+                break;
+        }
+        CalculatorEngine.calculate(firstNumbers, i, secondNumbers, i, operator, results, i, length - i);
+    }
+
+    @Override
+    public void calculate(double[] firstNumbers, double secondNumber, char operator, double[] results, int length) {
+        DoubleVector second = DoubleVector.broadcast(SPECIES, secondNumber);
+        int step = SPECIES.length();
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        switch (operator) {
+            case CalculatorEngine.ADD:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i).add(second).intoArray(results, i);
+                break;
+            case CalculatorEngine.SUBTRACT:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i).sub(second).intoArray(results, i);
+                break;
+            case CalculatorEngine.MULTIPLY:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i).mul(second).intoArray(results, i);
+                break;
+            case CalculatorEngine.DIVIDE:
+                for (; i < bound; i += step)
+                    DoubleVector.fromArray(SPECIES, firstNumbers, i).div(second).intoArray(results, i);
+                break;
+            default:
+                break;
+        }
+        CalculatorEngine.calculate(firstNumbers, i, secondNumber, operator, results, i, length - i);
+    }
+}